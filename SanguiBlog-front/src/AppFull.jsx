@@ -12,6 +12,7 @@ import {
     fetchArchiveMonth,
     fetchMyPermissions,
     fetchUnreadNotifications,
+    openNotificationStream,
     fetchNotificationHistory,
     backfillNotifications,
     markNotificationRead,
@@ -87,11 +88,14 @@ export default function SanGuiBlog({ initialView = 'home', initialArticleId = nu
         article,
         articleState,
         comments,
+        commentsPage,
         recentComments,
         about,
         loadMeta,
         loadPosts,
         loadArticle,
+        loadMoreComments,
+        loadMoreReplies,
         loadAbout,
         submitComment,
         removeComment,
@@ -806,7 +810,7 @@ export default function SanGuiBlog({ initialView = 'home', initialArticleId = nu
 
     useEffect(() => {
         if (commentNotificationTimerRef.current) {
-            clearInterval(commentNotificationTimerRef.current);
+            clearTimeout(commentNotificationTimerRef.current);
             commentNotificationTimerRef.current = null;
         }
         if (!user) {
@@ -817,18 +821,56 @@ export default function SanGuiBlog({ initialView = 'home', initialArticleId = nu
             setCommentNotificationLoading(false);
             return;
         }
-        loadUnreadNotifications();
         loadNotificationHistory(1, false);
-        commentNotificationTimerRef.current = setInterval(() => {
-            loadUnreadNotifications();
-        }, 60000);
+
+        // 通过 SSE 接收未读数与新通知；连接失败时先轮询一次再按退避重连
+        const controller = new AbortController();
+        let stopped = false;
+        let retryDelay = 5000;
+        const scheduleReconnect = (delay) => {
+            if (stopped) return;
+            commentNotificationTimerRef.current = setTimeout(connect, delay);
+        };
+        const connect = async () => {
+            if (stopped) return;
+            try {
+                await openNotificationStream({
+                    signal: controller.signal,
+                    onUnread: (unread) => {
+                        retryDelay = 5000;
+                        setCommentNotificationUnread(unread);
+                    },
+                    onNotification: (item, unread) => {
+                        if (typeof unread === 'number') setCommentNotificationUnread(unread);
+                        if (!item) return;
+                        setCommentNotifications((prev) => [
+                            { ...item, avatar: normalizeAvatarPath(item.avatar) },
+                            ...prev.filter((n) => n.id !== item.id),
+                        ]);
+                        setCommentNotificationTotal((prev) => prev + 1);
+                        setNotificationCanBackfill(false);
+                    },
+                });
+                scheduleReconnect(1000);
+            } catch (e) {
+                if (stopped || e?.name === 'AbortError') return;
+                if (e?.status === 401 || e?.status === 403) return;
+                logger.warn('notification stream failed', e);
+                loadUnreadNotifications();
+                scheduleReconnect(retryDelay);
+                retryDelay = Math.min(retryDelay * 2, 60000);
+            }
+        };
+        connect();
         return () => {
+            stopped = true;
+            controller.abort();
             if (commentNotificationTimerRef.current) {
-                clearInterval(commentNotificationTimerRef.current);
+                clearTimeout(commentNotificationTimerRef.current);
                 commentNotificationTimerRef.current = null;
             }
         };
-    }, [user, loadUnreadNotifications, loadNotificationHistory]);
+    }, [user, loadUnreadNotifications, loadNotificationHistory, normalizeAvatarPath]);
 
     const handleNotificationToggle = useCallback(() => {
         if (!user) {
@@ -918,8 +960,11 @@ export default function SanGuiBlog({ initialView = 'home', initialArticleId = nu
             const top = rect.top + offset - 120; // offset for fixed nav
             window.scrollTo({ top: top > 0 ? top : 0, behavior: 'smooth' });
             setCommentAnchorId(null);
+        } else if (commentsPage?.hasMore && articleId) {
+            // 目标评论还不在已加载的楼层里，继续向后翻页直到找到或没有更多
+            loadMoreComments(articleId);
         }
-    }, [comments, commentAnchorId, view]);
+    }, [comments, commentsPage, commentAnchorId, view, articleId, loadMoreComments]);
 
     useEffect(() => {
         const previousView = lastViewRef.current;
@@ -1425,6 +1470,9 @@ export default function SanGuiBlog({ initialView = 'home', initialArticleId = nu
                         isDarkMode={isDarkMode}
                         articleData={article}
                         commentsData={comments}
+                        commentsPage={commentsPage}
+                        onLoadMoreComments={() => loadMoreComments && articleId && loadMoreComments(articleId)}
+                        onLoadMoreReplies={(rootId) => loadMoreReplies && articleId && loadMoreReplies(articleId, rootId)}
                         visitId={articleVisitId}
                         onSubmitComment={(payload) => submitComment && articleId && submitComment(articleId, payload)}
                         onDeleteComment={(commentId) => removeComment && articleId && removeComment(articleId, commentId)}
@@ -1,5 +1,5 @@
 import logger from "./utils/logger.js";
-import { consumeSseStream } from "./utils/aiStream.js";
+import { consumeSseStream, parseSseBlocks } from "./utils/aiStream.js";
 import { getRedirectSourceMeta } from "./utils/analyticsReferrer.js";
 
 // 这是本机测试的 API_BASE
@@ -80,6 +80,7 @@ const SILENT_AUTH_PATHS = [
   "/analytics/page-view",
   "/analytics/client-ip",
   "/analytics/visit/",
+  "/analytics/batch",
 ];
 
 const shouldSilentAuthNotice = (path = "") =>
@@ -460,50 +461,94 @@ export const fetchPostDetail = (id, options = {}) => {
   if (visitId) {
     headers[ANALYTICS_VISIT_ID_HEADER] = encodeURIComponent(visitId);
   }
-  return request(`/posts/${id}`, { headers });
+  const query = options && options.content === false ? "?content=false" : "";
+  return request(`/posts/${id}${query}`, { headers });
 };
 
-export const fetchPostNeighbors = (id) => request(`/posts/${id}/neighbors`);
-
-export const startArticleVisit = (payload) =>
-  request("/analytics/visit/start", {
-    method: "POST",
-    body: JSON.stringify(payload || {}),
-  }).catch(() => {
-    // swallow tracking errors：埋点失败不得影响文章浏览
-  });
+// 正文载荷按版本号长期缓存（服务端预压缩），版本变化时 URL 随之变化
+export const fetchPostContent = (id, version) => {
+  const query = version ? `?v=${encodeURIComponent(version)}` : "";
+  return request(`/posts/${id}/content${query}`);
+};
 
-export const heartbeatArticleVisit = (payload) =>
-  request("/analytics/visit/heartbeat", {
-    method: "POST",
-    body: JSON.stringify(payload || {}),
-  }).catch(() => {
-    // swallow tracking errors
-  });
+export const fetchPostNeighbors = (id) => request(`/posts/${id}/neighbors`);
 
-export const endArticleVisit = (payload, options = {}) => {
-  const body = JSON.stringify(payload || {});
+// ---- 访问生命周期埋点：合并为 /analytics/batch 批量上报 ----
+// start/end 等关键事件 1 秒内合并发送（路由切换时上一页的 end 与下一页的 start 合并为一次请求）；
+// 心跳最多攒 25 秒再发（小于服务端在线人数 45 秒 TTL）；页面隐藏/关闭时用 sendBeacon 立即发送。
+const ANALYTICS_BATCH_PATH = "/analytics/batch";
+const ANALYTICS_BATCH_DELAY_MS = 1000;
+const ANALYTICS_HEARTBEAT_FLUSH_MS = 25000;
+const ANALYTICS_BATCH_MAX_EVENTS = 50;
+const analyticsBatch = { events: [], timer: null, dueAt: 0 };
+
+export const flushAnalyticsEvents = (options = {}) => {
+  if (analyticsBatch.timer) {
+    clearTimeout(analyticsBatch.timer);
+    analyticsBatch.timer = null;
+  }
+  const events = analyticsBatch.events.splice(0, analyticsBatch.events.length);
+  if (!events.length) return Promise.resolve();
+  const body = JSON.stringify({ events });
   const useBeacon = options && options.beacon && typeof navigator !== "undefined" && typeof navigator.sendBeacon === "function";
   if (useBeacon) {
     try {
       // sendBeacon 要求 payload 为 Blob/FormData/string；此处发送 text/plain 的 JSON 字符串，
-      // 后端 /api/analytics/visit/end 同时接受 application/json 与 text/plain。
+      // 后端 /api/analytics/batch 同时接受 application/json 与 text/plain。
       const blob = new Blob([body], { type: "text/plain;charset=UTF-8" });
-      const ok = navigator.sendBeacon(`${API_BASE}/analytics/visit/end`, blob);
-      if (ok) return Promise.resolve({ success: true, message: "ok", data: null });
+      const ok = navigator.sendBeacon(`${API_BASE}${ANALYTICS_BATCH_PATH}`, blob);
+      if (ok) return Promise.resolve();
       // sendBeacon 失败（如队列满）则回退到普通请求
     } catch {
       // ignore beacon failure, fallback below
     }
   }
-  return request("/analytics/visit/end", {
+  return request(ANALYTICS_BATCH_PATH, {
     method: "POST",
     body,
+    keepalive: Boolean(options && options.beacon),
   }).catch(() => {
-    // swallow tracking errors
+    // swallow tracking errors：埋点失败不得影响页面浏览
   });
 };
 
+const scheduleAnalyticsFlush = (delayMs) => {
+  if (typeof window === "undefined") {
+    flushAnalyticsEvents();
+    return;
+  }
+  const dueAt = Date.now() + delayMs;
+  if (analyticsBatch.timer && analyticsBatch.dueAt <= dueAt) return;
+  if (analyticsBatch.timer) clearTimeout(analyticsBatch.timer);
+  analyticsBatch.dueAt = dueAt;
+  analyticsBatch.timer = setTimeout(() => {
+    analyticsBatch.timer = null;
+    flushAnalyticsEvents();
+  }, delayMs);
+};
+
+const enqueueAnalyticsEvent = (type, data, delayMs = ANALYTICS_BATCH_DELAY_MS) => {
+  analyticsBatch.events.push({ type, data: data || {} });
+  if (analyticsBatch.events.length >= ANALYTICS_BATCH_MAX_EVENTS) {
+    return flushAnalyticsEvents();
+  }
+  scheduleAnalyticsFlush(delayMs);
+  return Promise.resolve();
+};
+
+export const startArticleVisit = (payload) => enqueueAnalyticsEvent("visit-start", payload);
+
+export const heartbeatArticleVisit = (payload) =>
+  enqueueAnalyticsEvent("visit-heartbeat", payload, ANALYTICS_HEARTBEAT_FLUSH_MS);
+
+export const endArticleVisit = (payload, options = {}) => {
+  enqueueAnalyticsEvent("visit-end", payload);
+  if (options && options.beacon) {
+    return flushAnalyticsEvents({ beacon: true });
+  }
+  return Promise.resolve();
+};
+
 export const login = (username, password, captcha) =>
   request("/auth/login", {
     method: "POST",
@@ -566,7 +611,22 @@ export const adminFetchLatestRegistrationInvite = () =>
 
 export const fetchCurrentUser = () => request("/auth/me");
 
-export const fetchComments = (postId) => request(`/posts/${postId}/comments`);
+export const fetchCommentThreads = (postId, { cursor, size, replies } = {}) => {
+  const search = new URLSearchParams();
+  if (cursor) search.append("cursor", cursor);
+  if (size) search.append("size", size);
+  if (replies !== undefined && replies !== null) search.append("replies", replies);
+  const query = search.toString() ? `?${search.toString()}` : "";
+  return request(`/posts/${postId}/comments/threads${query}`);
+};
+
+export const fetchCommentReplies = (postId, commentId, { cursor, size } = {}) => {
+  const search = new URLSearchParams();
+  if (cursor) search.append("cursor", cursor);
+  if (size) search.append("size", size);
+  const query = search.toString() ? `?${search.toString()}` : "";
+  return request(`/posts/${postId}/comments/${commentId}/replies${query}`);
+};
 
 export const fetchRecentComments = (size = 5) => {
   const search = new URLSearchParams();
@@ -582,6 +642,44 @@ export const fetchUnreadNotifications = (limit = 20) => {
   return request(`/notifications/unread${query}`);
 };
 
+// 评论通知 SSE 推送：连接建立后先收到 unread 事件，之后收到 notification / unread 事件；连接结束时 resolve
+export const openNotificationStream = async ({ onUnread, onNotification, signal }) => {
+  const token = getStoredToken();
+  if (!token || isTokenExpired(token)) {
+    const error = new Error("未登录");
+    error.status = 401;
+    throw error;
+  }
+  const res = await fetch(`${API_BASE}/notifications/stream`, {
+    headers: {
+      ...buildHeaders(),
+      Accept: "text/event-stream",
+    },
+    signal,
+  });
+  if (!res.ok || !res.body) {
+    const error = new Error(res.statusText || "通知推送不可用");
+    error.status = res.status;
+    throw error;
+  }
+  const reader = res.body.getReader();
+  const decoder = new TextDecoder("utf-8");
+  let buffer = "";
+  const handleEvent = (event, data) => {
+    if (event === "unread") {
+      onUnread?.(typeof data?.unread === "number" ? data.unread : 0);
+    } else if (event === "notification") {
+      onNotification?.(data?.item || null, typeof data?.unread === "number" ? data.unread : null);
+    }
+  };
+  while (true) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+    buffer = parseSseBlocks(buffer, handleEvent);
+  }
+};
+
 export const markNotificationRead = (id) =>
   request(`/notifications/${id}/read`, {
     method: "POST",
@@ -834,6 +932,43 @@ export const adminFetchAnalyticsSummary = (params = {}) => {
   return request(`/admin/analytics/summary${query}`);
 };
 
+export const adminFetchPresence = () => request("/admin/analytics/presence");
+
+export const adminFetchLiveVisits = (limit = 30) =>
+  request(`/admin/analytics/live?limit=${encodeURIComponent(limit)}`);
+
+// 后台最近访问实时推送：连接时收到一次 snapshot，之后逐条收到 visit；503 时调用方回退到 adminFetchLiveVisits 轮询。
+export const openLiveVisitStream = async ({ onSnapshot, onVisit, signal }) => {
+  const res = await fetch(`${API_BASE}/admin/analytics/live/stream`, {
+    headers: {
+      ...buildHeaders(),
+      Accept: "text/event-stream",
+    },
+    signal,
+  });
+  if (!res.ok || !res.body) {
+    const error = new Error(res.statusText || "实时访问推送不可用");
+    error.status = res.status;
+    throw error;
+  }
+  const reader = res.body.getReader();
+  const decoder = new TextDecoder("utf-8");
+  let buffer = "";
+  const handleEvent = (event, data) => {
+    if (event === "snapshot") {
+      onSnapshot?.(Array.isArray(data) ? data : []);
+    } else if (event === "visit") {
+      onVisit?.(data || null);
+    }
+  };
+  while (true) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+    buffer = parseSseBlocks(buffer, handleEvent);
+  }
+};
+
 export const adminFetchPageViewLogs = (params = {}) => {
   const search = new URLSearchParams();
   if (params.page) search.append("page", params.page);
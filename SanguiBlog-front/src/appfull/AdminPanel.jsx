@@ -25,6 +25,9 @@ import {
     adminFetchRoles,
     adminFetchAnalyticsSummary,
     adminFetchPageViewLogs,
+    adminFetchPresence,
+    adminFetchLiveVisits,
+    openLiveVisitStream,
     adminDeletePageViewLog,
     adminDeletePageViewLogs,
     adminFetchPageViewLogDetail,
@@ -117,6 +120,9 @@ const formatBgClassFromHex = (hex) => {
     return `bg-[${normalized}]`;
 };
 
+// 后台“最近访问（实时）”保留的条数，与接口默认快照大小一致
+const LIVE_VISIT_LIMIT = 30;
+
 const REGISTRATION_INVITE_DURATION_OPTIONS = [
     { code: 'MINUTES_5', label: '5分钟' },
     { code: 'HOURS_1', label: '1小时' },
@@ -1339,6 +1345,8 @@ const AnalyticsView = ({ isDarkMode, user }) => {
     const [banSubmitting, setBanSubmitting] = useState(false);
     const [filtersDraft, setFiltersDraft] = useState(() => buildInitialFiltersDraft());
     const [filtersApplied, setFiltersApplied] = useState({});
+    const [presence, setPresence] = useState(null);
+    const [liveVisits, setLiveVisits] = useState([]);
     const startDateInputRef = useRef(null);
     const endDateInputRef = useRef(null);
     const isSuperAdmin = user?.role === 'SUPER_ADMIN';
@@ -1362,6 +1370,77 @@ const AnalyticsView = ({ isDarkMode, user }) => {
         };
     }, []);
 
+    // 在线人数来自服务端内存计数，读取不访问数据库，可按心跳周期刷新
+    useEffect(() => {
+        let cancelled = false;
+        const loadPresence = async () => {
+            try {
+                const res = await adminFetchPresence();
+                if (!cancelled) setPresence(res?.data || res || null);
+            } catch (err) {
+                logger.warn('获取在线人数失败', err);
+            }
+        };
+        loadPresence();
+        const timer = setInterval(loadPresence, 15000);
+        return () => {
+            cancelled = true;
+            clearInterval(timer);
+        };
+    }, []);
+
+    // 最近访问通过 SSE 实时推送：连接时收到一次快照，之后逐条追加；连接失败（含 503 连接数超限）时先拉一次快照再按退避重连
+    useEffect(() => {
+        const controller = new AbortController();
+        let stopped = false;
+        let retryDelay = 5000;
+        let timer = null;
+        const scheduleReconnect = (delay) => {
+            if (stopped) return;
+            timer = setTimeout(connect, delay);
+        };
+        const loadSnapshot = async () => {
+            try {
+                const res = await adminFetchLiveVisits(LIVE_VISIT_LIMIT);
+                const data = res?.data || res;
+                if (!stopped && Array.isArray(data)) setLiveVisits(data);
+            } catch (err) {
+                logger.warn('获取最近访问失败', err);
+            }
+        };
+        const connect = async () => {
+            if (stopped) return;
+            try {
+                await openLiveVisitStream({
+                    signal: controller.signal,
+                    onSnapshot: (items) => {
+                        retryDelay = 5000;
+                        setLiveVisits(items.slice(0, LIVE_VISIT_LIMIT));
+                    },
+                    onVisit: (visit) => {
+                        if (!visit) return;
+                        setLiveVisits((prev) => [visit, ...prev.filter((item) => item.id !== visit.id)]
+                            .slice(0, LIVE_VISIT_LIMIT));
+                    },
+                });
+                scheduleReconnect(1000);
+            } catch (e) {
+                if (stopped || e?.name === 'AbortError') return;
+                if (e?.status === 401 || e?.status === 403) return;
+                logger.warn('实时访问推送连接失败', e);
+                loadSnapshot();
+                scheduleReconnect(retryDelay);
+                retryDelay = Math.min(retryDelay * 2, 60000);
+            }
+        };
+        connect();
+        return () => {
+            stopped = true;
+            controller.abort();
+            if (timer) clearTimeout(timer);
+        };
+    }, []);
+
     const renderReferrer = (referrer) => {
         if (!referrer) return '未知来源';
         const normalized = decodeMaybeUrlEncoded(referrer);
@@ -1935,6 +2014,17 @@ const AnalyticsView = ({ isDarkMode, user }) => {
                     <p className={`text-sm ${textMuted}`}>按时间倒序展示 analytics_page_views 全量记录，含 IP / 用户 / 来源 / 地理位置。</p>
                 </div>
                 <div className="flex items-center gap-2 flex-wrap">
+                    {presence && (
+                        <div
+                            className={`${border} px-3 py-1 rounded-full text-sm flex items-center gap-1.5`}
+                            title={(presence.topPosts || [])
+                                .map((item) => `${item.title || `#${item.postId}`}：${item.readers} 人在读`)
+                                .join('\n') || '暂无在读文章'}
+                        >
+                            <span className="inline-block h-2 w-2 rounded-full bg-emerald-500" />
+                            在线 {presence.online ?? 0} · 在读 {presence.reading ?? 0}
+                        </div>
+                    )}
                     <div className={`${border} px-3 py-1 rounded-full text-sm`}>共 {total.toLocaleString()} 条</div>
                     <select
                         className={`px-3 py-1.5 text-sm rounded-full border transition-colors shadow-sm ${isDarkMode
@@ -1978,6 +2068,31 @@ const AnalyticsView = ({ isDarkMode, user }) => {
                 </div>
             </div>
 
+            {liveVisits.length > 0 && (
+                <div className={`${surface} ${border} rounded-2xl p-4 shadow-md`}>
+                    <div className="flex items-center gap-2 mb-3 text-sm font-semibold">
+                        <span className="inline-block h-2 w-2 rounded-full bg-emerald-500 animate-pulse" />
+                        最近访问（实时）
+                    </div>
+                    <ul className="space-y-1.5 text-sm">
+                        {liveVisits.slice(0, 8).map((visit) => (
+                            <li key={visit.id} className="flex flex-wrap items-center gap-x-3 gap-y-1">
+                                <span className={`font-mono text-xs ${textMuted}`}>{visit.enterTime || visit.time}</span>
+                                <span className="font-mono">{visit.ip}</span>
+                                {visit.ipBanned && (
+                                    <span className="px-1.5 py-0.5 rounded text-xs font-semibold bg-red-100 text-red-600">已封禁</span>
+                                )}
+                                <span className="truncate max-w-xs">{visit.title || '页面'}</span>
+                                {visit.geo && <span className={textMuted}>{visit.geo}</span>}
+                                {visit.visitStatus === 'OPEN' && (
+                                    <span className="text-xs text-emerald-600">在线</span>
+                                )}
+                            </li>
+                        ))}
+                    </ul>
+                </div>
+            )}
+
             <div className={`${surface} ${border} rounded-2xl p-4 shadow-md`}>
                 <div className="grid grid-cols-1 md:grid-cols-8 gap-3">
                     <div className="md:col-span-2">
@@ -9173,7 +9288,7 @@ const SystemSettingsView = ({ isDarkMode, user, notification, setNotification, o
                             type="text"
                             value={ipBanAddForm.ip}
                             onChange={(e) => setIpBanAddForm((prev) => ({ ...prev, ip: e.target.value }))}
-                            placeholder="IP 地址（单个 IPv4/IPv6）"
+                            placeholder="IP 地址或 CIDR 网段（如 203.0.113.0/24）"
                             className={`px-3 py-2 rounded-md border text-sm ${isDarkMode ? 'border-gray-700 bg-gray-900 text-gray-100' : 'border-gray-300 bg-white text-slate-800'}`}
                         />
                     </div>
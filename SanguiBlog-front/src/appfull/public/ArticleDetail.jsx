@@ -62,6 +62,9 @@ const ArticleDetail = ({
     isDarkMode,
     articleData,
     commentsData,
+    commentsPage,
+    onLoadMoreComments,
+    onLoadMoreReplies,
     visitId,
     onSubmitComment,
     onDeleteComment,
@@ -1436,6 +1439,10 @@ const ArticleDetail = ({
                     <div id="comments-section" className="scroll-mt-32">
                         <CommentsSection
                             list={comments}
+                            totalThreads={commentsPage?.total}
+                            hasMore={Boolean(commentsPage?.hasMore)}
+                            onLoadMore={onLoadMoreComments}
+                            onLoadMoreReplies={onLoadMoreReplies}
                             isDarkMode={isDarkMode}
                             onSubmit={handleCommentSubmit}
                             currentUser={currentUser}
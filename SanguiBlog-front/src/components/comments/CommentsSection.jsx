@@ -6,6 +6,10 @@ import { buildAssetUrl } from '../../utils/asset.js';
 
 const CommentsSection = ({
     list = [],
+    totalThreads,
+    hasMore = false,
+    onLoadMore,
+    onLoadMoreReplies,
     isDarkMode,
     onSubmit,
     currentUser,
@@ -21,6 +25,8 @@ const CommentsSection = ({
     const [deleteConfirm, setDeleteConfirm] = useState(null);
     const [replyTarget, setReplyTarget] = useState(null);
     const [replyContent, setReplyContent] = useState('');
+    const [loadingMore, setLoadingMore] = useState(false);
+    const [expandingRootId, setExpandingRootId] = useState(null);
     const canReviewComments = currentUser ? hasPermission('COMMENT_REVIEW') : false;
     const canDeleteComments = currentUser ? hasPermission('COMMENT_DELETE') : false;
     const isGuest = !currentUser;
@@ -43,8 +49,22 @@ const CommentsSection = ({
     const resolvedAvatar = currentUser?.avatarUrl || currentUser?.avatar;
     const normalizedList = Array.isArray(list) ? list : [];
 
-    const countAll = (items = []) => items.reduce((sum, item) => sum + 1 + countAll(item.replies || []), 0);
+    const countAll = (items = []) => items.reduce((sum, item) => sum + 1 + Math.max(item.replyCount || 0, countAll(item.replies || [])), 0);
     const totalComments = countAll(normalizedList);
+    // 还有未加载的楼层时，本地只知道已加载部分的条数，标题改为展示楼层总数
+    const headerCount = hasMore && totalThreads ? `${totalThreads} 楼` : (totalComments > 0 ? totalComments : '');
+
+    const handleLoadMore = () => {
+        if (!onLoadMore || loadingMore) return;
+        setLoadingMore(true);
+        Promise.resolve(onLoadMore()).finally(() => setLoadingMore(false));
+    };
+
+    const handleLoadMoreReplies = (rootId) => {
+        if (!onLoadMoreReplies || expandingRootId) return;
+        setExpandingRootId(rootId);
+        Promise.resolve(onLoadMoreReplies(rootId)).finally(() => setExpandingRootId(null));
+    };
 
     const getAvatarSrc = (avatarPath) => buildAssetUrl(avatarPath);
 
@@ -93,6 +113,8 @@ const CommentsSection = ({
         const allowDelete = currentUser && (isOwnComment || canDeleteComments);
         const visualDepth = depth > 0 ? 1 : 0;
         const displayAuthor = comment.authorName || comment.user || '匿名用户';
+        const replyCount = comment.replyCount || 0;
+        const hasHiddenReplies = depth === 0 && (comment.repliesPaged ? comment.repliesHasMore : replies.length < replyCount);
 
         return (
             <div
@@ -246,6 +268,17 @@ const CommentsSection = ({
                             {replies.map((reply) => renderComment(reply, depth + 1))}
                         </div>
                     )}
+
+                    {hasHiddenReplies && (
+                        <button
+                            type="button"
+                            onClick={() => handleLoadMoreReplies(comment.id)}
+                            disabled={expandingRootId === comment.id}
+                            className={`mt-3 text-xs font-bold px-3 py-1.5 border rounded-xl transition-colors ${softButton} ${expandingRootId === comment.id ? 'opacity-60 cursor-wait' : ''}`}
+                        >
+                            {expandingRootId === comment.id ? '加载中…' : `展开更多回复 (${Math.max(replyCount - replies.length, 0)})`}
+                        </button>
+                    )}
                 </div>
             </div>
         );
@@ -255,7 +288,7 @@ const CommentsSection = ({
         <div className={`mt-16 ${glassCard} ${isDarkMode ? 'bg-[#0F172A]/46' : 'bg-white/42'} p-6 md:p-8`}>
             <div className="flex items-center justify-between mb-6">
                 <div>
-                    <h3 className="text-2xl font-black">评论 {totalComments > 0 ? `(${totalComments})` : ''}</h3>
+                    <h3 className="text-2xl font-black">评论 {headerCount ? `(${headerCount})` : ''}</h3>
                     {!currentUser && (
                         <p className="text-xs text-gray-500 flex items-center gap-1 mt-1">
                             <User size={12} />
@@ -302,6 +335,19 @@ const CommentsSection = ({
             <div className="space-y-8">
                 {normalizedList.map((comment) => renderComment(comment))}
             </div>
+
+            {hasMore && (
+                <div className="mt-8 flex justify-center">
+                    <button
+                        type="button"
+                        onClick={handleLoadMore}
+                        disabled={loadingMore}
+                        className={`${secondaryActionButton} ${loadingMore ? 'opacity-60 cursor-wait' : ''}`}
+                    >
+                        {loadingMore ? '加载中…' : '加载更多评论'}
+                    </button>
+                </div>
+            )}
         </div>
     );
 };
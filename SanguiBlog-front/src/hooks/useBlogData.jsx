@@ -5,7 +5,9 @@ import {
   fetchTags,
   fetchPosts,
   fetchPostDetail,
-  fetchComments,
+  fetchPostContent,
+  fetchCommentThreads,
+  fetchCommentReplies,
   fetchRecentComments,
   createComment,
   deleteComment,
@@ -19,6 +21,9 @@ import logger from "../utils/logger.js";
 const BlogContext = createContext(null);
 const ENABLE_POSTS_DEBUG = import.meta.env.VITE_ENABLE_POSTS_DEBUG === "true";
 const SITE_META_CACHE_KEY = "sg_site_meta_cache";
+const COMMENT_THREAD_PAGE_SIZE = 10;
+const COMMENT_REPLY_PAGE_SIZE = 20;
+const EMPTY_COMMENTS_PAGE = { total: 0, hasMore: false, nextCursor: null };
 
 const readCachedMeta = () => {
   if (typeof window === "undefined") return null;
@@ -50,6 +55,7 @@ function useProvideBlog() {
   const [article, setArticle] = useState(null);
   const [articleState, setArticleState] = useState({ status: "idle", error: "" }); // idle | loading | ok | not_found | error
   const [comments, setComments] = useState([]);
+  const [commentsPage, setCommentsPage] = useState(EMPTY_COMMENTS_PAGE);
   const [recentComments, setRecentComments] = useState([]);
   const [about, setAbout] = useState(null);
   const [user, setUser] = useState(null);
@@ -150,16 +156,59 @@ function useProvideBlog() {
     }
   }, []);
 
+  // 评论按楼层游标分页：根评论附带少量回复预览，其余回复通过 loadMoreReplies 按需展开
   const loadComments = useCallback(async (postId) => {
     try {
-      const res = await fetchComments(postId);
+      const res = await fetchCommentThreads(postId, { size: COMMENT_THREAD_PAGE_SIZE });
       const data = res.data || res;
-      setComments(data || []);
+      setComments(data?.records || []);
+      setCommentsPage({ total: data?.total || 0, hasMore: Boolean(data?.hasMore), nextCursor: data?.nextCursor || null });
     } catch (e) {
       logger.warn("load comments failed", e);
     }
   }, []);
 
+  const loadMoreComments = useCallback(async (postId) => {
+    if (!commentsPage.hasMore || !commentsPage.nextCursor) return;
+    try {
+      const res = await fetchCommentThreads(postId, { cursor: commentsPage.nextCursor, size: COMMENT_THREAD_PAGE_SIZE });
+      const data = res.data || res;
+      const records = data?.records || [];
+      setComments((prev) => {
+        const seen = new Set(prev.map((item) => item.id));
+        return [...prev, ...records.filter((item) => !seen.has(item.id))];
+      });
+      setCommentsPage({ total: data?.total || 0, hasMore: Boolean(data?.hasMore), nextCursor: data?.nextCursor || null });
+    } catch (e) {
+      logger.warn("load more comments failed", e);
+    }
+  }, [commentsPage]);
+
+  const loadMoreReplies = useCallback(async (postId, rootId) => {
+    const root = comments.find((item) => item.id === rootId);
+    if (!root) return;
+    try {
+      // 首次展开从头拉取并替换预览，之后沿游标追加
+      const cursor = root.repliesPaged ? root.repliesCursor : undefined;
+      const res = await fetchCommentReplies(postId, rootId, { cursor, size: COMMENT_REPLY_PAGE_SIZE });
+      const data = res.data || res;
+      const records = data?.records || [];
+      setComments((prev) => prev.map((item) => {
+        if (item.id !== rootId) return item;
+        return {
+          ...item,
+          replies: item.repliesPaged ? [...(item.replies || []), ...records] : records,
+          replyCount: data?.total ?? item.replyCount,
+          repliesPaged: true,
+          repliesHasMore: Boolean(data?.hasMore),
+          repliesCursor: data?.nextCursor || null,
+        };
+      }));
+    } catch (e) {
+      logger.warn("load comment replies failed", e);
+    }
+  }, [comments]);
+
   const loadRecentComments = useCallback(async (size = 5) => {
     try {
       const res = await fetchRecentComments(size);
@@ -185,6 +234,7 @@ function useProvideBlog() {
     const numericId = Number(id);
     setArticle(null);
     setComments([]);
+    setCommentsPage(EMPTY_COMMENTS_PAGE);
     setArticleState({ status: "loading", error: "" });
     try {
       if (!Number.isFinite(numericId) || numericId <= 0) {
@@ -192,8 +242,13 @@ function useProvideBlog() {
         return;
       }
       const visitId = options && options.visitId ? String(options.visitId) : undefined;
-      const res = await fetchPostDetail(numericId, visitId ? { visitId } : {});
-      const data = res.data || res;
+      const res = await fetchPostDetail(numericId, visitId ? { visitId, content: false } : { content: false });
+      let data = res.data || res;
+      if (data && !data.contentHtml && !data.contentMd) {
+        const contentRes = await fetchPostContent(numericId, data.contentVersion);
+        const content = contentRes.data || contentRes;
+        data = { ...data, contentMd: content?.contentMd, contentHtml: content?.contentHtml };
+      }
       setArticle(data);
       setArticleState({ status: "ok", error: "" });
       await loadComments(numericId);
@@ -205,6 +260,7 @@ function useProvideBlog() {
         || (status === 400 && (message.includes("文章不存在") || message.includes("未发布")));
       setArticle(null);
       setComments([]);
+      setCommentsPage(EMPTY_COMMENTS_PAGE);
       setArticleState({ status: isNotFound ? "not_found" : "error", error: message });
     }
   }, [loadComments]);
@@ -263,12 +319,15 @@ function useProvideBlog() {
       article,
       articleState,
       comments,
+      commentsPage,
       recentComments,
       about,
       user,
       loadMeta,
       loadPosts,
       loadArticle,
+      loadMoreComments,
+      loadMoreReplies,
       submitComment,
       removeComment,
       editComment,
@@ -277,6 +336,6 @@ function useProvideBlog() {
       doLogin,
       logout,
     }),
-    [meta, metaLoaded, categories, tags, postsPage, postsLoading, postsError, article, articleState, comments, recentComments, about, user, loadMeta, loadPosts, loadArticle, submitComment, removeComment, editComment, loadRecentComments, loadAbout, doLogin, logout]
+    [meta, metaLoaded, categories, tags, postsPage, postsLoading, postsError, article, articleState, comments, commentsPage, recentComments, about, user, loadMeta, loadPosts, loadArticle, loadMoreComments, loadMoreReplies, submitComment, removeComment, editComment, loadRecentComments, loadAbout, doLogin, logout]
   );
 }
@@ -1,4 +1,4 @@
-const parseSseBlocks = (buffer, onEvent) => {
+export const parseSseBlocks = (buffer, onEvent) => {
     const parts = buffer.split(/\r?\n\r?\n/);
     const rest = parts.pop() ?? '';
 
@@ -0,0 +1,23 @@
+package com.sangui.sanguiblog.config;
+
+import com.sangui.sanguiblog.service.ContentRevisionService;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记公共只读接口支持条件 GET：由 {@link ConditionalGetInterceptor} 根据所列范围的内容修订号生成 ETag，
+ * 命中 If-None-Match 时在进入 Controller/Service 之前直接返回 304。
+ *
+ * 仅用于无副作用的 GET 接口；会记录浏览量等副作用的接口（如文章详情）不要标注，否则 304 会吞掉计数。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalGet {
+
+    ContentRevisionService.Scope[] value();
+}
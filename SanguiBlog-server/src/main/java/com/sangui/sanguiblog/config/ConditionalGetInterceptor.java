@@ -0,0 +1,61 @@
+package com.sangui.sanguiblog.config;
+
+import com.sangui.sanguiblog.service.ContentRevisionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 条件 GET 拦截器：对标注了 {@link ConditionalGet} 的接口下发基于内容修订号的 ETag，
+ * 客户端带回相同 ETag 时直接 304，不触达 Service/DB，也不重复序列化响应体。
+ *
+ * Cache-Control 使用 no-cache（允许浏览器存储但每次复用前必须回源校验），
+ * 同时避免 Spring Security 默认写入的 no-store 让 ETag 失去意义。
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final ContentRevisionService contentRevisionService;
+
+    @Value("${site.conditional-get.enabled:true}")
+    private boolean enabled = true;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+        String method = request.getMethod();
+        if (!"GET".equalsIgnoreCase(method) && !"HEAD".equalsIgnoreCase(method)) {
+            return true;
+        }
+
+        String etag = contentRevisionService.etag(conditionalGet.value());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return !notModified(request, response, etag);
+    }
+
+    /**
+     * 判断 If-None-Match 是否命中 etag，供自行下发 ETag 的接口（预压缩正文、站点地图等）复用同一套判定。
+     * checkNotModified 负责解析（含 *、W/ 前缀、多值），命中时设置 304 并写回 ETag。
+     */
+    public static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        return new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
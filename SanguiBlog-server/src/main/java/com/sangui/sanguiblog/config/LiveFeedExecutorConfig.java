@@ -0,0 +1,29 @@
+package com.sangui.sanguiblog.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class LiveFeedExecutorConfig {
+
+    /**
+     * 实时访问推送线程：访问记录提交后的回调只把扇出任务丢进队列，由单线程按提交顺序写给各个 SSE 连接，
+     * 访客请求线程不再等待后台连接的网络写入。队列满时丢弃（后台可随时刷新快照补齐）。
+     */
+    @Bean("liveFeedFanoutExecutor")
+    public Executor liveFeedFanoutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("live-feed-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
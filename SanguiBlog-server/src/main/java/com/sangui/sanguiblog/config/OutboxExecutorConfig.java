@@ -0,0 +1,29 @@
+package com.sangui.sanguiblog.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class OutboxExecutorConfig {
+
+    /**
+     * 发件箱投递线程：单线程串行处理，避免 RAG 向量化等慢任务占用共享的 @Scheduled 线程。
+     * 队列只需容纳一次“唤醒”，多余的唤醒直接丢弃（正在运行的投递循环会一并处理）。
+     */
+    @Bean("outboxDispatchExecutor")
+    public Executor outboxDispatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("outbox-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
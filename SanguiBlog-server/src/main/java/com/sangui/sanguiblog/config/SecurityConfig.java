@@ -152,6 +152,8 @@ public class SecurityConfig {
                                 "/api/analytics/visit/start",
                                 "/api/analytics/visit/heartbeat",
                                 "/api/analytics/visit/end",
+                                "/api/analytics/presence",
+                                "/api/analytics/batch",
                                 "/api/games/**",
                                 "/avatar/**",
                                 "/contact/**",
@@ -2,19 +2,33 @@ package com.sangui.sanguiblog.config;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
 
 @Configuration
 @RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
     private final StoragePathResolver storagePathResolver;
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/api/**");
+    }
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // 小游戏页面上传时生成的 .gz 旁路文件按 Accept-Encoding 直接发送；文章资源只允许图片，不做预压缩
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(storagePathResolver.toResourceLocation(storagePathResolver.getRootPath()));
+                .addResourceLocations(storagePathResolver.toResourceLocation(storagePathResolver.getRootPath()))
+                .resourceChain(false)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
 
         registry.addResourceHandler("/avatar/**")
                 .addResourceLocations(storagePathResolver.toResourceLocation(storagePathResolver.getAvatarDir()));
@@ -1,10 +1,12 @@
 package com.sangui.sanguiblog.controller;
 
+import com.sangui.sanguiblog.config.ConditionalGet;
 import com.sangui.sanguiblog.model.dto.AboutDto;
 import com.sangui.sanguiblog.model.dto.ApiResponse;
 import com.sangui.sanguiblog.model.dto.SaveAboutRequest;
 import com.sangui.sanguiblog.security.UserPrincipal;
 import com.sangui.sanguiblog.service.AboutService;
+import com.sangui.sanguiblog.service.ContentRevisionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,6 +21,7 @@ public class AboutController {
     private final AboutService aboutService;
 
     @GetMapping("/about")
+    @ConditionalGet(ContentRevisionService.Scope.ABOUT)
     public ApiResponse<AboutDto> getAbout() {
         return ApiResponse.ok(aboutService.getAbout().orElse(null));
     }
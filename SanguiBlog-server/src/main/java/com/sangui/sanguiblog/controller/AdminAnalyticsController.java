@@ -4,9 +4,15 @@ import com.sangui.sanguiblog.model.dto.AdminAnalyticsPageViewDetailDto;
 import com.sangui.sanguiblog.model.dto.AdminAnalyticsSummaryDto;
 import com.sangui.sanguiblog.model.dto.ApiResponse;
 import com.sangui.sanguiblog.model.dto.PageResponse;
+import com.sangui.sanguiblog.model.dto.PresenceDto;
 import com.sangui.sanguiblog.service.AnalyticsService;
+import com.sangui.sanguiblog.service.PresenceTracker;
 import com.sangui.sanguiblog.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -16,6 +22,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -27,9 +34,10 @@ import java.util.List;
 public class AdminAnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final PresenceTracker presenceTracker;
 
     @GetMapping("/summary")
-    @PreAuthorize("hasAuthority('PERM_ANALYTICS_VIEW')")
+    @PreAuthorize("@perm.has(authentication, 'ANALYTICS_VIEW')")
     public ApiResponse<AdminAnalyticsSummaryDto> summary(
             @RequestParam(value = "days", defaultValue = "14") int days,
             @RequestParam(value = "top", defaultValue = "5") int top,
@@ -37,8 +45,43 @@ public class AdminAnalyticsController {
         return ApiResponse.ok(analyticsService.loadAdminSummary(days, top, recent));
     }
 
+    /**
+     * 最近访问快照：直接读取内存环形缓冲，不查询访问日志表。
+     */
+    @GetMapping("/live")
+    @PreAuthorize("@perm.has(authentication, 'ANALYTICS_VIEW')")
+    public ApiResponse<List<AdminAnalyticsSummaryDto.RecentVisit>> live(
+            @RequestParam(value = "limit", defaultValue = "30") int limit) {
+        return ApiResponse.ok(analyticsService.loadLiveVisits(limit));
+    }
+
+    /**
+     * 最近访问实时推送（SSE）：连接时下发一次快照，之后逐条推送新访问；连接数超限时返回 503，前端回退到快照轮询。
+     */
+    @GetMapping(value = "/live/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("@perm.has(authentication, 'ANALYTICS_VIEW')")
+    public ResponseEntity<SseEmitter> liveStream() {
+        SseEmitter emitter = analyticsService.openLiveVisitStream();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .body(emitter);
+    }
+
+    /**
+     * 当前在线人数与在读最多的文章（内存计数，O(1) 读取）。
+     */
+    @GetMapping("/presence")
+    @PreAuthorize("@perm.has(authentication, 'ANALYTICS_VIEW')")
+    public ApiResponse<PresenceDto> presence(@RequestParam(value = "postId", required = false) Long postId) {
+        return ApiResponse.ok(presenceTracker.snapshot(postId));
+    }
+
     @GetMapping("/page-views")
-    @PreAuthorize("hasAuthority('PERM_ANALYTICS_VIEW')")
+    @PreAuthorize("@perm.has(authentication, 'ANALYTICS_VIEW')")
     public ApiResponse<PageResponse<AdminAnalyticsSummaryDto.RecentVisit>> pageViews(
             @RequestParam(value = "page", defaultValue = "1") int page,
             @RequestParam(value = "size", defaultValue = "20") int size,
@@ -69,26 +112,26 @@ public class AdminAnalyticsController {
     }
 
     @GetMapping("/page-views/{id}")
-    @PreAuthorize("hasAuthority('PERM_ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')")
+    @PreAuthorize("@perm.has(authentication, 'ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')")
     public ApiResponse<AdminAnalyticsPageViewDetailDto> pageViewDetail(@PathVariable("id") Long id) {
         return ApiResponse.ok(analyticsService.loadPageViewDetail(id));
     }
 
     @DeleteMapping("/page-views/me")
-    @PreAuthorize("hasAuthority('PERM_ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')")
+    @PreAuthorize("@perm.has(authentication, 'ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')")
     public ApiResponse<Long> deleteMyPageViews(@AuthenticationPrincipal UserPrincipal principal) {
         Long count = analyticsService.deletePageViewsByUser(principal.getId());
         return ApiResponse.ok(count);
     }
 
     @DeleteMapping("/page-views/{id}")
-    @PreAuthorize("hasAuthority('PERM_ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')")
+    @PreAuthorize("@perm.has(authentication, 'ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')")
     public ApiResponse<Long> deletePageView(@PathVariable("id") Long id) {
         return ApiResponse.ok(analyticsService.deletePageViewById(id));
     }
 
     @DeleteMapping("/page-views")
-    @PreAuthorize("hasAuthority('PERM_ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')")
+    @PreAuthorize("@perm.has(authentication, 'ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')")
     public ApiResponse<Long> deletePageViews(@RequestParam("ids") List<Long> ids) {
         return ApiResponse.ok(analyticsService.deletePageViews(ids));
     }
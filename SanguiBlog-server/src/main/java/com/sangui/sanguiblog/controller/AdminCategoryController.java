@@ -13,7 +13,7 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/admin/categories")
 @RequiredArgsConstructor
-@PreAuthorize("hasAuthority('PERM_CATEGORY_MANAGE')")
+@PreAuthorize("@perm.has(authentication, 'CATEGORY_MANAGE')")
 public class AdminCategoryController {
 
     private final CategoryService categoryService;
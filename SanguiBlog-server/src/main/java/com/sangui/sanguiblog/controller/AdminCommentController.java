@@ -26,7 +26,7 @@ public class AdminCommentController {
     private final CommentService commentService;
 
     @GetMapping
-    @PreAuthorize("hasAuthority('PERM_COMMENT_VIEW')")
+    @PreAuthorize("@perm.has(authentication, 'COMMENT_VIEW')")
     public ApiResponse<PageResponse<AdminCommentItemDto>> list(
             @RequestParam(value = "postId", required = false) Long postId,
             @RequestParam(value = "keyword", required = false) String keyword,
@@ -42,7 +42,7 @@ public class AdminCommentController {
     }
 
     @PutMapping("/{commentId}")
-    @PreAuthorize("hasAuthority('PERM_COMMENT_REVIEW')")
+    @PreAuthorize("@perm.has(authentication, 'COMMENT_REVIEW')")
     public ApiResponse<AdminCommentItemDto> update(@PathVariable Long commentId,
             @RequestBody AdminUpdateCommentRequest request,
             @AuthenticationPrincipal UserPrincipal principal) {
@@ -59,7 +59,7 @@ public class AdminCommentController {
     }
 
     @DeleteMapping("/{commentId}")
-    @PreAuthorize("hasAuthority('PERM_COMMENT_DELETE')")
+    @PreAuthorize("@perm.has(authentication, 'COMMENT_DELETE')")
     public ApiResponse<Void> delete(@PathVariable Long commentId,
             @AuthenticationPrincipal UserPrincipal principal) {
         Long actorId = principal != null ? principal.getId() : null;
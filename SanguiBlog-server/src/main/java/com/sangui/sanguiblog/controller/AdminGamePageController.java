@@ -16,7 +16,7 @@ import org.springframework.web.multipart.MultipartFile;
 @RestController
 @RequestMapping("/api/admin/games")
 @RequiredArgsConstructor
-@PreAuthorize("hasAuthority('PERM_GAME_MANAGE')")
+@PreAuthorize("@perm.has(authentication, 'GAME_MANAGE')")
 public class AdminGamePageController {
 
     private final GamePageService gamePageService;
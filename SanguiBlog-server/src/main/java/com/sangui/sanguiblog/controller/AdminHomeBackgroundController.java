@@ -15,7 +15,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/admin/home-backgrounds")
 @RequiredArgsConstructor
-@PreAuthorize("hasAuthority('PERM_SYSTEM_CLEAN_STORAGE')")
+@PreAuthorize("@perm.has(authentication, 'SYSTEM_CLEAN_STORAGE')")
 public class AdminHomeBackgroundController {
 
     private final HomeBackgroundAdminService homeBackgroundAdminService;
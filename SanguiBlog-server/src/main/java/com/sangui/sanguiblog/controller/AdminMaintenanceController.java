@@ -6,8 +6,10 @@ import com.sangui.sanguiblog.model.dto.DeleteEmptyFoldersResponse;
 import com.sangui.sanguiblog.model.dto.DeleteUnusedAssetsRequest;
 import com.sangui.sanguiblog.model.dto.DeleteUnusedAssetsResponse;
 import com.sangui.sanguiblog.model.dto.EmptyFolderScanResponse;
+import com.sangui.sanguiblog.model.dto.PrerenderRegenerateResponse;
 import com.sangui.sanguiblog.model.dto.UnusedAssetScanResponse;
 import com.sangui.sanguiblog.service.MaintenanceService;
+import com.sangui.sanguiblog.service.PostService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -23,28 +26,36 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminMaintenanceController {
 
     private final MaintenanceService maintenanceService;
+    private final PostService postService;
 
     @GetMapping("/unused-assets")
-    @PreAuthorize("hasAuthority('PERM_SYSTEM_CLEAN_STORAGE')")
+    @PreAuthorize("@perm.has(authentication, 'SYSTEM_CLEAN_STORAGE')")
     public ApiResponse<UnusedAssetScanResponse> scanUnusedAssets() {
         return ApiResponse.ok(maintenanceService.scanUnusedAssets());
     }
 
     @GetMapping("/empty-folders")
-    @PreAuthorize("hasAuthority('PERM_SYSTEM_CLEAN_STORAGE')")
+    @PreAuthorize("@perm.has(authentication, 'SYSTEM_CLEAN_STORAGE')")
     public ApiResponse<EmptyFolderScanResponse> scanEmptyFolders() {
         return ApiResponse.ok(maintenanceService.scanEmptyFolders());
     }
 
     @PostMapping("/unused-assets/delete")
-    @PreAuthorize("hasAuthority('PERM_SYSTEM_CLEAN_STORAGE')")
+    @PreAuthorize("@perm.has(authentication, 'SYSTEM_CLEAN_STORAGE')")
     public ApiResponse<DeleteUnusedAssetsResponse> deleteUnusedAssets(@Valid @RequestBody DeleteUnusedAssetsRequest request) {
         return ApiResponse.ok(maintenanceService.deleteUnusedAssets(request));
     }
 
     @PostMapping("/empty-folders/delete")
-    @PreAuthorize("hasAuthority('PERM_SYSTEM_CLEAN_STORAGE')")
+    @PreAuthorize("@perm.has(authentication, 'SYSTEM_CLEAN_STORAGE')")
     public ApiResponse<DeleteEmptyFoldersResponse> deleteEmptyFolders(@Valid @RequestBody DeleteEmptyFoldersRequest request) {
         return ApiResponse.ok(maintenanceService.deleteEmptyFolders(request));
     }
+
+    @PostMapping("/prerender/regenerate")
+    @PreAuthorize("@perm.has(authentication, 'SYSTEM_CLEAN_STORAGE')")
+    public ApiResponse<PrerenderRegenerateResponse> regeneratePrerender(
+            @RequestParam(name = "force", defaultValue = "false") boolean force) {
+        return ApiResponse.ok(postService.regeneratePrerenderSnapshots(force));
+    }
 }
@@ -20,7 +20,7 @@ public class AdminPostController {
     private final PostService postService;
 
     @GetMapping
-    @PreAuthorize("hasAuthority('PERM_POST_VIEW')")
+    @PreAuthorize("@perm.has(authentication, 'POST_VIEW')")
     public ApiResponse<PageResponse<PostAdminDto>> list(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Long categoryId,
@@ -30,19 +30,19 @@ public class AdminPostController {
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasAuthority('PERM_POST_VIEW')")
+    @PreAuthorize("@perm.has(authentication, 'POST_VIEW')")
     public ApiResponse<AdminPostDetailDto> detail(@PathVariable Long id) {
         return ApiResponse.ok(postService.getAdminDetail(id));
     }
 
     @GetMapping("/{id}/siblings")
-    @PreAuthorize("hasAuthority('PERM_POST_VIEW')")
+    @PreAuthorize("@perm.has(authentication, 'POST_VIEW')")
     public ApiResponse<PostSiblingDto> siblings(@PathVariable Long id) {
         return ApiResponse.ok(postService.findPublishedSiblings(id));
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasAuthority('PERM_POST_EDIT')")
+    @PreAuthorize("@perm.has(authentication, 'POST_EDIT')")
     public ApiResponse<PostAdminDto> update(@PathVariable Long id, @Valid @RequestBody AdminPostUpdateRequest request) {
         return ApiResponse.ok(postService.updateMeta(id, request));
     }
@@ -1,8 +1,12 @@
 package com.sangui.sanguiblog.controller;
 
 import com.sangui.sanguiblog.model.dto.ApiResponse;
+import com.sangui.sanguiblog.model.dto.BotGuardStatsDto;
+import com.sangui.sanguiblog.model.dto.OutboxStatsDto;
 import com.sangui.sanguiblog.model.dto.SystemMonitorDto;
+import com.sangui.sanguiblog.security.botguard.BotGuardDelayScheduler;
 import com.sangui.sanguiblog.service.SystemMonitorService;
+import com.sangui.sanguiblog.service.outbox.OutboxDispatcher;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,9 +20,26 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminSystemMonitorController {
 
     private final SystemMonitorService systemMonitorService;
+    private final OutboxDispatcher outboxDispatcher;
+    private final BotGuardDelayScheduler botGuardDelayScheduler;
 
     @GetMapping
     public ApiResponse<SystemMonitorDto> current() {
         return ApiResponse.ok(systemMonitorService.current());
     }
+
+    @GetMapping("/outbox")
+    public ApiResponse<OutboxStatsDto> outbox() {
+        return ApiResponse.ok(outboxDispatcher.stats());
+    }
+
+    @GetMapping("/bot-guard")
+    public ApiResponse<BotGuardStatsDto> botGuard() {
+        return ApiResponse.ok(BotGuardStatsDto.builder()
+                .delayedInFlight(botGuardDelayScheduler.inFlight())
+                .peakDelayedInFlight(botGuardDelayScheduler.peakInFlight())
+                .delayedTotal(botGuardDelayScheduler.delayedTotal())
+                .saturatedTotal(botGuardDelayScheduler.saturatedTotal())
+                .build());
+    }
 }
@@ -15,7 +15,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/admin/tags")
 @RequiredArgsConstructor
-@PreAuthorize("hasAuthority('PERM_TAG_MANAGE')")
+@PreAuthorize("@perm.has(authentication, 'TAG_MANAGE')")
 public class AdminTagController {
 
     private final TagService tagService;
@@ -16,7 +16,7 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/admin/users")
 @RequiredArgsConstructor
-@PreAuthorize("hasAuthority('PERM_USER_MANAGE')")
+@PreAuthorize("@perm.has(authentication, 'USER_MANAGE')")
 public class AdminUserController {
 
     private final AdminUserService adminUserService;
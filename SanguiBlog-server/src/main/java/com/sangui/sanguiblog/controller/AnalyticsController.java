@@ -1,5 +1,6 @@
 package com.sangui.sanguiblog.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sangui.sanguiblog.model.dto.AnalyticsRequestDetailContext;
 import com.sangui.sanguiblog.model.dto.ApiResponse;
@@ -7,18 +8,23 @@ import com.sangui.sanguiblog.model.dto.ArticleVisitEndRequest;
 import com.sangui.sanguiblog.model.dto.ArticleVisitHeartbeatRequest;
 import com.sangui.sanguiblog.model.dto.ArticleVisitStartRequest;
 import com.sangui.sanguiblog.model.dto.PageViewRequest;
+import com.sangui.sanguiblog.model.dto.PresenceDto;
 import com.sangui.sanguiblog.security.UserPrincipal;
 import com.sangui.sanguiblog.service.AnalyticsService;
+import com.sangui.sanguiblog.service.PresenceTracker;
 import com.sangui.sanguiblog.util.IpUtils;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -31,20 +37,16 @@ public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
     private final ObjectMapper objectMapper;
+    private final PresenceTracker presenceTracker;
+
+    @Value("${analytics.batch.max-events:50}")
+    private int maxBatchEvents = 50;
 
     @PostMapping("/page-view")
     public ApiResponse<Void> record(@RequestBody PageViewRequest request,
                                     HttpServletRequest httpServletRequest,
                                     @AuthenticationPrincipal UserPrincipal principal) {
-        String ip = IpUtils.resolveIp(httpServletRequest);
-        if (request != null && StringUtils.hasText(request.getClientIp())) {
-            String candidate = IpUtils.normalizeIp(request.getClientIp());
-            if (StringUtils.hasText(candidate)
-                    && !IpUtils.isLoopback(candidate)
-                    && IpUtils.isLoopback(ip)) {
-                ip = candidate;
-            }
-        }
+        String ip = resolvePageViewIp(request, IpUtils.resolveIp(httpServletRequest));
         String userAgent = httpServletRequest.getHeader("User-Agent");
         Long userId = principal != null ? principal.getId() : null;
         String visitId = httpServletRequest.getHeader(VISIT_ID_HEADER);
@@ -53,12 +55,51 @@ public class AnalyticsController {
         return ApiResponse.ok();
     }
 
+    /**
+     * 批量埋点：一次请求携带多条事件（page-view / visit-start / visit-heartbeat / visit-end），
+     * 兼容 sendBeacon 的 text/plain 请求体，每条事件各自一个事务，单条失败不影响同批其它事件。格式：
+     * [{"type":"visit-heartbeat","data":{"visitId":"...","activeDurationSeconds":30}}, ...]，也接受 {"events":[...]}。
+     * 与单条接口一样静默失败，不影响页面浏览。
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public ApiResponse<Void> batch(@RequestBody(required = false) String rawBody,
+                                   HttpServletRequest httpServletRequest,
+                                   @AuthenticationPrincipal UserPrincipal principal) {
+        String ip = IpUtils.resolveIp(httpServletRequest);
+        List<AnalyticsService.BatchEvent> events = parseBatch(rawBody, ip);
+        if (events.isEmpty()) {
+            return ApiResponse.ok();
+        }
+        try {
+            String userAgent = httpServletRequest.getHeader("User-Agent");
+            Long userId = principal != null ? principal.getId() : null;
+            AnalyticsRequestDetailContext detailContext = buildRequestDetailContext(httpServletRequest, null, null);
+            analyticsService.recordBatch(events, ip, userAgent, userId, detailContext);
+        } catch (Exception ex) {
+            log.warn("analytics/batch 处理异常，已静默忽略 count={}", events.size(), ex);
+        }
+        return ApiResponse.ok();
+    }
+
     @GetMapping("/client-ip")
     public ApiResponse<Map<String, String>> clientIp(HttpServletRequest httpServletRequest) {
         String ip = IpUtils.normalizeIp(IpUtils.resolveIp(httpServletRequest));
         return ApiResponse.ok(Map.of("ip", ip));
     }
 
+    /**
+     * 当前在线人数（内存计数，不访问数据库）；传 postId 时附带该文章的在读人数。
+     */
+    @GetMapping("/presence")
+    public ApiResponse<PresenceDto> presence(@RequestParam(value = "postId", required = false) Long postId) {
+        return ApiResponse.ok(PresenceDto.builder()
+                .online(presenceTracker.online())
+                .reading(presenceTracker.reading())
+                .postId(postId)
+                .postReaders(postId != null ? presenceTracker.readers(postId) : null)
+                .build());
+    }
+
     @PostMapping(value = "/visit/start", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
     public ApiResponse<Void> visitStart(@RequestBody(required = false) String rawBody,
                                         HttpServletRequest httpServletRequest,
@@ -108,6 +149,80 @@ public class AnalyticsController {
         return ApiResponse.ok();
     }
 
+    private List<AnalyticsService.BatchEvent> parseBatch(String rawBody, String ip) {
+        if (!StringUtils.hasText(rawBody)) {
+            return List.of();
+        }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(rawBody);
+        } catch (Exception ex) {
+            log.debug("analytics/batch JSON 解析失败，已忽略", ex);
+            return List.of();
+        }
+        JsonNode items = root != null && root.isObject() ? root.path("events") : root;
+        if (items == null || !items.isArray()) {
+            return List.of();
+        }
+        int limit = Math.max(1, maxBatchEvents);
+        List<AnalyticsService.BatchEvent> events = new ArrayList<>(Math.min(items.size(), limit));
+        for (JsonNode item : items) {
+            if (events.size() >= limit) {
+                break;
+            }
+            AnalyticsService.BatchEvent event = toBatchEvent(item, ip);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private AnalyticsService.BatchEvent toBatchEvent(JsonNode item, String ip) {
+        if (item == null || !item.isObject()) {
+            return null;
+        }
+        JsonNode data = item.path("data");
+        if (!data.isObject()) {
+            return null;
+        }
+        String type = item.path("type").asText("");
+        try {
+            return switch (type) {
+                case "page-view" -> {
+                    PageViewRequest request = objectMapper.treeToValue(data, PageViewRequest.class);
+                    String visitId = item.path("visitId").asText(null);
+                    yield new AnalyticsService.BatchEvent(request, visitId, resolvePageViewIp(request, ip));
+                }
+                case "visit-start" -> new AnalyticsService.BatchEvent(
+                        objectMapper.treeToValue(data, ArticleVisitStartRequest.class), null, null);
+                case "visit-heartbeat" -> new AnalyticsService.BatchEvent(
+                        objectMapper.treeToValue(data, ArticleVisitHeartbeatRequest.class), null, null);
+                case "visit-end" -> new AnalyticsService.BatchEvent(
+                        objectMapper.treeToValue(data, ArticleVisitEndRequest.class), null, null);
+                default -> null;
+            };
+        } catch (Exception ex) {
+            log.debug("analytics/batch 事件解析失败，已跳过 type={}", type, ex);
+            return null;
+        }
+    }
+
+    /**
+     * 本地开发时服务端只能看到回环地址，此时采用前端上报的公网 IP。
+     */
+    private static String resolvePageViewIp(PageViewRequest request, String ip) {
+        if (request != null && StringUtils.hasText(request.getClientIp())) {
+            String candidate = IpUtils.normalizeIp(request.getClientIp());
+            if (StringUtils.hasText(candidate)
+                    && !IpUtils.isLoopback(candidate)
+                    && IpUtils.isLoopback(ip)) {
+                return candidate;
+            }
+        }
+        return ip;
+    }
+
     private <T> T parseJson(String rawBody, Class<T> type) {
         if (!StringUtils.hasText(rawBody)) {
             return null;
@@ -12,10 +12,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/guard")
@@ -41,31 +39,11 @@ public class BotGuardController {
             @RequestBody GuardVerifyRequest body) {
         String ip = IpUtils.resolveIp(request);
         String ua = request.getHeader("User-Agent");
-        String cSegment = toCSegment(ip);
+        String cSegment = IpUtils.segment(ip);
         String captcha = body != null ? body.getCaptcha() : null;
         ResponseCookie cookie = captchaService.verifyAndIssueCookie(ip, ua, cSegment, captcha);
         response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
         return ApiResponse.ok(new GuardVerifyResponse(true, props.getGuardTtl().toSeconds()));
     }
-
-    private static String toCSegment(String ip) {
-        if (!StringUtils.hasText(ip)) {
-            return "0.0.0";
-        }
-        String normalized = IpUtils.normalizeIp(ip);
-        if (normalized.contains(".")) {
-            String[] parts = normalized.split("\\.");
-            if (parts.length >= 3) {
-                return parts[0] + "." + parts[1] + "." + parts[2];
-            }
-            return normalized;
-        }
-        String lower = normalized.toLowerCase(Locale.ROOT);
-        String[] parts = lower.split(":");
-        if (parts.length >= 4) {
-            return parts[0] + ":" + parts[1] + ":" + parts[2] + ":" + parts[3];
-        }
-        return lower;
-    }
 }
 
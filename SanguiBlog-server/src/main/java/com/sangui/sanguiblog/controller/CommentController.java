@@ -3,6 +3,7 @@ package com.sangui.sanguiblog.controller;
 import com.sangui.sanguiblog.model.dto.ApiResponse;
 import com.sangui.sanguiblog.model.dto.CommentDto;
 import com.sangui.sanguiblog.model.dto.CreateCommentRequest;
+import com.sangui.sanguiblog.model.dto.CursorPageResponse;
 import com.sangui.sanguiblog.service.CommentService;
 import com.sangui.sanguiblog.security.UserPrincipal;
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,6 +27,22 @@ public class CommentController {
         return ApiResponse.ok(commentService.listByPost(postId));
     }
 
+    @GetMapping("/{postId}/comments/threads")
+    public ApiResponse<CursorPageResponse<CommentDto>> threads(@PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Integer replies) {
+        return ApiResponse.ok(commentService.listThreads(postId, cursor, size, replies));
+    }
+
+    @GetMapping("/{postId}/comments/{commentId}/replies")
+    public ApiResponse<CursorPageResponse<CommentDto>> replies(@PathVariable Long postId,
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ApiResponse.ok(commentService.listReplies(postId, commentId, cursor, size));
+    }
+
     @PostMapping("/{postId}/comments")
     @PreAuthorize("isAuthenticated()")
     public ApiResponse<CommentDto> create(@PathVariable Long postId,
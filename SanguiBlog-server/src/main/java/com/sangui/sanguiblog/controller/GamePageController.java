@@ -1,9 +1,11 @@
 package com.sangui.sanguiblog.controller;
 
+import com.sangui.sanguiblog.config.ConditionalGet;
 import com.sangui.sanguiblog.model.dto.ApiResponse;
 import com.sangui.sanguiblog.model.dto.GamePageDetailDto;
 import com.sangui.sanguiblog.model.dto.GamePageDto;
 import com.sangui.sanguiblog.service.GamePageService;
+import com.sangui.sanguiblog.service.ContentRevisionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -20,11 +22,13 @@ public class GamePageController {
     private final GamePageService gamePageService;
 
     @GetMapping
+    @ConditionalGet(ContentRevisionService.Scope.GAMES)
     public ApiResponse<List<GamePageDto>> list() {
         return ApiResponse.ok(gamePageService.listActive());
     }
 
     @GetMapping("/{id}")
+    @ConditionalGet(ContentRevisionService.Scope.GAMES)
     public ApiResponse<GamePageDetailDto> detail(@PathVariable Long id) {
         return ApiResponse.ok(gamePageService.getDetail(id));
     }
@@ -2,12 +2,22 @@ package com.sangui.sanguiblog.controller;
 
 import com.sangui.sanguiblog.model.dto.ApiResponse;
 import com.sangui.sanguiblog.model.dto.NotificationListDto;
+import com.sangui.sanguiblog.security.JwtUtil;
 import com.sangui.sanguiblog.security.UserPrincipal;
 import com.sangui.sanguiblog.service.NotificationService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -15,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final JwtUtil jwtUtil;
 
     @GetMapping("/unread")
     @PreAuthorize("isAuthenticated()")
@@ -23,6 +34,28 @@ public class NotificationController {
         return ApiResponse.ok(notificationService.listUnread(userPrincipal.getId(), limit));
     }
 
+    /**
+     * 通知推送（SSE）：连接建立时下发一次未读数，之后推送新通知与未读数变化；连接数超限时返回 503，前端回退到轮询。
+     * 连接在请求 token 过期时关闭，前端带新 token 重连。
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<SseEmitter> stream(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                             HttpServletRequest request) {
+        Claims claims = jwtUtil.verifiedClaims(request);
+        Instant expiresAt = claims != null && claims.getExpiration() != null
+                ? claims.getExpiration().toInstant()
+                : null;
+        SseEmitter emitter = notificationService.openStream(userPrincipal.getId(), expiresAt);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .body(emitter);
+    }
+
     @GetMapping("/history")
     @PreAuthorize("isAuthenticated()")
     public ApiResponse<NotificationListDto> history(@AuthenticationPrincipal UserPrincipal userPrincipal,
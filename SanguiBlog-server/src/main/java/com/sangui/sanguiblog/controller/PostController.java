@@ -1,5 +1,7 @@
 package com.sangui.sanguiblog.controller;
 
+import com.sangui.sanguiblog.config.ConditionalGet;
+import com.sangui.sanguiblog.config.ConditionalGetInterceptor;
 import com.sangui.sanguiblog.model.dto.AnalyticsRequestDetailContext;
 import com.sangui.sanguiblog.model.dto.ApiResponse;
 import com.sangui.sanguiblog.model.dto.ArchiveSummaryDto;
@@ -9,10 +11,18 @@ import com.sangui.sanguiblog.model.dto.PostNeighborsDto;
 import com.sangui.sanguiblog.model.dto.PostSummaryDto;
 import com.sangui.sanguiblog.model.dto.SavePostRequest;
 import com.sangui.sanguiblog.security.UserPrincipal;
+import com.sangui.sanguiblog.service.ContentRevisionService;
+import com.sangui.sanguiblog.service.PostContentPayloadStore;
 import com.sangui.sanguiblog.service.PostService;
+import com.sangui.sanguiblog.util.ContentEncodingUtils;
 import com.sangui.sanguiblog.util.IpUtils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +30,7 @@ import org.springframework.util.StringUtils;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/posts")
@@ -45,6 +56,7 @@ public class PostController {
     }
 
     @GetMapping
+    @ConditionalGet({ContentRevisionService.Scope.POSTS, ContentRevisionService.Scope.TAXONOMY})
     public ApiResponse<PageResponse<PostSummaryDto>> list(
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
@@ -55,11 +67,13 @@ public class PostController {
     }
 
     @GetMapping("/archive/summary")
+    @ConditionalGet(ContentRevisionService.Scope.POSTS)
     public ApiResponse<ArchiveSummaryDto> archiveSummary() {
         return ApiResponse.ok(postService.getArchiveSummary());
     }
 
     @GetMapping("/archive/month")
+    @ConditionalGet({ContentRevisionService.Scope.POSTS, ContentRevisionService.Scope.TAXONOMY})
     public ApiResponse<PageResponse<PostSummaryDto>> archiveMonth(
             @RequestParam int year,
             @RequestParam int month,
@@ -70,6 +84,7 @@ public class PostController {
 
     @GetMapping("/{id}")
     public ApiResponse<PostDetailDto> detail(@PathVariable Long id,
+            @RequestParam(name = "content", defaultValue = "true") boolean includeContent,
             jakarta.servlet.http.HttpServletRequest request,
             @RequestHeader(value = "X-SG-Referrer", required = false) String analyticsReferrer,
             @RequestHeader(value = "X-SG-Source-Label", required = false) String analyticsSourceLabel,
@@ -82,16 +97,52 @@ public class PostController {
         String decodedSourceLabel = decodeHeaderValue(analyticsSourceLabel);
         String visitId = decodeHeaderValue(visitIdHeader);
         AnalyticsRequestDetailContext detailContext = AnalyticsController.buildRequestDetailContext(request, request.getRequestURI(), decodedReferrer);
-        return ApiResponse.ok(postService.getPublishedDetail(id, ip, userAgent, userId, decodedReferrer, decodedSourceLabel, visitId, detailContext));
+        return ApiResponse.ok(postService.getPublishedDetail(id, ip, userAgent, userId, decodedReferrer, decodedSourceLabel, visitId, detailContext, includeContent));
+    }
+
+    /**
+     * 文章正文（预序列化 + 预压缩）：带当前版本号 v 请求时可被浏览器/CDN 按 immutable 长期缓存。
+     */
+    @GetMapping("/{id}/content")
+    public ResponseEntity<byte[]> content(@PathVariable Long id,
+            @RequestParam(name = "v", required = false) String version,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            jakarta.servlet.http.HttpServletRequest request,
+            jakarta.servlet.http.HttpServletResponse response) {
+        PostContentPayloadStore.Payload payload = postService.getPublishedContentPayload(id, version);
+        boolean pinned = StringUtils.hasText(version) && version.equals(payload.version());
+        CacheControl cacheControl = pinned
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+        byte[] gzip = payload.body(ContentEncodingUtils.GZIP);
+        boolean useGzip = gzip != null && ContentEncodingUtils.accepts(acceptEncoding, ContentEncodingUtils.GZIP);
+        // gzip 与 identity 是不同的表示，各用各的 ETag，避免缓存在重新校验后把 gzip 字节交给未声明支持的客户端
+        String etag = useGzip ? ContentEncodingUtils.etagFor(payload.etag(), ContentEncodingUtils.GZIP) : payload.etag();
+        boolean notModified = ConditionalGetInterceptor.notModified(request, response, etag);
+        // 304 同样带上 Cache-Control / Vary，重新校验后缓存沿用同一策略
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (notModified) {
+            return builder.build();
+        }
+        builder.contentType(MediaType.APPLICATION_JSON);
+        if (useGzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, ContentEncodingUtils.GZIP).body(gzip);
+        }
+        return builder.body(payload.identity());
     }
 
     @GetMapping("/{id}/neighbors")
+    @ConditionalGet({ContentRevisionService.Scope.POSTS, ContentRevisionService.Scope.TAXONOMY})
     public ApiResponse<PostNeighborsDto> neighbors(@PathVariable Long id) {
         return ApiResponse.ok(postService.getPublishedNeighbors(id));
     }
 
     @GetMapping("/slug/{slug}")
     public ApiResponse<PostDetailDto> detailBySlug(@PathVariable String slug,
+            @RequestParam(name = "content", defaultValue = "true") boolean includeContent,
             jakarta.servlet.http.HttpServletRequest request,
             @RequestHeader(value = "X-SG-Referrer", required = false) String analyticsReferrer,
             @RequestHeader(value = "X-SG-Source-Label", required = false) String analyticsSourceLabel,
@@ -104,11 +155,11 @@ public class PostController {
         String decodedSourceLabel = decodeHeaderValue(analyticsSourceLabel);
         String visitId = decodeHeaderValue(visitIdHeader);
         AnalyticsRequestDetailContext detailContext = AnalyticsController.buildRequestDetailContext(request, request.getRequestURI(), decodedReferrer);
-        return ApiResponse.ok(postService.getPublishedDetailBySlug(slug, ip, userAgent, userId, decodedReferrer, decodedSourceLabel, visitId, detailContext));
+        return ApiResponse.ok(postService.getPublishedDetailBySlug(slug, ip, userAgent, userId, decodedReferrer, decodedSourceLabel, visitId, detailContext, includeContent));
     }
 
     @PostMapping
-    @PreAuthorize("hasAuthority('PERM_POST_CREATE')")
+    @PreAuthorize("@perm.has(authentication, 'POST_CREATE')")
     public ApiResponse<PostDetailDto> create(@Valid @RequestBody SavePostRequest request,
             @AuthenticationPrincipal UserPrincipal principal) {
         Long uid = principal != null ? principal.getId() : null;
@@ -116,7 +167,7 @@ public class PostController {
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasAuthority('PERM_POST_EDIT')")
+    @PreAuthorize("@perm.has(authentication, 'POST_EDIT')")
     public ApiResponse<PostDetailDto> update(@PathVariable Long id,
             @Valid @RequestBody SavePostRequest request,
             @AuthenticationPrincipal UserPrincipal principal) {
@@ -126,7 +177,7 @@ public class PostController {
     }
 
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasAuthority('PERM_POST_DELETE')")
+    @PreAuthorize("@perm.has(authentication, 'POST_DELETE')")
     public ApiResponse<Void> delete(@PathVariable Long id) {
         postService.delete(id);
         return ApiResponse.ok();
@@ -1,8 +1,10 @@
 package com.sangui.sanguiblog.controller;
 
+import com.sangui.sanguiblog.config.ConditionalGet;
 import com.sangui.sanguiblog.model.dto.ApiResponse;
 import com.sangui.sanguiblog.model.dto.SiteMetaDto;
 import com.sangui.sanguiblog.security.UserPrincipal;
+import com.sangui.sanguiblog.service.ContentRevisionService;
 import com.sangui.sanguiblog.service.SiteService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -23,6 +25,7 @@ public class SiteController {
     private final SiteService siteService;
 
     @GetMapping("/meta")
+    @ConditionalGet({ContentRevisionService.Scope.SITE, ContentRevisionService.Scope.POSTS, ContentRevisionService.Scope.TAXONOMY})
     public ApiResponse<SiteMetaDto> meta() {
         return ApiResponse.ok(siteService.meta());
     }
@@ -1,7 +1,10 @@
 package com.sangui.sanguiblog.controller;
 
+import com.sangui.sanguiblog.config.ConditionalGetInterceptor;
 import com.sangui.sanguiblog.service.SitemapService;
+import com.sangui.sanguiblog.util.ContentEncodingUtils;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
@@ -24,8 +27,9 @@ public class SitemapController {
     @GetMapping(value = "/sitemap.xml", produces = "application/xml; charset=UTF-8")
     public ResponseEntity<byte[]> sitemap(
             HttpServletRequest request,
+            HttpServletResponse response,
             @RequestParam(name = "page", required = false) Integer page,
-            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         SitemapService.SitemapResult result = sitemapService.getSitemapXml(request, page);
         if (result == null) {
@@ -34,72 +38,51 @@ public class SitemapController {
 
         sitemapService.recordSitemapAccess(request);
 
-        if (etagMatches(ifNoneMatch, result.etag())) {
-            ResponseEntity.BodyBuilder builder = ResponseEntity.status(304)
-                    .cacheControl(CacheControl.maxAge(300, TimeUnit.SECONDS).cachePublic())
-                    .header(HttpHeaders.VARY, "Host")
-                    .eTag(result.etag());
-            if (result.lastModifiedMs() > 0) {
-                builder.lastModified(result.lastModifiedMs());
-            }
-            return builder.build();
+        CacheControl cacheControl = CacheControl.maxAge(300, TimeUnit.SECONDS).cachePublic();
+        boolean useGzip = result.gzip() != null && ContentEncodingUtils.accepts(acceptEncoding, ContentEncodingUtils.GZIP);
+        // gzip 与原文各用各的 ETag，重新校验时不会把 gzip 字节交给未声明支持的客户端
+        String etag = useGzip ? ContentEncodingUtils.etagFor(result.etag(), ContentEncodingUtils.GZIP) : result.etag();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, "Host, " + HttpHeaders.ACCEPT_ENCODING);
+        if (result.lastModifiedMs() > 0) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, result.lastModifiedMs());
+        }
+        if (ConditionalGetInterceptor.notModified(request, response, etag)) {
+            return null;
         }
 
         ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
                 .contentType(new MediaType("application", "xml", StandardCharsets.UTF_8))
-                .cacheControl(CacheControl.maxAge(300, TimeUnit.SECONDS).cachePublic())
-                .header(HttpHeaders.VARY, "Host")
-                .eTag(result.etag());
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.VARY, "Host", HttpHeaders.ACCEPT_ENCODING)
+                .eTag(etag);
         if (result.lastModifiedMs() > 0) {
             builder.lastModified(result.lastModifiedMs());
         }
+        // 预压缩字节直接写出，不再每次请求现场压缩
+        if (useGzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, ContentEncodingUtils.GZIP).body(result.gzip());
+        }
         return builder.body(result.body());
     }
 
     @GetMapping(value = "/robots.txt", produces = "text/plain; charset=UTF-8")
-    public ResponseEntity<byte[]> robots(
-            HttpServletRequest request,
-            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
-    ) {
+    public ResponseEntity<byte[]> robots(HttpServletRequest request, HttpServletResponse response) {
         SitemapService.RobotsResult result = sitemapService.getRobotsTxt(request);
         sitemapService.recordRobotsAccess(request);
 
-        if (etagMatches(ifNoneMatch, result.etag())) {
-            return ResponseEntity.status(304)
-                    .cacheControl(CacheControl.maxAge(300, TimeUnit.SECONDS).cachePublic())
-                    .header(HttpHeaders.VARY, "Host")
-                    .eTag(result.etag())
-                    .build();
+        CacheControl cacheControl = CacheControl.maxAge(300, TimeUnit.SECONDS).cachePublic();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, "Host");
+        if (ConditionalGetInterceptor.notModified(request, response, result.etag())) {
+            return null;
         }
 
         return ResponseEntity.ok()
                 .contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
-                .cacheControl(CacheControl.maxAge(300, TimeUnit.SECONDS).cachePublic())
+                .cacheControl(cacheControl)
                 .header(HttpHeaders.VARY, "Host")
                 .eTag(result.etag())
                 .body(result.body());
     }
-
-    private static boolean etagMatches(String ifNoneMatch, String etag) {
-        if (etag == null) {
-            return false;
-        }
-        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
-            return false;
-        }
-        String raw = ifNoneMatch.trim();
-        if ("*".equals(raw)) {
-            return true;
-        }
-        for (String token : raw.split(",")) {
-            String t = token.trim();
-            if (t.startsWith("W/")) {
-                t = t.substring(2).trim();
-            }
-            if (etag.equals(t)) {
-                return true;
-            }
-        }
-        return false;
-    }
 }
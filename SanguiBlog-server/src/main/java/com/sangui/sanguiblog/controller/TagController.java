@@ -1,8 +1,10 @@
 package com.sangui.sanguiblog.controller;
 
+import com.sangui.sanguiblog.config.ConditionalGet;
 import com.sangui.sanguiblog.model.dto.ApiResponse;
 import com.sangui.sanguiblog.model.dto.TagDto;
 import com.sangui.sanguiblog.service.TagService;
+import com.sangui.sanguiblog.service.ContentRevisionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -18,6 +20,7 @@ public class TagController {
     private final TagService tagService;
 
     @GetMapping
+    @ConditionalGet(ContentRevisionService.Scope.TAXONOMY)
     public ApiResponse<List<TagDto>> list() {
         return ApiResponse.ok(tagService.list());
     }
@@ -50,7 +50,7 @@ public class UploadController {
     }
 
     @PostMapping("/post-cover")
-    @PreAuthorize("hasRole('SUPER_ADMIN') or hasAnyAuthority('PERM_POST_CREATE','PERM_POST_EDIT')")
+    @PreAuthorize("hasRole('SUPER_ADMIN') or @perm.hasAny(authentication, 'POST_CREATE', 'POST_EDIT')")
     public ApiResponse<Map<String, String>> uploadPostCover(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "postSlug", required = false) String postSlug) {
@@ -79,7 +79,7 @@ public class UploadController {
     }
 
     @PostMapping("/post-assets/reserve")
-    @PreAuthorize("hasRole('SUPER_ADMIN') or hasAnyAuthority('PERM_POST_CREATE','PERM_POST_EDIT')")
+    @PreAuthorize("hasRole('SUPER_ADMIN') or @perm.hasAny(authentication, 'POST_CREATE', 'POST_EDIT')")
     public ApiResponse<Map<String, String>> reservePostAssetsFolder(
             @RequestParam(value = "folder", required = false) String folder) {
         String slug = StringUtils.hasText(folder)
@@ -89,7 +89,7 @@ public class UploadController {
     }
 
     @PostMapping("/post-assets")
-    @PreAuthorize("hasRole('SUPER_ADMIN') or hasAnyAuthority('PERM_POST_CREATE','PERM_POST_EDIT')")
+    @PreAuthorize("hasRole('SUPER_ADMIN') or @perm.hasAny(authentication, 'POST_CREATE', 'POST_EDIT')")
     public ApiResponse<Map<String, Object>> uploadPostAssets(
             @RequestParam(value = "folder", required = false) String folder,
             @RequestParam("files") List<MultipartFile> files) {
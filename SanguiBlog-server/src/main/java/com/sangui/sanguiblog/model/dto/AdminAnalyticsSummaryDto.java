@@ -67,7 +67,7 @@ public class AdminAnalyticsSummaryDto {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class RecentVisit {
@@ -0,0 +1,17 @@
+package com.sangui.sanguiblog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BotGuardStatsDto {
+    private int delayedInFlight;
+    private int peakDelayedInFlight;
+    private long delayedTotal;
+    private long saturatedTotal;
+}
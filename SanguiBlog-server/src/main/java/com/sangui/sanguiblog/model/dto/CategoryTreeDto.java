@@ -12,4 +12,8 @@ public class CategoryTreeDto {
     private String label;
     private Long parentId;
     private List<CategoryTreeDto> children;
+    /**
+     * 已发布文章数（分类含子分类）；仅公共接口返回
+     */
+    private Long postCount;
 }
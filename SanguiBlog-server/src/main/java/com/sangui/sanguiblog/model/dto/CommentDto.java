@@ -16,6 +16,10 @@ public class CommentDto {
     private Integer likes;
     private Long parentId;
     private List<CommentDto> replies;
+    /**
+     * 楼层接口中表示该根评论下的回复总数（replies 只包含预览部分）
+     */
+    private Integer replyCount;
     private String time;
     private Long postId;
     private String postTitle;
@@ -0,0 +1,22 @@
+package com.sangui.sanguiblog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果：nextCursor 为空表示没有更多数据。
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> records;
+    private String nextCursor;
+    private boolean hasMore;
+    private long total;
+}
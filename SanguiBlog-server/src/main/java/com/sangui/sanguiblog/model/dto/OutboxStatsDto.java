@@ -0,0 +1,22 @@
+package com.sangui.sanguiblog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatsDto {
+    private long pending;
+    private long deadLettered;
+    private long enqueued;
+    private long dispatched;
+    private long coalesced;
+    private long failedAttempts;
+    private long batches;
+    private String lastDispatchAt;
+    private String lastError;
+}
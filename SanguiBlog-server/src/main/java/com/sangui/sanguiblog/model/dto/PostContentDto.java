@@ -0,0 +1,16 @@
+package com.sangui.sanguiblog.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 文章正文载荷：仅包含随正文版本变化的不可变部分，可被客户端按版本长期缓存。
+ */
+@Data
+@Builder
+public class PostContentDto {
+    private Long id;
+    private String version;
+    private String contentMd;
+    private String contentHtml;
+}
@@ -13,4 +13,8 @@ public class PostDetailDto {
     private String readingTime;
     private String metaTitle;
     private String metaDescription;
+    /**
+     * 正文版本号，可用于 /api/posts/{id}/content?v= 获取可长期缓存的正文载荷。
+     */
+    private String contentVersion;
 }
@@ -0,0 +1,18 @@
+package com.sangui.sanguiblog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrerenderRegenerateResponse {
+    private int publishedCount;
+    private int writtenCount;
+    private int skippedCount;
+    private int removedCount;
+    private int failedCount;
+}
@@ -0,0 +1,36 @@
+package com.sangui.sanguiblog.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceDto {
+    /**
+     * 全站在线会话数（含非文章页）
+     */
+    private int online;
+    /**
+     * 正在阅读文章的会话数
+     */
+    private int reading;
+    private Long postId;
+    private Integer postReaders;
+    private List<PostReaders> topPosts;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PostReaders {
+        private Long postId;
+        private String title;
+        private int readers;
+    }
+}
@@ -6,7 +6,7 @@ import lombok.Data;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class SiteMetaDto {
     private SiteStats stats;
     private BroadcastDto broadcast;
@@ -22,7 +22,7 @@ public class SiteMetaDto {
     private AiAssistantDto aiAssistant;
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     public static class SiteStats {
         private long posts;
         private long comments;
@@ -34,7 +34,7 @@ public class SiteMetaDto {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     public static class BroadcastDto {
         private boolean active;
         private String content;
@@ -42,14 +42,14 @@ public class SiteMetaDto {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     public static class TrafficSourceDto {
         private String label;
         private double value;
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     public static class RecentActivityDto {
         private String title;
         private String ip;
@@ -59,7 +59,7 @@ public class SiteMetaDto {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     public static class FooterInfo {
         private Integer year;
         private String brand;
@@ -70,7 +70,7 @@ public class SiteMetaDto {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     public static class AiAssistantDto {
         private boolean enabled;
         private boolean capable;
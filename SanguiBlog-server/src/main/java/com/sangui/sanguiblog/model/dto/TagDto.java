@@ -14,4 +14,8 @@ public class TagDto {
     private String description;
     private Instant createdAt;
     private Instant updatedAt;
+    /**
+     * 已发布文章数；仅公共接口返回
+     */
+    private Long postCount;
 }
@@ -0,0 +1,29 @@
+package com.sangui.sanguiblog.model.entity;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 评论 @ 提及记录：评论创建时解析一次写入，通知补全时按 mentioned_user_id 走索引查找，无需再扫描评论全文。
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "comment_mentions",
+        indexes = @Index(name = "idx_cm_mentioned_user", columnList = "mentioned_user_id, comment_id"))
+public class CommentMention {
+
+    @EmbeddedId
+    private CommentMentionId id = new CommentMentionId();
+
+    public CommentMention() {
+    }
+
+    public CommentMention(Long commentId, Long mentionedUserId) {
+        this.id = new CommentMentionId(commentId, mentionedUserId);
+    }
+}
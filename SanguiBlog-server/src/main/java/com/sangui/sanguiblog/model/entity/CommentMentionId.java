@@ -0,0 +1,26 @@
+package com.sangui.sanguiblog.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CommentMentionId implements Serializable {
+
+    @Column(name = "comment_id")
+    private Long commentId;
+
+    @Column(name = "mentioned_user_id")
+    private Long mentionedUserId;
+}
@@ -11,7 +11,8 @@ import java.time.Instant;
 @Setter
 @ToString
 @Entity
-@Table(name = "comment_notifications")
+@Table(name = "comment_notifications",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cn_recipient_comment", columnNames = {"recipient_id", "comment_id"}))
 public class CommentNotification {
 
     @Id
@@ -0,0 +1,51 @@
+package com.sangui.sanguiblog.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 事务性发件箱：业务事务内写入一行，提交后由 {@code OutboxDispatcher} 批量投递；处理成功即删除。
+ */
+@Getter
+@Setter
+@ToString
+@Entity
+@Table(name = "outbox_events",
+        indexes = {
+                @Index(name = "idx_outbox_due", columnList = "next_attempt_at, id"),
+                @Index(name = "idx_outbox_aggregate", columnList = "aggregate_key, id")
+        })
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 64)
+    private String eventType;
+
+    /**
+     * 合并键：同一键的多条待处理事件只处理最新一条（如同一篇文章的多次保存）。
+     */
+    @Column(name = "aggregate_key", nullable = false, length = 128)
+    private String aggregateKey;
+
+    @Column(length = 1024)
+    private String payload;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 512)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
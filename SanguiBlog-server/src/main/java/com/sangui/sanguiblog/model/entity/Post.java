@@ -58,7 +58,10 @@ public class Post {
     @Column(name = "likes_count")
     private Integer likesCount;
 
-    @Column(name = "comments_count")
+    /**
+     * 已通过评论数，仅由 {@code PostRepository#adjustCommentsCount} 原子维护，实体保存时不回写，避免覆盖并发增减。
+     */
+    @Column(name = "comments_count", updatable = false)
     private Integer commentsCount;
 
     @Column(name = "views_count")
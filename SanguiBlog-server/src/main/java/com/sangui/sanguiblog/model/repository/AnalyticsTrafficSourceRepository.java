@@ -14,6 +14,12 @@ import java.util.Optional;
 public interface AnalyticsTrafficSourceRepository extends JpaRepository<AnalyticsTrafficSource, Long> {
     List<AnalyticsTrafficSource> findByStatDateOrderByVisitsDesc(LocalDate statDate);
 
+    /**
+     * 最近一个有来源统计的日期（走 uk_ats_date_source 索引，无需全表加载）。
+     */
+    @Query("select max(t.statDate) from AnalyticsTrafficSource t")
+    Optional<LocalDate> findLatestStatDate();
+
     Optional<AnalyticsTrafficSource> findByStatDateAndSourceLabel(LocalDate statDate, String sourceLabel);
 
     @Modifying
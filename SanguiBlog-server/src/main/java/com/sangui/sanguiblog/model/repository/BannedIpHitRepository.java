@@ -0,0 +1,22 @@
+package com.sangui.sanguiblog.model.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 封禁命中计数的批量写回，由 {@link BannedIpRepository} 组合实现。
+ */
+public interface BannedIpHitRepository {
+
+    /**
+     * 一条待写回的命中：封禁记录 id、累加次数与最后命中时间。
+     */
+    record HitDelta(Long banId, long hits, LocalDateTime lastHit) {
+    }
+
+    /**
+     * 以一次 JDBC 批量 UPDATE 写回全部命中，语义与 {@link BannedIpRepository#addHits} 相同；
+     * 在同一事务内执行，任一条失败时整体回滚。
+     */
+    void addHitsInBatch(List<HitDelta> deltas);
+}
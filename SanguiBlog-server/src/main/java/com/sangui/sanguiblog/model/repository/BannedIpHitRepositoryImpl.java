@@ -0,0 +1,37 @@
+package com.sangui.sanguiblog.model.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BannedIpHitRepositoryImpl implements BannedIpHitRepository {
+
+    private static final String ADD_HITS_SQL = """
+            update banned_ips
+            set hit_count = hit_count + ?,
+                last_hit_time = case when last_hit_time is null or last_hit_time < ? then ?
+                                     else last_hit_time end
+            where id = ? and enabled = true
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void addHitsInBatch(List<HitDelta> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ADD_HITS_SQL, deltas, deltas.size(), (ps, delta) -> {
+            Timestamp lastHit = delta.lastHit() != null ? Timestamp.valueOf(delta.lastHit()) : null;
+            ps.setLong(1, delta.hits());
+            ps.setTimestamp(2, lastHit);
+            ps.setTimestamp(3, lastHit);
+            ps.setLong(4, delta.banId());
+        });
+    }
+}
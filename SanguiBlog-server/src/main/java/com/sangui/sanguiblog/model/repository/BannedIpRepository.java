@@ -10,17 +10,14 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BannedIpRepository extends JpaRepository<BannedIp, Long> {
+public interface BannedIpRepository extends JpaRepository<BannedIp, Long>, BannedIpHitRepository {
 
     Optional<BannedIp> findByIp(String ip);
 
-    Optional<BannedIp> findByIpAndEnabledTrue(String ip);
-
-    List<BannedIp> findByEnabledTrueAndIpIn(Collection<String> ips);
+    List<BannedIp> findByEnabledTrue();
 
     @Query("""
             select b from BannedIp b
@@ -32,8 +29,18 @@ public interface BannedIpRepository extends JpaRepository<BannedIp, Long> {
                           @Param("enabledOnly") boolean enabledOnly,
                           Pageable pageable);
 
+    /**
+     * 写回缓冲聚合后的命中次数；最后命中时间只向后推进。只累加仍处于启用状态的封禁，
+     * 缓冲期间已被解封的记录不再计数。
+     */
     @Modifying
     @Transactional
-    @Query("update BannedIp b set b.hitCount = b.hitCount + 1, b.lastHitTime = :now where b.ip = :ip and b.enabled = true")
-    int incrementHit(@Param("ip") String ip, @Param("now") LocalDateTime now);
+    @Query("""
+            update BannedIp b
+            set b.hitCount = b.hitCount + :hits,
+                b.lastHitTime = case when b.lastHitTime is null or b.lastHitTime < :lastHit then :lastHit
+                                     else b.lastHitTime end
+            where b.id = :id and b.enabled = true
+            """)
+    int addHits(@Param("id") Long id, @Param("hits") long hits, @Param("lastHit") LocalDateTime lastHit);
 }
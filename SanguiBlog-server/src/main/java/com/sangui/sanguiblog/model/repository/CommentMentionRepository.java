@@ -0,0 +1,12 @@
+package com.sangui.sanguiblog.model.repository;
+
+import com.sangui.sanguiblog.model.entity.CommentMention;
+import com.sangui.sanguiblog.model.entity.CommentMentionId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CommentMentionRepository extends JpaRepository<CommentMention, CommentMentionId> {
+
+    List<CommentMention> findByIdCommentId(Long commentId);
+}
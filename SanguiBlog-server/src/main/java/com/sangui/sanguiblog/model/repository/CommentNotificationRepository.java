@@ -13,6 +13,13 @@ import java.util.List;
 
 public interface CommentNotificationRepository extends JpaRepository<CommentNotification, Long> {
 
+    /**
+     * 与 Java 侧摘要一致：连续空白（即 Java 正则 \s 的字符集）合并为一个空格后截断到 150 字。
+     * 空白字符直接写在字符串字面量里，结果保持列的 utf8mb4 字符集；不用 char(n)，MySQL 的 char() 返回二进制串，
+     * 会让 char_length/left 按字节计数而截断多字节字符。
+     */
+    String EXCERPT_BODY = "trim(regexp_replace(c.content, '[ \t\n\u000B\f\r]+', ' '))";
+
     Page<CommentNotification> findByRecipientIdAndIsReadOrderByCreatedAtDesc(Long recipientId, Boolean isRead, Pageable pageable);
 
     long countByRecipientIdAndIsRead(Long recipientId, Boolean isRead);
@@ -31,6 +38,37 @@ public interface CommentNotificationRepository extends JpaRepository<CommentNoti
     @Query("update CommentNotification n set n.isRead = true, n.readAt = :now where n.recipient.id = :userId and n.isRead = false")
     int markAllAsRead(@Param("userId") Long userId, @Param("now") Instant now);
 
+    /**
+     * 集合式补全：一条 INSERT ... SELECT 为指定用户补齐“文章被评论 / 评论被回复 / 被 @ 提及”的历史通知（标记为已读）。
+     * 已存在的 (recipient_id, comment_id) 由 NOT EXISTS 排除（兼容 H2，不依赖 INSERT IGNORE），唯一键兜底；返回新增行数。
+     */
+    @Modifying
+    @Query(value = "insert into comment_notifications "
+            + "(recipient_id, comment_id, post_id, comment_author_name, comment_excerpt, comment_author_avatar, is_read, created_at, read_at) "
+            + "select :uid, c.id, c.post_id, coalesce(nullif(trim(c.author_name), ''), '访客'), "
+            + "case when char_length(" + EXCERPT_BODY + ") > 150 then concat(left(" + EXCERPT_BODY + ", 150), '...') "
+            + "else " + EXCERPT_BODY + " end, "
+            + "c.author_avatar_url, 1, coalesce(c.created_at, :now), :now "
+            + "from comments c "
+            + "join posts p on p.id = c.post_id "
+            + "left join comments parent on parent.id = c.parent_comment_id "
+            + "where (c.user_id is null or c.user_id <> :uid) "
+            + "and (p.author_id = :uid or parent.user_id = :uid "
+            + "or exists (select 1 from comment_mentions m where m.mentioned_user_id = :uid and m.comment_id = c.id)) "
+            + "and not exists (select 1 from comment_notifications n where n.recipient_id = :uid and n.comment_id = c.id)",
+            nativeQuery = true)
+    int insertMissingForRecipient(@Param("uid") Long uid, @Param("now") Instant now);
+
+    /**
+     * 删除同一用户同一评论的重复通知（唯一键缺失的旧库可能存在），每组保留 id 最大的一条。
+     */
+    @Modifying
+    @Query(value = "delete from comment_notifications where recipient_id = :uid and id not in ("
+            + "select keep_id from (select max(id) as keep_id from comment_notifications "
+            + "where recipient_id = :uid group by comment_id) k)",
+            nativeQuery = true)
+    int deleteDuplicatesForRecipient(@Param("uid") Long uid);
+
     boolean existsByRecipientIdAndCommentId(Long recipientId, Long commentId);
 
     @Query("select n from CommentNotification n where n.recipient.id = :uid and n.isRead = :read and (n.comment.user.id is null or n.comment.user.id <> :uid) order by n.createdAt desc")
@@ -0,0 +1,37 @@
+package com.sangui.sanguiblog.model.repository;
+
+import com.sangui.sanguiblog.model.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("select e from OutboxEvent e where e.nextAttemptAt <= :now and e.attempts < :maxAttempts order by e.id asc")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error "
+            + "where e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("error") String error);
+
+    /**
+     * 删除同一合并键下 id 更小的旧事件（退避中或已成死信、未被本批读到的行），它们已被更新的事件取代。
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from OutboxEvent e where e.aggregateKey = :key and e.id < :id")
+    int deleteSupersededBefore(@Param("key") String key, @Param("id") Long id);
+
+    long countByAttemptsLessThan(int maxAttempts);
+
+    long countByAttemptsGreaterThanEqual(int maxAttempts);
+}
@@ -6,9 +6,11 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -29,7 +31,59 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
     interface PostTagRow {
         Long getPostId();
 
+        Long getTagId();
+
         String getTagName();
+
+        String getTagSlug();
+    }
+
+    /**
+     * 文章列表行投影：只取列表展示所需的列（不含正文），分类/父分类/作者在同一条 SQL 中左连接带出。
+     */
+    interface PostListRow {
+        Long getId();
+
+        String getTitle();
+
+        String getSlug();
+
+        String getExcerpt();
+
+        String getCoverImage();
+
+        String getThemeColor();
+
+        String getStatus();
+
+        Integer getLikesCount();
+
+        Integer getCommentsCount();
+
+        Long getViewsCount();
+
+        LocalDateTime getPublishedAt();
+
+        Long getCategoryId();
+
+        String getCategoryName();
+
+        String getParentCategoryName();
+
+        String getAuthorName();
+
+        String getAuthorAvatar();
+    }
+
+    interface TaxonomyCountRow {
+        /**
+         * C = 分类，T = 标签
+         */
+        String getKind();
+
+        Long getRefId();
+
+        Long getPostCount();
     }
 
     interface SitemapPostRow {
@@ -65,6 +119,40 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
     @Query("select coalesce(sum(p.commentsCount),0) from Post p where (:status is null or p.status = :status)")
     Long sumCommentsByStatus(@Param("status") String status);
 
+    /**
+     * 原子调整已通过评论计数（不会低于 0），避免“读-改-写”并发丢失更新。
+     * updated_at 显式保持原值：posts.updated_at 声明了 ON UPDATE CURRENT_TIMESTAMP，
+     * 评论计数变化不应推动文章的内容版本、站点地图 lastmod 与预渲染快照的过期判断。
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE posts
+            SET comments_count = GREATEST(COALESCE(comments_count, 0) + :delta, 0),
+                updated_at = updated_at
+            WHERE id = :id
+            """, nativeQuery = true)
+    int adjustCommentsCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * 按 comments 表重算已通过评论计数，仅更新与实际不一致的行；返回修正的行数。
+     * 与 {@link #adjustCommentsCount(Long, int)} 一样保持 updated_at 不变。
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE posts p
+            LEFT JOIN (
+                SELECT post_id, COUNT(*) AS cnt
+                FROM comments
+                WHERE status = 'APPROVED'
+                GROUP BY post_id
+            ) c ON c.post_id = p.id
+            SET p.comments_count = COALESCE(c.cnt, 0),
+                p.updated_at = p.updated_at
+            WHERE p.comments_count IS NULL OR p.comments_count <> COALESCE(c.cnt, 0)
+            """, nativeQuery = true)
+    int reconcileApprovedCommentCounts();
+
     @Query(value = """
             SELECT id
             FROM posts
@@ -101,13 +189,79 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
     @Query("select max(p.publishedAt) from Post p where p.status = 'PUBLISHED' and p.publishedAt is not null")
     LocalDateTime findLatestPublishedAt();
 
-    @EntityGraph(attributePaths = { "category", "category.parent", "author" })
-    @Query("select p from Post p where p.status = 'PUBLISHED' and p.publishedAt is not null "
-            + "and function('year', p.publishedAt) = :year and function('month', p.publishedAt) = :month")
-    Page<Post> findPublishedByYearMonth(@Param("year") int year, @Param("month") int month, Pageable pageable);
+    @Query(value = """
+            select p.id as id, p.title as title, p.slug as slug, p.excerpt as excerpt, p.coverImage as coverImage,
+                   p.themeColor as themeColor, p.status as status, p.likesCount as likesCount,
+                   p.commentsCount as commentsCount, p.viewsCount as viewsCount, p.publishedAt as publishedAt,
+                   c.id as categoryId, c.name as categoryName, cp.name as parentCategoryName,
+                   a.displayName as authorName, a.avatarUrl as authorAvatar
+            from Post p left join p.category c left join c.parent cp left join p.author a
+            where p.status = 'PUBLISHED'
+              and (:categoryId is null or c.id = :categoryId or cp.id = :categoryId)
+              and (:tagId is null or exists (select 1 from Post tp join tp.tags t where tp.id = p.id and t.id = :tagId))
+              and (:keyword is null or p.title like :keyword or p.excerpt like :keyword)
+            order by p.publishedAt desc, p.createdAt desc
+            """, countQuery = """
+            select count(p) from Post p left join p.category c left join c.parent cp
+            where p.status = 'PUBLISHED'
+              and (:categoryId is null or c.id = :categoryId or cp.id = :categoryId)
+              and (:tagId is null or exists (select 1 from Post tp join tp.tags t where tp.id = p.id and t.id = :tagId))
+              and (:keyword is null or p.title like :keyword or p.excerpt like :keyword)
+            """)
+    Page<PostListRow> findPublishedListRows(@Param("categoryId") Long categoryId, @Param("tagId") Long tagId,
+            @Param("keyword") String keyword, Pageable pageable);
 
-    @Query("select p.id as postId, t.name as tagName from Post p join p.tags t where p.id in :postIds")
-    List<PostTagRow> findTagNamesByPostIds(@Param("postIds") List<Long> postIds);
+    /**
+     * 归档月份文章：按 [from, to) 区间过滤 published_at，可以走索引（不对列套 YEAR()/MONTH()）。
+     */
+    @Query(value = """
+            select p.id as id, p.title as title, p.slug as slug, p.excerpt as excerpt, p.coverImage as coverImage,
+                   p.themeColor as themeColor, p.status as status, p.likesCount as likesCount,
+                   p.commentsCount as commentsCount, p.viewsCount as viewsCount, p.publishedAt as publishedAt,
+                   c.id as categoryId, c.name as categoryName, cp.name as parentCategoryName,
+                   a.displayName as authorName, a.avatarUrl as authorAvatar
+            from Post p left join p.category c left join c.parent cp left join p.author a
+            where p.status = 'PUBLISHED' and p.publishedAt >= :from and p.publishedAt < :to
+            order by p.publishedAt desc, p.createdAt desc
+            """, countQuery = """
+            select count(p) from Post p
+            where p.status = 'PUBLISHED' and p.publishedAt >= :from and p.publishedAt < :to
+            """)
+    Page<PostListRow> findPublishedListRowsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            Pageable pageable);
+
+    @Query(value = """
+            select p.id as id, p.title as title, p.slug as slug, p.excerpt as excerpt, p.coverImage as coverImage,
+                   p.themeColor as themeColor, p.status as status, p.likesCount as likesCount,
+                   p.commentsCount as commentsCount, p.viewsCount as viewsCount, p.publishedAt as publishedAt,
+                   c.id as categoryId, c.name as categoryName, cp.name as parentCategoryName,
+                   a.displayName as authorName, a.avatarUrl as authorAvatar
+            from Post p left join p.category c left join c.parent cp left join p.author a
+            where (:categoryId is null or c.id = :categoryId)
+              and (:keyword is null or p.title like :keyword or p.slug like :keyword or p.excerpt like :keyword)
+            order by p.publishedAt desc, p.createdAt desc
+            """, countQuery = """
+            select count(p) from Post p left join p.category c
+            where (:categoryId is null or c.id = :categoryId)
+              and (:keyword is null or p.title like :keyword or p.slug like :keyword or p.excerpt like :keyword)
+            """)
+    Page<PostListRow> findAdminListRows(@Param("categoryId") Long categoryId, @Param("keyword") String keyword,
+            Pageable pageable);
+
+    @Query("""
+            select p.id as id, p.title as title, p.slug as slug, p.excerpt as excerpt, p.coverImage as coverImage,
+                   p.themeColor as themeColor, p.status as status, p.likesCount as likesCount,
+                   p.commentsCount as commentsCount, p.viewsCount as viewsCount, p.publishedAt as publishedAt,
+                   c.id as categoryId, c.name as categoryName, cp.name as parentCategoryName,
+                   a.displayName as authorName, a.avatarUrl as authorAvatar
+            from Post p left join p.category c left join c.parent cp left join p.author a
+            where p.status = 'PUBLISHED' and p.id in :ids
+            """)
+    List<PostListRow> findPublishedListRowsByIds(@Param("ids") List<Long> ids);
+
+    @Query("select p.id as postId, t.id as tagId, t.name as tagName, t.slug as tagSlug "
+            + "from Post p join p.tags t where p.id in :postIds")
+    List<PostTagRow> findTagsByPostIds(@Param("postIds") List<Long> postIds);
 
     @EntityGraph(attributePaths = { "category", "category.parent", "tags" })
     @Query(
@@ -164,6 +318,24 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
             + "order by p.publishedAt desc, p.createdAt desc")
     List<SitemapPostRow> findPublishedForSitemap();
 
+    @Query("select p.id as id, p.publishedAt as publishedAt, p.updatedAt as updatedAt from Post p "
+            + "where p.id in :ids and p.status = 'PUBLISHED' and p.publishedAt is not null")
+    List<SitemapPostRow> findPublishedForSitemapByIds(@Param("ids") List<Long> ids);
+
+    @Query(value = """
+            SELECT 'C' AS kind, p.category_id AS refId, COUNT(*) AS postCount
+            FROM posts p
+            WHERE p.status = :status AND p.category_id IS NOT NULL
+            GROUP BY p.category_id
+            UNION ALL
+            SELECT 'T' AS kind, pt.tag_id AS refId, COUNT(DISTINCT pt.post_id) AS postCount
+            FROM post_tags pt
+            JOIN posts p ON p.id = pt.post_id
+            WHERE p.status = :status
+            GROUP BY pt.tag_id
+            """, nativeQuery = true)
+    List<TaxonomyCountRow> countByTaxonomyAndStatus(@Param("status") String status);
+
     @EntityGraph(attributePaths = { "category", "category.parent", "tags" })
     @Query("select p from Post p where p.status = 'PUBLISHED' and p.publishedAt is not null "
             + "order by p.publishedAt desc, p.createdAt desc")
@@ -173,6 +345,10 @@ public interface PostRepository extends JpaRepository<Post, Long>, JpaSpecificat
     @Query("select p from Post p where p.id = :id")
     Optional<Post> findKnowledgeSourceById(@Param("id") Long id);
 
+    @EntityGraph(attributePaths = { "category", "category.parent", "tags", "author" })
+    @Query("select p from Post p where p.id in :ids")
+    List<Post> findPrerenderSourcesByIds(@Param("ids") List<Long> ids);
+
     @Query("select p from Post p where p.status = 'PUBLISHED' and p.publishedAt is not null "
             + "and p.category.id = :categoryId and p.id <> :postId "
             + "order by p.publishedAt desc, p.createdAt desc")
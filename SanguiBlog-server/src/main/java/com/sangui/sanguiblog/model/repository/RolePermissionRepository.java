@@ -3,6 +3,7 @@ package com.sangui.sanguiblog.model.repository;
 import com.sangui.sanguiblog.model.entity.RolePermission;
 import com.sangui.sanguiblog.model.entity.RolePermissionId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -13,4 +14,7 @@ public interface RolePermissionRepository extends JpaRepository<RolePermission,
     List<RolePermission> findByRole_Code(String roleCode);
 
     void deleteByRole_Id(Long roleId);
+
+    @Query("select rp from RolePermission rp join fetch rp.role join fetch rp.permission")
+    List<RolePermission> findAllWithRoleAndPermission();
 }
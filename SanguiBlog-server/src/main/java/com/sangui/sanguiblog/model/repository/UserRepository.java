@@ -9,6 +9,10 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     Optional<User> findByUsername(String username);
 
+    Optional<User> findFirstByRole_CodeOrderByIdAsc(String roleCode);
+
+    Optional<User> findFirstByOrderByIdAsc();
+
     Optional<User> findByUsernameIgnoreCase(String username);
 
     Optional<User> findByEmailIgnoreCase(String email);
@@ -23,15 +23,14 @@ public class CustomUserDetailsService implements UserDetailsService {
         return toUserPrincipal(user);
     }
 
-    public UserDetails loadUserById(Long userId) throws UsernameNotFoundException {
+    public UserPrincipal loadUserById(Long userId) throws UsernameNotFoundException {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         return toUserPrincipal(user);
     }
 
-    private UserDetails toUserPrincipal(User user) {
-        var permissionCodes = permissionService.permissionsForRole(
-                user.getRole() != null ? user.getRole().getCode() : "USER");
-        return new UserPrincipal(user, permissionCodes);
+    private UserPrincipal toUserPrincipal(User user) {
+        String roleCode = user.getRole() != null ? user.getRole().getCode() : "USER";
+        return UserPrincipal.withAuthorities(user, permissionService.authoritiesForRole(roleCode));
     }
 }
@@ -1,13 +1,14 @@
 package com.sangui.sanguiblog.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,30 +21,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
         String username = null;
         Long userId = null;
-        String jwt = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
-            try {
-                userId = jwtUtil.extractUserId(jwt);
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception ignored) {
-                // invalid token -> continue without auth
-            }
+        long issuedAt = 0L;
+
+        // BotGuardFilter 在前面可能已校验过，这里直接复用请求属性中的声明；无效 token 返回 null，按匿名继续
+        Claims claims = jwtUtil.verifiedClaims(request);
+        if (claims != null) {
+            userId = JwtUtil.userIdOf(claims);
+            username = claims.getSubject();
+            issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
         }
 
         if ((userId != null || username != null) && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = userId != null
-                    ? userDetailsService.loadUserById(userId)
-                    : userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails;
+            if (userId != null) {
+                Long uid = userId;
+                userDetails = principalCache.get(uid, issuedAt,
+                        () -> userDetailsService.loadUserById(uid));
+            } else {
+                userDetails = userDetailsService.loadUserByUsername(username);
+            }
             var authToken = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
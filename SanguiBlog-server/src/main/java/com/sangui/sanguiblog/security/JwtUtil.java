@@ -1,15 +1,25 @@
 package com.sangui.sanguiblog.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
 import java.util.function.Function;
@@ -17,17 +27,42 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
+    /**
+     * 本次请求中已校验的声明（{@link Claims}），由 {@link #verifiedClaims(HttpServletRequest)} 写入；
+     * 无 token 或 token 无效时写入 {@link #NO_CLAIMS}，后续过滤器不再重复解析。
+     */
+    public static final String VERIFIED_CLAIMS_ATTRIBUTE = JwtUtil.class.getName() + ".VERIFIED_CLAIMS";
+    private static final Object NO_CLAIMS = new Object();
+
     private final Key key;
+    private final JwtParser parser;
     private final long expirationMinutes;
     private final String issuer;
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtUtil(String secret, long expirationMinutes, String issuer) {
+        this(secret, expirationMinutes, issuer, 10_000L, 300L);
+    }
 
+    /**
+     * 已校验 token 缓存：键为 token 的 SHA-256 摘要（不在内存中保留原始 token），值为解析后的声明；
+     * 条目写入后按 ttl 过期，命中时再检查 token 自身的过期时间，过期则移除并重新校验（随即抛出过期异常）。
+     */
+    @Autowired
     public JwtUtil(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration-minutes:180}") long expirationMinutes,
-            @Value("${jwt.issuer:sangui-blog}") String issuer) {
+            @Value("${jwt.issuer:sangui-blog}") String issuer,
+            @Value("${jwt.verified-cache.max-size:10000}") long verifiedCacheSize,
+            @Value("${jwt.verified-cache.ttl-seconds:300}") long verifiedCacheTtlSeconds) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
         this.expirationMinutes = expirationMinutes;
         this.issuer = issuer;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(Math.max(1L, verifiedCacheSize))
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1L, verifiedCacheTtlSeconds)))
+                .build();
     }
 
     public String generateToken(String username, Map<String, Object> claims) {
@@ -47,7 +82,64 @@ public class JwtUtil {
     }
 
     public Long extractUserId(String token) {
-        Object uid = extractClaim(token, claims -> claims.get("uid"));
+        return extractClaim(token, JwtUtil::userIdOf);
+    }
+
+    /**
+     * 校验签名与过期时间并返回全部声明；需要读取多个声明时只解析一次。
+     */
+    public Claims parseClaims(String token) {
+        return extractClaim(token, claims -> claims);
+    }
+
+    /**
+     * 读取请求头中的 Bearer token 并返回已校验的声明；同一请求内只解析一次（结果记录在请求属性中），
+     * 跨请求由摘要缓存复用。没有 token 或 token 无效时返回 null。
+     */
+    public Claims verifiedClaims(HttpServletRequest request) {
+        Object cached = request.getAttribute(VERIFIED_CLAIMS_ATTRIBUTE);
+        if (cached instanceof Claims claims) {
+            return claims;
+        }
+        if (cached == NO_CLAIMS) {
+            return null;
+        }
+        Claims claims = null;
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            if (!token.isBlank()) {
+                try {
+                    claims = verifiedClaims(token);
+                } catch (Exception ignored) {
+                    // invalid token -> treated as anonymous
+                }
+            }
+        }
+        request.setAttribute(VERIFIED_CLAIMS_ATTRIBUTE, claims != null ? claims : NO_CLAIMS);
+        return claims;
+    }
+
+    /**
+     * 与 {@link #parseClaims(String)} 语义一致（无效或过期时抛出异常），但最近校验过的 token 直接复用声明。
+     */
+    public Claims verifiedClaims(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims != null) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null || expiration.getTime() > System.currentTimeMillis()) {
+                return claims;
+            }
+            verifiedTokens.invalidate(digest);
+        }
+        Claims parsed = parseClaims(token);
+        verifiedTokens.put(digest, parsed);
+        return parsed;
+    }
+
+    public static Long userIdOf(Claims claims) {
+        Object uid = claims.get("uid");
         if (uid instanceof Number number) {
             return number.longValue();
         }
@@ -62,11 +154,16 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        final Claims claims = parser.parseClaimsJws(token).getBody();
         return claimsResolver.apply(claims);
     }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package com.sangui.sanguiblog.security;
+
+import com.sangui.sanguiblog.service.PermissionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * 供 {@code @PreAuthorize} 表达式调用的权限判断，直接查询当前权限矩阵快照：
+ * {@code @PreAuthorize("@perm.has(authentication, 'POST_EDIT')")}。
+ * 与 hasAuthority 不同，结果随权限矩阵的调整即时生效，不依赖已缓存身份中的授权列表。
+ */
+@Component("perm")
+@RequiredArgsConstructor
+public class PermissionChecks {
+
+    private final PermissionService permissionService;
+
+    public boolean has(Authentication authentication, String permissionCode) {
+        String roleCode = roleCode(authentication);
+        return roleCode != null && permissionService.hasPermission(roleCode, permissionCode);
+    }
+
+    public boolean hasAny(Authentication authentication, String... permissionCodes) {
+        String roleCode = roleCode(authentication);
+        if (roleCode == null || permissionCodes == null) {
+            return false;
+        }
+        for (String permissionCode : permissionCodes) {
+            if (permissionService.hasPermission(roleCode, permissionCode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String roleCode(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            return null;
+        }
+        return principal.getRoleCode();
+    }
+}
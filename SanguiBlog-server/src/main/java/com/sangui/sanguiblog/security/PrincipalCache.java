@@ -0,0 +1,84 @@
+package com.sangui.sanguiblog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sangui.sanguiblog.util.AfterCommit;
+import com.sangui.sanguiblog.util.VersionedSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 已验证身份的 {@link UserPrincipal} 缓存，避免每个带 token 的请求都查询用户与角色权限。
+ *
+ * 说明：
+ * - 键为 (userId, token 签发时间, 用户版本号)；用户被修改（后台编辑/删除、改密码、改用户名）时递增该用户版本号，
+ *   之后的请求自然落到新键上重新加载；并发请求在失效前读到的旧数据只会写入旧键，不会再被命中；
+ * - 角色权限调整时通过 {@link VersionedSnapshot#refresh()} 整体换上一个空缓存，失效前开始的加载只会写进已被替换的旧缓存；
+ * - 失效在调用时执行一次、事务提交后再执行一次，覆盖“提交前读取旧数据”的窗口；
+ * - 条目数量有上限并设置写入后过期，作为兜底。
+ */
+@Component
+public class PrincipalCache {
+
+    private record Key(long userId, long issuedAt, long userVersion) {
+    }
+
+    private final VersionedSnapshot<Cache<Key, UserPrincipal>> principals;
+    private final Map<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+
+    public PrincipalCache() {
+        this(10_000L, 300L);
+    }
+
+    @Autowired
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.principals = new VersionedSnapshot<>(() -> Caffeine.newBuilder()
+                .maximumSize(Math.max(1L, maxSize))
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1L, ttlSeconds)))
+                .<Key, UserPrincipal>build());
+    }
+
+    public UserPrincipal get(long userId, long issuedAt, Supplier<UserPrincipal> loader) {
+        Key key = new Key(userId, issuedAt, userVersion(userId));
+        return principals.get().get(key, k -> loader.get());
+    }
+
+    /**
+     * 用户资料/角色/密码变化：该用户的所有已缓存身份失效。
+     */
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        AfterCommit.runNowAndAfterCommit(() -> bumpUser(userId));
+    }
+
+    /**
+     * 角色权限变化：所有已缓存身份失效（低频操作，无需按角色区分）。
+     */
+    public void evictAll() {
+        AfterCommit.runNowAndAfterCommit(principals::refresh);
+    }
+
+    public long size() {
+        return principals.get().estimatedSize();
+    }
+
+    private long userVersion(long userId) {
+        AtomicLong version = userVersions.get(userId);
+        return version != null ? version.get() : 0L;
+    }
+
+    private void bumpUser(long userId) {
+        userVersions.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+        principals.get().asMap().keySet().removeIf(key -> key.userId() == userId);
+    }
+}
@@ -36,6 +36,21 @@ public class UserPrincipal implements UserDetails {
         this.authorities = grants;
     }
 
+    private UserPrincipal(User user, List<GrantedAuthority> authorities) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.password = Objects.toString(user.getPasswordHash(), "");
+        this.roleCode = user.getRole() != null ? user.getRole().getCode() : "USER";
+        this.authorities = authorities;
+    }
+
+    /**
+     * 使用权限矩阵快照中预先构建的不可变授权列表（已含 ROLE_xxx），不再逐个创建授权对象。
+     */
+    public static UserPrincipal withAuthorities(User user, List<GrantedAuthority> authorities) {
+        return new UserPrincipal(user, authorities != null ? authorities : List.of());
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -0,0 +1,108 @@
+package com.sangui.sanguiblog.security.botguard;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BotGuard DELAY 的非阻塞实现：请求进入异步模式后立即释放 Tomcat 工作线程，
+ * 由单个调度线程在延迟到期后 {@link AsyncContext#dispatch()} 重新派发，后续过滤器链与控制器照常执行。
+ *
+ * 说明：
+ * - 异步派发时 OncePerRequestFilter（包括 BotGuardFilter 自身）默认跳过，不会重复评分或再次延迟；
+ * - 同时处于延迟中的请求数有上限，超过时由调用方直接返回 429，避免爬虫突发把延迟队列无限堆高；
+ * - 容器不支持异步（例如部分测试环境）时返回 {@link Outcome#UNSUPPORTED}，调用方回退为同步等待。
+ */
+@Component
+public class BotGuardDelayScheduler implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BotGuardDelayScheduler.class);
+    private static final long ASYNC_TIMEOUT_GRACE_MS = 30_000L;
+
+    public enum Outcome {
+        SCHEDULED,
+        SATURATED,
+        UNSUPPORTED
+    }
+
+    private final BotGuardProperties props;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "bot-guard-delay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong delayed = new AtomicLong();
+    private final AtomicLong saturated = new AtomicLong();
+
+    public BotGuardDelayScheduler(BotGuardProperties props) {
+        this.props = props;
+    }
+
+    public Outcome delay(HttpServletRequest request, int delayMs) {
+        if (!request.isAsyncSupported()) {
+            return Outcome.UNSUPPORTED;
+        }
+        int current = inFlight.incrementAndGet();
+        if (current > Math.max(1, props.getMaxDelayedInFlight())) {
+            inFlight.decrementAndGet();
+            saturated.incrementAndGet();
+            return Outcome.SATURATED;
+        }
+        peakInFlight.accumulateAndGet(current, Math::max);
+        delayed.incrementAndGet();
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(Math.max(0, delayMs) + ASYNC_TIMEOUT_GRACE_MS);
+        Runnable resume = () -> {
+            inFlight.decrementAndGet();
+            try {
+                asyncContext.dispatch();
+            } catch (IllegalStateException e) {
+                // 客户端已断开或请求已结束
+                log.debug("BotGuard 延迟请求恢复失败: {}", e.getMessage());
+            }
+        };
+        try {
+            scheduler.schedule(resume, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            resume.run();
+        }
+        return Outcome.SCHEDULED;
+    }
+
+    /**
+     * 当前处于延迟中的请求数（已释放工作线程、等待重新派发）。
+     */
+    public int inFlight() {
+        return Math.max(0, inFlight.get());
+    }
+
+    public int peakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public long delayedTotal() {
+        return delayed.get();
+    }
+
+    public long saturatedTotal() {
+        return saturated.get();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
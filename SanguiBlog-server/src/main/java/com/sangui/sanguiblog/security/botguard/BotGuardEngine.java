@@ -68,33 +68,26 @@ public class BotGuardEngine {
 
         boolean publicRead = isPublicRead(method, path);
 
-        String cSegment = toCSegment(ip);
+        String cSegment = IpUtils.segment(ip);
         int cSegmentUnique = cSegmentStates.get(cSegment, k -> new CSegmentState()).touchAndCount(ip, nowSec);
 
         String guardToken = findCookieValue(request.getCookies(), props.getGuardCookieName());
         boolean verified = captchaService.isVerified(guardToken, ua, cSegment);
 
         IpRiskState state = ipStates.get(ip, k -> new IpRiskState());
-        state.total.increment(nowSec);
-        if (!hasCookie && !publicRead) {
-            state.noCookie.increment(nowSec);
-        }
-        if (!StringUtils.hasText(referer) && !publicRead) {
-            state.emptyReferer.increment(nowSec);
-        }
         boolean assetReq = isAssetRequest(path);
-        if (assetReq) {
-            state.asset.increment(nowSec);
-        } else {
-            state.content.increment(nowSec);
-        }
+        state.record(nowSec,
+                !hasCookie && !publicRead,
+                !StringUtils.hasText(referer) && !publicRead,
+                assetReq);
         state.touchInterval(nowMs);
 
-        int perMin = state.total.sum(nowSec);
-        int noCookiePerMin = state.noCookie.sum(nowSec);
-        int emptyRefPerMin = state.emptyReferer.sum(nowSec);
-        int contentPerMin = state.content.sum(nowSec);
-        int assetPerMin = state.asset.sum(nowSec);
+        IpRiskState.WindowCounts window = state.counts(nowSec);
+        int perMin = window.total();
+        int noCookiePerMin = window.noCookie();
+        int emptyRefPerMin = window.emptyReferer();
+        int contentPerMin = window.content();
+        int assetPerMin = window.asset();
 
         double delta = 0.0;
 
@@ -259,26 +252,6 @@ public class BotGuardEngine {
         return null;
     }
 
-    private static String toCSegment(String ip) {
-        if (!StringUtils.hasText(ip)) {
-            return "0.0.0";
-        }
-        String normalized = IpUtils.normalizeIp(ip);
-        if (normalized.contains(".")) {
-            String[] parts = normalized.split("\\.");
-            if (parts.length >= 3) {
-                return parts[0] + "." + parts[1] + "." + parts[2];
-            }
-            return normalized;
-        }
-        String lower = normalized.toLowerCase(Locale.ROOT);
-        String[] parts = lower.split(":");
-        if (parts.length >= 4) {
-            return parts[0] + ":" + parts[1] + ":" + parts[2] + ":" + parts[3];
-        }
-        return lower;
-    }
-
     private static boolean isAssetRequest(String path) {
         if (!StringUtils.hasText(path)) {
             return false;
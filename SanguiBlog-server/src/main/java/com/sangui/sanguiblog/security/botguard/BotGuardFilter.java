@@ -3,6 +3,7 @@ package com.sangui.sanguiblog.security.botguard;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sangui.sanguiblog.model.dto.ApiResponse;
 import com.sangui.sanguiblog.security.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,12 +25,15 @@ public class BotGuardFilter extends OncePerRequestFilter {
     private final BotGuardProperties props;
     private final ObjectMapper objectMapper;
     private final JwtUtil jwtUtil;
+    private final BotGuardDelayScheduler delayScheduler;
 
-    public BotGuardFilter(BotGuardEngine engine, BotGuardProperties props, ObjectMapper objectMapper, JwtUtil jwtUtil) {
+    public BotGuardFilter(BotGuardEngine engine, BotGuardProperties props, ObjectMapper objectMapper, JwtUtil jwtUtil,
+                          BotGuardDelayScheduler delayScheduler) {
         this.engine = engine;
         this.props = props;
         this.objectMapper = objectMapper;
         this.jwtUtil = jwtUtil;
+        this.delayScheduler = delayScheduler;
     }
 
     @Override
@@ -62,7 +66,18 @@ public class BotGuardFilter extends OncePerRequestFilter {
         }
 
         if (decision.action() == BotGuardAction.DELAY) {
-            safeSleep(decision.delayMs());
+            // 异步延迟：不占用工作线程，到期后由容器重新派发（本过滤器在异步派发时跳过）
+            switch (delayScheduler.delay(request, decision.delayMs())) {
+                case SCHEDULED -> {
+                    return;
+                }
+                case SATURATED -> {
+                    writeBlocked(request, response, new BotGuardDecision(BotGuardAction.BLOCK,
+                            decision.riskScore(), 0, 1));
+                    return;
+                }
+                case UNSUPPORTED -> safeSleep(decision.delayMs());
+            }
             filterChain.doFilter(request, response);
             return;
         }
@@ -81,20 +96,8 @@ public class BotGuardFilter extends OncePerRequestFilter {
     }
 
     private boolean hasValidJwt(HttpServletRequest request) {
-        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            return false;
-        }
-        String token = authHeader.substring(7);
-        if (token.isBlank()) {
-            return false;
-        }
-        try {
-            String username = jwtUtil.extractUsername(token);
-            return username != null && !username.isBlank();
-        } catch (Exception ignored) {
-            return false;
-        }
+        Claims claims = jwtUtil.verifiedClaims(request);
+        return claims != null && claims.getSubject() != null && !claims.getSubject().isBlank();
     }
 
     private void writeCaptchaRequired(HttpServletRequest request, HttpServletResponse response, BotGuardDecision decision)
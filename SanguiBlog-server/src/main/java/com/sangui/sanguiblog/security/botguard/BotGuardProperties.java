@@ -25,8 +25,12 @@ public class BotGuardProperties {
 
     private int delayMinMs = 120;
     private int delayMaxMs = 420;
+    /**
+     * 同时处于异步延迟中的请求上限，超过后直接返回 429。
+     */
+    private int maxDelayedInFlight = 2000;
 
-    private long maxIpStates = 20000;
+    private long maxIpStates = 100000;
     private long maxCSegmentStates = 5000;
     private long maxGuardTokens = 20000;
 
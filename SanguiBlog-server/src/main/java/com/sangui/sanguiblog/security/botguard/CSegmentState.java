@@ -1,43 +1,113 @@
 package com.sangui.sanguiblog.security.botguard;
 
-import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Locale;
 
+/**
+ * 同一网段（IPv4 /24、IPv6 前 64 位）最近 60 秒内的不同 IP 数。
+ *
+ * 说明：
+ * - 网段内主机映射到 256 个槽位：IPv4 直接取最后一段（精确计数），IPv6 取地址哈希的低 8 位；
+ * - 每秒一个 256 位位图，记录“最后一次出现在这一秒”的槽位；槽位再次出现时从旧秒位图移到当前秒位图；
+ * - 时间前进时，滑出窗口的那一秒位图整体清零并从活跃数中减去其 bitCount；每一秒只会被清理一次，
+ *   因此单次调用均摊 O(1)，不再遍历网段内所有 IP；
+ * - IPv6 的活跃槽位数按线性计数（-m·ln(1 - k/m)）估算不同主机数；该量级（评分阈值 30/50/80）下误差在几个百分点内，
+ *   比 HyperLogLog 更准且与 IPv4 共用同一结构。
+ */
 final class CSegmentState {
-    private final ConcurrentHashMap<String, Long> ipLastSeenSec = new ConcurrentHashMap<>();
+    private static final int WINDOW_SECONDS = 60;
+    private static final int SLOTS = 256;
+    private static final int WORDS = SLOTS / Long.SIZE;
 
-    int touchAndCount(String ip, long nowSec) {
+    /** 每个槽位最后出现的秒（相对 baseSec，0 表示从未出现）。 */
+    private final int[] lastSeen = new int[SLOTS];
+    /** 60 个每秒位图，按 (秒 % 60) * WORDS 平铺。 */
+    private final long[] bySecond = new long[WINDOW_SECONDS * WORDS];
+    private long baseSec = -1;
+    private long headSec;
+    private int active;
+
+    synchronized int touchAndCount(String ip, long nowSec) {
         if (ip == null || ip.isBlank()) {
             return 0;
         }
-        ipLastSeenSec.put(ip, nowSec);
-        if (ipLastSeenSec.size() > 4096) {
-            cleanup(nowSec);
+        int v4Slot = ipv4HostSlot(ip);
+        int slot = v4Slot >= 0 ? v4Slot : hashedSlot(ip);
+
+        if (baseSec < 0) {
+            baseSec = nowSec - 1;
+            headSec = nowSec;
+        }
+        long now = Math.max(nowSec, headSec);
+        advance(now);
+
+        int rel = (int) (now - baseSec);
+        int seen = lastSeen[slot];
+        if (seen > 0 && rel - seen < WINDOW_SECONDS) {
+            clear((int) ((baseSec + seen) % WINDOW_SECONDS), slot);
+        } else {
+            active++;
         }
-        return countActive(nowSec);
+        set((int) (now % WINDOW_SECONDS), slot);
+        lastSeen[slot] = rel;
+        return v4Slot >= 0 ? active : estimate(active);
     }
 
-    private int countActive(long nowSec) {
-        int count = 0;
-        for (Map.Entry<String, Long> e : ipLastSeenSec.entrySet()) {
-            Long sec = e.getValue();
-            if (sec != null && nowSec - sec < 60) {
-                count++;
+    /**
+     * 推进到 now：即将复用的每秒位图里是 60 秒前最后出现的槽位，清零并扣减活跃数。
+     */
+    private void advance(long now) {
+        long steps = Math.min(now - headSec, WINDOW_SECONDS);
+        for (long s = 1; s <= steps; s++) {
+            int offset = (int) ((headSec + s) % WINDOW_SECONDS) * WORDS;
+            for (int w = 0; w < WORDS; w++) {
+                active -= Long.bitCount(bySecond[offset + w]);
+                bySecond[offset + w] = 0L;
             }
         }
-        return count;
+        headSec = now;
+    }
+
+    private void set(int second, int slot) {
+        bySecond[second * WORDS + (slot >>> 6)] |= 1L << slot;
+    }
+
+    private void clear(int second, int slot) {
+        bySecond[second * WORDS + (slot >>> 6)] &= ~(1L << slot);
     }
 
-    private void cleanup(long nowSec) {
-        Iterator<Map.Entry<String, Long>> it = ipLastSeenSec.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, Long> e = it.next();
-            Long sec = e.getValue();
-            if (sec == null || nowSec - sec >= 60) {
-                it.remove();
+    private static int estimate(int occupied) {
+        if (occupied >= SLOTS) {
+            return (int) Math.round(SLOTS * Math.log(SLOTS));
+        }
+        return (int) Math.round(-SLOTS * Math.log(1.0 - (double) occupied / SLOTS));
+    }
+
+    /**
+     * IPv4（含 ::ffff: 映射）取最后一段作为槽位；不是 IPv4 时返回 -1。
+     */
+    private static int ipv4HostSlot(String ip) {
+        int dot = ip.lastIndexOf('.');
+        if (dot < 0 || dot == ip.length() - 1) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = dot + 1; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c < '0' || c > '9' || i - dot > 3) {
+                return -1;
             }
+            value = value * 10 + (c - '0');
         }
+        return value <= 255 ? value : -1;
     }
-}
 
+    private static int hashedSlot(String ip) {
+        int h = ip.toLowerCase(Locale.ROOT).hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & (SLOTS - 1);
+    }
+}
@@ -1,11 +1,35 @@
 package com.sangui.sanguiblog.security.botguard;
 
+/**
+ * 单个 IP 的风险状态。
+ *
+ * 最近 60 秒的五个计数维度（总数/无 Cookie/无 Referer/内容/静态资源）压缩在一个 long[60] 环中：
+ * - 每秒一个槽位：低 4 位是分钟代号（(秒 / 60) & 0xF），其上依次是五个 12 位计数（单秒饱和于 4095，远高于评分阈值）；
+ * - 读取时按当前时间推算每个槽位应有的分钟代号，不匹配即视为过期并清零，语义与原先“每维度一个 60 秒滑动窗口”一致；
+ * - 过期槽位在每次读取时清零，代号（16 分钟一轮）不会与闲置槽位混淆——闲置 10 分钟的 IP 已被缓存淘汰。
+ * 每个 IP 约 0.5 KB（原先五个原子数组计数器约 4 KB），同样的堆可跟踪多数倍的 IP。
+ */
 final class IpRiskState {
-    final RollingWindowCounter60s total = new RollingWindowCounter60s();
-    final RollingWindowCounter60s noCookie = new RollingWindowCounter60s();
-    final RollingWindowCounter60s emptyReferer = new RollingWindowCounter60s();
-    final RollingWindowCounter60s content = new RollingWindowCounter60s();
-    final RollingWindowCounter60s asset = new RollingWindowCounter60s();
+    static final int TOTAL = 0;
+    static final int NO_COOKIE = 1;
+    static final int EMPTY_REFERER = 2;
+    static final int CONTENT = 3;
+    static final int ASSET = 4;
+
+    private static final int WINDOW_SECONDS = 60;
+    private static final int DIMENSIONS = 5;
+    private static final int TAG_BITS = 4;
+    private static final long TAG_MASK = (1L << TAG_BITS) - 1;
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+
+    /**
+     * 最近 60 秒各维度的请求数。
+     */
+    record WindowCounts(int total, int noCookie, int emptyReferer, int content, int asset) {
+    }
+
+    private final long[] buckets = new long[WINDOW_SECONDS];
 
     private long lastScoreAtMs = 0;
     private double riskScore = 0.0;
@@ -17,6 +41,53 @@ final class IpRiskState {
     private int highRiskStrikes = 0;
     private long blockedUntilMs = 0;
 
+    /**
+     * 记录一次请求：总数必计，content/asset 二选一，noCookie/emptyReferer 按标志累加。
+     */
+    synchronized void record(long nowSec, boolean noCookie, boolean emptyReferer, boolean asset) {
+        int idx = (int) (nowSec % WINDOW_SECONDS);
+        long tag = (nowSec / WINDOW_SECONDS) & TAG_MASK;
+        long bucket = buckets[idx];
+        if ((bucket & TAG_MASK) != tag) {
+            bucket = tag;
+        }
+        bucket = increment(bucket, TOTAL);
+        if (noCookie) {
+            bucket = increment(bucket, NO_COOKIE);
+        }
+        if (emptyReferer) {
+            bucket = increment(bucket, EMPTY_REFERER);
+        }
+        bucket = increment(bucket, asset ? ASSET : CONTENT);
+        buckets[idx] = bucket;
+    }
+
+    /**
+     * 一次遍历求出五个维度在 (nowSec - 60, nowSec] 内的合计，并清零过期槽位。
+     */
+    synchronized WindowCounts counts(long nowSec) {
+        int nowIdx = (int) (nowSec % WINDOW_SECONDS);
+        long nowMinute = nowSec / WINDOW_SECONDS;
+        long currentTag = nowMinute & TAG_MASK;
+        long previousTag = (nowMinute - 1) & TAG_MASK;
+        int[] sums = new int[DIMENSIONS];
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            long bucket = buckets[i];
+            if (bucket == 0) {
+                continue;
+            }
+            long expectedTag = i <= nowIdx ? currentTag : previousTag;
+            if ((bucket & TAG_MASK) != expectedTag) {
+                buckets[i] = 0;
+                continue;
+            }
+            for (int d = 0; d < DIMENSIONS; d++) {
+                sums[d] += (int) counter(bucket, d);
+            }
+        }
+        return new WindowCounts(sums[TOTAL], sums[NO_COOKIE], sums[EMPTY_REFERER], sums[CONTENT], sums[ASSET]);
+    }
+
     synchronized double applyScore(long nowMs, double delta, long halfLifeMs) {
         if (lastScoreAtMs > 0 && nowMs > lastScoreAtMs && riskScore > 0 && halfLifeMs > 0) {
             double decay = Math.exp(-(double) (nowMs - lastScoreAtMs) / (double) halfLifeMs * Math.log(2));
@@ -72,6 +143,14 @@ final class IpRiskState {
         return blockedUntilMs;
     }
 
+    private static long counter(long bucket, int dimension) {
+        return (bucket >>> (TAG_BITS + dimension * COUNTER_BITS)) & COUNTER_MAX;
+    }
+
+    private static long increment(long bucket, int dimension) {
+        return counter(bucket, dimension) < COUNTER_MAX ? bucket + (1L << (TAG_BITS + dimension * COUNTER_BITS)) : bucket;
+    }
+
     private static double clamp(double v, double min, double max) {
         if (v < min) return min;
         if (v > max) return max;
@@ -20,6 +20,7 @@ public class AboutService {
 
     private final AboutPageRepository aboutPageRepository;
     private final UserRepository userRepository;
+    private final ContentRevisionService contentRevisionService;
 
     @Transactional(readOnly = true)
     public Optional<AboutDto> getAbout() {
@@ -48,6 +49,7 @@ public class AboutService {
         }
 
         AboutPage saved = aboutPageRepository.save(about);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.ABOUT);
         return toDto(saved);
     }
 
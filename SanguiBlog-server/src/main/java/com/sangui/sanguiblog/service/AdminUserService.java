@@ -10,6 +10,7 @@ import com.sangui.sanguiblog.model.entity.Role;
 import com.sangui.sanguiblog.model.entity.User;
 import com.sangui.sanguiblog.model.repository.RoleRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
+import com.sangui.sanguiblog.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -34,6 +35,7 @@ public class AdminUserService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final StoragePathResolver storagePathResolver;
+    private final PrincipalCache principalCache;
 
     @Transactional(readOnly = true)
     public PageResponse<AdminUserDto> list(String keyword, String roleCode, int page, int size) {
@@ -121,6 +123,8 @@ public class AdminUserService {
         }
         user.setUpdatedAt(Instant.now());
         User saved = userRepository.save(user);
+        // 用户名/角色/密码都可能变化，已缓存的登录身份需要重新加载
+        principalCache.evictUser(id);
         if (request.getAvatarUrl() != null
                 && previousAvatar != null
                 && !Objects.equals(previousAvatar, saved.getAvatarUrl())) {
@@ -132,6 +136,7 @@ public class AdminUserService {
     @Transactional
     public void delete(Long id) {
         userRepository.deleteById(id);
+        principalCache.evictUser(id);
     }
 
     @Transactional(readOnly = true)
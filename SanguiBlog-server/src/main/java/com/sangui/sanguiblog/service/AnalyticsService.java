@@ -15,6 +15,7 @@ import com.sangui.sanguiblog.model.dto.ArticleVisitHeartbeatRequest;
 import com.sangui.sanguiblog.model.dto.ArticleVisitStartRequest;
 import com.sangui.sanguiblog.model.dto.PageResponse;
 import com.sangui.sanguiblog.model.dto.PageViewRequest;
+import com.sangui.sanguiblog.model.dto.SiteMetaDto;
 import com.sangui.sanguiblog.model.entity.AnalyticsPageView;
 import com.sangui.sanguiblog.model.entity.AnalyticsTrafficSource;
 import com.sangui.sanguiblog.model.entity.Post;
@@ -24,6 +25,7 @@ import com.sangui.sanguiblog.model.repository.AnalyticsTrafficSourceRepository;
 import com.sangui.sanguiblog.model.repository.CommentRepository;
 import com.sangui.sanguiblog.model.repository.PostRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
+import com.sangui.sanguiblog.util.AfterCommit;
 import com.sangui.sanguiblog.util.IpUtils;
 import com.sangui.sanguiblog.util.ReferrerUtils;
 import com.sangui.sanguiblog.util.UserAgentDetailUtils;
@@ -35,10 +37,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
@@ -46,6 +54,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -79,6 +88,9 @@ public class AnalyticsService {
     private final AnalyticsTrafficSourceRepository analyticsTrafficSourceRepository;
     private final GeoIpService geoIpService;
     private final com.sangui.sanguiblog.service.IpBanService ipBanService;
+    private final RecentVisitFeed recentVisitFeed;
+    private final PresenceTracker presenceTracker;
+    private final PlatformTransactionManager transactionManager;
 
     private String decodePercentEncodedValue(String value) {
         if (!StringUtils.hasText(value)) {
@@ -145,6 +157,8 @@ public class AnalyticsService {
                 }
                 setDetailJsonIfMissing(existing, normalizedIp, userAgent, normalizedVisitId, detailContext, clientEnv);
                 analyticsPageViewRepository.save(existing);
+                touchPresence(existing);
+                publishLiveVisit(existing);
                 return;
             }
             if (request.getPostId() != null) {
@@ -171,6 +185,8 @@ public class AnalyticsService {
                     }
                     setDetailJsonIfMissing(transientOpenRow, normalizedIp, userAgent, normalizedVisitId, detailContext, clientEnv);
                     analyticsPageViewRepository.save(transientOpenRow);
+                    touchPresence(transientOpenRow);
+                    publishLiveVisit(transientOpenRow);
                     return;
                 }
             }
@@ -200,6 +216,8 @@ public class AnalyticsService {
         pv.setHeartbeatCount(0);
         pv.setDetailJson(buildDetailJson(normalizedIp, userAgent, normalizedVisitId, detailContext, clientEnv));
         analyticsPageViewRepository.save(pv);
+        touchPresence(pv);
+        publishLiveVisit(pv);
 
         try {
             updateTrafficSourceStat(request, pv.getViewedAt());
@@ -457,14 +475,7 @@ public class AnalyticsService {
                         .build())
                 .toList();
 
-        List<AdminAnalyticsSummaryDto.RecentVisit> recentVisits = analyticsPageViewRepository
-                .findAllByOrderByViewedAtDesc(PageRequest.of(0, safeRecent))
-                .getContent()
-                .stream()
-                .map(this::toRecentVisit)
-                .filter(Objects::nonNull)
-                .toList();
-        recentVisits = applyBanState(recentVisits);
+        List<AdminAnalyticsSummaryDto.RecentVisit> recentVisits = applyBanState(liveRecentVisits(safeRecent));
 
         String rangeLabel = safeRangeDays != null
                 ? (safeRangeDays == 1 ? "\u6700\u8fd11\u5929" : "\u6700\u8fd1" + safeRangeDays + "\u5929")
@@ -898,6 +909,8 @@ public class AnalyticsService {
             }
             setDetailJsonIfMissing(existing, normalizedIp, userAgent, visitId, detailContext, clientEnv);
             analyticsPageViewRepository.save(existing);
+            touchPresence(existing);
+            publishLiveVisit(existing);
             return;
         }
 
@@ -923,6 +936,8 @@ public class AnalyticsService {
         pv.setHeartbeatCount(0);
         pv.setDetailJson(buildDetailJson(normalizedIp, userAgent, visitId, detailContext, clientEnv));
         analyticsPageViewRepository.save(pv);
+        touchPresence(pv);
+        publishLiveVisit(pv);
     }
 
     @Transactional
@@ -947,6 +962,7 @@ public class AnalyticsService {
         int nextCount = (row.getHeartbeatCount() == null ? 0 : row.getHeartbeatCount()) + 1;
         row.setHeartbeatCount(nextCount);
         analyticsPageViewRepository.save(row);
+        touchPresence(row);
     }
 
     @Transactional
@@ -962,6 +978,8 @@ public class AnalyticsService {
         if (row == null) {
             return;
         }
+        String viewerIp = row.getViewerIp();
+        AfterCommit.run(() -> presenceTracker.end(viewerIp, visitId));
         int sanitizedTotal = sanitizeDurationSeconds(request.getTotalDurationSeconds());
         int sanitizedActive = sanitizeDurationSeconds(request.getActiveDurationSeconds());
         // active 不得超过 total
@@ -984,6 +1002,64 @@ public class AnalyticsService {
         }
         row.setVisitStatus(VISIT_STATUS_CLOSED);
         analyticsPageViewRepository.save(row);
+        publishLiveVisit(row);
+    }
+
+    // ===== 批量埋点 =====
+
+    /**
+     * 批量埋点中的一条事件：request 为 {@link PageViewRequest} / {@link ArticleVisitStartRequest} /
+     * {@link ArticleVisitHeartbeatRequest} / {@link ArticleVisitEndRequest} 之一；visitId 与 ip 仅 page-view 使用。
+     */
+    public record BatchEvent(Object request, String visitId, String ip) {
+    }
+
+    /**
+     * 按顺序处理一批埋点事件，每条事件在各自的 REQUIRES_NEW 事务中执行（内部调用不经过代理，
+     * 因此用 TransactionTemplate 显式开启），单条失败只回滚自身并记录日志，不影响同批其它事件；返回成功处理的条数。
+     */
+    public int recordBatch(List<BatchEvent> events, String ip, String userAgent, Long userId,
+                           AnalyticsRequestDetailContext detailContext) {
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+        TransactionTemplate perEvent = new TransactionTemplate(transactionManager);
+        perEvent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int accepted = 0;
+        for (BatchEvent event : events) {
+            if (event == null || event.request() == null) {
+                continue;
+            }
+            try {
+                Boolean handled = perEvent.execute(status ->
+                        recordBatchEvent(event, ip, userAgent, userId, detailContext));
+                if (Boolean.TRUE.equals(handled)) {
+                    accepted++;
+                }
+            } catch (RuntimeException ex) {
+                log.warn("批量埋点事件处理失败，已回滚并跳过 type={}: {}",
+                        event.request().getClass().getSimpleName(), ex.getMessage());
+                log.debug("批量埋点事件处理失败详情", ex);
+            }
+        }
+        return accepted;
+    }
+
+    private boolean recordBatchEvent(BatchEvent event, String ip, String userAgent, Long userId,
+                                     AnalyticsRequestDetailContext detailContext) {
+        switch (event.request()) {
+            case PageViewRequest pageView -> recordPageView(pageView,
+                    StringUtils.hasText(event.ip()) ? event.ip() : ip,
+                    userAgent, userId, event.visitId(), detailContext);
+            case ArticleVisitStartRequest start ->
+                    recordArticleVisitStart(start, ip, userAgent, userId, detailContext);
+            case ArticleVisitHeartbeatRequest heartbeat -> recordArticleVisitHeartbeat(heartbeat);
+            case ArticleVisitEndRequest end -> recordArticleVisitEnd(end);
+            default -> {
+                return false;
+            }
+        }
+        return true;
     }
 
     private AnalyticsClientEnvironment extractClientEnvFromPageView(PageViewRequest request) {
@@ -1050,6 +1126,98 @@ public class AnalyticsService {
         return "页面";
     }
 
+    // ===== 最近访问实时流（环形缓冲） =====
+
+    /**
+     * 最近访问快照：优先读环形缓冲；缓冲尚未预热或请求条数超过缓冲容量时回退到数据库查询。
+     */
+    private List<AdminAnalyticsSummaryDto.RecentVisit> liveRecentVisits(int limit) {
+        if (recentVisitFeed.isPrimed() && limit <= recentVisitFeed.capacity()) {
+            return recentVisitFeed.recentVisits(limit);
+        }
+        return analyticsPageViewRepository
+                .findAllByOrderByViewedAtDesc(PageRequest.of(0, limit))
+                .getContent()
+                .stream()
+                .map(this::toRecentVisit)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<AdminAnalyticsSummaryDto.RecentVisit> loadLiveVisits(int limit) {
+        int safeLimit = Math.min(Math.max(limit, 1), recentVisitFeed.capacity());
+        return applyBanState(liveRecentVisits(safeLimit));
+    }
+
+    public SseEmitter openLiveVisitStream() {
+        return recentVisitFeed.subscribe(loadLiveVisits(recentVisitFeed.streamSnapshotSize()));
+    }
+
+    /**
+     * 启动后用一次查询把最近记录灌入环形缓冲，此后后台与前台的“最近访问”都不再查询访问日志表。
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void primeLiveFeed() {
+        if (recentVisitFeed.isPrimed()) {
+            return;
+        }
+        try {
+            List<AnalyticsPageView> rows = new ArrayList<>(analyticsPageViewRepository
+                    .findAllByOrderByViewedAtDesc(PageRequest.of(0, recentVisitFeed.capacity()))
+                    .getContent());
+            Collections.reverse(rows);
+            recentVisitFeed.prime(rows.stream().map(this::toFeedEntry).toList());
+        } catch (RuntimeException ex) {
+            log.warn("最近访问缓冲预热失败，暂时回退到数据库查询", ex);
+        }
+    }
+
+    /**
+     * 在当前事务内完成投影（关联实体仍可加载），提交后再写入环形缓冲并推送；心跳只更新时长，不进入缓冲。
+     * 推送副本与快照一样带上封禁状态（在扇出线程上查内存中的封禁前缀树）。
+     */
+    private void publishLiveVisit(AnalyticsPageView view) {
+        if (view == null) {
+            return;
+        }
+        RecentVisitFeed.Entry entry = toFeedEntry(view);
+        Runnable publish = () -> recentVisitFeed.publish(entry.pageViewId(), entry.viewedAtMs(),
+                entry.visit(), entry.activity(), visit -> applyBanState(List.of(visit)).get(0));
+        AfterCommit.run(publish);
+    }
+
+    /**
+     * 在线人数续期：只登记带 visitId 且未结束的访问；文章 id 取自关联（代理对象取 id 不会触发加载）。
+     * 在事务内取值，提交后再登记，回滚的访问不会计入在线人数。
+     */
+    private void touchPresence(AnalyticsPageView view) {
+        if (view == null || !StringUtils.hasText(view.getVisitId())
+                || VISIT_STATUS_CLOSED.equals(view.getVisitStatus())) {
+            return;
+        }
+        String ip = view.getViewerIp();
+        String visitId = view.getVisitId();
+        Long postId = view.getPost() != null ? view.getPost().getId() : null;
+        String title = view.getPageTitle();
+        AfterCommit.run(() -> presenceTracker.touch(ip, visitId, postId, title));
+    }
+
+    private RecentVisitFeed.Entry toFeedEntry(AnalyticsPageView view) {
+        long viewedAtMs = view.getViewedAt() != null
+                ? view.getViewedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+        SiteMetaDto.RecentActivityDto activity = SiteMetaDto.RecentActivityDto.builder()
+                .title(view.getPageTitle())
+                .ip(view.getViewerIp())
+                .time(view.getViewedAt() != null ? DATE_TIME_FMT.format(view.getViewedAt()) : "")
+                .referrer(view.getReferrerUrl())
+                .geo(view.getGeoLocation())
+                .build();
+        return new RecentVisitFeed.Entry(-1L, view.getId(), viewedAtMs, toRecentVisit(view), activity);
+    }
+
     private List<AdminAnalyticsSummaryDto.RecentVisit> applyBanState(List<AdminAnalyticsSummaryDto.RecentVisit> visits) {
         if (visits == null || visits.isEmpty()) {
             return visits;
@@ -8,6 +8,7 @@ import com.sangui.sanguiblog.model.dto.UserProfileDto;
 import com.sangui.sanguiblog.model.entity.User;
 import com.sangui.sanguiblog.model.repository.UserRepository;
 import com.sangui.sanguiblog.security.JwtUtil;
+import com.sangui.sanguiblog.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -31,6 +32,7 @@ public class AuthService {
     private final JwtUtil jwtUtil;
     private final StoragePathResolver storagePathResolver;
     private final LoginAttemptService loginAttemptService;
+    private final PrincipalCache principalCache;
 
     public LoginResponse login(LoginRequest request, String ip) {
         loginAttemptService.ensureLoginRate(ip);
@@ -101,6 +103,7 @@ public class AuthService {
         if (user.getPasswordHash() == null || user.getPasswordHash().isBlank()) {
             user.setPasswordHash(passwordEncoder.encode(rawPassword));
             userRepository.save(user);
+            principalCache.evictUser(user.getId());
         }
     }
 
@@ -178,6 +181,7 @@ public class AuthService {
 
         user.setUpdatedAt(Instant.now());
         userRepository.save(user);
+        principalCache.evictUser(user.getId());
         if (request.getAvatarUrl() != null
                 && previousAvatar != null
                 && !previousAvatar.equals(user.getAvatarUrl())) {
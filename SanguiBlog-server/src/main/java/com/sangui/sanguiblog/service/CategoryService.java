@@ -28,26 +28,11 @@ import java.util.UUID;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ContentRevisionService contentRevisionService;
+    private final TaxonomySnapshotService taxonomySnapshotService;
 
     public List<CategoryTreeDto> tree() {
-        List<Category> roots = categoryRepository.findByParentIsNullOrderBySortOrderAsc();
-        return roots.stream()
-                .map(this::toDto)
-                .toList();
-    }
-
-    private CategoryTreeDto toDto(Category category) {
-        List<CategoryTreeDto> children = categoryRepository.findByParentIdOrderBySortOrderAsc(category.getId())
-                .stream()
-                .map(this::toDto)
-                .toList();
-
-        return CategoryTreeDto.builder()
-                .id(category.getId())
-                .label(category.getName())
-                .parentId(category.getParent() != null ? category.getParent().getId() : null)
-                .children(children)
-                .build();
+        return taxonomySnapshotService.categoryTree();
     }
 
     public PageResponse<CategoryAdminDto> search(String keyword, Long parentId, int page, int size) {
@@ -98,7 +83,9 @@ public class CategoryService {
         Instant now = Instant.now();
         category.setCreatedAt(now);
         category.setUpdatedAt(now);
-        return toAdminDto(categoryRepository.save(category));
+        Category saved = categoryRepository.save(category);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.TAXONOMY);
+        return toAdminDto(saved);
     }
 
     @Transactional
@@ -122,7 +109,9 @@ public class CategoryService {
         category.setSortOrder(request.getSortOrder());
         category.setParent(resolveParent(request.getParentId(), id));
         category.setUpdatedAt(Instant.now());
-        return toAdminDto(categoryRepository.save(category));
+        Category saved = categoryRepository.save(category);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.TAXONOMY);
+        return toAdminDto(saved);
     }
 
     @Transactional
@@ -133,6 +122,7 @@ public class CategoryService {
             throw new IllegalStateException("请先删除子分类");
         }
         categoryRepository.delete(category);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.TAXONOMY);
     }
 
     private Category resolveParent(Long parentId, Long currentId) {
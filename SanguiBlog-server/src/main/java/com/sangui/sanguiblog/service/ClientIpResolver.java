@@ -1,14 +1,16 @@
 package com.sangui.sanguiblog.service;
 
 import com.sangui.sanguiblog.config.ClientIpProperties;
+import com.sangui.sanguiblog.util.CidrSet;
+import com.sangui.sanguiblog.util.IpAddress;
+import com.sangui.sanguiblog.util.IpCidr;
 import com.sangui.sanguiblog.util.IpUtils;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,11 +20,15 @@ import java.util.List;
  * 仅当 immediate remoteAddr 命中 {@link ClientIpProperties#getTrustedProxies()} 时才信任转发头；
  * 未配置受信代理时直接使用 remoteAddr，避免被可伪造头欺骗。
  */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ClientIpResolver {
 
-    private final ClientIpProperties props;
+    private final CidrSet trustedProxies;
+
+    public ClientIpResolver(ClientIpProperties props) {
+        this.trustedProxies = compile(props.getTrustedProxies());
+    }
 
     public String resolve(HttpServletRequest request) {
         if (request == null) {
@@ -60,61 +66,29 @@ public class ClientIpResolver {
     }
 
     private boolean isTrustedProxy(String remoteAddr) {
-        List<String> trusted = props.getTrustedProxies();
-        if (trusted == null || trusted.isEmpty()) {
-            return false;
-        }
-        for (String entry : trusted) {
-            if (!StringUtils.hasText(entry)) {
-                continue;
-            }
-            String trimmed = entry.trim();
-            if (matchesProxy(remoteAddr, trimmed)) {
-                return true;
-            }
-        }
-        return false;
+        return !trustedProxies.isEmpty() && trustedProxies.contains(IpAddress.parse(remoteAddr));
     }
 
-    private boolean matchesProxy(String remoteAddr, String proxySpec) {
-        if (proxySpec.equals(remoteAddr)) {
-            return true;
+    /**
+     * 受信代理列表在启动时预编译为 {@link CidrSet}，每个请求只做一次字面量解析与按位比较；
+     * 非法条目记录告警后忽略。
+     */
+    private static CidrSet compile(List<String> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return CidrSet.EMPTY;
         }
-        int slash = proxySpec.indexOf('/');
-        if (slash <= 0) {
-            return false;
-        }
-        String cidr = proxySpec.substring(0, slash);
-        int prefix;
-        try {
-            prefix = Integer.parseInt(proxySpec.substring(slash + 1).trim());
-        } catch (NumberFormatException ex) {
-            return false;
-        }
-        try {
-            InetAddress addr = InetAddress.getByName(remoteAddr);
-            InetAddress base = InetAddress.getByName(cidr);
-            byte[] a = addr.getAddress();
-            byte[] b = base.getAddress();
-            if (a.length != b.length) {
-                return false;
-            }
-            int full = prefix / 8;
-            int rem = prefix % 8;
-            for (int i = 0; i < full && i < a.length; i++) {
-                if (a[i] != b[i]) {
-                    return false;
-                }
+        List<IpCidr> cidrs = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            if (!StringUtils.hasText(entry)) {
+                continue;
             }
-            if (rem != 0 && full < a.length) {
-                int mask = 0xFF << (8 - rem);
-                if ((a[full] & mask) != (b[full] & mask)) {
-                    return false;
-                }
+            IpCidr cidr = IpCidr.parse(entry);
+            if (cidr == null) {
+                log.warn("trusted proxy entry ignored, not an IP/CIDR literal: {}", entry);
+                continue;
             }
-            return true;
-        } catch (UnknownHostException | RuntimeException ex) {
-            return false;
+            cidrs.add(cidr);
         }
+        return CidrSet.of(cidrs);
     }
 }
@@ -0,0 +1,42 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * posts.comments_count 对账：评论写路径按状态迁移原子增减计数，此任务定期按 comments 表重算，
+ * 修正手工改库、历史数据或异常中断导致的偏差。只更新不一致的行，修正后 bump 文章修订号让列表缓存/ETag 失效。
+ */
+@Component
+@RequiredArgsConstructor
+public class CommentCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+    private final PostRepository postRepository;
+    private final ContentRevisionService contentRevisionService;
+
+    @Scheduled(cron = "${site.comments.reconcile-cron:0 10 4 * * *}")
+    public void scheduledReconcile() {
+        try {
+            int fixed = reconcile();
+            if (fixed > 0) {
+                log.info("文章评论计数对账完成，修正 {} 篇文章", fixed);
+            }
+        } catch (Exception ex) {
+            log.warn("文章评论计数对账失败（已忽略，不影响主流程）", ex);
+        }
+    }
+
+    public int reconcile() {
+        int fixed = postRepository.reconcileApprovedCommentCounts();
+        if (fixed > 0) {
+            contentRevisionService.bump(ContentRevisionService.Scope.POSTS);
+        }
+        return fixed;
+    }
+}
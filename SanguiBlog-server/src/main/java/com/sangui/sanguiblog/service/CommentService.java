@@ -4,14 +4,22 @@ import com.sangui.sanguiblog.exception.NotFoundException;
 import com.sangui.sanguiblog.model.dto.AdminCommentItemDto;
 import com.sangui.sanguiblog.model.dto.CommentDto;
 import com.sangui.sanguiblog.model.dto.CreateCommentRequest;
+import com.sangui.sanguiblog.model.dto.CursorPageResponse;
 import com.sangui.sanguiblog.model.dto.PageResponse;
 import com.sangui.sanguiblog.model.entity.Comment;
+import com.sangui.sanguiblog.model.entity.CommentMention;
 import com.sangui.sanguiblog.model.entity.Post;
 import com.sangui.sanguiblog.model.entity.User;
+import com.sangui.sanguiblog.model.repository.CommentMentionRepository;
 import com.sangui.sanguiblog.model.repository.CommentRepository;
 import com.sangui.sanguiblog.model.repository.PostRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
+import com.sangui.sanguiblog.service.outbox.OutboxService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sangui.sanguiblog.util.AfterCommit;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -21,59 +29,140 @@ import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.criteria.Predicate;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
 public class CommentService {
 
     private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String APPROVED = "APPROVED";
     private static final Set<String> REVIEWABLE_STATUS = Set.of("APPROVED", "PENDING", "REJECTED", "SPAM");
+    private static final int DEFAULT_THREAD_PAGE_SIZE = 10;
+    private static final int MAX_THREAD_PAGE_SIZE = 50;
+    private static final int DEFAULT_REPLY_PREVIEW = 3;
+    private static final int DEFAULT_REPLY_PAGE_SIZE = 20;
+    private static final int MAX_REPLY_PAGE_SIZE = 100;
+    private static final Comparator<CommentNode> OLDEST_FIRST = Comparator
+            .comparingLong(CommentNode::createdAtMs)
+            .thenComparing(node -> node.dto().getId());
+    private static final Comparator<CommentNode> NEWEST_FIRST = OLDEST_FIRST.reversed();
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
 
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
-
-    @Transactional(readOnly = true)
-    public List<CommentDto> listByPost(Long postId) {
-        List<Comment> comments = commentRepository.findByPostIdAndStatusOrderByCreatedAtDesc(postId, "APPROVED");
-        List<CommentDto> allDtos = comments.stream().map(this::toDto).toList();
+    private final CommentMentionRepository commentMentionRepository;
+    private final OutboxService outboxService;
+    private final ContentRevisionService contentRevisionService;
+
+    /**
+     * 每篇文章已通过评论的树缓存（不可变），写操作提交后按文章失效；代数用于丢弃与写入并发加载出的旧树
+     */
+    private final Cache<Long, CommentTree> commentTrees = Caffeine.newBuilder()
+            .maximumSize(512)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+    /**
+     * 每篇文章最近一次失效时取到的全局序号。条目保留时间（30 分钟）长于树缓存（10 分钟），
+     * 条目过期时与之并发加载出的旧树早已过期，不会因代数回落为 0 而被误用；序号全局递增，不同文章之间也不会撞号
+     */
+    private final Cache<Long, Long> treeGenerations = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMinutes(30))
+            .build();
+    private final AtomicLong treeGenerationSequence = new AtomicLong();
+
+    private record CommentNode(CommentDto dto, long createdAtMs) {
+    }
 
-        // Build tree structure
-        java.util.Map<Long, CommentDto> dtoMap = allDtos.stream()
-                .collect(java.util.stream.Collectors.toMap(CommentDto::getId, dto -> dto));
+    private record CommentThread(CommentNode root, List<CommentNode> replies) {
+    }
 
-        List<CommentDto> rootComments = new java.util.ArrayList<>();
+    private record CommentTree(long generation, List<CommentThread> threads,
+            Map<Long, CommentThread> threadsByRootId) {
+    }
 
-        for (CommentDto dto : allDtos) {
-            if (dto.getParentId() != null) {
-                CommentDto parent = dtoMap.get(dto.getParentId());
+    @Transactional(readOnly = true)
+    public List<CommentDto> listByPost(Long postId) {
+        CommentTree tree = tree(postId);
+        List<CommentDto> rootComments = new ArrayList<>(tree.threads().size());
+        for (CommentThread thread : tree.threads()) {
+            CommentDto root = copy(thread.root());
+            Map<Long, CommentDto> byId = new HashMap<>();
+            byId.put(root.getId(), root);
+            // 回复已按时间升序排列，父评论总在子评论之前出现
+            for (CommentNode reply : thread.replies()) {
+                CommentDto dto = copy(reply);
+                byId.put(dto.getId(), dto);
+                CommentDto parent = byId.get(dto.getParentId());
                 if (parent != null) {
-                    if (parent.getReplies() == null) {
-                        parent.setReplies(new java.util.ArrayList<>());
-                    }
                     parent.getReplies().add(dto);
                 }
-            } else {
-                rootComments.add(dto);
             }
+            rootComments.add(root);
         }
+        return rootComments;
+    }
 
-        // Sort replies by time (oldest first for conversation flow)
-        for (CommentDto dto : allDtos) {
-            if (dto.getReplies() != null) {
-                dto.getReplies().sort(java.util.Comparator.comparing(CommentDto::getTime));
-            }
+    /**
+     * 楼层分页：按时间倒序返回根评论，每个根评论附带前 replyLimit 条回复（按时间正序平铺，保留 parentId）及回复总数。
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CommentDto> listThreads(Long postId, String cursor, Integer limit, Integer replyLimit) {
+        int size = clamp(limit, DEFAULT_THREAD_PAGE_SIZE, MAX_THREAD_PAGE_SIZE);
+        int previewSize = replyLimit == null ? DEFAULT_REPLY_PREVIEW : Math.min(Math.max(replyLimit, 0), MAX_REPLY_PAGE_SIZE);
+        CommentTree tree = tree(postId);
+        List<CommentNode> roots = tree.threads().stream().map(CommentThread::root).toList();
+        int from = cursor == null || cursor.isBlank() ? 0 : indexAfter(roots, parseCursor(cursor), NEWEST_FIRST);
+        int to = Math.min(from + size, roots.size());
+
+        List<CommentDto> records = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            CommentThread thread = tree.threads().get(i);
+            CommentDto root = copy(thread.root());
+            root.setReplyCount(thread.replies().size());
+            thread.replies().stream().limit(previewSize).map(this::copy).forEach(root.getReplies()::add);
+            records.add(root);
         }
+        boolean hasMore = to < roots.size();
+        return CursorPageResponse.<CommentDto>builder()
+                .records(records)
+                .hasMore(hasMore)
+                .nextCursor(hasMore && to > 0 ? cursorOf(roots.get(to - 1)) : null)
+                .total(roots.size())
+                .build();
+    }
 
-        return rootComments;
+    /**
+     * 某个根评论下的回复分页（按时间正序平铺），用于“展开更多回复”。
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CommentDto> listReplies(Long postId, Long rootId, String cursor, Integer limit) {
+        int size = clamp(limit, DEFAULT_REPLY_PAGE_SIZE, MAX_REPLY_PAGE_SIZE);
+        CommentThread thread = tree(postId).threadsByRootId().get(rootId);
+        if (thread == null) {
+            throw new NotFoundException("评论不存在");
+        }
+        List<CommentNode> replies = thread.replies();
+        int from = cursor == null || cursor.isBlank() ? 0 : indexAfter(replies, parseCursor(cursor), OLDEST_FIRST);
+        int to = Math.min(from + size, replies.size());
+        boolean hasMore = to < replies.size();
+        return CursorPageResponse.<CommentDto>builder()
+                .records(replies.subList(from, to).stream().map(this::copy).toList())
+                .hasMore(hasMore)
+                .nextCursor(hasMore && to > 0 ? cursorOf(replies.get(to - 1)) : null)
+                .total(replies.size())
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -149,9 +238,16 @@ public class CommentService {
         comment.setUpdatedAt(now.toInstant());
 
         Comment saved = commentRepository.save(comment);
-        post.setCommentsCount((post.getCommentsCount() == null ? 0 : post.getCommentsCount()) + 1);
-        postRepository.save(post);
-        notificationService.createForComment(saved);
+        Long mentionedUserId = resolveMentionedUserId(saved.getContent());
+        if (mentionedUserId != null) {
+            // 提及关系与评论同事务写入，通知投递和补全只读取，不再重复解析
+            commentMentionRepository.save(new CommentMention(saved.getId(), mentionedUserId));
+        }
+        adjustApprovedCount(post.getId(), null, saved.getStatus());
+        evictTreeAfterCommit(post.getId());
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.POSTS);
+        // 通知在提交后由发件箱投递，评论请求只多一次 insert
+        outboxService.enqueueCommentNotification(saved.getId());
         return toDto(saved);
     }
 
@@ -165,13 +261,13 @@ public class CommentService {
         }
 
         Post post = comment.getPost();
+        String previousStatus = comment.getStatus();
         commentRepository.delete(comment);
 
-        // Decrement post comment count
-        if (post.getCommentsCount() != null && post.getCommentsCount() > 0) {
-            post.setCommentsCount(post.getCommentsCount() - 1);
-            postRepository.save(post);
-        }
+        // 子评论外键为 ON DELETE SET NULL，只有被删除的这一条会影响计数
+        adjustApprovedCount(post.getId(), previousStatus, null);
+        evictTreeAfterCommit(post.getId());
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.POSTS);
     }
 
     @Transactional
@@ -204,6 +300,43 @@ public class CommentService {
                 .toList();
     }
 
+    /**
+     * 尝试从评论内容中解析 @mention 的用户 ID（匹配用户名或显示名，忽略大小写）
+     */
+    private Long resolveMentionedUserId(String content) {
+        if (content == null) return null;
+        String prefix = extractMention(content);
+        if (prefix == null) return null;
+        // 先按用户名匹配
+        return userRepository.findByUsernameIgnoreCase(prefix)
+                .map(User::getId)
+                .orElseGet(() -> userRepository.findAll().stream()
+                        .filter(u -> !StringUtils.isBlank(u.getDisplayName()))
+                        .filter(u -> prefix.equalsIgnoreCase(u.getDisplayName()))
+                        .map(User::getId)
+                        .findFirst()
+                        .orElse(null));
+    }
+
+    private String extractMention(String content) {
+        String trimmed = content.trim();
+        if (!trimmed.startsWith("@")) return null;
+        // 取到首个空格或冒号
+        String body = trimmed.substring(1);
+        int stop = body.indexOf(' ');
+        int colon = body.indexOf(':');
+        int cnColon = body.indexOf('：');
+        int idx = -1;
+        for (int val : new int[]{colon, cnColon, stop}) {
+            if (val >= 0 && (idx == -1 || val < idx)) {
+                idx = val;
+            }
+        }
+        String name = idx >= 0 ? body.substring(0, idx) : body;
+        name = name.trim();
+        return name.isEmpty() ? null : name;
+    }
+
     private Comment updateCommentInternal(Long postId, Long commentId, Long userId, boolean isAdmin, String newContent, String status) {
         Comment comment = requireComment(commentId, postId);
         if (!isAdmin) {
@@ -223,12 +356,168 @@ public class CommentService {
             if (!REVIEWABLE_STATUS.contains(normalized)) {
                 throw new IllegalArgumentException("不支持的评论状态：" + status);
             }
+            String previousStatus = comment.getStatus();
             comment.setStatus(normalized);
+            if (comment.getPost() != null) {
+                adjustApprovedCount(comment.getPost().getId(), previousStatus, normalized);
+            }
+            contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.POSTS);
         }
         comment.setUpdatedAt(Instant.now());
+        if (comment.getPost() != null) {
+            evictTreeAfterCommit(comment.getPost().getId());
+        }
         return commentRepository.save(comment);
     }
 
+    private CommentTree tree(Long postId) {
+        Long marked = treeGenerations.getIfPresent(postId);
+        long generation = marked != null ? marked : 0L;
+        CommentTree cached = commentTrees.getIfPresent(postId);
+        if (cached != null && cached.generation() == generation) {
+            return cached;
+        }
+        // 读取前记下代数：若加载期间有写入提交，代数已变化，下次读取会丢弃这份可能过期的树
+        CommentTree built = buildTree(generation,
+                commentRepository.findTreeSourceByPostId(postId, APPROVED));
+        commentTrees.put(postId, built);
+        return built;
+    }
+
+    private CommentTree buildTree(long generation, List<Comment> comments) {
+        Map<Long, Comment> byId = new HashMap<>(comments.size() * 2);
+        for (Comment comment : comments) {
+            byId.put(comment.getId(), comment);
+        }
+        Map<Long, Long> rootIds = new HashMap<>(comments.size() * 2);
+        Map<Long, List<CommentNode>> repliesByRoot = new HashMap<>();
+        List<CommentNode> roots = new ArrayList<>();
+        for (Comment comment : comments) {
+            Long rootId = resolveRootId(comment, byId, rootIds);
+            if (rootId == null) {
+                // 父评论未通过或已不存在，与原逻辑一致：不展示
+                continue;
+            }
+            CommentNode node = new CommentNode(toDto(comment),
+                    comment.getCreatedAt() != null ? comment.getCreatedAt().toEpochMilli() : 0L);
+            if (rootId.equals(comment.getId())) {
+                roots.add(node);
+            } else {
+                repliesByRoot.computeIfAbsent(rootId, k -> new ArrayList<>()).add(node);
+            }
+        }
+        roots.sort(NEWEST_FIRST);
+        List<CommentThread> threads = new ArrayList<>(roots.size());
+        Map<Long, CommentThread> threadsByRootId = new HashMap<>(roots.size() * 2);
+        for (CommentNode root : roots) {
+            List<CommentNode> replies = repliesByRoot.getOrDefault(root.dto().getId(), new ArrayList<>());
+            replies.sort(OLDEST_FIRST);
+            CommentThread thread = new CommentThread(root, List.copyOf(replies));
+            threads.add(thread);
+            threadsByRootId.put(root.dto().getId(), thread);
+        }
+        return new CommentTree(generation, List.copyOf(threads), Map.copyOf(threadsByRootId));
+    }
+
+    private Long resolveRootId(Comment comment, Map<Long, Comment> byId, Map<Long, Long> memo) {
+        List<Long> path = new ArrayList<>();
+        Comment current = comment;
+        Long rootId = null;
+        while (current != null) {
+            Long known = memo.get(current.getId());
+            if (known != null || memo.containsKey(current.getId())) {
+                rootId = known;
+                break;
+            }
+            path.add(current.getId());
+            if (current.getParent() == null) {
+                rootId = current.getId();
+                break;
+            }
+            Long parentId = current.getParent().getId();
+            current = byId.get(parentId);
+            if (current == null || path.contains(parentId)) {
+                break;
+            }
+        }
+        for (Long id : path) {
+            memo.put(id, rootId);
+        }
+        return rootId;
+    }
+
+    private void evictTreeAfterCommit(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        Runnable evict = () -> {
+            treeGenerations.put(postId, treeGenerationSequence.incrementAndGet());
+            commentTrees.invalidate(postId);
+        };
+        AfterCommit.run(evict);
+    }
+
+    private CommentDto copy(CommentNode node) {
+        CommentDto dto = node.dto();
+        return CommentDto.builder()
+                .id(dto.getId())
+                .userId(dto.getUserId())
+                .authorName(dto.getAuthorName())
+                .avatar(dto.getAvatar())
+                .content(dto.getContent())
+                .likes(dto.getLikes())
+                .parentId(dto.getParentId())
+                .replies(new ArrayList<>())
+                .time(dto.getTime())
+                .postId(dto.getPostId())
+                .postTitle(dto.getPostTitle())
+                .postSlug(dto.getPostSlug())
+                .build();
+    }
+
+    private static int indexAfter(List<CommentNode> nodes, CommentNode cursor, Comparator<CommentNode> order) {
+        int low = 0;
+        int high = nodes.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(nodes.get(mid), cursor) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String cursorOf(CommentNode node) {
+        return node.createdAtMs() + "_" + node.dto().getId();
+    }
+
+    private static CommentNode parseCursor(String cursor) {
+        int split = cursor.indexOf('_');
+        try {
+            long createdAtMs = Long.parseLong(cursor.substring(0, split));
+            long id = Long.parseLong(cursor.substring(split + 1));
+            return new CommentNode(CommentDto.builder().id(id).build(), createdAtMs);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    private static int clamp(Integer value, int defaultValue, int max) {
+        return value == null || value < 1 ? defaultValue : Math.min(value, max);
+    }
+
+    /**
+     * 根据评论状态迁移（null 表示不存在）原子调整文章的已通过评论计数。
+     */
+    private void adjustApprovedCount(Long postId, String fromStatus, String toStatus) {
+        int delta = (APPROVED.equals(toStatus) ? 1 : 0) - (APPROVED.equals(fromStatus) ? 1 : 0);
+        if (postId != null && delta != 0) {
+            postRepository.adjustCommentsCount(postId, delta);
+        }
+    }
+
     private Comment requireComment(Long commentId, Long postId) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new NotFoundException("评论不存在"));
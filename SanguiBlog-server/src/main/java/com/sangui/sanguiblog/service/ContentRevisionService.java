@@ -0,0 +1,109 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.util.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 公共只读内容的修订号登记处：写操作只需 bump 对应范围，读端据此派生 ETag，
+ * 不必序列化/哈希整个响应体即可判断客户端缓存是否仍然有效。
+ *
+ * 说明：
+ * - 修订号只保存在内存中，ETag 额外带上进程启动标识，重启后旧 ETag 自然全部失效；
+ * - bump 在事务提交后才生效：若在提交前 bump，并发读请求可能拿到“新 ETag + 旧内容”，
+ *   之后客户端带着新 ETag 回来会被错误地判定为 304；
+ * - 浏览量、评论数、访客动态这类高频变化字段不逐次 bump，而是由 volatile 范围额外拼上
+ *   一个时间窗口序号，保证陈旧度不超过窗口长度。
+ */
+@Service
+public class ContentRevisionService {
+
+    public enum Scope {
+        /** 文章列表、归档、上下篇（含浏览量/评论数等计数字段） */
+        POSTS(true),
+        /** 分类树、标签列表 */
+        TAXONOMY(false),
+        /** 小游戏/自定义页面 */
+        GAMES(false),
+        /** 关于页 */
+        ABOUT(false),
+        /** 站点元信息（广播、背景图、统计、最近访客等） */
+        SITE(true);
+
+        private final boolean volatileCounters;
+
+        Scope(boolean volatileCounters) {
+            this.volatileCounters = volatileCounters;
+        }
+
+        public boolean hasVolatileCounters() {
+            return volatileCounters;
+        }
+    }
+
+    private final String bootTag = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray revisions = new AtomicLongArray(Scope.values().length);
+
+    @Value("${site.conditional-get.volatile-window-seconds:60}")
+    private long volatileWindowSeconds = 60;
+
+    /**
+     * 标记范围内容已变更；处于事务中时延迟到提交后再生效，事务回滚则不 bump。
+     */
+    public void bumpAfterCommit(Scope... scopes) {
+        if (scopes == null || scopes.length == 0) {
+            return;
+        }
+        AfterCommit.run(() -> bump(scopes));
+    }
+
+    public void bump(Scope... scopes) {
+        if (scopes == null) {
+            return;
+        }
+        for (Scope scope : scopes) {
+            if (scope != null) {
+                revisions.incrementAndGet(scope.ordinal());
+            }
+        }
+    }
+
+    public long revision(Scope scope) {
+        return scope == null ? 0L : revisions.get(scope.ordinal());
+    }
+
+    /**
+     * 由各范围修订号拼出强 ETag，例如 {@code "m1x2y3z-4.0.17"}；含 volatile 范围时末尾追加 {@code w<窗口序号>}。
+     */
+    public String etag(Scope... scopes) {
+        return etag(System.currentTimeMillis(), scopes);
+    }
+
+    String etag(long nowMs, Scope... scopes) {
+        StringBuilder sb = new StringBuilder(48);
+        sb.append('"').append(bootTag);
+        boolean volatileScope = false;
+        if (scopes != null) {
+            char separator = '-';
+            for (Scope scope : scopes) {
+                if (scope == null) {
+                    continue;
+                }
+                sb.append(separator).append(scope.ordinal()).append(':').append(revision(scope));
+                separator = '.';
+                volatileScope |= scope.hasVolatileCounters();
+            }
+        }
+        if (volatileScope) {
+            long windowMs = Math.max(1, volatileWindowSeconds) * 1000L;
+            sb.append("-w").append(Long.toString(nowMs / windowMs, 36));
+        }
+        return sb.append('"').toString();
+    }
+
+    void setVolatileWindowSeconds(long volatileWindowSeconds) {
+        this.volatileWindowSeconds = volatileWindowSeconds;
+    }
+}
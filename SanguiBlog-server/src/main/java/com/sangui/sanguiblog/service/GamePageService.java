@@ -9,7 +9,10 @@ import com.sangui.sanguiblog.model.dto.PageResponse;
 import com.sangui.sanguiblog.exception.NotFoundException;
 import com.sangui.sanguiblog.model.entity.GamePage;
 import com.sangui.sanguiblog.model.repository.GamePageRepository;
+import com.sangui.sanguiblog.util.ContentEncodingUtils;
+import com.sangui.sanguiblog.service.outbox.OutboxService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -31,11 +34,13 @@ import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class GamePageService {
 
     private final GamePageRepository gamePageRepository;
     private final StoragePathResolver storagePathResolver;
-    private final SitemapService sitemapService;
+    private final OutboxService outboxService;
+    private final ContentRevisionService contentRevisionService;
 
     public record CreateResult(GamePageAdminDto data, String message) {
     }
@@ -103,7 +108,8 @@ public class GamePageService {
         String filePath = storeHtmlFile(entity.getSlug(), file);
         entity.setFilePath(filePath);
         GamePage saved = gamePageRepository.save(entity);
-        sitemapService.markDirty();
+        outboxService.enqueueSitemapGamesChanged();
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.GAMES);
         String message = "ok";
         if (slugResolution.renamedDueToConflict()) {
             message = "检测到同名游戏目录已存在，已自动改为 `" + slugResolution.slug() + "`（原计划目录为 `" + slugResolution.baseSlug() + "`），请避免重复上传同名 HTML。";
@@ -132,7 +138,8 @@ public class GamePageService {
         entity.setUpdatedBy(operatorId);
         entity.setUpdatedAt(Instant.now());
         GamePage saved = gamePageRepository.save(entity);
-        sitemapService.markDirty();
+        outboxService.enqueueSitemapGamesChanged();
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.GAMES);
         return toAdminDto(saved);
     }
 
@@ -142,7 +149,8 @@ public class GamePageService {
                 .orElseThrow(() -> new NotFoundException("游戏页面不存在"));
         deleteFileQuietly(entity.getFilePath());
         gamePageRepository.delete(entity);
-        sitemapService.markDirty();
+        outboxService.enqueueSitemapGamesChanged();
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.GAMES);
     }
 
     private GamePage.Status parseStatus(String status, GamePage.Status defaultStatus) {
@@ -302,6 +310,7 @@ public class GamePageService {
         try {
             Path target = dir.resolve(filename).normalize();
             Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+            precompress(target);
             Path relative = storagePathResolver.getRootPath().relativize(target.toAbsolutePath().normalize());
             String normalized = relative.toString().replace('\\', '/');
             if (!normalized.startsWith("uploads/")) {
@@ -313,6 +322,15 @@ public class GamePageService {
         }
     }
 
+    private void precompress(Path target) {
+        // 小游戏页面通常是单文件 HTML（内联脚本/样式），上传时一次性生成 .gz，访问时不再实时压缩
+        try {
+            ContentEncodingUtils.writeGzipSibling(target);
+        } catch (IOException | RuntimeException e) {
+            log.warn("生成预压缩文件失败: {} - {}", target, e.getMessage());
+        }
+    }
+
     private void deleteFileQuietly(String filePath) {
         if (!StringUtils.hasText(filePath)) return;
         try {
@@ -325,6 +343,7 @@ public class GamePageService {
             if (Files.exists(target)) {
                 Files.delete(target);
             }
+            Files.deleteIfExists(ContentEncodingUtils.gzipSibling(target));
             // also try to delete parent directory if empty
             Path parent = target.getParent();
             if (parent != null && Files.isDirectory(parent)) {
@@ -1,5 +1,7 @@
 package com.sangui.sanguiblog.service;
 
+import com.sangui.sanguiblog.util.IpAddress;
+import com.sangui.sanguiblog.util.IpUtils;
 import org.lionsoul.ip2region.xdb.Searcher;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -7,7 +9,6 @@ import org.springframework.util.StringUtils;
 
 import jakarta.annotation.PostConstruct;
 import java.io.InputStream;
-import java.net.InetAddress;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -68,15 +69,15 @@ public class GeoIpService {
     }
 
     private String inferLocal(String ip) {
-        try {
-            InetAddress address = InetAddress.getByName(ip);
-            if (address.isAnyLocalAddress() || address.isLoopbackAddress()) {
-                return "本机/内网";
-            }
-            if (address.isSiteLocalAddress() || address.isLinkLocalAddress()) {
-                return "内网";
-            }
-        } catch (Exception ignored) {
+        IpAddress address = IpAddress.parse(ip);
+        if (address == null) {
+            return null;
+        }
+        if (IpUtils.LOOPBACK_OR_UNSPECIFIED.contains(address)) {
+            return "本机/内网";
+        }
+        if (IpUtils.PRIVATE_NETWORKS.contains(address)) {
+            return "内网";
         }
         return null;
     }
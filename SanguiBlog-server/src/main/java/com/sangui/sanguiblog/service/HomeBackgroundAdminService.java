@@ -33,6 +33,7 @@ public class HomeBackgroundAdminService {
 
     private final HomeBackgroundImageRepository homeBackgroundImageRepository;
     private final StoragePathResolver storagePathResolver;
+    private final ContentRevisionService contentRevisionService;
 
     @Transactional(readOnly = true)
     public List<HomeBackgroundAdminDto> list() {
@@ -81,7 +82,9 @@ public class HomeBackgroundAdminService {
         entity.setCreatedAt(now);
         entity.setUpdatedAt(now);
 
-        return toDto(homeBackgroundImageRepository.save(entity));
+        HomeBackgroundImage saved = homeBackgroundImageRepository.save(entity);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.SITE);
+        return toDto(saved);
     }
 
     @Transactional
@@ -91,7 +94,9 @@ public class HomeBackgroundAdminService {
         clearCurrentFlag();
         entity.setIsCurrent(true);
         entity.setUpdatedAt(Instant.now());
-        return toDto(homeBackgroundImageRepository.save(entity));
+        HomeBackgroundImage saved = homeBackgroundImageRepository.save(entity);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.SITE);
+        return toDto(saved);
     }
 
     @Transactional
@@ -102,6 +107,7 @@ public class HomeBackgroundAdminService {
         boolean deletingCurrent = Boolean.TRUE.equals(entity.getIsCurrent());
         deleteFileQuietly(entity.getFilePath());
         homeBackgroundImageRepository.delete(entity);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.SITE);
 
         if (deletingCurrent) {
             homeBackgroundImageRepository.findAll()
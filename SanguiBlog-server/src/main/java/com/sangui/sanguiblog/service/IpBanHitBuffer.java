@@ -0,0 +1,106 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.repository.BannedIpHitRepository.HitDelta;
+import com.sangui.sanguiblog.model.repository.BannedIpRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 封禁命中计数的写回缓冲：访问检查只在内存中累加（按封禁记录 id 聚合次数与最后命中时间），
+ * 由定时任务每隔几秒批量写回，被封禁 IP 的请求风暴不再变成逐请求的 UPDATE。
+ *
+ * 说明：
+ * - 累加与取出都在 ConcurrentHashMap 的 compute/remove 内完成，取出后不会再有并发累加落到旧对象上；
+ * - 每个周期的全部计数以一次 JDBC 批量 UPDATE 写回；批量失败（整体回滚）时逐条重试，
+ *   仍失败的条目合并回缓冲，下次再写；进程关闭前再写回一次；
+ * - 后台封禁列表通过 {@link #pending(Long)} 合并尚未写回的部分，展示值与实时一致。
+ */
+@Component
+@RequiredArgsConstructor
+public class IpBanHitBuffer implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(IpBanHitBuffer.class);
+
+    private final BannedIpRepository bannedIpRepository;
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 尚未写回的命中：次数与最后命中时间。
+     */
+    public record Pending(long hits, LocalDateTime lastHitTime) {
+
+        Pending plus(long moreHits, LocalDateTime hitTime) {
+            LocalDateTime last = lastHitTime == null || (hitTime != null && hitTime.isAfter(lastHitTime))
+                    ? hitTime : lastHitTime;
+            return new Pending(hits + moreHits, last);
+        }
+    }
+
+    public void record(Long banId, LocalDateTime hitTime) {
+        if (banId == null) {
+            return;
+        }
+        pending.compute(banId, (id, current) -> current == null
+                ? new Pending(1, hitTime) : current.plus(1, hitTime));
+    }
+
+    public Pending pending(Long banId) {
+        return banId != null ? pending.get(banId) : null;
+    }
+
+    public int pendingBans() {
+        return pending.size();
+    }
+
+    /**
+     * 写回全部待处理计数：每个周期一次批量写回，每条被命中的封禁记录在批内只有一条 UPDATE（与命中次数无关）。
+     */
+    @Scheduled(fixedDelayString = "${security.ip-ban.hit-flush-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<HitDelta> drained = new ArrayList<>(pending.size());
+        for (Long banId : List.copyOf(pending.keySet())) {
+            Pending taken = pending.remove(banId);
+            if (taken != null && taken.hits() > 0) {
+                drained.add(new HitDelta(banId, taken.hits(), taken.lastHitTime()));
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            bannedIpRepository.addHitsInBatch(drained);
+        } catch (RuntimeException ex) {
+            log.warn("ip ban hit count batch flush failed, retrying row by row: bans={}", drained.size(), ex);
+            drained.forEach(this::retryRow);
+        }
+    }
+
+    private void retryRow(HitDelta delta) {
+        try {
+            bannedIpRepository.addHits(delta.banId(), delta.hits(), delta.lastHit());
+        } catch (RuntimeException ex) {
+            log.warn("ip ban hit count flush failed, will retry: banId={}, hits={}", delta.banId(), delta.hits(), ex);
+            pending.merge(delta.banId(), new Pending(delta.hits(), delta.lastHit()),
+                    (current, failed) -> current.plus(failed.hits(), failed.lastHitTime()));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+}
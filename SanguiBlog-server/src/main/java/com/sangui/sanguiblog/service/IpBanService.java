@@ -1,7 +1,5 @@
 package com.sangui.sanguiblog.service;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import com.sangui.sanguiblog.exception.NotFoundException;
 import com.sangui.sanguiblog.model.dto.AdminBannedIpDto;
 import com.sangui.sanguiblog.model.dto.AdminCreateIpBanRequest;
@@ -13,21 +11,28 @@ import com.sangui.sanguiblog.model.entity.User;
 import com.sangui.sanguiblog.model.repository.BannedIpRepository;
 import com.sangui.sanguiblog.model.repository.IpBanAuditLogRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
+import com.sangui.sanguiblog.util.AfterCommit;
+import com.sangui.sanguiblog.util.IpAddress;
+import com.sangui.sanguiblog.util.IpCidr;
 import com.sangui.sanguiblog.util.IpUtils;
+import com.sangui.sanguiblog.util.VersionedSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -41,16 +46,20 @@ public class IpBanService {
     static final String ACTION_BAN = "BAN";
     static final String ACTION_REBAN = "REBAN";
     static final String ACTION_UNBAN = "UNBAN";
+    static final int MIN_IPV4_PREFIX = 16;
+    static final int MIN_IPV6_PREFIX = 32;
 
     private final BannedIpRepository bannedIpRepository;
     private final IpBanAuditLogRepository ipBanAuditLogRepository;
     private final UserRepository userRepository;
+    private final IpBanHitBuffer hitBuffer;
 
-    // 受信 IP -> 是否启用封禁 的短 TTL 缓存，避免每次 auth_request 读库；封禁/解封后即时失效。
-    private final Cache<String, Boolean> banStateCache = Caffeine.newBuilder()
-            .maximumSize(20_000)
-            .expireAfterWrite(java.time.Duration.ofSeconds(30))
-            .build();
+    /**
+     * 全部启用封禁（单 IP + CIDR）的前缀树快照：首次访问检查时加载；封禁/解封在事务提交后、定时任务按周期
+     * 先构建新树再整体替换，构建期间检查继续使用旧树，不会阻塞在数据库加载上。加载失败时沿用上一份快照（fail open）。
+     */
+    private final VersionedSnapshot<IpBanTrie> banTrie = new VersionedSnapshot<>(this::loadBanTrie);
+    private volatile IpBanTrie lastGoodTrie = IpBanTrie.EMPTY;
 
     @Transactional
     public AdminBannedIpDto createBan(AdminCreateIpBanRequest request, Long actorUserId, String actorClientIp) {
@@ -58,18 +67,37 @@ public class IpBanService {
             throw new IllegalArgumentException("IP 不能为空");
         }
         String rawIp = request.getIp().trim();
-        if (!IpUtils.isValidSingleIp(rawIp)) {
-            throw new IllegalArgumentException("IP 格式非法，仅支持单个 IPv4/IPv6 地址");
-        }
+        String ip;
         if (rawIp.contains("/")) {
-            throw new IllegalArgumentException("暂不支持 CIDR 网段封禁");
-        }
-        String ip = IpUtils.normalizeIp(rawIp);
-        if (IpUtils.isPrivateOrProtected(ip)) {
-            throw new IllegalArgumentException("不允许封禁回环/私有/链路本地等受保护地址");
-        }
-        if (StringUtils.hasText(actorClientIp) && ip.equals(IpUtils.normalizeIp(actorClientIp))) {
-            throw new IllegalArgumentException("不允许封禁当前管理员自身的 IP");
+            IpCidr range = IpCidr.parse(rawIp);
+            if (range == null) {
+                throw new IllegalArgumentException("CIDR 格式非法，示例：203.0.113.0/24 或 2001:db8::/48");
+            }
+            int minPrefix = range.isIpv4() ? MIN_IPV4_PREFIX : MIN_IPV6_PREFIX;
+            if (range.prefix() < minPrefix) {
+                throw new IllegalArgumentException("CIDR 网段过大，" + (range.isIpv4() ? "IPv4" : "IPv6")
+                        + " 前缀长度不能小于 /" + minPrefix);
+            }
+            if (IpUtils.isPrivateOrProtected(range.network().toString())
+                    || IpUtils.isPrivateOrProtected(range.lastAddress().toString())) {
+                throw new IllegalArgumentException("不允许封禁回环/私有/链路本地等受保护地址");
+            }
+            if (StringUtils.hasText(actorClientIp)
+                    && range.contains(IpAddress.parse(IpUtils.normalizeIp(actorClientIp)))) {
+                throw new IllegalArgumentException("不允许封禁当前管理员自身的 IP 所在网段");
+            }
+            ip = range.canonical();
+        } else {
+            if (!IpUtils.isValidSingleIp(rawIp)) {
+                throw new IllegalArgumentException("IP 格式非法，仅支持单个 IPv4/IPv6 地址或 CIDR 网段");
+            }
+            ip = IpUtils.normalizeIp(rawIp);
+            if (IpUtils.isPrivateOrProtected(ip)) {
+                throw new IllegalArgumentException("不允许封禁回环/私有/链路本地等受保护地址");
+            }
+            if (StringUtils.hasText(actorClientIp) && ip.equals(IpUtils.normalizeIp(actorClientIp))) {
+                throw new IllegalArgumentException("不允许封禁当前管理员自身的 IP");
+            }
         }
         String reason = trimReason(request.getReason());
 
@@ -107,7 +135,7 @@ public class IpBanService {
             action = ACTION_BAN;
         }
         writeAudit(saved.getId(), action, ip, reason, actorUserId, request.getSourcePageViewId());
-        invalidate(ip);
+        refreshBanTrieAfterCommit();
         return toDto(saved);
     }
 
@@ -128,7 +156,7 @@ public class IpBanService {
         ban.setUnbanReason(reason);
         BannedIp saved = bannedIpRepository.save(ban);
         writeAudit(saved.getId(), ACTION_UNBAN, saved.getIp(), reason, actorUserId, null);
-        invalidate(saved.getIp());
+        refreshBanTrieAfterCommit();
         return toDto(saved);
     }
 
@@ -147,77 +175,80 @@ public class IpBanService {
 
     /**
      * Nginx auth_request 内部访问检查。返回 true 表示放行，false 表示已封禁。
-     * 命中封禁时累加 hitCount 与 lastHitTime。
+     * 只查内存中的前缀树（支持 CIDR），不访问数据库；命中封禁时在写回缓冲中累加该条封禁的 hitCount 与 lastHitTime。
      */
     public boolean isAccessAllowed(String ip) {
         if (!StringUtils.hasText(ip)) {
             return true;
         }
-        String normalized = IpUtils.normalizeIp(ip);
-        Boolean cached = banStateCache.getIfPresent(normalized);
-        if (cached != null) {
-            if (Boolean.FALSE.equals(cached)) {
-                recordHitSafely(normalized);
-            }
-            return cached;
-        }
-        Boolean allowed = loadBanState(normalized);
-        banStateCache.put(normalized, allowed);
-        if (Boolean.FALSE.equals(allowed)) {
-            recordHitSafely(normalized);
+        IpBanTrie.Match match = banTrie.get().lookup(IpAddress.parse(IpUtils.normalizeIp(ip)));
+        if (match == null) {
+            return true;
         }
-        return allowed;
+        hitBuffer.record(match.banId(), LocalDateTime.now());
+        return false;
     }
 
     /**
-     * 批量解析可见访问记录的封禁状态，返回 ip -> banId（仅启用封禁）。
-     * 使用 REQUIRES_NEW 独立事务，避免封禁查询失败污染外层 analytics 事务导致整页 500。
+     * 批量解析可见访问记录的封禁状态，返回 ip -> banId（仅启用封禁，含命中的 CIDR 网段封禁）。
      */
-    @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW, readOnly = true)
     public Map<String, Long> resolveEnabledBanIds(Collection<String> ips) {
         if (ips == null || ips.isEmpty()) {
             return Map.of();
         }
-        java.util.Set<String> normalized = new java.util.LinkedHashSet<>();
+        IpBanTrie trie = banTrie.get();
+        Map<String, Long> result = new HashMap<>();
         for (String ip : ips) {
-            if (StringUtils.hasText(ip)) {
-                normalized.add(IpUtils.normalizeIp(ip));
+            if (!StringUtils.hasText(ip)) {
+                continue;
+            }
+            String normalized = IpUtils.normalizeIp(ip);
+            IpBanTrie.Match match = trie.lookup(IpAddress.parse(normalized));
+            if (match != null) {
+                result.put(normalized, match.banId());
             }
-        }
-        if (normalized.isEmpty()) {
-            return Map.of();
-        }
-        Map<String, Long> result = new HashMap<>();
-        for (BannedIp ban : bannedIpRepository.findByEnabledTrueAndIpIn(normalized)) {
-            result.put(ban.getIp(), ban.getId());
         }
         return result;
     }
 
-    private Boolean loadBanState(String normalizedIp) {
-        try {
-            return bannedIpRepository.findByIpAndEnabledTrue(normalizedIp).isEmpty();
-        } catch (RuntimeException ex) {
-            // DB 查询异常时 fail open（放行），仅记录安全元数据，避免单点故障导致全站 403
-            log.warn("ip ban state lookup failed, fail open: ip={}", normalizedIp, ex);
-            return Boolean.TRUE;
-        }
+    /**
+     * 定时重新加载，兜底直接修改数据库等未经过本服务的变更。
+     */
+    @Scheduled(fixedDelayString = "${security.ip-ban.refresh-ms:60000}",
+            initialDelayString = "${security.ip-ban.refresh-ms:60000}")
+    public void refreshBanTrie() {
+        banTrie.refresh();
     }
 
-    private void recordHitSafely(String normalizedIp) {
-        try {
-            bannedIpRepository.incrementHit(normalizedIp, LocalDateTime.now());
-        } catch (RuntimeException ex) {
-            log.warn("ip ban hit count update failed: ip={}", normalizedIp, ex);
-        }
+    int banRuleCount() {
+        return banTrie.get().size();
     }
 
-    private void invalidate(String normalizedIp) {
+    private IpBanTrie loadBanTrie() {
+        List<BannedIp> enabled;
         try {
-            banStateCache.invalidate(normalizedIp);
+            enabled = bannedIpRepository.findByEnabledTrue();
         } catch (RuntimeException ex) {
-            log.warn("ip ban cache invalidation failed, short TTL will self-heal: ip={}", normalizedIp, ex);
+            // DB 查询异常时 fail open：沿用上一份快照（启动即失败则为空），等待下次定时刷新，避免单点故障导致全站 403
+            log.warn("ip ban rules load failed, keep previous snapshot: rules={}", lastGoodTrie.size(), ex);
+            return lastGoodTrie;
+        }
+        List<IpBanTrie.Rule> rules = new ArrayList<>(enabled.size());
+        for (BannedIp ban : enabled) {
+            IpCidr range = IpCidr.parse(ban.getIp());
+            if (range == null) {
+                log.warn("ip ban rule ignored, unparseable: id={}, ip={}", ban.getId(), ban.getIp());
+                continue;
+            }
+            rules.add(new IpBanTrie.Rule(range, ban.getId() != null ? ban.getId() : 0L, ban.getIp()));
         }
+        IpBanTrie trie = IpBanTrie.build(rules);
+        lastGoodTrie = trie;
+        return trie;
+    }
+
+    private void refreshBanTrieAfterCommit() {
+        AfterCommit.run(banTrie::refresh);
     }
 
     private void writeAudit(Long bannedIpId, String action, String ip, String reason, Long actorUserId, Long sourcePageViewId) {
@@ -266,13 +297,21 @@ public class IpBanService {
 
     private AdminBannedIpDto toDto(BannedIp ban) {
         Map<Long, String> usernameCache = new LinkedHashMap<>();
+        // 合并写回缓冲中尚未落库的命中
+        IpBanHitBuffer.Pending pending = hitBuffer.pending(ban.getId());
+        long hitCount = ban.getHitCount() != null ? ban.getHitCount() : 0L;
+        LocalDateTime lastHit = ban.getLastHitTime();
+        if (pending != null && pending.lastHitTime() != null
+                && (lastHit == null || pending.lastHitTime().isAfter(lastHit))) {
+            lastHit = pending.lastHitTime();
+        }
         return AdminBannedIpDto.builder()
                 .id(ban.getId())
                 .ip(ban.getIp())
                 .reason(ban.getReason())
                 .enabled(Boolean.TRUE.equals(ban.getEnabled()))
-                .hitCount(ban.getHitCount() != null ? ban.getHitCount() : 0L)
-                .lastHitTime(formatTime(ban.getLastHitTime()))
+                .hitCount(hitCount + (pending != null ? pending.hits() : 0L))
+                .lastHitTime(formatTime(lastHit))
                 .createdAt(formatTime(ban.getCreatedAt()))
                 .createdBy(ban.getCreatedById() != null ? ban.getCreatedById() : userIdOf(ban.getCreatedBy()))
                 .createdByUsername(usernameOf(ban.getCreatedBy(), usernameCache))
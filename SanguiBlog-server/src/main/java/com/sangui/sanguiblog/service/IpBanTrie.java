@@ -0,0 +1,101 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.util.IpAddress;
+import com.sangui.sanguiblog.util.IpCidr;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 启用中封禁规则（单个 IP 或 CIDR 网段）的不可变二叉前缀树，IPv4 与 IPv6 各一棵。
+ *
+ * 说明：
+ * - 节点平铺在 int 数组中（children[2n]/children[2n+1] 为 0/1 子节点，0 表示无），查询沿地址逐位下行，
+ *   最多 32/128 步，不分配对象、不访问数据库；
+ * - 沿途记录最深的命中规则（最长前缀匹配），命中计数归到最具体的那条封禁上；
+ * - 构建后不再修改，由 {@link IpBanService} 在封禁变化后整体替换。
+ */
+final class IpBanTrie {
+
+    static final IpBanTrie EMPTY = build(List.of());
+
+    /**
+     * 命中的封禁规则：banId 与库中保存的 ip 字段（单个 IP 或 network/prefix）。
+     */
+    record Match(long banId, String ban) {
+    }
+
+    record Rule(IpCidr range, long banId, String ban) {
+    }
+
+    private final int[] children;
+    private final int[] matchAt;
+    private final Match[] matches;
+    private final int size;
+
+    private IpBanTrie(int[] children, int[] matchAt, Match[] matches) {
+        this.children = children;
+        this.matchAt = matchAt;
+        this.matches = matches;
+        this.size = matches.length;
+    }
+
+    static IpBanTrie build(List<Rule> rules) {
+        // 节点 0 为 IPv4 根、节点 1 为 IPv6 根
+        int[] children = new int[64];
+        int[] matchAt = new int[32];
+        Arrays.fill(matchAt, -1);
+        int nodes = 2;
+        Match[] matches = new Match[rules.size()];
+        int count = 0;
+        for (Rule rule : rules) {
+            IpCidr range = rule.range();
+            int node = range.isIpv4() ? 0 : 1;
+            for (int i = 0; i < range.prefix(); i++) {
+                int slot = node * 2 + range.network().bit(i);
+                if (children[slot] == 0) {
+                    if (nodes * 2 + 2 > children.length) {
+                        children = Arrays.copyOf(children, children.length * 2);
+                        int oldLength = matchAt.length;
+                        matchAt = Arrays.copyOf(matchAt, oldLength * 2);
+                        Arrays.fill(matchAt, oldLength, matchAt.length, -1);
+                    }
+                    children[slot] = nodes++;
+                }
+                node = children[slot];
+            }
+            if (matchAt[node] < 0) {
+                matches[count] = new Match(rule.banId(), rule.ban());
+                matchAt[node] = count++;
+            }
+        }
+        return new IpBanTrie(Arrays.copyOf(children, nodes * 2), Arrays.copyOf(matchAt, nodes),
+                Arrays.copyOf(matches, count));
+    }
+
+    /**
+     * 最长前缀匹配；未命中返回 null。
+     */
+    Match lookup(IpAddress address) {
+        if (address == null) {
+            return null;
+        }
+        int node = address.isIpv4() ? 0 : 1;
+        Match best = matchAt[node] >= 0 ? matches[matchAt[node]] : null;
+        int bits = address.bitLength();
+        for (int i = 0; i < bits; i++) {
+            node = children[node * 2 + address.bit(i)];
+            if (node == 0) {
+                break;
+            }
+            if (matchAt[node] >= 0) {
+                best = matches[matchAt[node]];
+            }
+        }
+        return best;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,127 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.NotificationDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 评论通知的进程内推送中心：
+ * - 每个用户可同时挂多个 SSE 连接（多标签页），新通知提交后直接扇出，不再依赖前端轮询；
+ * - 未读数保存在内存中：仅在用户（重新）建立连接时查询一次数据库作为基准，之后由新通知/已读操作增减；
+ * - 没有在线连接的用户不保留计数，下次连接时重新校准，避免内存随用户数增长；
+ * - 连接寿命不超过建立连接所用 token 的过期时间，token 过期后前端须带新 token 重连；
+ * - 连接登记/清理/心跳由 {@link SseEmitterRegistry} 负责，用户最后一个连接断开时一并丢弃其未读数。
+ */
+@Component
+public class NotificationPushHub {
+
+    public static final String EVENT_UNREAD = "unread";
+    public static final String EVENT_NOTIFICATION = "notification";
+
+    @Value("${notification.stream.timeout-ms:1800000}")
+    private long emitterTimeoutMs = 1_800_000L;
+
+    @Value("${notification.stream.max-connections-per-user:5}")
+    private int maxConnectionsPerUser = 5;
+
+    @Value("${notification.stream.max-connections:2000}")
+    private int maxConnections = 2000;
+
+    private final Map<Long, AtomicLong> unreadByUser = new ConcurrentHashMap<>();
+    private final SseEmitterRegistry<Long> connections = new SseEmitterRegistry<>("通知", unreadByUser::remove);
+
+    public SseEmitter subscribe(Long userId, LongSupplier catchUpUnread) {
+        return subscribe(userId, null, catchUpUnread);
+    }
+
+    /**
+     * 建立推送连接：用 catchUpUnread（一次 count 查询）校准内存未读数，并立即下发当前未读数。
+     * expiresAt 为 token 过期时间（null 表示不限），连接超时取其与配置超时的较小值。
+     * 超过连接上限或 token 已过期时返回 null，由调用方提示前端回退到轮询。
+     */
+    public SseEmitter subscribe(Long userId, Instant expiresAt, LongSupplier catchUpUnread) {
+        if (userId == null || connections.connectionCount() >= maxConnections) {
+            return null;
+        }
+        long timeoutMs = emitterTimeoutMs;
+        if (expiresAt != null) {
+            timeoutMs = Math.min(timeoutMs, expiresAt.toEpochMilli() - System.currentTimeMillis());
+        }
+        if (timeoutMs <= 0) {
+            return null;
+        }
+        long unread = Math.max(0L, catchUpUnread.getAsLong());
+        SseEmitter emitter = connections.register(userId, timeoutMs, maxConnections, maxConnectionsPerUser,
+                () -> unreadByUser.computeIfAbsent(userId, k -> new AtomicLong()).set(unread));
+        if (emitter != null) {
+            connections.send(userId, emitter, EVENT_UNREAD, Map.of("unread", unread));
+        }
+        return emitter;
+    }
+
+    /**
+     * 新通知（事务提交后调用）：在线用户未读数 +1 并推送通知内容。
+     */
+    public void publish(Long userId, NotificationDto notification) {
+        if (!connections.hasConnections(userId)) {
+            return;
+        }
+        long unread = counter(userId).incrementAndGet();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("unread", unread);
+        payload.put("item", notification);
+        connections.broadcast(userId, EVENT_NOTIFICATION, payload);
+    }
+
+    public void decrementUnread(Long userId, long delta) {
+        AtomicLong counter = unreadByUser.get(userId);
+        if (counter == null || delta <= 0) {
+            return;
+        }
+        long unread = counter.updateAndGet(v -> Math.max(0L, v - delta));
+        pushUnread(userId, unread);
+    }
+
+    public void resetUnread(Long userId) {
+        AtomicLong counter = unreadByUser.get(userId);
+        if (counter == null) {
+            return;
+        }
+        counter.set(0L);
+        pushUnread(userId, 0L);
+    }
+
+    /**
+     * 内存中的未读数；用户不在线（未校准）时返回 null。
+     */
+    public Long cachedUnread(Long userId) {
+        AtomicLong counter = unreadByUser.get(userId);
+        return counter != null ? counter.get() : null;
+    }
+
+    public int connectionCount() {
+        return connections.connectionCount();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        connections.heartbeat();
+    }
+
+    private void pushUnread(Long userId, long unread) {
+        connections.broadcast(userId, EVENT_UNREAD, Map.of("unread", unread));
+    }
+
+    private AtomicLong counter(Long userId) {
+        return unreadByUser.computeIfAbsent(userId, k -> new AtomicLong());
+    }
+}
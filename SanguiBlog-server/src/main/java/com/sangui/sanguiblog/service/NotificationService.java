@@ -3,25 +3,30 @@ package com.sangui.sanguiblog.service;
 import com.sangui.sanguiblog.model.dto.NotificationDto;
 import com.sangui.sanguiblog.model.dto.NotificationListDto;
 import com.sangui.sanguiblog.model.entity.Comment;
+import com.sangui.sanguiblog.model.entity.CommentMention;
 import com.sangui.sanguiblog.model.entity.CommentNotification;
 import com.sangui.sanguiblog.model.entity.Post;
 import com.sangui.sanguiblog.model.entity.User;
 import com.sangui.sanguiblog.model.repository.CommentNotificationRepository;
+import com.sangui.sanguiblog.model.repository.CommentMentionRepository;
 import com.sangui.sanguiblog.model.repository.CommentRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
+import com.sangui.sanguiblog.util.AfterCommit;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
@@ -33,6 +38,19 @@ public class NotificationService {
     private final CommentNotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
+    private final CommentMentionRepository commentMentionRepository;
+    private final NotificationPushHub notificationPushHub;
+
+    /**
+     * 发件箱投递入口：评论提交后按 id 重新加载并生成通知；评论已被删除时直接忽略。
+     */
+    @Transactional
+    public void createForCommentId(Long commentId) {
+        if (commentId == null) {
+            return;
+        }
+        commentRepository.findById(commentId).ifPresent(this::createForComment);
+    }
 
     @Transactional
     public void createForComment(Comment comment) {
@@ -53,9 +71,14 @@ public class NotificationService {
                 targetIds.add(parentAuthorId);
             }
         }
-        Long mentionedUserId = resolveMentionedUserId(comment.getContent());
-        if (mentionedUserId != null && !mentionedUserId.equals(actorId)) {
-            targetIds.add(mentionedUserId);
+        if (comment.getId() != null) {
+            // 提及关系已随评论在同一事务写入，这里只读取
+            for (CommentMention mention : commentMentionRepository.findByIdCommentId(comment.getId())) {
+                Long mentionedUserId = mention.getId().getMentionedUserId();
+                if (mentionedUserId != null && !mentionedUserId.equals(actorId)) {
+                    targetIds.add(mentionedUserId);
+                }
+            }
         }
 
         if (targetIds.isEmpty()) {
@@ -69,10 +92,14 @@ public class NotificationService {
         String authorAvatar = normalizeAvatar(comment.getUser() != null ? comment.getUser().getAvatarUrl() : comment.getAuthorAvatarUrl());
         Instant now = Instant.now();
         List<User> recipients = userRepository.findAllById(targetIds);
+        List<CommentNotification> created = new ArrayList<>();
         for (User recipient : recipients) {
             if (comment.getUser() != null && recipient.getId().equals(comment.getUser().getId())) {
                 continue; // 不提醒自己
             }
+            if (notificationRepository.existsByRecipientIdAndCommentId(recipient.getId(), comment.getId())) {
+                continue; // 重试投递时保持幂等
+            }
             CommentNotification notification = new CommentNotification();
             notification.setRecipient(recipient);
             notification.setComment(comment);
@@ -82,8 +109,23 @@ public class NotificationService {
             notification.setCommentAuthorAvatar(authorAvatar);
             notification.setIsRead(false);
             notification.setCreatedAt(now);
-            notificationRepository.save(notification);
+            created.add(notificationRepository.save(notification));
         }
+        if (!created.isEmpty()) {
+            // 在事务内组装好推送内容，提交后再扇出，回滚时不会推送
+            List<Map.Entry<Long, NotificationDto>> pushes = created.stream()
+                    .map(n -> Map.entry(n.getRecipient().getId(), toDto(n)))
+                    .toList();
+            AfterCommit.run(() -> pushes.forEach(entry -> notificationPushHub.publish(entry.getKey(), entry.getValue())));
+        }
+    }
+
+    /**
+     * 建立通知推送连接；仅在（重新）连接时查询一次未读数作为基准。连接在 token 过期（expiresAt）时关闭。
+     */
+    public SseEmitter openStream(Long userId, Instant expiresAt) {
+        return notificationPushHub.subscribe(userId, expiresAt,
+                () -> notificationRepository.countVisibleUnread(userId, false));
     }
 
     @Transactional(readOnly = true)
@@ -120,6 +162,9 @@ public class NotificationService {
         }
         int updated = notificationRepository.markAsRead(notificationId, userId, Instant.now());
         // 如果已读或不存在，直接忽略，避免前端重复点击时抛错
+        if (updated > 0) {
+            AfterCommit.run(() -> notificationPushHub.decrementUnread(userId, updated));
+        }
     }
 
     @Transactional
@@ -128,67 +173,18 @@ public class NotificationService {
             return;
         }
         notificationRepository.markAllAsRead(userId, Instant.now());
+        AfterCommit.run(() -> notificationPushHub.resetUnread(userId));
     }
 
+    /**
+     * 补全历史通知（均标记为已读）：候选评论的筛选与插入都在数据库内一次完成，
+     * @ 提及通过 comment_mentions 索引表匹配，不再把评论全表读入内存。
+     */
     @Transactional
     public int backfillForUser(Long userId) {
         if (userId == null) return 0;
-        deduplicateForUser(userId);
-        Set<Long> commentIds = new HashSet<>();
-        commentRepository.findByPostAuthorId(userId).forEach(c -> commentIds.add(c.getId()));
-        commentRepository.findByParentUserId(userId).forEach(c -> commentIds.add(c.getId()));
-        // comments that @mention the user
-        userRepository.findById(userId).ifPresent(user -> {
-            String display = user.getDisplayName();
-            String username = user.getUsername();
-            commentRepository.findAll().forEach(c -> {
-                if (isMentioned(c, display, username)) {
-                    commentIds.add(c.getId());
-                }
-            });
-        });
-        if (commentIds.isEmpty()) return 0;
-
-        List<Comment> comments = commentRepository.findAllById(commentIds);
-        int created = 0;
-        Instant now = Instant.now();
-        for (Comment c : comments) {
-            if (c.getUser() != null && userId.equals(c.getUser().getId())) {
-                continue; // 自己的评论不补全
-            }
-            if (notificationRepository.existsByRecipientIdAndCommentId(userId, c.getId())) continue;
-            CommentNotification n = new CommentNotification();
-            n.setRecipient(userRepository.findById(userId).orElse(null));
-            if (n.getRecipient() == null) continue;
-            n.setComment(c);
-            n.setPost(c.getPost());
-            n.setCommentAuthorName(c.getAuthorName() == null || c.getAuthorName().isBlank() ? "访客" : c.getAuthorName());
-            n.setCommentExcerpt(buildExcerpt(c.getContent()));
-            n.setCommentAuthorAvatar(normalizeAvatar(c.getAuthorAvatarUrl()));
-            n.setIsRead(true);
-            n.setCreatedAt(c.getCreatedAt() != null ? c.getCreatedAt() : now);
-            n.setReadAt(now);
-            notificationRepository.save(n);
-            created++;
-        }
-        return created;
-    }
-
-    private void deduplicateForUser(Long userId) {
-        List<CommentNotification> list = notificationRepository.findByRecipientIdOrderByCreatedAtDesc(userId);
-        if (list == null || list.size() < 2) return;
-        Set<Long> seenComment = new HashSet<>();
-        List<CommentNotification> duplicates = new java.util.ArrayList<>();
-        for (CommentNotification n : list) {
-            Long cid = n.getComment() != null ? n.getComment().getId() : null;
-            if (cid == null) continue;
-            if (!seenComment.add(cid)) {
-                duplicates.add(n);
-            }
-        }
-        if (!duplicates.isEmpty()) {
-            notificationRepository.deleteAllInBatch(duplicates);
-        }
+        notificationRepository.deleteDuplicatesForRecipient(userId);
+        return notificationRepository.insertMissingForRecipient(userId, Instant.now());
     }
 
     private NotificationDto toDto(CommentNotification notification) {
@@ -227,7 +223,11 @@ public class NotificationService {
         }
         String condensed = content.replaceAll("\\s+", " ").trim();
         int max = 150;
-        return condensed.length() > max ? condensed.substring(0, max) + "..." : condensed;
+        // 按码点截断，与数据库侧 left()/char_length() 的字符语义一致，也不会拆开代理对
+        if (condensed.codePointCount(0, condensed.length()) <= max) {
+            return condensed;
+        }
+        return condensed.substring(0, condensed.offsetByCodePoints(0, max)) + "...";
     }
 
     private String normalizeAvatar(String raw) {
@@ -247,49 +247,4 @@ public class NotificationService {
         String name = trimmed.replaceAll("^/+", "");
         return "/uploads/avatar/" + name;
     }
-
-    /**
-     * 尝试从评论内容中解析 @mention 的用户 ID（匹配用户名或显示名，忽略大小写）
-     */
-    private Long resolveMentionedUserId(String content) {
-        if (content == null) return null;
-        String prefix = extractMention(content);
-        if (prefix == null) return null;
-        // 先按用户名匹配
-        return userRepository.findByUsernameIgnoreCase(prefix)
-                .map(User::getId)
-                .orElseGet(() -> userRepository.findAll().stream()
-                        .filter(u -> !StringUtils.isBlank(u.getDisplayName()))
-                        .filter(u -> prefix.equalsIgnoreCase(u.getDisplayName()))
-                        .map(User::getId)
-                        .findFirst()
-                        .orElse(null));
-    }
-
-    private String extractMention(String content) {
-        String trimmed = content.trim();
-        if (!trimmed.startsWith("@")) return null;
-        // 取到首个空格或冒号
-        String body = trimmed.substring(1);
-        int stop = body.indexOf(' ');
-        int colon = body.indexOf(':');
-        int cnColon = body.indexOf('：');
-        int idx = -1;
-        for (int val : new int[]{colon, cnColon, stop}) {
-            if (val >= 0 && (idx == -1 || val < idx)) {
-                idx = val;
-            }
-        }
-        String name = idx >= 0 ? body.substring(0, idx) : body;
-        name = name.trim();
-        return name.isEmpty() ? null : name;
-    }
-
-    private boolean isMentioned(Comment c, String displayName, String username) {
-        if (c == null || c.getContent() == null) return false;
-        String mention = extractMention(c.getContent());
-        if (mention == null) return false;
-        if (!StringUtils.isBlank(username) && mention.equalsIgnoreCase(username)) return true;
-        return !StringUtils.isBlank(displayName) && mention.equalsIgnoreCase(displayName);
-    }
 }
@@ -0,0 +1,126 @@
+package com.sangui.sanguiblog.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 权限矩阵的不可变快照：
+ * - 权限编码按加载顺序编号，每个角色持有一个 {@link BitSet}，{@link #hasPermission(String, String)} 为两次哈希查找 + 位测试；
+ * - 每个角色的编码列表与 {@link GrantedAuthority} 列表（含 ROLE_xxx 与 PERM_xxx）在构建时一次生成，加载用户身份时直接复用；
+ * - 构建时未列出的角色按 fallback（默认权限）在首次查询时补建并缓存在本快照内，与旧版“无授权记录时回退默认权限”一致；
+ * - 构建后不再修改已有条目（BitSet 不对外暴露），由 {@link PermissionService} 在权限调整后整体替换。
+ */
+public final class PermissionMatrixSnapshot {
+
+    private record RoleGrants(BitSet bits, List<String> codes, List<GrantedAuthority> authorities) {
+    }
+
+    private final List<String> codes;
+    private final Map<String, Integer> indexByCode;
+    private final Map<String, RoleGrants> grantsByRole;
+    private final Function<String, ? extends Collection<String>> fallback;
+
+    private PermissionMatrixSnapshot(List<String> codes, Map<String, Integer> indexByCode,
+                                     Map<String, RoleGrants> grantsByRole,
+                                     Function<String, ? extends Collection<String>> fallback) {
+        this.codes = codes;
+        this.indexByCode = indexByCode;
+        this.grantsByRole = grantsByRole;
+        this.fallback = fallback;
+    }
+
+    /**
+     * @param codes        全部权限编码（决定编号顺序）
+     * @param grantsByRole 角色编码 → 已授予的权限编码；未知编码忽略
+     */
+    public static PermissionMatrixSnapshot of(List<String> codes, Map<String, ? extends Collection<String>> grantsByRole) {
+        return of(codes, grantsByRole, role -> List.of());
+    }
+
+    /**
+     * @param fallback 未在 grantsByRole 中出现的角色（已规范为大写）→ 默认授予的权限编码
+     */
+    public static PermissionMatrixSnapshot of(List<String> codes, Map<String, ? extends Collection<String>> grantsByRole,
+                                              Function<String, ? extends Collection<String>> fallback) {
+        List<String> interned = codes.stream().distinct().toList();
+        Map<String, Integer> indexByCode = new HashMap<>(interned.size() * 2);
+        for (int i = 0; i < interned.size(); i++) {
+            indexByCode.put(interned.get(i), i);
+        }
+        Map<String, Integer> index = Map.copyOf(indexByCode);
+        Map<String, RoleGrants> grants = new ConcurrentHashMap<>();
+        grantsByRole.forEach((role, granted) -> {
+            String roleCode = normalize(role);
+            grants.put(roleCode, build(roleCode, granted, interned, index));
+        });
+        return new PermissionMatrixSnapshot(interned, index, grants, fallback);
+    }
+
+    public boolean hasPermission(String roleCode, String permissionCode) {
+        if (roleCode == null || permissionCode == null) {
+            return false;
+        }
+        Integer index = indexByCode.get(permissionCode);
+        return index != null && grantsFor(roleCode).bits().get(index);
+    }
+
+    public List<String> codes(String roleCode) {
+        return roleCode != null ? grantsFor(roleCode).codes() : List.of();
+    }
+
+    /**
+     * 角色的全部授权（ROLE_xxx + PERM_xxx）；快照中没有的角色按 fallback 补建。
+     */
+    public List<GrantedAuthority> authorities(String roleCode) {
+        return grantsFor(roleCode != null ? roleCode : "USER").authorities();
+    }
+
+    public List<String> allCodes() {
+        return codes;
+    }
+
+    private RoleGrants grantsFor(String roleCode) {
+        String normalized = normalize(roleCode);
+        RoleGrants grants = grantsByRole.get(normalized);
+        if (grants != null) {
+            return grants;
+        }
+        return grantsByRole.computeIfAbsent(normalized,
+                role -> build(role, fallback.apply(role), codes, indexByCode));
+    }
+
+    private static RoleGrants build(String roleCode, Collection<String> granted, List<String> codes,
+                                    Map<String, Integer> indexByCode) {
+        BitSet bits = new BitSet(codes.size());
+        if (granted != null) {
+            for (String code : granted) {
+                Integer index = code != null ? indexByCode.get(code.trim()) : null;
+                if (index != null) {
+                    bits.set(index);
+                }
+            }
+        }
+        List<String> roleCodes = new ArrayList<>(bits.cardinality());
+        List<GrantedAuthority> authorities = new ArrayList<>(bits.cardinality() + 1);
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + roleCode));
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            roleCodes.add(codes.get(i));
+            authorities.add(new SimpleGrantedAuthority("PERM_" + codes.get(i)));
+        }
+        return new RoleGrants(bits, List.copyOf(roleCodes), List.copyOf(authorities));
+    }
+
+    private static String normalize(String roleCode) {
+        return roleCode.trim().toUpperCase(Locale.ROOT);
+    }
+}
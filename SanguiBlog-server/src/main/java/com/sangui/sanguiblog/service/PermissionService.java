@@ -10,7 +10,11 @@ import com.sangui.sanguiblog.model.permission.PermissionDefinition;
 import com.sangui.sanguiblog.model.repository.PermissionRepository;
 import com.sangui.sanguiblog.model.repository.RolePermissionRepository;
 import com.sangui.sanguiblog.model.repository.RoleRepository;
+import com.sangui.sanguiblog.security.PrincipalCache;
+import com.sangui.sanguiblog.util.AfterCommit;
+import com.sangui.sanguiblog.util.VersionedSnapshot;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,9 +26,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class PermissionService {
 
+    private static final List<String> BUILT_IN_ROLES = List.of("SUPER_ADMIN", "ADMIN", "USER");
+
     private final PermissionRepository permissionRepository;
     private final RoleRepository roleRepository;
     private final RolePermissionRepository rolePermissionRepository;
+    private final PrincipalCache principalCache;
+
+    /**
+     * 当前权限矩阵快照：首次读取时加载，权限调整后（调用时与事务提交后各一次）失效，下一次读取重新加载并整体替换。
+     */
+    private final VersionedSnapshot<PermissionMatrixSnapshot> matrix = new VersionedSnapshot<>(this::loadMatrix);
 
     @Transactional
     public void ensureDefaultPermissions() {
@@ -63,6 +75,8 @@ public class PermissionService {
             assignPermissionsToRole("USER",
                     defaultCodesForRole("USER"), permissionMap);
         }
+        invalidateMatrix();
+        principalCache.evictAll();
     }
 
     @Transactional(readOnly = true)
@@ -124,25 +138,14 @@ public class PermissionService {
         Map<String, Permission> permissionMap = permissions.stream()
                 .collect(Collectors.toMap(Permission::getCode, p -> p));
         assignPermissionsToRole(normalized, new HashSet<>(permissionCodes), permissionMap);
+        invalidateMatrix();
+        principalCache.evictAll();
     }
 
-    @Transactional(readOnly = true)
     public List<String> permissionsForRole(String roleCode) {
-        if ("SUPER_ADMIN".equalsIgnoreCase(roleCode)) {
-            return permissionRepository.findAll().stream()
-                    .map(Permission::getCode)
-                    .toList();
-        }
-        List<String> codes = rolePermissionRepository.findByRole_Code(roleCode).stream()
-                .map(rp -> rp.getPermission().getCode())
-                .toList();
-        if (codes.isEmpty()) {
-            return new ArrayList<>(defaultCodesForRole(roleCode));
-        }
-        return codes;
+        return matrix().codes(roleCode);
     }
 
-    @Transactional(readOnly = true)
     public List<String> permissionsForUser(Role role) {
         if (role == null) {
             return List.of();
@@ -150,6 +153,53 @@ public class PermissionService {
         return permissionsForRole(role.getCode());
     }
 
+    /**
+     * 角色对应的授权列表（ROLE_xxx + PERM_xxx），快照内预先构建，可直接交给 {@link com.sangui.sanguiblog.security.UserPrincipal}。
+     */
+    public List<GrantedAuthority> authoritiesForRole(String roleCode) {
+        return matrix().authorities(roleCode);
+    }
+
+    /**
+     * O(1) 权限判断，直接查询当前权限矩阵快照。
+     */
+    public boolean hasPermission(String roleCode, String permissionCode) {
+        return matrix().hasPermission(roleCode, permissionCode);
+    }
+
+    public PermissionMatrixSnapshot matrix() {
+        return matrix.get();
+    }
+
+    private PermissionMatrixSnapshot loadMatrix() {
+        List<String> codes = permissionRepository.findAll().stream()
+                .map(Permission::getCode)
+                .toList();
+        Map<String, List<String>> granted = new HashMap<>();
+        for (RolePermission rp : rolePermissionRepository.findAllWithRoleAndPermission()) {
+            granted.computeIfAbsent(rp.getRole().getCode().toUpperCase(Locale.ROOT), k -> new ArrayList<>())
+                    .add(rp.getPermission().getCode());
+        }
+        Set<String> roleCodes = new LinkedHashSet<>(BUILT_IN_ROLES);
+        roleRepository.findAll().forEach(role -> roleCodes.add(role.getCode().toUpperCase(Locale.ROOT)));
+
+        Map<String, Collection<String>> grantsByRole = new HashMap<>();
+        for (String roleCode : roleCodes) {
+            if ("SUPER_ADMIN".equals(roleCode)) {
+                grantsByRole.put(roleCode, codes);
+            } else {
+                List<String> roleGrants = granted.get(roleCode);
+                grantsByRole.put(roleCode, roleGrants == null || roleGrants.isEmpty()
+                        ? defaultCodesForRole(roleCode) : roleGrants);
+            }
+        }
+        return PermissionMatrixSnapshot.of(codes, grantsByRole, this::defaultCodesForRole);
+    }
+
+    private void invalidateMatrix() {
+        AfterCommit.runNowAndAfterCommit(matrix::invalidate);
+    }
+
     private void assignPermissionsToRole(String roleCode, Set<String> codes, Map<String, Permission> permissionMap) {
         Role role = roleRepository.findByCode(roleCode)
                 .orElseThrow(() -> new NotFoundException("角色不存在：" + roleCode));
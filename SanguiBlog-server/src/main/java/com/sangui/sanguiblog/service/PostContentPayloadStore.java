@@ -0,0 +1,120 @@
+package com.sangui.sanguiblog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sangui.sanguiblog.model.dto.ApiResponse;
+import com.sangui.sanguiblog.model.dto.PostContentDto;
+import com.sangui.sanguiblog.util.AfterCommit;
+import com.sangui.sanguiblog.util.ContentEncodingUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * 文章正文的预序列化/预压缩载荷仓库。
+ *
+ * 说明：
+ * - 正文只随 posts.updated_at 变化，按 (postId, 版本) 缓存一次性序列化好的 JSON 字节及其 gzip 版本，
+ *   之后的请求直接写出字节，不再重复渲染 Markdown、序列化和压缩；
+ * - 缓存按字节数加权限容，大文章不会把内存撑爆；版本不一致时就地重建，写操作提交后再主动淘汰；
+ * - JDK 自带压缩只有 gzip/deflate，Brotli 需要额外的原生依赖，这里先只产出 gzip，
+ *   {@link Payload#body(String)} 按编码取变体，后续接入 br 时不需要改动调用方。
+ */
+@Service
+public class PostContentPayloadStore {
+
+    private final ObjectMapper objectMapper;
+    private final int minGzipBytes;
+    private final Cache<Long, Payload> cache;
+
+    public PostContentPayloadStore(ObjectMapper objectMapper,
+            @Value("${site.post-content-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${site.post-content-cache.min-gzip-bytes:1024}") int minGzipBytes) {
+        this.objectMapper = objectMapper;
+        this.minGzipBytes = Math.max(0, minGzipBytes);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1L << 20, maxBytes))
+                .weigher((Long id, Payload payload) -> payload.weight())
+                .build();
+    }
+
+    public static String versionOf(Instant updatedAt) {
+        return updatedAt == null ? "0" : Long.toString(updatedAt.toEpochMilli(), 36);
+    }
+
+    /**
+     * 仅在缓存中已有同版本载荷时返回，不触发任何加载。
+     */
+    public Payload peek(Long postId, String version) {
+        if (postId == null || version == null) {
+            return null;
+        }
+        Payload payload = cache.getIfPresent(postId);
+        return payload != null && version.equals(payload.version()) ? payload : null;
+    }
+
+    /**
+     * 取指定版本的载荷；缓存缺失或版本不一致时调用 loader 重建（同一篇文章并发请求只构建一次）。
+     */
+    public Payload getOrBuild(Long postId, String version, Supplier<PostContentDto> loader) {
+        Payload payload = peek(postId, version);
+        if (payload != null) {
+            return payload;
+        }
+        return cache.asMap().compute(postId, (id, existing) -> existing != null && version.equals(existing.version())
+                ? existing
+                : build(id, version, loader.get()));
+    }
+
+    public void evict(Long postId) {
+        if (postId != null) {
+            cache.invalidate(postId);
+        }
+    }
+
+    /**
+     * 事务提交后再淘汰，避免提交前并发读把旧正文重新放回缓存。
+     */
+    public void evictAfterCommit(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        AfterCommit.run(() -> evict(postId));
+    }
+
+    private Payload build(Long postId, String version, PostContentDto content) {
+        byte[] identity;
+        try {
+            identity = objectMapper.writeValueAsBytes(ApiResponse.ok(content));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化文章正文失败: " + e.getOriginalMessage(), e);
+        }
+        byte[] gzip = identity.length >= minGzipBytes ? ContentEncodingUtils.gzip(identity) : null;
+        if (gzip != null && gzip.length >= identity.length) {
+            gzip = null;
+        }
+        String etag = "\"pc" + postId + "-" + version + "\"";
+        return new Payload(postId, version, etag, identity, gzip);
+    }
+
+    public record Payload(Long postId, String version, String etag, byte[] identity, byte[] gzip) {
+
+        /**
+         * 按编码返回预先生成的字节；没有对应变体时返回 null，由调用方回退到 identity。
+         */
+        public byte[] body(String encoding) {
+            if (encoding == null) {
+                return identity;
+            }
+            return ContentEncodingUtils.GZIP.equals(encoding) ? gzip : null;
+        }
+
+        int weight() {
+            return 128 + identity.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.PrerenderRegenerateResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 预渲染快照巡检：
+ * - 定时补齐缺失/过期的快照并清理已下线文章的残留文件（增量，不强制全部重写）；
+ * - 分类/标签改名等只推进 TAXONOMY 修订号、不改文章 updatedAt，增量巡检发现不了，检测到修订号变化时强制全量重写。
+ */
+@Component
+@RequiredArgsConstructor
+public class PostPrerenderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(PostPrerenderScheduler.class);
+
+    private final PostService postService;
+    private final PostPrerenderService postPrerenderService;
+    private final ContentRevisionService contentRevisionService;
+
+    private final AtomicLong renderedTaxonomyRevision = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        renderedTaxonomyRevision.set(contentRevisionService.revision(ContentRevisionService.Scope.TAXONOMY));
+    }
+
+    @Scheduled(cron = "${site.prerender.regenerate-cron:0 40 3 * * *}")
+    public void scheduledRegenerate() {
+        if (!postPrerenderService.isEnabled()) {
+            return;
+        }
+        try {
+            PrerenderRegenerateResponse result = postService.regeneratePrerenderSnapshots(false);
+            log.info("文章预渲染快照巡检完成: published={}, written={}, removed={}, failed={}",
+                    result.getPublishedCount(), result.getWrittenCount(), result.getRemovedCount(),
+                    result.getFailedCount());
+        } catch (Exception ex) {
+            log.warn("文章预渲染快照巡检失败（已忽略，不影响主流程）", ex);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${site.prerender.taxonomy-check-ms:60000}",
+            fixedDelayString = "${site.prerender.taxonomy-check-ms:60000}")
+    public void regenerateOnTaxonomyChange() {
+        if (!postPrerenderService.isEnabled()) {
+            return;
+        }
+        long seen = renderedTaxonomyRevision.get();
+        long current = contentRevisionService.revision(ContentRevisionService.Scope.TAXONOMY);
+        if (current == seen) {
+            return;
+        }
+        try {
+            PrerenderRegenerateResponse result = postService.regeneratePrerenderSnapshots(true);
+            renderedTaxonomyRevision.compareAndSet(seen, current);
+            log.info("分类/标签变更后重建文章预渲染快照: published={}, written={}, failed={}",
+                    result.getPublishedCount(), result.getWrittenCount(), result.getFailedCount());
+        } catch (Exception ex) {
+            log.warn("分类/标签变更后重建文章预渲染快照失败（下次检查重试）", ex);
+        }
+    }
+}
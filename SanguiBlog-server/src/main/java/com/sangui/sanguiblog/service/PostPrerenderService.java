@@ -0,0 +1,321 @@
+package com.sangui.sanguiblog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sangui.sanguiblog.config.StoragePathResolver;
+import com.sangui.sanguiblog.model.dto.PostDetailDto;
+import com.sangui.sanguiblog.model.dto.PostSummaryDto;
+import com.sangui.sanguiblog.util.AfterCommit;
+import com.sangui.sanguiblog.util.ContentEncodingUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 已发布文章的静态 HTML 预渲染快照：
+ * - 写入 {site.prerender.path}/article/{id}.html（同时生成 .gz），Nginx 对爬虫直接返回，不经过 JVM；
+ * - 快照目录独立于公开的上传目录（/uploads/ 之外），只能经由文章页路由按 UA 命中，不能被直接枚举下载；
+ * - 快照内容在事务内由 PostService 组装好，提交后才落盘，回滚时不会留下脏文件；
+ * - 仅包含 meta/canonical/正文等首屏必需内容，不依赖前端构建产物。
+ */
+@Service
+public class PostPrerenderService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostPrerenderService.class);
+    private static final String SNAPSHOT_SUFFIX = ".html";
+
+    private final StoragePathResolver storagePathResolver;
+    private final ObjectMapper objectMapper;
+    private final Path snapshotRoot;
+
+    public PostPrerenderService(StoragePathResolver storagePathResolver, ObjectMapper objectMapper,
+            @Value("${site.prerender.path:}") String snapshotRoot) {
+        this.storagePathResolver = storagePathResolver;
+        this.objectMapper = objectMapper;
+        this.snapshotRoot = StringUtils.hasText(snapshotRoot)
+                ? Paths.get(snapshotRoot.trim()).toAbsolutePath().normalize()
+                : defaultSnapshotRoot(storagePathResolver.getRootPath());
+    }
+
+    /**
+     * 未配置 site.prerender.path 时放在上传根目录的同级 prerender 目录（如 /data/uploads -> /data/prerender），
+     * 既跟随 storage.base-path 所在的持久化位置，又不落在公开的 /uploads/ 之下。
+     */
+    static Path defaultSnapshotRoot(Path storageRoot) {
+        Path parent = storageRoot.getParent();
+        return (parent != null ? parent : storageRoot).resolve("prerender").normalize();
+    }
+
+    Path snapshotRoot() {
+        return snapshotRoot;
+    }
+
+    @Value("${site.prerender.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${site.base-url:https://www.sangui.top}")
+    private String configuredBaseUrl = "https://www.sangui.top";
+
+    @Value("${site.footer.brand:三桂博客}")
+    private String siteBrand = "三桂博客";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 早期版本把快照写在公开的 {storage.base-path}/prerender 下，启动时清理，避免残留文件继续经由 /uploads/ 暴露。
+     */
+    @PostConstruct
+    public void purgeLegacyPublicSnapshots() {
+        Path legacy = storagePathResolver.resolve("prerender");
+        if (!Files.isDirectory(legacy) || legacy.equals(snapshotRoot)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(legacy)) {
+            stream.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("清理旧预渲染快照失败: {} - {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            log.warn("清理旧预渲染快照目录失败: {} - {}", legacy, e.getMessage());
+        }
+    }
+
+    public void publishAfterCommit(PostDetailDto detail) {
+        if (!enabled || detail == null || detail.getSummary() == null || detail.getSummary().getId() == null) {
+            return;
+        }
+        // 在事务内渲染，提交后只做文件 I/O
+        Long postId = detail.getSummary().getId();
+        String html = render(detail);
+        AfterCommit.run(() -> writeQuietly(postId, html));
+    }
+
+    public void removeAfterCommit(Long postId) {
+        if (!enabled || postId == null) {
+            return;
+        }
+        AfterCommit.run(() -> remove(postId));
+    }
+
+    public void write(PostDetailDto detail) throws IOException {
+        write(detail.getSummary().getId(), render(detail));
+    }
+
+    public void remove(Long postId) {
+        try {
+            Path target = snapshotPath(postId);
+            Files.deleteIfExists(target);
+            Files.deleteIfExists(ContentEncodingUtils.gzipSibling(target));
+        } catch (IOException | RuntimeException e) {
+            log.warn("删除文章预渲染快照失败: postId={} - {}", postId, e.getMessage());
+        }
+    }
+
+    /**
+     * 快照文件的最后修改时间；不存在时返回 null，供批量任务判断是否需要重新生成。
+     */
+    public Instant lastModified(Long postId) {
+        try {
+            Path target = snapshotPath(postId);
+            return Files.exists(target) ? Files.getLastModifiedTime(target).toInstant() : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    public Set<Long> listSnapshotIds() {
+        Path dir = snapshotDir();
+        if (!Files.isDirectory(dir)) {
+            return Set.of();
+        }
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(SNAPSHOT_SUFFIX))
+                    .map(name -> name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()))
+                    .filter(name -> name.chars().allMatch(Character::isDigit) && !name.isEmpty())
+                    .map(Long::valueOf)
+                    .collect(Collectors.toSet());
+        } catch (IOException e) {
+            log.warn("读取预渲染目录失败: {} - {}", dir, e.getMessage());
+            return Set.of();
+        }
+    }
+
+    String render(PostDetailDto detail) {
+        PostSummaryDto summary = detail.getSummary();
+        String baseUrl = normalizeBaseUrl(configuredBaseUrl);
+        String canonical = baseUrl + "/article/" + summary.getId();
+        String title = StringUtils.hasText(detail.getMetaTitle()) ? detail.getMetaTitle() : summary.getTitle();
+        String description = detail.getMetaDescription() != null ? detail.getMetaDescription() : "";
+        String cover = absoluteUrl(baseUrl, summary.getCoverImage());
+
+        StringBuilder sb = new StringBuilder(8192 + (detail.getContentHtml() != null ? detail.getContentHtml().length() : 0));
+        sb.append("<!DOCTYPE html>\n<html lang=\"zh-CN\">\n<head>\n");
+        sb.append("<meta charset=\"utf-8\">\n");
+        sb.append("<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n");
+        sb.append("<title>").append(escapeHtml(title)).append("</title>\n");
+        sb.append("<meta name=\"description\" content=\"").append(escapeHtml(description)).append("\">\n");
+        sb.append("<link rel=\"canonical\" href=\"").append(escapeHtml(canonical)).append("\">\n");
+        sb.append("<meta property=\"og:type\" content=\"article\">\n");
+        sb.append("<meta property=\"og:site_name\" content=\"").append(escapeHtml(siteBrand)).append("\">\n");
+        sb.append("<meta property=\"og:title\" content=\"").append(escapeHtml(title)).append("\">\n");
+        sb.append("<meta property=\"og:description\" content=\"").append(escapeHtml(description)).append("\">\n");
+        sb.append("<meta property=\"og:url\" content=\"").append(escapeHtml(canonical)).append("\">\n");
+        if (cover != null) {
+            sb.append("<meta property=\"og:image\" content=\"").append(escapeHtml(cover)).append("\">\n");
+        }
+        sb.append("<script type=\"application/ld+json\">").append(buildJsonLd(summary, title, description, canonical, cover))
+                .append("</script>\n");
+        sb.append("<style>body{max-width:760px;margin:0 auto;padding:24px 16px;font:16px/1.75 system-ui,-apple-system,")
+                .append("\"PingFang SC\",\"Microsoft YaHei\",sans-serif;color:#1f2328}img{max-width:100%}")
+                .append("pre{overflow:auto;background:#f6f8fa;padding:12px}.meta{color:#656d76;font-size:14px}</style>\n");
+        sb.append("</head>\n<body>\n");
+        sb.append("<header><a href=\"").append(escapeHtml(baseUrl)).append("/\">").append(escapeHtml(siteBrand))
+                .append("</a></header>\n");
+        sb.append("<main>\n<article>\n");
+        sb.append("<h1>").append(escapeHtml(summary.getTitle())).append("</h1>\n");
+        sb.append("<p class=\"meta\">");
+        appendMeta(sb, summary.getAuthorName());
+        appendMeta(sb, summary.getDate());
+        appendMeta(sb, summary.getCategory());
+        if (summary.getTags() != null && !summary.getTags().isEmpty()) {
+            appendMeta(sb, String.join(" / ", summary.getTags()));
+        }
+        if (StringUtils.hasText(detail.getReadingTime())) {
+            appendMeta(sb, "阅读约 " + detail.getReadingTime());
+        }
+        sb.append("</p>\n");
+        sb.append("<div class=\"content\">\n");
+        if (detail.getContentHtml() != null) {
+            sb.append(detail.getContentHtml());
+        }
+        sb.append("\n</div>\n</article>\n</main>\n");
+        sb.append("<footer><a href=\"").append(escapeHtml(canonical)).append("\">").append(escapeHtml(canonical))
+                .append("</a></footer>\n");
+        sb.append("</body>\n</html>\n");
+        return sb.toString();
+    }
+
+    private void writeQuietly(Long postId, String html) {
+        try {
+            write(postId, html);
+        } catch (IOException | RuntimeException e) {
+            log.warn("写入文章预渲染快照失败: postId={} - {}", postId, e.getMessage());
+        }
+    }
+
+    private void write(Long postId, String html) throws IOException {
+        Path target = snapshotPath(postId);
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(tmp, html, StandardCharsets.UTF_8);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ContentEncodingUtils.writeGzipSibling(target);
+    }
+
+    private Path snapshotDir() {
+        return snapshotRoot.resolve("article");
+    }
+
+    private Path snapshotPath(Long postId) {
+        return snapshotDir().resolve(postId + SNAPSHOT_SUFFIX);
+    }
+
+    private String buildJsonLd(PostSummaryDto summary, String title, String description, String canonical, String cover) {
+        Map<String, Object> ld = new LinkedHashMap<>();
+        ld.put("@context", "https://schema.org");
+        ld.put("@type", "BlogPosting");
+        ld.put("headline", summary.getTitle());
+        ld.put("name", title);
+        ld.put("description", description);
+        ld.put("mainEntityOfPage", canonical);
+        if (cover != null) {
+            ld.put("image", List.of(cover));
+        }
+        if (StringUtils.hasText(summary.getDate())) {
+            ld.put("datePublished", summary.getDate());
+        }
+        if (StringUtils.hasText(summary.getAuthorName())) {
+            ld.put("author", Map.of("@type", "Person", "name", summary.getAuthorName()));
+        }
+        if (summary.getTags() != null && !summary.getTags().isEmpty()) {
+            ld.put("keywords", String.join(",", summary.getTags()));
+        }
+        try {
+            // 防止正文中的 "</script>" 之类字符串提前闭合脚本块
+            return objectMapper.writeValueAsString(ld).replace("</", "<\\/");
+        } catch (JsonProcessingException e) {
+            return "{}";
+        }
+    }
+
+    private void appendMeta(StringBuilder sb, String value) {
+        if (!StringUtils.hasText(value)) {
+            return;
+        }
+        if (sb.charAt(sb.length() - 1) != '>') {
+            sb.append(" · ");
+        }
+        sb.append(escapeHtml(value));
+    }
+
+    private String absoluteUrl(String baseUrl, String path) {
+        if (!StringUtils.hasText(path)) {
+            return null;
+        }
+        String trimmed = path.trim();
+        if (trimmed.startsWith("http://") || trimmed.startsWith("https://")) {
+            return trimmed;
+        }
+        return baseUrl + (trimmed.startsWith("/") ? trimmed : "/" + trimmed);
+    }
+
+    private String normalizeBaseUrl(String baseUrl) {
+        if (!StringUtils.hasText(baseUrl)) {
+            return "https://www.sangui.top";
+        }
+        return baseUrl.trim().replaceAll("/+$", "");
+    }
+
+    private String escapeHtml(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\'' -> sb.append("&#39;");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -10,10 +10,12 @@ import com.sangui.sanguiblog.model.dto.ArchiveYearSummaryDto;
 import com.sangui.sanguiblog.model.dto.PageResponse;
 import com.sangui.sanguiblog.model.dto.PageViewRequest;
 import com.sangui.sanguiblog.model.dto.PostAdminDto;
+import com.sangui.sanguiblog.model.dto.PostContentDto;
 import com.sangui.sanguiblog.model.dto.PostDetailDto;
 import com.sangui.sanguiblog.model.dto.PostSiblingDto;
 import com.sangui.sanguiblog.model.dto.PostNeighborsDto;
 import com.sangui.sanguiblog.model.dto.PostSummaryDto;
+import com.sangui.sanguiblog.model.dto.PrerenderRegenerateResponse;
 import com.sangui.sanguiblog.model.dto.SavePostRequest;
 import com.sangui.sanguiblog.model.entity.AnalyticsPageView;
 import com.sangui.sanguiblog.model.entity.Category;
@@ -22,39 +24,37 @@ import com.sangui.sanguiblog.model.entity.Tag;
 import com.sangui.sanguiblog.model.entity.User;
 import com.sangui.sanguiblog.model.repository.AnalyticsPageViewRepository;
 import com.sangui.sanguiblog.model.repository.CategoryRepository;
-import com.sangui.sanguiblog.model.repository.CommentRepository;
 import com.sangui.sanguiblog.model.repository.PostRepository;
 import com.sangui.sanguiblog.model.repository.TagRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
-import com.sangui.sanguiblog.service.ai.rag.AiBlogKnowledgeSyncEvent;
-import com.sangui.sanguiblog.service.ai.rag.AiBlogKnowledgeSyncRemoveEvent;
+import com.sangui.sanguiblog.service.outbox.OutboxService;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
-import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import java.time.Instant;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -67,6 +67,8 @@ public class PostService {
 
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final int META_DESCRIPTION_MAX = 160;
+    private static final int PRERENDER_PAGE_SIZE = 50;
+    private static final int RELATED_LIMIT = 3;
 
     @Value("${site.footer.brand:三桂博客}")
     private String siteBrand;
@@ -75,13 +77,16 @@ public class PostService {
     private final TagRepository tagRepository;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
-    private final CommentRepository commentRepository;
     private final AnalyticsPageViewRepository analyticsPageViewRepository;
     private final PostAssetService postAssetService;
     private final AnalyticsService analyticsService;
     private final GeoIpService geoIpService;
-    private final SitemapService sitemapService;
-    private final ApplicationEventPublisher applicationEventPublisher;
+    private final OutboxService outboxService;
+    private final ContentRevisionService contentRevisionService;
+    private final PostContentPayloadStore postContentPayloadStore;
+    private final PostPrerenderService postPrerenderService;
+    private final RelatedPostIndexService relatedPostIndexService;
+    private final PlatformTransactionManager transactionManager;
 
     /**
      * 浏览量限流（每 IP + 每文章）：用于减少短时间重复刷新/StrictMode 双调用导致的重复记数，
@@ -95,37 +100,25 @@ public class PostService {
             .maximumSize(200_000)
             .build();
 
+    /**
+     * 正文派生的字数与纯文本摘要，按 (postId, 正文版本) 缓存：content=false 的详情请求命中时不再渲染正文。
+     */
+    private final Cache<Long, ContentStats> contentStats = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .build();
+
+    private record ContentStats(String version, long wordCount, String plainText) {
+    }
+
     @Transactional(readOnly = true)
     public PageResponse<PostSummaryDto> listPublished(Integer page, Integer size, Long categoryId, Long tagId,
             String keyword) {
         int p = page == null || page < 1 ? 0 : page - 1;
         int s = size == null || size < 1 ? 10 : Math.min(size, 50);
-        Specification<Post> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            predicates.add(cb.equal(root.get("status"), "PUBLISHED"));
-            if (categoryId != null) {
-                Join<Object, Object> categoryJoin = root.join("category");
-                Join<Object, Object> parentJoin = categoryJoin.join("parent", JoinType.LEFT);
-                predicates.add(cb.or(
-                        cb.equal(categoryJoin.get("id"), categoryId),
-                        cb.equal(parentJoin.get("id"), categoryId)));
-            }
-            if (tagId != null) {
-                Join<Object, Object> tagsJoin = root.join("tags");
-                predicates.add(cb.equal(tagsJoin.get("id"), tagId));
-                query.distinct(true);
-            }
-            if (keyword != null && !keyword.isBlank()) {
-                String like = "%" + keyword.trim() + "%";
-                predicates.add(cb.or(
-                        cb.like(root.get("title"), like),
-                        cb.like(root.get("excerpt"), like)));
-            }
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
-
-        Page<Post> posts = postRepository.findAll(spec,
-                PageRequest.of(p, s, Sort.by(Sort.Direction.DESC, "publishedAt", "createdAt")));
+        // 列表走投影查询：每页固定 count + 行 + 标签三条 SQL，不加载正文也不触发懒加载
+        String like = keyword != null && !keyword.isBlank() ? "%" + keyword.trim() + "%" : null;
+        Page<PostRepository.PostListRow> posts = postRepository.findPublishedListRows(categoryId, tagId, like,
+                PageRequest.of(p, s));
         List<PostSummaryDto> list = toSummaries(posts.getContent());
 
         return new PageResponse<>(list, posts.getTotalElements(), posts.getNumber() + 1, posts.getSize());
@@ -181,10 +174,11 @@ public class PostService {
         }
         int p = page == null || page < 1 ? 0 : page - 1;
         int s = size == null || size < 1 ? 200 : Math.min(size, 200);
-        Page<Post> posts = postRepository.findPublishedByYearMonth(
-                year,
-                month,
-                PageRequest.of(p, s, Sort.by(Sort.Direction.DESC, "publishedAt", "createdAt")));
+        LocalDateTime from = LocalDate.of(year, month, 1).atStartOfDay();
+        Page<PostRepository.PostListRow> posts = postRepository.findPublishedListRowsBetween(
+                from,
+                from.plusMonths(1),
+                PageRequest.of(p, s));
         List<PostSummaryDto> list = toSummaries(posts.getContent());
         return new PageResponse<>(list, posts.getTotalElements(), posts.getNumber() + 1, posts.getSize());
     }
@@ -201,11 +195,19 @@ public class PostService {
 
     @Transactional
     public PostDetailDto getPublishedDetail(Long id, String ip, String userAgent, Long userId, String referrer, String sourceLabel, String visitId, AnalyticsRequestDetailContext detailContext) {
+        return getPublishedDetail(id, ip, userAgent, userId, referrer, sourceLabel, visitId, detailContext, true);
+    }
+
+    /**
+     * includeContent=false 时只返回元信息与计数（正文由可缓存的 /content 接口获取），不渲染正文。
+     */
+    @Transactional
+    public PostDetailDto getPublishedDetail(Long id, String ip, String userAgent, Long userId, String referrer, String sourceLabel, String visitId, AnalyticsRequestDetailContext detailContext, boolean includeContent) {
         Post post = postRepository.findById(id)
                 .filter(p -> "PUBLISHED".equalsIgnoreCase(p.getStatus()))
                 .orElseThrow(() -> new NotFoundException("文章不存在或未发布"));
         incrementViews(post, ip, userAgent, userId, referrer, sourceLabel, visitId, detailContext);
-        return toDetail(post);
+        return toDetail(post, includeContent);
     }
 
     @Transactional
@@ -220,10 +222,36 @@ public class PostService {
 
     @Transactional
     public PostDetailDto getPublishedDetailBySlug(String slug, String ip, String userAgent, Long userId, String referrer, String sourceLabel, String visitId, AnalyticsRequestDetailContext detailContext) {
+        return getPublishedDetailBySlug(slug, ip, userAgent, userId, referrer, sourceLabel, visitId, detailContext, true);
+    }
+
+    @Transactional
+    public PostDetailDto getPublishedDetailBySlug(String slug, String ip, String userAgent, Long userId, String referrer, String sourceLabel, String visitId, AnalyticsRequestDetailContext detailContext, boolean includeContent) {
         Post post = postRepository.findBySlugAndStatus(slug, "PUBLISHED")
                 .orElseThrow(() -> new NotFoundException("文章不存在或未发布"));
         incrementViews(post, ip, userAgent, userId, referrer, sourceLabel, visitId, detailContext);
-        return toDetail(post);
+        return toDetail(post, includeContent);
+    }
+
+    /**
+     * 公开文章正文载荷：客户端携带的版本号命中缓存时直接返回，不访问数据库；
+     * 否则按当前版本（updated_at）取或重建预序列化/预压缩的字节。
+     */
+    public PostContentPayloadStore.Payload getPublishedContentPayload(Long id, String version) {
+        PostContentPayloadStore.Payload cached = postContentPayloadStore.peek(id, version);
+        if (cached != null) {
+            return cached;
+        }
+        Post post = postRepository.findById(id)
+                .filter(p -> "PUBLISHED".equalsIgnoreCase(p.getStatus()))
+                .orElseThrow(() -> new NotFoundException("文章不存在或未发布"));
+        String currentVersion = PostContentPayloadStore.versionOf(post.getUpdatedAt());
+        return postContentPayloadStore.getOrBuild(post.getId(), currentVersion, () -> PostContentDto.builder()
+                .id(post.getId())
+                .version(currentVersion)
+                .contentMd(post.getContentMd())
+                .contentHtml(resolveContentHtml(post))
+                .build());
     }
 
     @Transactional
@@ -301,41 +329,35 @@ public class PostService {
         }
 
         Post saved = postRepository.save(post);
-        sitemapService.markDirty();
-        publishRagSyncEvent(saved.getId());
-        return toDetail(saved);
+        outboxService.enqueueSitemapPostChanged(saved.getId());
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.POSTS, ContentRevisionService.Scope.TAXONOMY);
+        postContentPayloadStore.evictAfterCommit(saved.getId());
+        outboxService.enqueuePostKnowledgeSync(saved.getId());
+        PostDetailDto detail = toDetail(saved);
+        syncPrerenderSnapshot(saved, detail);
+        return detail;
     }
 
     @Transactional
     public void delete(Long id) {
-        publishRagRemoveEvent(id);
+        outboxService.enqueuePostKnowledgeRemove(id);
         postRepository.deleteById(id);
-        sitemapService.markDirty();
+        outboxService.enqueueSitemapPostChanged(id);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.POSTS, ContentRevisionService.Scope.TAXONOMY);
+        postContentPayloadStore.evictAfterCommit(id);
+        postPrerenderService.removeAfterCommit(id);
     }
 
     @Transactional(readOnly = true)
     public PageResponse<PostAdminDto> adminList(String keyword, Long categoryId, int page, int size) {
         int p = Math.max(page, 1) - 1;
         int s = Math.min(Math.max(size, 1), 100);
-        Specification<Post> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-            if (StringUtils.hasText(keyword)) {
-                String like = "%" + keyword.trim() + "%";
-                predicates.add(cb.or(
-                        cb.like(root.get("title"), like),
-                        cb.like(root.get("slug"), like),
-                        cb.like(root.get("excerpt"), like)));
-            }
-            if (categoryId != null) {
-                predicates.add(cb.equal(root.get("category").get("id"), categoryId));
-            }
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
-        Page<Post> posts = postRepository.findAll(spec,
-                PageRequest.of(p, s, Sort.by(Sort.Direction.DESC, "publishedAt")
-                        .and(Sort.by(Sort.Direction.DESC, "createdAt"))));
+        String like = StringUtils.hasText(keyword) ? "%" + keyword.trim() + "%" : null;
+        Page<PostRepository.PostListRow> posts = postRepository.findAdminListRows(categoryId, like,
+                PageRequest.of(p, s));
+        Map<Long, List<PostRepository.PostTagRow>> tagsByPostId = loadTagRows(posts.getContent());
         List<PostAdminDto> dtos = posts.getContent().stream()
-                .map(this::toAdminDto)
+                .map(row -> toAdminDto(row, tagsByPostId.getOrDefault(row.getId(), List.of())))
                 .toList();
         return new PageResponse<>(dtos, posts.getTotalElements(), posts.getNumber() + 1, posts.getSize());
     }
@@ -375,11 +397,12 @@ public class PostService {
         PostSummaryDto prev = prevId != null ? postRepository.findById(prevId).map(this::toSummary).orElse(null) : null;
         PostSummaryDto next = nextId != null ? postRepository.findById(nextId).map(this::toSummary).orElse(null) : null;
 
+        // 优先使用预计算的内容相似度索引，索引未就绪或无相似文章时回退到同分类最新文章
+        List<PostSummaryDto> related = loadRelatedSummaries(relatedPostIndexService.related(current.getId(), RELATED_LIMIT));
         Long categoryId = current.getCategory() != null ? current.getCategory().getId() : null;
-        List<PostSummaryDto> related = List.of();
-        if (categoryId != null) {
+        if (related.isEmpty() && categoryId != null) {
             related = postRepository
-                    .findRelatedPublishedByCategory(categoryId, current.getId(), PageRequest.of(0, 3))
+                    .findRelatedPublishedByCategory(categoryId, current.getId(), PageRequest.of(0, RELATED_LIMIT))
                     .stream()
                     .map(this::toSummary)
                     .toList();
@@ -424,11 +447,72 @@ public class PostService {
             post.setTags(tags);
         }
         Post saved = postRepository.save(post);
-        sitemapService.markDirty();
-        publishRagSyncEvent(saved.getId());
+        outboxService.enqueueSitemapPostChanged(saved.getId());
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.POSTS, ContentRevisionService.Scope.TAXONOMY);
+        postContentPayloadStore.evictAfterCommit(saved.getId());
+        outboxService.enqueuePostKnowledgeSync(saved.getId());
+        syncPrerenderSnapshot(saved, null);
         return toAdminDto(saved);
     }
 
+    /**
+     * 批量（重新）生成预渲染快照：以站点地图同一口径（已发布且有发布时间）为准，
+     * 快照早于 updated_at 或缺失时重写，不在清单中的快照文件一并清理；force=true 时全部重写。
+     * 需要重写的文章按页加载，每页一个只读事务，持久化上下文不会随文章总数增长。
+     */
+    public PrerenderRegenerateResponse regeneratePrerenderSnapshots(boolean force) {
+        List<PostRepository.SitemapPostRow> rows = postRepository.findPublishedForSitemap();
+        Set<Long> existing = new HashSet<>(postPrerenderService.listSnapshotIds());
+        List<Long> pending = new ArrayList<>();
+        int skipped = 0;
+        for (PostRepository.SitemapPostRow row : rows) {
+            if (row == null || row.getId() == null) {
+                continue;
+            }
+            existing.remove(row.getId());
+            Instant snapshotAt = postPrerenderService.lastModified(row.getId());
+            if (!force && snapshotAt != null && row.getUpdatedAt() != null && !snapshotAt.isBefore(row.getUpdatedAt())) {
+                skipped++;
+                continue;
+            }
+            pending.add(row.getId());
+        }
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        int[] outcome = new int[2];
+        for (int from = 0; from < pending.size(); from += PRERENDER_PAGE_SIZE) {
+            List<Long> page = pending.subList(from, Math.min(from + PRERENDER_PAGE_SIZE, pending.size()));
+            readOnly.executeWithoutResult(status -> {
+                for (Post post : postRepository.findPrerenderSourcesByIds(page)) {
+                    try {
+                        postPrerenderService.write(toDetail(post));
+                        outcome[0]++;
+                    } catch (Exception ex) {
+                        outcome[1]++;
+                        log.warn("生成文章预渲染快照失败: postId={} - {}", post.getId(), ex.getMessage());
+                    }
+                }
+            });
+        }
+        existing.forEach(postPrerenderService::remove);
+        return PrerenderRegenerateResponse.builder()
+                .publishedCount(rows.size())
+                .writtenCount(outcome[0])
+                .skippedCount(skipped)
+                .removedCount(existing.size())
+                .failedCount(outcome[1])
+                .build();
+    }
+
+    private void syncPrerenderSnapshot(Post post, PostDetailDto detail) {
+        if ("PUBLISHED".equalsIgnoreCase(post.getStatus()) && post.getPublishedAt() != null) {
+            postPrerenderService.publishAfterCommit(detail != null ? detail : toDetail(post));
+        } else {
+            postPrerenderService.removeAfterCommit(post.getId());
+        }
+    }
+
     private AdminPostDetailDto toAdminDetail(Post post) {
         List<Long> tagIds = post.getTags().stream().map(Tag::getId).toList();
         List<com.sangui.sanguiblog.model.dto.TagDto> tagDtos = post.getTags().stream()
@@ -596,7 +680,7 @@ public class PostService {
             avatar = avatar.trim();
         }
 
-        long commentCount = commentRepository.countByPostIdAndStatus(post.getId(), "APPROVED");
+        long commentCount = post.getCommentsCount() != null ? post.getCommentsCount() : 0L;
 
         List<String> tags = post.getTags() == null ? List.of() : post.getTags().stream()
                 .map(Tag::getName)
@@ -624,111 +708,117 @@ public class PostService {
                 .build();
     }
 
-    private List<PostSummaryDto> toSummaries(List<Post> posts) {
-        if (posts == null || posts.isEmpty()) {
+    private List<PostSummaryDto> loadRelatedSummaries(List<Long> ids) {
+        if (ids.isEmpty()) {
             return List.of();
         }
+        Map<Long, PostRepository.PostListRow> byId = postRepository.findPublishedListRowsByIds(ids).stream()
+                .collect(Collectors.toMap(PostRepository.PostListRow::getId, row -> row, (x, y) -> x));
+        return toSummaries(ids.stream().map(byId::get).filter(Objects::nonNull).toList());
+    }
 
-        List<Long> postIds = posts.stream()
-                .map(Post::getId)
-                .filter(id -> id != null && id > 0)
+    private List<PostSummaryDto> toSummaries(List<PostRepository.PostListRow> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<PostRepository.PostTagRow>> tagsByPostId = loadTagRows(rows);
+        return rows.stream()
+                .map(row -> toSummary(row, tagsByPostId.getOrDefault(row.getId(), List.of()).stream()
+                        .map(PostRepository.PostTagRow::getTagName)
+                        .toList()))
                 .toList();
+    }
 
-        Map<Long, Long> approvedCommentCounts = new HashMap<>();
-        if (!postIds.isEmpty()) {
-            try {
-                commentRepository.countByPostIdInAndStatusGroupByPostId(postIds, "APPROVED")
-                        .forEach(row -> {
-                            if (row != null && row.getPostId() != null) {
-                                approvedCommentCounts.put(row.getPostId(), row.getCount() == null ? 0L : row.getCount());
-                            }
-                        });
-            } catch (Exception ex) {
-                // 统计失败时回退到 0（不让列表请求因为统计挂掉）；详情页仍会走单篇精确统计
-                log.warn("批量统计评论数失败，将回退为 0, size={}", postIds.size(), ex);
-            }
+    /**
+     * 一次查询取回整页文章的标签（去重 + 按名称稳定排序），避免逐篇懒加载 tags 集合。
+     */
+    private Map<Long, List<PostRepository.PostTagRow>> loadTagRows(List<PostRepository.PostListRow> rows) {
+        List<Long> postIds = rows.stream()
+                .map(PostRepository.PostListRow::getId)
+                .filter(id -> id != null && id > 0)
+                .toList();
+        if (postIds.isEmpty()) {
+            return Map.of();
         }
-
-        Map<Long, List<String>> tagsByPostId = new HashMap<>();
-        if (!postIds.isEmpty()) {
-            try {
-                for (PostRepository.PostTagRow row : postRepository.findTagNamesByPostIds(postIds)) {
-                    if (row == null || row.getPostId() == null) {
-                        continue;
-                    }
-                    String name = row.getTagName();
-                    if (!StringUtils.hasText(name)) {
-                        continue;
-                    }
-                    tagsByPostId.computeIfAbsent(row.getPostId(), k -> new ArrayList<>())
-                            .add(name.trim());
+        Map<Long, List<PostRepository.PostTagRow>> tagsByPostId = new HashMap<>();
+        try {
+            for (PostRepository.PostTagRow row : postRepository.findTagsByPostIds(postIds)) {
+                if (row == null || row.getPostId() == null || !StringUtils.hasText(row.getTagName())) {
+                    continue;
                 }
-
-                // 去重 + 稳定排序
-                tagsByPostId.replaceAll((id, list) -> {
-                    if (list == null || list.isEmpty()) {
-                        return List.of();
-                    }
-                    return list.stream()
-                            .filter(StringUtils::hasText)
-                            .map(String::trim)
-                            .collect(Collectors.toCollection(() -> new LinkedHashSet<>()))
-                            .stream()
-                            .sorted(String.CASE_INSENSITIVE_ORDER)
-                            .toList();
-                });
-            } catch (Exception ex) {
-                log.warn("批量加载 tags 失败，将回退为空标签列表, size={}", postIds.size(), ex);
+                tagsByPostId.computeIfAbsent(row.getPostId(), k -> new ArrayList<>()).add(row);
             }
+        } catch (Exception ex) {
+            log.warn("批量加载 tags 失败，将回退为空标签列表, size={}", postIds.size(), ex);
+            return Map.of();
         }
-
-        return posts.stream()
-                .map(post -> {
-                    Long id = post.getId();
-                    long commentCount = id != null ? approvedCommentCounts.getOrDefault(id, 0L) : 0L;
-                    List<String> tags = id != null ? tagsByPostId.getOrDefault(id, List.of()) : List.of();
-                    return toSummaryPrefetched(post, commentCount, tags);
-                })
-                .toList();
+        tagsByPostId.replaceAll((id, list) -> list.stream()
+                .collect(Collectors.toMap(PostRepository.PostTagRow::getTagId, row -> row, (x, y) -> x,
+                        LinkedHashMap::new))
+                .values().stream()
+                .sorted(Comparator.comparing((PostRepository.PostTagRow row) -> row.getTagName().trim(),
+                        String.CASE_INSENSITIVE_ORDER))
+                .toList());
+        return tagsByPostId;
     }
 
-    private PostSummaryDto toSummaryPrefetched(Post post, long approvedCommentCount, List<String> tags) {
-        Category category = post.getCategory();
-        String categoryName = category != null ? category.getName() : "未分类";
-        String parentName = category != null && category.getParent() != null
-                ? category.getParent().getName()
-                : (category != null ? category.getName() : "未分类");
+    private PostSummaryDto toSummary(PostRepository.PostListRow row, List<String> tags) {
+        String categoryName = row.getCategoryName() != null ? row.getCategoryName() : "未分类";
+        String parentName = row.getParentCategoryName() != null ? row.getParentCategoryName() : categoryName;
 
-        String avatar = post.getAuthor() != null ? post.getAuthor().getAvatarUrl() : null;
+        String avatar = row.getAuthorAvatar();
         if (avatar != null && avatar.isBlank()) {
             avatar = null;
         } else if (avatar != null) {
             avatar = avatar.trim();
         }
 
-        int safeCommentCount = (int) Math.min(Math.max(approvedCommentCount, 0L), (long) Integer.MAX_VALUE);
-        List<String> safeTags = tags == null ? List.of() : tags;
-
         return PostSummaryDto.builder()
-                .id(post.getId())
-                .title(post.getTitle())
-                .excerpt(post.getExcerpt())
-                .coverImage(normalizeCoverPath(post.getCoverImage()))
+                .id(row.getId())
+                .title(row.getTitle())
+                .excerpt(row.getExcerpt())
+                .coverImage(normalizeCoverPath(row.getCoverImage()))
                 .category(categoryName)
                 .parentCategory(parentName)
-                .tags(safeTags)
-                .color(post.getThemeColor() != null ? post.getThemeColor() : "bg-[#6366F1]")
-                .likes(post.getLikesCount() == null ? 0 : post.getLikesCount())
-                .comments(safeCommentCount)
-                .views(post.getViewsCount() == null ? 0 : post.getViewsCount())
-                .date(post.getPublishedAt() != null ? DATE_FMT.format(post.getPublishedAt()) : "")
-                .slug(post.getSlug())
-                .authorName(post.getAuthor() != null ? post.getAuthor().getDisplayName() : "Unknown")
+                .tags(tags.stream().map(String::trim).toList())
+                .color(row.getThemeColor() != null ? row.getThemeColor() : "bg-[#6366F1]")
+                .likes(row.getLikesCount() == null ? 0 : row.getLikesCount())
+                .comments(row.getCommentsCount() == null ? 0 : Math.max(row.getCommentsCount(), 0))
+                .views(row.getViewsCount() == null ? 0 : row.getViewsCount())
+                .date(row.getPublishedAt() != null ? DATE_FMT.format(row.getPublishedAt()) : "")
+                .slug(row.getSlug())
+                .authorName(row.getAuthorName() != null ? row.getAuthorName() : "Unknown")
                 .authorAvatar(avatar)
                 .build();
     }
 
-    private PostDetailDto toDetail(Post post) {
+    private PostAdminDto toAdminDto(PostRepository.PostListRow row, List<PostRepository.PostTagRow> tags) {
+        return PostAdminDto.builder()
+                .id(row.getId())
+                .title(row.getTitle())
+                .slug(row.getSlug())
+                .excerpt(row.getExcerpt())
+                .coverImage(normalizeCoverPath(row.getCoverImage()))
+                .status(row.getStatus())
+                .themeColor(row.getThemeColor())
+                .categoryId(row.getCategoryId())
+                .categoryName(row.getCategoryName())
+                .parentCategoryName(row.getParentCategoryName() != null
+                        ? row.getParentCategoryName()
+                        : row.getCategoryName())
+                .authorName(row.getAuthorName())
+                .publishedAt(row.getPublishedAt())
+                .tags(tags.stream()
+                        .map(tag -> com.sangui.sanguiblog.model.dto.TagDto.builder()
+                                .id(tag.getTagId())
+                                .name(tag.getTagName())
+                                .slug(tag.getTagSlug())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private String resolveContentHtml(Post post) {
         String htmlContent = post.getContentHtml();
         if (htmlContent == null || htmlContent.isEmpty()) {
             if (post.getContentMd() != null) {
@@ -745,32 +835,52 @@ public class PostService {
                 htmlContent = renderer.render(parser.parse(post.getContentMd()));
             }
         }
+        return htmlContent;
+    }
 
-        long wordCount = 0;
-        String readingTime = "1 分钟";
-        String plainText = "";
-        if (htmlContent != null) {
-            plainText = extractPlainText(htmlContent);
-            String compact = plainText.replaceAll("\\s+", "");
-            wordCount = compact.length();
-            long minutes = Math.max(1, wordCount / 250);
-            readingTime = minutes + " 分钟";
+    private PostDetailDto toDetail(Post post) {
+        return toDetail(post, true);
+    }
+
+    private PostDetailDto toDetail(Post post, boolean includeContent) {
+        String version = PostContentPayloadStore.versionOf(post.getUpdatedAt());
+        String htmlContent = null;
+        ContentStats stats = post.getId() != null ? contentStats.getIfPresent(post.getId()) : null;
+        if (includeContent || stats == null || !version.equals(stats.version())) {
+            htmlContent = resolveContentHtml(post);
+            stats = contentStats(version, htmlContent);
+            if (post.getId() != null) {
+                contentStats.put(post.getId(), stats);
+            }
         }
 
-        String metaDescription = buildMetaDescription(post, plainText);
+        long wordCount = stats.wordCount();
+        String readingTime = Math.max(1, wordCount / 250) + " 分钟";
+        String metaDescription = buildMetaDescription(post, stats.plainText());
         String metaTitle = buildMetaTitle(post);
 
         return PostDetailDto.builder()
                 .summary(toSummary(post))
-                .contentMd(post.getContentMd())
-                .contentHtml(htmlContent)
+                .contentMd(includeContent ? post.getContentMd() : null)
+                .contentHtml(includeContent ? htmlContent : null)
                 .wordCount(wordCount)
                 .readingTime(readingTime)
                 .metaTitle(metaTitle)
                 .metaDescription(metaDescription)
+                .contentVersion(PostContentPayloadStore.versionOf(post.getUpdatedAt()))
                 .build();
     }
 
+    private ContentStats contentStats(String version, String htmlContent) {
+        if (htmlContent == null) {
+            return new ContentStats(version, 0, "");
+        }
+        String plainText = extractPlainText(htmlContent);
+        long wordCount = plainText.replaceAll("\\s+", "").length();
+        // 只保留生成 meta 描述所需的前缀，缓存条目不随正文长度增长
+        return new ContentStats(version, wordCount, truncateMeta(plainText, META_DESCRIPTION_MAX));
+    }
+
     private PostAdminDto toAdminDto(Post post) {
         return PostAdminDto.builder()
                 .id(post.getId())
@@ -886,26 +996,4 @@ public class PostService {
                 });
         return normalized;
     }
-
-    private void publishRagSyncEvent(Long postId) {
-        if (postId == null) {
-            return;
-        }
-        try {
-            applicationEventPublisher.publishEvent(new AiBlogKnowledgeSyncEvent(postId));
-        } catch (Exception ex) {
-            log.warn("Failed to publish RAG sync event, postId={}", postId, ex);
-        }
-    }
-
-    private void publishRagRemoveEvent(Long postId) {
-        if (postId == null) {
-            return;
-        }
-        try {
-            applicationEventPublisher.publishEvent(new AiBlogKnowledgeSyncRemoveEvent(postId));
-        } catch (Exception ex) {
-            log.warn("Failed to publish RAG remove event, postId={}", postId, ex);
-        }
-    }
 }
@@ -0,0 +1,209 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.PresenceDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * 在线人数（进程内）：
+ * - 由 visit 生命周期驱动：page-view(带 visitId)/visit/start/heartbeat 续期，visit/end 立即离开，超过 TTL 未续期视为离开；
+ * - 会话按“IP + visitId”登记：visitId 由客户端生成，单个 IP 最多占用 max-sessions-per-ip 个会话，
+ *   无法靠伪造 visitId 占满全局上限，也无法结束其他 IP 的会话；
+ * - 全站与每篇文章的人数各用一个计数器维护，读取是 O(1)，不访问数据库；
+ * - 后台展示的“热门在读文章”由定时清理顺带重建为不可变列表，读端直接返回。
+ */
+@Component
+public class PresenceTracker {
+
+    private static final Comparator<PresenceDto.PostReaders> MOST_READERS = Comparator
+            .comparingInt(PresenceDto.PostReaders::getReaders).reversed()
+            .thenComparing(PresenceDto.PostReaders::getPostId);
+
+    @Value("${analytics.presence.ttl-ms:45000}")
+    private long ttlMs = 45_000L;
+
+    @Value("${analytics.presence.max-sessions:50000}")
+    private int maxSessions = 50_000;
+
+    @Value("${analytics.presence.max-sessions-per-ip:20}")
+    private int maxSessionsPerIp = 20;
+
+    @Value("${analytics.presence.top-posts:5}")
+    private int topPostLimit = 5;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> sessionsByIp = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> readersByPost = new ConcurrentHashMap<>();
+    private final Map<Long, String> titlesByPost = new ConcurrentHashMap<>();
+    private final AtomicInteger online = new AtomicInteger();
+    private final AtomicInteger reading = new AtomicInteger();
+    private volatile List<PresenceDto.PostReaders> topPosts = List.of();
+    private final LongSupplier clock;
+
+    private record Session(String ip, Long postId, long expiresAtMs) {
+    }
+
+    public PresenceTracker() {
+        this(System::currentTimeMillis);
+    }
+
+    PresenceTracker(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 进入或续期：同一会话换了文章时计数随之迁移；心跳不带文章时沿用会话原有文章。
+     * 全局或该 IP 的会话数达到上限时新会话不再计入（已有会话照常续期）。
+     */
+    public void touch(String ip, String visitId, Long postId, String postTitle) {
+        if (!StringUtils.hasText(visitId)) {
+            return;
+        }
+        String owner = ip != null ? ip : "";
+        long expiresAt = clock.getAsLong() + ttlMs;
+        if (postId != null && StringUtils.hasText(postTitle)) {
+            titlesByPost.put(postId, postTitle);
+        }
+        sessions.compute(sessionKey(owner, visitId), (key, previous) -> {
+            if (previous == null) {
+                if (online.get() >= maxSessions || !claimIpSlot(owner)) {
+                    return null;
+                }
+                online.incrementAndGet();
+                enter(postId);
+                return new Session(owner, postId, expiresAt);
+            }
+            Long effectivePostId = postId != null ? postId : previous.postId();
+            if (!Objects.equals(effectivePostId, previous.postId())) {
+                leave(previous.postId());
+                enter(effectivePostId);
+            }
+            return new Session(owner, effectivePostId, expiresAt);
+        });
+    }
+
+    public void end(String ip, String visitId) {
+        if (!StringUtils.hasText(visitId)) {
+            return;
+        }
+        sessions.computeIfPresent(sessionKey(ip != null ? ip : "", visitId), (key, session) -> {
+            drop(session);
+            return null;
+        });
+    }
+
+    public int online() {
+        return Math.max(0, online.get());
+    }
+
+    public int reading() {
+        return Math.max(0, reading.get());
+    }
+
+    public int readers(Long postId) {
+        if (postId == null) {
+            return 0;
+        }
+        AtomicInteger counter = readersByPost.get(postId);
+        return counter != null ? Math.max(0, counter.get()) : 0;
+    }
+
+    public PresenceDto snapshot(Long postId) {
+        return PresenceDto.builder()
+                .online(online())
+                .reading(reading())
+                .postId(postId)
+                .postReaders(postId != null ? readers(postId) : null)
+                .topPosts(topPosts)
+                .build();
+    }
+
+    /**
+     * 清理过期会话并重建热门文章列表；扫描成本与在线会话数成正比，只在后台线程执行。
+     */
+    @Scheduled(fixedDelayString = "${analytics.presence.sweep-ms:5000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (entry.getValue().expiresAtMs() > now) {
+                continue;
+            }
+            sessions.computeIfPresent(entry.getKey(), (key, session) -> {
+                if (session.expiresAtMs() > now) {
+                    return session;
+                }
+                drop(session);
+                return null;
+            });
+        }
+        List<PresenceDto.PostReaders> ranked = new ArrayList<>();
+        readersByPost.forEach((postId, counter) -> {
+            int readers = counter.get();
+            if (readers > 0) {
+                ranked.add(PresenceDto.PostReaders.builder()
+                        .postId(postId)
+                        .title(titlesByPost.get(postId))
+                        .readers(readers)
+                        .build());
+            }
+        });
+        titlesByPost.keySet().retainAll(readersByPost.keySet());
+        ranked.sort(MOST_READERS);
+        topPosts = List.copyOf(ranked.subList(0, Math.min(Math.max(0, topPostLimit), ranked.size())));
+    }
+
+    private static String sessionKey(String ip, String visitId) {
+        return ip + '|' + visitId;
+    }
+
+    private boolean claimIpSlot(String ip) {
+        boolean[] claimed = {false};
+        sessionsByIp.compute(ip, (k, counter) -> {
+            AtomicInteger next = counter != null ? counter : new AtomicInteger();
+            if (next.get() < Math.max(1, maxSessionsPerIp)) {
+                next.incrementAndGet();
+                claimed[0] = true;
+            }
+            return next.get() > 0 ? next : null;
+        });
+        return claimed[0];
+    }
+
+    private void drop(Session session) {
+        online.decrementAndGet();
+        leave(session.postId());
+        sessionsByIp.computeIfPresent(session.ip(), (k, counter) -> counter.decrementAndGet() <= 0 ? null : counter);
+    }
+
+    private void enter(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        reading.incrementAndGet();
+        readersByPost.compute(postId, (k, counter) -> {
+            AtomicInteger next = counter != null ? counter : new AtomicInteger();
+            next.incrementAndGet();
+            return next;
+        });
+    }
+
+    private void leave(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        reading.decrementAndGet();
+        // 计数归零即移除，增减都在 compute 内完成，避免与并发进入的读者交错丢失
+        readersByPost.computeIfPresent(postId, (k, counter) -> counter.decrementAndGet() <= 0 ? null : counter);
+    }
+}
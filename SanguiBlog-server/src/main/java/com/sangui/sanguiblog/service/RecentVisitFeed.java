@@ -0,0 +1,221 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.AdminAnalyticsSummaryDto;
+import com.sangui.sanguiblog.model.dto.SiteMetaDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * 最近访问的进程内环形缓冲：
+ * - 写入点是访问记录事务提交后的回调，条目在写入时就已投影为后台 {@link AdminAnalyticsSummaryDto.RecentVisit}
+ *   与前台 {@link SiteMetaDto.RecentActivityDto}，读端不再查询 analytics_page_views；
+ * - 无锁实现：全局序号 getAndIncrement 取槽位后直接覆盖，读端按序号倒序扫描，序号不匹配（已被覆盖或尚未写完）的槽位跳过；
+ * - 同一条访问记录（start → end）会产生多个条目，快照按记录 id 去重保留最新状态，再按进入时间倒序输出；
+ * - 启动后由 {@link AnalyticsService} 用一次数据库查询预热，预热前 {@link #isPrimed()} 为 false，调用方可回退到原查询；
+ * - 实时推送在专用单线程上扇出（写入方只入队），连接登记/清理/心跳由 {@link SseEmitterRegistry} 负责。
+ */
+@Component
+public class RecentVisitFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(RecentVisitFeed.class);
+    public static final String EVENT_SNAPSHOT = "snapshot";
+    public static final String EVENT_VISIT = "visit";
+    static final int DEFAULT_CAPACITY = 256;
+    private static final String CHANNEL = "admin";
+
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator
+            .comparingLong(Entry::viewedAtMs).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::sequence).reversed());
+
+    @Value("${analytics.live-feed.stream.timeout-ms:1800000}")
+    private long emitterTimeoutMs = 1_800_000L;
+
+    @Value("${analytics.live-feed.stream.max-connections:50}")
+    private int maxConnections = 50;
+
+    @Value("${analytics.live-feed.stream.snapshot-size:30}")
+    private int streamSnapshotSize = 30;
+
+    private final int capacity;
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean primed = new AtomicBoolean();
+    private final Executor fanoutExecutor;
+    private final SseEmitterRegistry<String> connections = new SseEmitterRegistry<>("实时访问");
+
+    /**
+     * 环中的一个条目；两个投影对象写入后视为只读，读端对外返回副本。
+     */
+    public record Entry(long sequence, Long pageViewId, long viewedAtMs,
+                        AdminAnalyticsSummaryDto.RecentVisit visit,
+                        SiteMetaDto.RecentActivityDto activity) {
+    }
+
+    public RecentVisitFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RecentVisitFeed(int capacity) {
+        this(capacity, Runnable::run);
+    }
+
+    @Autowired
+    public RecentVisitFeed(@Value("${analytics.live-feed.capacity:256}") int capacity,
+                           @Qualifier("liveFeedFanoutExecutor") Executor fanoutExecutor) {
+        this.capacity = Math.max(16, capacity);
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.fanoutExecutor = fanoutExecutor;
+    }
+
+    public void publish(Long pageViewId, long viewedAtMs,
+                        AdminAnalyticsSummaryDto.RecentVisit visit,
+                        SiteMetaDto.RecentActivityDto activity) {
+        publish(pageViewId, viewedAtMs, visit, activity, UnaryOperator.identity());
+    }
+
+    /**
+     * 写入环形缓冲；有在线连接时把推送交给扇出线程，streamView 在扇出线程上补充推送副本（如封禁状态）。
+     */
+    public void publish(Long pageViewId, long viewedAtMs,
+                        AdminAnalyticsSummaryDto.RecentVisit visit,
+                        SiteMetaDto.RecentActivityDto activity,
+                        UnaryOperator<AdminAnalyticsSummaryDto.RecentVisit> streamView) {
+        if (visit == null && activity == null) {
+            return;
+        }
+        long seq = sequence.getAndIncrement();
+        slots.set((int) (seq % capacity), new Entry(seq, pageViewId, viewedAtMs, visit, activity));
+        if (connections.isEmpty() || visit == null) {
+            return;
+        }
+        try {
+            fanoutExecutor.execute(() -> connections.broadcastAll(EVENT_VISIT, streamView.apply(copy(visit))));
+        } catch (RuntimeException ex) {
+            log.debug("实时访问推送任务被拒绝: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * 用数据库中的最近记录预热（按时间从旧到新传入）；只生效一次，之后调用直接忽略。
+     */
+    public boolean prime(List<Entry> oldestFirst) {
+        if (!primed.compareAndSet(false, true)) {
+            return false;
+        }
+        if (oldestFirst != null) {
+            for (Entry entry : oldestFirst) {
+                long seq = sequence.getAndIncrement();
+                slots.set((int) (seq % capacity), new Entry(seq, entry.pageViewId(), entry.viewedAtMs(),
+                        entry.visit(), entry.activity()));
+            }
+        }
+        return true;
+    }
+
+    public boolean isPrimed() {
+        return primed.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 后台最近访问快照（副本，可由调用方继续补充封禁状态等字段）。
+     */
+    public List<AdminAnalyticsSummaryDto.RecentVisit> recentVisits(int limit) {
+        return project(limit, Entry::visit).stream().map(RecentVisitFeed::copy).toList();
+    }
+
+    /**
+     * 前台站点元信息中的“最近动态”快照。
+     */
+    public List<SiteMetaDto.RecentActivityDto> recentActivity(int limit) {
+        return project(limit, Entry::activity).stream()
+                .map(a -> SiteMetaDto.RecentActivityDto.builder()
+                        .title(a.getTitle())
+                        .ip(a.getIp())
+                        .time(a.getTime())
+                        .referrer(a.getReferrer())
+                        .geo(a.getGeo())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * 建立实时推送连接：先下发一次当前快照，之后推送每条新访问。超过连接上限时返回 null。
+     */
+    public SseEmitter subscribe(List<AdminAnalyticsSummaryDto.RecentVisit> initial) {
+        SseEmitter emitter = connections.register(CHANNEL, emitterTimeoutMs, maxConnections, maxConnections, null);
+        if (emitter != null) {
+            connections.send(CHANNEL, emitter, EVENT_SNAPSHOT,
+                    initial != null ? initial : recentVisits(streamSnapshotSize));
+        }
+        return emitter;
+    }
+
+    public int streamSnapshotSize() {
+        return Math.max(1, streamSnapshotSize);
+    }
+
+    public int connectionCount() {
+        return connections.connectionCount();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.live-feed.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        connections.heartbeat();
+    }
+
+    private <T> List<T> project(int limit, Function<Entry, T> projection) {
+        int safeLimit = Math.max(0, Math.min(limit, capacity));
+        if (safeLimit == 0) {
+            return List.of();
+        }
+        long head = sequence.get();
+        long floor = Math.max(0L, head - capacity);
+        Set<Long> seen = new HashSet<>();
+        List<Entry> latest = new ArrayList<>();
+        for (long seq = head - 1; seq >= floor; seq--) {
+            Entry entry = slots.get((int) (seq % capacity));
+            if (entry == null || entry.sequence() != seq || projection.apply(entry) == null) {
+                continue;
+            }
+            if (entry.pageViewId() != null && !seen.add(entry.pageViewId())) {
+                continue;
+            }
+            latest.add(entry);
+        }
+        latest.sort(NEWEST_FIRST);
+        List<T> result = new ArrayList<>(Math.min(safeLimit, latest.size()));
+        for (Entry entry : latest) {
+            if (result.size() >= safeLimit) {
+                break;
+            }
+            result.add(projection.apply(entry));
+        }
+        return result;
+    }
+
+    static AdminAnalyticsSummaryDto.RecentVisit copy(AdminAnalyticsSummaryDto.RecentVisit source) {
+        return source.toBuilder().build();
+    }
+}
@@ -0,0 +1,296 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.entity.Post;
+import com.sangui.sanguiblog.model.entity.Tag;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 相关文章索引：基于 TF-IDF 余弦相似度，为每篇已发布文章预先算好 top-K 相似文章。
+ *
+ * 说明：
+ * - 分词不依赖第三方库：英文/数字按单词切分，中文按相邻双字切分；标题、标签、分类额外加权；
+ * - 每篇文章的词频向量按 (id, updatedAt) 缓存，文章变更（由发件箱的文章事件在提交后标记）只重新读取变更的文章，
+ *   随后基于倒排表在内存中重算全部 top-K（IDF 是全局量，必须整体重算，但不再访问数据库）；
+ * - 读端 {@link #related(Long, int)} 只读不可变快照，零查询；索引尚未就绪时返回空列表，由调用方回退到同分类最新文章。
+ */
+@Service
+@RequiredArgsConstructor
+public class RelatedPostIndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedPostIndexService.class);
+    private static final String PUBLISHED = "PUBLISHED";
+    private static final int MAX_CONTENT_CHARS = 20000;
+    private static final int MAX_TERMS_PER_POST = 256;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 4;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final double MIN_SCORE = 0.02;
+
+    private final PostRepository postRepository;
+
+    @Value("${site.related-posts.top-k:6}")
+    private int topK = 6;
+
+    private final Map<Long, TermVector> termVectors = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyPostIds = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<Map<Long, long[]>> neighborsRef = new AtomicReference<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    record TermVector(Long postId, long version, Map<String, Integer> termFrequencies) {
+    }
+
+    private record Scored(long postId, double score) {
+    }
+
+    /**
+     * 返回与指定文章最相似的文章 id（按相似度降序）；索引未就绪或没有足够相似的文章时返回空列表。
+     */
+    public List<Long> related(Long postId, int limit) {
+        Map<Long, long[]> neighbors = neighborsRef.get();
+        if (postId == null || neighbors == null || limit <= 0) {
+            return List.of();
+        }
+        long[] ids = neighbors.get(postId);
+        if (ids == null || ids.length == 0) {
+            return List.of();
+        }
+        int size = Math.min(limit, ids.length);
+        List<Long> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    public boolean isReady() {
+        return neighborsRef.get() != null;
+    }
+
+    public void markDirty(Long postId) {
+        if (postId != null) {
+            dirtyPostIds.add(postId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${site.related-posts.refresh-delay-ms:30000}",
+            initialDelayString = "${site.related-posts.initial-delay-ms:20000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            log.warn("相关文章索引刷新失败（已忽略，下次重试）", ex);
+        }
+    }
+
+    /**
+     * 首次调用全量构建；之后只重新读取被标记为变更的文章并重算相似度。没有变更时直接返回。
+     */
+    public void refresh() {
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (neighborsRef.get() == null) {
+                dirtyPostIds.clear();
+                termVectors.clear();
+                for (Post post : postRepository.findAllPublishedForKnowledge()) {
+                    putVector(post);
+                }
+            } else {
+                if (dirtyPostIds.isEmpty()) {
+                    return;
+                }
+                List<Long> changed = new ArrayList<>(dirtyPostIds);
+                dirtyPostIds.removeAll(changed);
+                for (Long postId : changed) {
+                    Post post = postRepository.findKnowledgeSourceById(postId)
+                            .filter(p -> PUBLISHED.equalsIgnoreCase(p.getStatus()) && p.getPublishedAt() != null)
+                            .orElse(null);
+                    if (post == null) {
+                        termVectors.remove(postId);
+                    } else {
+                        putVector(post);
+                    }
+                }
+            }
+            neighborsRef.set(computeNeighbors(termVectors.values(), Math.max(1, topK)));
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void putVector(Post post) {
+        long version = post.getUpdatedAt() != null ? post.getUpdatedAt().toEpochMilli() : 0L;
+        TermVector cached = termVectors.get(post.getId());
+        if (cached != null && cached.version() == version) {
+            return;
+        }
+        termVectors.put(post.getId(), new TermVector(post.getId(), version, termFrequencies(post)));
+    }
+
+    static Map<String, Integer> termFrequencies(Post post) {
+        Map<String, Integer> tf = new HashMap<>();
+        for (int i = 0; i < TITLE_WEIGHT; i++) {
+            tokenize(post.getTitle(), tf);
+        }
+        if (post.getTags() != null) {
+            for (Tag tag : post.getTags()) {
+                if (tag != null && StringUtils.hasText(tag.getName())) {
+                    tf.merge("#" + tag.getName().trim().toLowerCase(Locale.ROOT), TAG_WEIGHT, Integer::sum);
+                }
+            }
+        }
+        if (post.getCategory() != null && post.getCategory().getId() != null) {
+            tf.merge("@" + post.getCategory().getId(), CATEGORY_WEIGHT, Integer::sum);
+            if (post.getCategory().getParent() != null && post.getCategory().getParent().getId() != null) {
+                tf.merge("@" + post.getCategory().getParent().getId(), 1, Integer::sum);
+            }
+        }
+        tokenize(post.getExcerpt(), tf);
+        String content = post.getContentMd();
+        if (content != null && content.length() > MAX_CONTENT_CHARS) {
+            content = content.substring(0, MAX_CONTENT_CHARS);
+        }
+        tokenize(content, tf);
+        return tf;
+    }
+
+    /**
+     * 英文/数字按连续字母数字切词（长度 ≥ 2），中文按相邻双字切分；其余字符视为分隔符。
+     */
+    static void tokenize(String text, Map<String, Integer> sink) {
+        if (!StringUtils.hasText(text)) {
+            return;
+        }
+        StringBuilder word = new StringBuilder();
+        int prevCjk = -1;
+        int i = 0;
+        while (i <= text.length()) {
+            int cp = i < text.length() ? text.codePointAt(i) : ' ';
+            boolean cjk = Character.UnicodeScript.of(cp) == Character.UnicodeScript.HAN;
+            if (!cjk && Character.isLetterOrDigit(cp)) {
+                word.appendCodePoint(Character.toLowerCase(cp));
+            } else if (word.length() > 0) {
+                if (word.length() >= 2) {
+                    sink.merge(word.toString(), 1, Integer::sum);
+                }
+                word.setLength(0);
+            }
+            if (cjk) {
+                if (prevCjk >= 0) {
+                    sink.merge(new StringBuilder(2).appendCodePoint(prevCjk).appendCodePoint(cp).toString(), 1,
+                            Integer::sum);
+                }
+                prevCjk = cp;
+            } else {
+                prevCjk = -1;
+            }
+            i += i < text.length() ? Character.charCount(cp) : 1;
+        }
+    }
+
+    /**
+     * 计算 TF-IDF（对数词频、平滑 IDF、L2 归一化）并借助倒排表求每篇文章的 top-K 余弦相似文章。
+     */
+    static Map<Long, long[]> computeNeighbors(Iterable<TermVector> vectors, int k) {
+        List<TermVector> docs = new ArrayList<>();
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (TermVector vector : vectors) {
+            docs.add(vector);
+            for (String term : vector.termFrequencies().keySet()) {
+                documentFrequency.merge(term, 1, Integer::sum);
+            }
+        }
+        int n = docs.size();
+        Map<String, List<double[]>> postings = new HashMap<>();
+        List<Map<String, Double>> weights = new ArrayList<>(n);
+        for (int d = 0; d < n; d++) {
+            Map<String, Double> w = weigh(docs.get(d).termFrequencies(), documentFrequency, n);
+            weights.add(w);
+            for (Map.Entry<String, Double> entry : w.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new ArrayList<>())
+                        .add(new double[]{d, entry.getValue()});
+            }
+        }
+
+        Map<Long, long[]> result = new HashMap<>(Math.max(16, n * 2));
+        double[] scores = new double[n];
+        List<Integer> touched = new ArrayList<>();
+        for (int d = 0; d < n; d++) {
+            for (Map.Entry<String, Double> entry : weights.get(d).entrySet()) {
+                for (double[] posting : postings.get(entry.getKey())) {
+                    int other = (int) posting[0];
+                    if (other == d) {
+                        continue;
+                    }
+                    if (scores[other] == 0) {
+                        touched.add(other);
+                    }
+                    scores[other] += entry.getValue() * posting[1];
+                }
+            }
+            PriorityQueue<Scored> top = new PriorityQueue<>(k + 1,
+                    (a, b) -> a.score() != b.score() ? Double.compare(a.score(), b.score())
+                            : Long.compare(b.postId(), a.postId()));
+            for (int other : touched) {
+                double score = scores[other];
+                scores[other] = 0;
+                if (score < MIN_SCORE) {
+                    continue;
+                }
+                top.offer(new Scored(docs.get(other).postId(), score));
+                if (top.size() > k) {
+                    top.poll();
+                }
+            }
+            touched.clear();
+            long[] ids = new long[top.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = top.poll().postId();
+            }
+            result.put(docs.get(d).postId(), ids);
+        }
+        return Map.copyOf(result);
+    }
+
+    private static Map<String, Double> weigh(Map<String, Integer> tf, Map<String, Integer> df, int n) {
+        List<Map.Entry<String, Double>> entries = new ArrayList<>(tf.size());
+        for (Map.Entry<String, Integer> entry : tf.entrySet()) {
+            double idf = Math.log((n + 1.0) / (df.getOrDefault(entry.getKey(), 0) + 1.0)) + 1.0;
+            double weight = (1.0 + Math.log(entry.getValue())) * idf;
+            entries.add(Map.entry(entry.getKey(), weight));
+        }
+        // 只保留权重最高的若干词，控制倒排表规模
+        if (entries.size() > MAX_TERMS_PER_POST) {
+            entries.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+            entries = entries.subList(0, MAX_TERMS_PER_POST);
+        }
+        double norm = Math.sqrt(entries.stream().mapToDouble(e -> e.getValue() * e.getValue()).sum());
+        Map<String, Double> normalized = new HashMap<>(entries.size() * 2);
+        if (norm == 0) {
+            return normalized;
+        }
+        for (Map.Entry<String, Double> entry : entries) {
+            normalized.put(entry.getKey(), entry.getValue() / norm);
+        }
+        return normalized;
+    }
+}
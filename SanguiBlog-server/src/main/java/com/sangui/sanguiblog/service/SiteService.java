@@ -8,17 +8,16 @@ import com.sangui.sanguiblog.model.entity.SystemBroadcast;
 import com.sangui.sanguiblog.model.entity.User;
 import com.sangui.sanguiblog.model.repository.AnalyticsPageViewRepository;
 import com.sangui.sanguiblog.model.repository.AnalyticsTrafficSourceRepository;
-import com.sangui.sanguiblog.model.repository.CategoryRepository;
 import com.sangui.sanguiblog.model.repository.HomeBackgroundImageRepository;
 import com.sangui.sanguiblog.model.repository.PostRepository;
 import com.sangui.sanguiblog.model.repository.SystemBroadcastRepository;
-import com.sangui.sanguiblog.model.repository.TagRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
 import com.sangui.sanguiblog.service.ai.AiAssistantSettingService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -29,6 +28,9 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -38,19 +40,33 @@ public class SiteService {
         private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy/MM/dd");
         private static final DateTimeFormatter DATE_FULL_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+        private static final int RECENT_ACTIVITY_LIMIT = 20;
+
         private static final String DEFAULT_BROADCAST_STYLE = "ALERT";
         private static final Set<String> SUPPORTED_BROADCAST_STYLES = Set.of("ALERT", "ANNOUNCE");
 
         private final PostRepository postRepository;
-        private final CategoryRepository categoryRepository;
         private final HomeBackgroundImageRepository homeBackgroundImageRepository;
-        private final TagRepository tagRepository;
         private final AnalyticsPageViewRepository analyticsPageViewRepository;
         private final AnalyticsTrafficSourceRepository analyticsTrafficSourceRepository;
         private final SystemBroadcastRepository systemBroadcastRepository;
         private final UserRepository userRepository;
         private final AuthService authService;
         private final AiAssistantSettingService aiAssistantSettingService;
+        private final ContentRevisionService contentRevisionService;
+        private final TaxonomySnapshotService taxonomySnapshotService;
+        private final RecentVisitFeed recentVisitFeed;
+        /**
+         * 超过该时长无人读取元信息时，定时任务不再刷新快照，避免空闲站点持续打库。
+         */
+        private static final long META_IDLE_SKIP_MS = 10 * 60 * 1000L;
+
+        private final AtomicReference<MetaSnapshot> metaSnapshotRef = new AtomicReference<>();
+        private final ReentrantLock metaRebuildLock = new ReentrantLock();
+        private volatile long metaLastAccessMs;
+
+        @Value("${site.meta.max-age-ms:30000}")
+        private long metaMaxAgeMs = 30000;
         @Value("${site.footer.year:2025}")
         private int footerYear;
         @Value("${site.footer.brand:三桂博客}")
@@ -70,12 +86,96 @@ public class SiteService {
         @Value("${site.home.signature-quote:阻挡你的不是别人，而是你自己。}")
         private String homeSignatureQuote;
 
+        /**
+         * 站点统计（来自元信息快照，陈旧度不超过快照刷新间隔）。
+         */
         public SiteMetaDto.SiteStats currentStats() {
+                SiteMetaDto.SiteStats stats = metaSnapshot().getStats();
+                return stats != null ? stats.toBuilder().build() : null;
+        }
+
+        /**
+         * 站点元信息：读端只返回内存快照。
+         * - 快照由定时任务按 refresh-interval-ms 重建（仅在近期有访问时），或在广播/背景图/文章/分类写操作
+         *   bump 对应修订号后由下一次读取触发重建；
+         * - 重建期间其他请求直接返回旧快照，不排队等待；只有进程启动后的第一次读取会同步构建；
+         * - SiteMetaDto 是可变的 @Data 对象，返回的是快照的深拷贝，调用方修改不会影响其他请求。
+         */
+        public SiteMetaDto meta() {
+                return copyOf(metaSnapshot());
+        }
+
+        private SiteMetaDto metaSnapshot() {
+                metaLastAccessMs = System.currentTimeMillis();
+                MetaRevision revision = currentMetaRevision();
+                MetaSnapshot snapshot = metaSnapshotRef.get();
+                if (isUsable(snapshot, revision)) {
+                        return snapshot.meta();
+                }
+                if (snapshot != null) {
+                        if (!metaRebuildLock.tryLock()) {
+                                return snapshot.meta();
+                        }
+                } else {
+                        metaRebuildLock.lock();
+                }
+                try {
+                        MetaSnapshot again = metaSnapshotRef.get();
+                        MetaRevision latest = currentMetaRevision();
+                        if (isUsable(again, latest)) {
+                                return again.meta();
+                        }
+                        return rebuildMetaSnapshot(latest).meta();
+                } finally {
+                        metaRebuildLock.unlock();
+                }
+        }
+
+        @Scheduled(fixedDelayString = "${site.meta.refresh-interval-ms:15000}",
+                        initialDelayString = "${site.meta.refresh-interval-ms:15000}")
+        public void scheduledMetaRefresh() {
+                long idleMs = System.currentTimeMillis() - metaLastAccessMs;
+                if (metaSnapshotRef.get() == null || idleMs > META_IDLE_SKIP_MS) {
+                        return;
+                }
+                if (!metaRebuildLock.tryLock()) {
+                        return;
+                }
+                try {
+                        rebuildMetaSnapshot(currentMetaRevision());
+                } catch (Exception ex) {
+                        log.warn("站点元信息快照刷新失败（继续使用旧快照）", ex);
+                } finally {
+                        metaRebuildLock.unlock();
+                }
+        }
+
+        private boolean isUsable(MetaSnapshot snapshot, MetaRevision revision) {
+                return snapshot != null
+                                && snapshot.revision().equals(revision)
+                                && System.currentTimeMillis() - snapshot.builtAtMs() <= Math.max(1000L, metaMaxAgeMs);
+        }
+
+        private MetaRevision currentMetaRevision() {
+                return new MetaRevision(
+                                contentRevisionService.revision(ContentRevisionService.Scope.SITE),
+                                contentRevisionService.revision(ContentRevisionService.Scope.POSTS),
+                                contentRevisionService.revision(ContentRevisionService.Scope.TAXONOMY));
+        }
+
+        private MetaSnapshot rebuildMetaSnapshot(MetaRevision revision) {
+                MetaSnapshot rebuilt = new MetaSnapshot(revision, System.currentTimeMillis(), buildMeta());
+                metaSnapshotRef.set(rebuilt);
+                return rebuilt;
+        }
+
+        private SiteMetaDto.SiteStats buildStats() {
                 final String status = "PUBLISHED";
                 long postCount = postRepository.countByStatus(status);
                 long commentCount = Optional.ofNullable(postRepository.sumCommentsByStatus(status)).orElse(0L);
-                long categoryCount = categoryRepository.count();
-                long tagCount = tagRepository.countDistinctTagsByPostStatus(status);
+                TaxonomySnapshotService.TaxonomySnapshot taxonomy = taxonomySnapshotService.current();
+                long categoryCount = taxonomy.categoryCount();
+                long tagCount = taxonomy.usedTagCount();
                 long totalViews = Optional.ofNullable(postRepository.sumViewsByStatus(status)).orElse(0L);
 
                 Optional<Post> lastPublished = postRepository.findFirstByStatusOrderByPublishedAtDesc(status);
@@ -93,8 +193,8 @@ public class SiteService {
                                 .build();
         }
 
-        public SiteMetaDto meta() {
-                SiteMetaDto.SiteStats stats = currentStats();
+        private SiteMetaDto buildMeta() {
+                SiteMetaDto.SiteStats stats = buildStats();
 
                 SystemBroadcast broadcast = systemBroadcastRepository.findTopByOrderByCreatedAtDesc()
                                 .orElse(null);
@@ -117,36 +217,32 @@ public class SiteService {
                                                 .toList());
 
                 if (trafficSources.isEmpty()) {
-                        // fallback to latest available record
-                        analyticsTrafficSourceRepository.findAll().stream()
-                                        .collect(java.util.stream.Collectors.groupingBy(ts -> ts.getStatDate()))
-                                        .entrySet()
-                                        .stream()
-                                        .max(java.util.Map.Entry.comparingByKey())
-                                        .ifPresent(entry -> entry.getValue()
-                                                        .forEach(ts -> trafficSources.add(SiteMetaDto.TrafficSourceDto
-                                                                        .builder()
-                                                                        .label(ts.getSourceLabel())
-                                                                        .value(ts.getPercentage() != null
-                                                                                        ? ts.getPercentage()
-                                                                                                        .doubleValue()
-                                                                                        : ts.getVisits())
-                                                                        .build())));
+                        // 当天尚无数据时回退到最近一个有统计的日期
+                        analyticsTrafficSourceRepository.findLatestStatDate()
+                                        .map(analyticsTrafficSourceRepository::findByStatDateOrderByVisitsDesc)
+                                        .orElse(List.of())
+                                        .forEach(ts -> trafficSources.add(SiteMetaDto.TrafficSourceDto.builder()
+                                                        .label(ts.getSourceLabel())
+                                                        .value(ts.getPercentage() != null
+                                                                        ? ts.getPercentage().doubleValue()
+                                                                        : ts.getVisits())
+                                                        .build()));
                 }
 
-                List<SiteMetaDto.RecentActivityDto> activities = analyticsPageViewRepository
-                                .findTop20ByOrderByViewedAtDesc()
-                                .stream()
-                                .map(this::toActivity)
-                                .toList();
+                // 最近动态读进程内环形缓冲；缓冲预热前（刚启动）回退到查询
+                List<SiteMetaDto.RecentActivityDto> activities = recentVisitFeed.isPrimed()
+                                ? recentVisitFeed.recentActivity(RECENT_ACTIVITY_LIMIT)
+                                : analyticsPageViewRepository
+                                                .findTop20ByOrderByViewedAtDesc()
+                                                .stream()
+                                                .map(this::toActivity)
+                                                .toList();
 
                 // Find super admin user for site author info
-                User author = userRepository.findAll().stream()
-                                .filter(u -> u.getRole() != null && "SUPER_ADMIN".equals(u.getRole().getCode()))
-                                .findFirst()
-                                .orElseGet(() -> userRepository.findByUsername("sangui")
-                                                .orElseGet(() -> userRepository.findAll().stream().findFirst()
-                                                                .orElse(null)));
+                User author = userRepository.findFirstByRole_CodeOrderByIdAsc("SUPER_ADMIN")
+                                .or(() -> userRepository.findByUsername("sangui"))
+                                .or(userRepository::findFirstByOrderByIdAsc)
+                                .orElse(null);
 
                 return SiteMetaDto.builder()
                                 .stats(stats)
@@ -187,6 +283,28 @@ public class SiteService {
                                 .build();
         }
 
+        private record MetaRevision(long site, long posts, long taxonomy) {
+        }
+
+        private record MetaSnapshot(MetaRevision revision, long builtAtMs, SiteMetaDto meta) {
+        }
+
+        private static SiteMetaDto copyOf(SiteMetaDto meta) {
+                return meta.toBuilder()
+                                .stats(meta.getStats() != null ? meta.getStats().toBuilder().build() : null)
+                                .broadcast(meta.getBroadcast() != null ? meta.getBroadcast().toBuilder().build() : null)
+                                .author(meta.getAuthor() != null ? meta.getAuthor().toBuilder().build() : null)
+                                .trafficSources(meta.getTrafficSources() == null ? null : meta.getTrafficSources().stream()
+                                                .map(source -> source.toBuilder().build())
+                                                .collect(Collectors.toList()))
+                                .recentActivity(meta.getRecentActivity() == null ? null : meta.getRecentActivity().stream()
+                                                .map(activity -> activity.toBuilder().build())
+                                                .collect(Collectors.toList()))
+                                .footer(meta.getFooter() != null ? meta.getFooter().toBuilder().build() : null)
+                                .aiAssistant(meta.getAiAssistant() != null ? meta.getAiAssistant().toBuilder().build() : null)
+                                .build();
+        }
+
         private SiteMetaDto.RecentActivityDto toActivity(AnalyticsPageView view) {
                 String time = view.getViewedAt() != null
                                 ? DATE_FULL_FMT.format(view.getViewedAt())
@@ -222,6 +340,7 @@ public class SiteService {
                 log.info("创建广播记录: active={}, style={}, contentLen={}, userId={}",
                                 isActive, broadcast.getStyle(), contentLen, creatorId);
                 systemBroadcastRepository.saveAndFlush(broadcast);
+                contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.SITE);
         }
 
         private String normalizeBroadcastStyle(String style) {
@@ -6,9 +6,9 @@ import com.sangui.sanguiblog.model.dto.AnalyticsRequestDetailContext;
 import com.sangui.sanguiblog.model.dto.PageViewRequest;
 import com.sangui.sanguiblog.model.repository.GamePageRepository;
 import com.sangui.sanguiblog.model.repository.PostRepository;
+import com.sangui.sanguiblog.util.ContentEncodingUtils;
 import com.sangui.sanguiblog.util.IpUtils;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,20 +24,35 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
+/**
+ * 站点地图 / robots.txt。
+ *
+ * 说明：
+ * - 快照增量维护：文章变更（经发件箱提交后投递）只按 id 重查变更的文章，游戏页变更重载游戏页列表，
+ *   定时任务按 refresh-delay-ms 做一次全量对账兜底；
+ * - 每个分片的 XML 生成一次后同时保存原文与 gzip 字节，控制器按 Accept-Encoding 直接写出。
+ */
 @Service
-@RequiredArgsConstructor
 public class SitemapService {
 
     private static final Logger log = LoggerFactory.getLogger(SitemapService.class);
 
+    private static final Comparator<PostEntry> POST_ORDER = Comparator
+            .comparing(PostEntry::publishedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(PostEntry::id, Comparator.reverseOrder());
+
     /**
      * 站点地图/robots 的访问日志限流：避免搜索引擎高频抓取导致 analytics_page_views 爆表。
      * 统计口径：同一 IP + 同一页面（sitemap.xml/robots.txt）在 10 分钟内只写入 1 条访问日志。
@@ -58,19 +73,66 @@ public class SitemapService {
     @Value("${site.allowed-hosts:sangui.top,www.sangui.top}")
     private String allowedHosts;
 
-    @Value("${site.sitemap.cache-ttl-ms:600000}")
-    private long cacheTtlMs;
-
     @Value("${site.sitemap.max-urls-per-file:45000}")
-    private int maxUrlsPerFile;
+    private int maxUrlsPerFile = 45000;
+
+    @Value("${site.sitemap.min-gzip-bytes:1024}")
+    private int minGzipBytes = 1024;
 
     private final AtomicLong revision = new AtomicLong(1);
     private final ReentrantLock rebuildLock = new ReentrantLock();
 
     private final AtomicReference<SitemapSnapshot> snapshotRef = new AtomicReference<>();
-    private final ConcurrentHashMap<String, CachedPayload> payloadCache = new ConcurrentHashMap<>();
 
+    /**
+     * 增量维护的数据源：已发布文章按 id 索引，仅在 rebuildLock 内读写；游戏页数量很少，变更时整体重载。
+     */
+    private final Map<Long, PostEntry> postEntries = new HashMap<>();
+    private List<GameEntry> gameEntries = List.of();
+    private final Set<Long> dirtyPostIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean gamesDirty = new AtomicBoolean(false);
+    private final AtomicBoolean fullReloadRequested = new AtomicBoolean(true);
+
+    /**
+     * 生成好的 XML（原文 + gzip）按字节数限容；键含请求域名，但域名只能是白名单或默认值，不会无限增长。
+     */
+    private final Cache<String, CachedPayload> payloadCache;
+
+    public SitemapService(PostRepository postRepository, GamePageRepository gamePageRepository,
+            AnalyticsService analyticsService,
+            @Value("${site.sitemap.cache-ttl-ms:600000}") long cacheTtlMs,
+            @Value("${site.sitemap.payload-cache-max-bytes:16777216}") long payloadCacheMaxBytes) {
+        this.postRepository = postRepository;
+        this.gamePageRepository = gamePageRepository;
+        this.analyticsService = analyticsService;
+        this.payloadCache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1L << 20, payloadCacheMaxBytes))
+                .weigher((String key, CachedPayload payload) -> payload.weight())
+                .expireAfterWrite(Duration.ofMillis(Math.max(1000L, cacheTtlMs)))
+                .build();
+    }
+
+    /**
+     * 整体失效：下次读取时全量重载文章与游戏页（兜底用，常规变更走 {@link #markPostDirty(Long)}）。
+     */
     public void markDirty() {
+        fullReloadRequested.set(true);
+        revision.incrementAndGet();
+    }
+
+    /**
+     * 单篇文章新增/修改/下线/删除：下次读取时只按 id 重新查询这一篇并更新快照。
+     */
+    public void markPostDirty(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        dirtyPostIds.add(postId);
+        revision.incrementAndGet();
+    }
+
+    public void markGamesDirty() {
+        gamesDirty.set(true);
         revision.incrementAndGet();
     }
 
@@ -96,32 +158,22 @@ public class SitemapService {
 
         if (shouldReturnIndex) {
             String key = cacheKey(baseUrl, snapshot.revision, chunkSize, pageCount, Mode.INDEX, 0);
-            CachedPayload cached = payloadCache.get(key);
-            if (cached != null) {
-                return new SitemapResult(cached.body, cached.etag, lastModifiedMs);
-            }
-            byte[] xml = buildIndexXml(snapshot, baseUrl, pageCount);
-            CachedPayload built = new CachedPayload(xml, computeEtag(xml));
-            payloadCache.put(key, built);
-            return new SitemapResult(built.body, built.etag, lastModifiedMs);
+            CachedPayload payload = payloadCache.get(key,
+                    k -> toPayload(buildIndexXml(snapshot, baseUrl, pageCount)));
+            return new SitemapResult(payload.body, payload.gzip, payload.etag, lastModifiedMs);
         }
 
         int actualPage = normalizedPage != null ? normalizedPage : 1;
         String key = cacheKey(baseUrl, snapshot.revision, chunkSize, pageCount, Mode.URLSET, actualPage);
-        CachedPayload cached = payloadCache.get(key);
-        if (cached != null) {
-            return new SitemapResult(cached.body, cached.etag, lastModifiedMs);
-        }
-        byte[] xml = buildUrlsetXml(snapshot, baseUrl, chunkSize, pageCount, actualPage);
-        CachedPayload built = new CachedPayload(xml, computeEtag(xml));
-        payloadCache.put(key, built);
-        return new SitemapResult(built.body, built.etag, lastModifiedMs);
+        CachedPayload payload = payloadCache.get(key,
+                k -> toPayload(buildUrlsetXml(snapshot, baseUrl, chunkSize, pageCount, actualPage)));
+        return new SitemapResult(payload.body, payload.gzip, payload.etag, lastModifiedMs);
     }
 
     public RobotsResult getRobotsTxt(HttpServletRequest request) {
         String baseUrl = resolveBaseUrl(request);
         String key = "robots|" + baseUrl;
-        CachedPayload cached = payloadCache.get(key);
+        CachedPayload cached = payloadCache.getIfPresent(key);
         if (cached != null) {
             return new RobotsResult(cached.body, cached.etag);
         }
@@ -133,7 +185,7 @@ public class SitemapService {
         sb.append("Allow: /\n");
         sb.append("Sitemap: ").append(baseUrl).append("/sitemap.xml\n");
         byte[] body = sb.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
-        CachedPayload built = new CachedPayload(body, computeEtag(body));
+        CachedPayload built = new CachedPayload(body, null, computeEtag(body));
         payloadCache.put(key, built);
         return new RobotsResult(built.body, built.etag);
     }
@@ -146,59 +198,113 @@ public class SitemapService {
         recordSystemPageView(request, "robots.txt");
     }
 
-    @Scheduled(fixedDelayString = "${site.sitemap.refresh-delay-ms:600000}")
+    /**
+     * 全量对账兜底：覆盖绕过发件箱的直接改库等情况。
+     */
+    @Scheduled(fixedDelayString = "${site.sitemap.refresh-delay-ms:3600000}",
+            initialDelayString = "${site.sitemap.refresh-delay-ms:3600000}")
     public void scheduledRefresh() {
-        ensureSnapshotFresh(true);
+        markDirty();
+        ensureSnapshotFresh();
     }
 
     private SitemapSnapshot ensureSnapshotFresh() {
-        return ensureSnapshotFresh(false);
-    }
-
-    private SitemapSnapshot ensureSnapshotFresh(boolean force) {
-        long now = System.currentTimeMillis();
-        long currentRevision = revision.get();
         SitemapSnapshot current = snapshotRef.get();
-        boolean expired = current == null || (now - current.builtAtMs) > Math.max(1, cacheTtlMs);
-        boolean changed = current == null || current.revision != currentRevision;
-        if (!force && !expired && !changed) {
+        if (current != null && current.revision == revision.get()) {
             return current;
         }
 
         rebuildLock.lock();
         try {
+            // 先取修订号再消费变更集：并发标记要么已在本次处理，要么会使修订号再次变化触发下一次更新
             long latestRevision = revision.get();
             SitemapSnapshot again = snapshotRef.get();
-            boolean againExpired = again == null || (now - again.builtAtMs) > Math.max(1, cacheTtlMs);
-            boolean againChanged = again == null || again.revision != latestRevision;
-            if (!force && !againExpired && !againChanged) {
+            if (again != null && again.revision == latestRevision) {
                 return again;
             }
-            SitemapSnapshot rebuilt = rebuildSnapshot(latestRevision);
+            applyChanges();
+            SitemapSnapshot rebuilt = assembleSnapshot(latestRevision);
             snapshotRef.set(rebuilt);
-            payloadCache.clear();
+            payloadCache.invalidateAll();
             return rebuilt;
         } finally {
             rebuildLock.unlock();
         }
     }
 
-    private SitemapSnapshot rebuildSnapshot(long newRevision) {
-        List<SitemapItem> items = new ArrayList<>();
+    private void applyChanges() {
+        if (fullReloadRequested.getAndSet(false)) {
+            dirtyPostIds.clear();
+            gamesDirty.set(false);
+            try {
+                List<PostRepository.SitemapPostRow> rows = postRepository.findPublishedForSitemap();
+                gameEntries = loadGames();
+                postEntries.clear();
+                rows.forEach(this::putPostEntry);
+            } catch (RuntimeException ex) {
+                fullReloadRequested.set(true);
+                throw ex;
+            }
+            return;
+        }
+        if (!dirtyPostIds.isEmpty()) {
+            List<Long> changed = new ArrayList<>(dirtyPostIds);
+            dirtyPostIds.removeAll(changed);
+            List<PostRepository.SitemapPostRow> rows;
+            try {
+                rows = postRepository.findPublishedForSitemapByIds(changed);
+            } catch (RuntimeException ex) {
+                dirtyPostIds.addAll(changed);
+                throw ex;
+            }
+            changed.forEach(postEntries::remove);
+            rows.forEach(this::putPostEntry);
+        }
+        if (gamesDirty.getAndSet(false)) {
+            try {
+                gameEntries = loadGames();
+            } catch (RuntimeException ex) {
+                gamesDirty.set(true);
+                throw ex;
+            }
+        }
+    }
+
+    private void putPostEntry(PostRepository.SitemapPostRow row) {
+        if (row == null || row.getId() == null) {
+            return;
+        }
+        postEntries.put(row.getId(), new PostEntry(row.getId(), row.getPublishedAt(),
+                maxDate(row.getPublishedAt(), row.getUpdatedAt())));
+    }
+
+    private List<GameEntry> loadGames() {
+        List<GameEntry> games = new ArrayList<>();
+        for (GamePageRepository.SitemapGamePageRow g : gamePageRepository.findActiveForSitemap()) {
+            if (g != null && g.getId() != null) {
+                games.add(new GameEntry(g.getId(), g.getUpdatedAt() != null ? toDate(g.getUpdatedAt()) : null));
+            }
+        }
+        return List.copyOf(games);
+    }
 
-        List<PostRepository.SitemapPostRow> posts = postRepository.findPublishedForSitemap();
-        List<GamePageRepository.SitemapGamePageRow> games = gamePageRepository.findActiveForSitemap();
+    /**
+     * 由内存中的文章/游戏页条目组装快照，不访问数据库；文章按发布时间倒序。
+     */
+    private SitemapSnapshot assembleSnapshot(long newRevision) {
+        List<PostEntry> posts = new ArrayList<>(postEntries.values());
+        posts.sort(POST_ORDER);
+        List<GameEntry> games = gameEntries;
 
         String latestPostMod = posts.stream()
-                .map(p -> maxDate(p.getPublishedAt(), p.getUpdatedAt()))
+                .map(PostEntry::lastmod)
                 .filter(StringUtils::hasText)
                 .max(String::compareTo)
                 .orElse(today());
 
         String latestGameMod = games.stream()
-                .map(GamePageRepository.SitemapGamePageRow::getUpdatedAt)
-                .filter(v -> v != null)
-                .map(this::toDate)
+                .map(GameEntry::lastmod)
+                .filter(StringUtils::hasText)
                 .max(String::compareTo)
                 .orElse(null);
 
@@ -207,31 +313,31 @@ public class SitemapService {
             globalLastMod = latestGameMod;
         }
 
+        List<SitemapItem> items = new ArrayList<>(4 + games.size() + posts.size());
         items.add(new SitemapItem("/", globalLastMod, "daily", "1.0"));
         items.add(new SitemapItem("/archive", globalLastMod, "weekly", "0.7"));
         items.add(new SitemapItem("/about", globalLastMod, "monthly", "0.3"));
         items.add(new SitemapItem("/tools", globalLastMod, "weekly", "0.6"));
 
-        for (GamePageRepository.SitemapGamePageRow g : games) {
-            if (g == null || g.getId() == null) {
-                continue;
-            }
-            String lastmod = g.getUpdatedAt() != null ? toDate(g.getUpdatedAt()) : globalLastMod;
-            items.add(new SitemapItem("/tools/" + g.getId(), lastmod, "monthly", "0.5"));
+        for (GameEntry g : games) {
+            String lastmod = StringUtils.hasText(g.lastmod()) ? g.lastmod() : globalLastMod;
+            items.add(new SitemapItem("/tools/" + g.id(), lastmod, "monthly", "0.5"));
         }
 
-        for (PostRepository.SitemapPostRow p : posts) {
-            if (p == null || p.getId() == null) {
-                continue;
-            }
-            String lastmod = maxDate(p.getPublishedAt(), p.getUpdatedAt());
-            if (!StringUtils.hasText(lastmod)) {
-                lastmod = globalLastMod;
-            }
-            items.add(new SitemapItem("/article/" + p.getId(), lastmod, "monthly", "0.8"));
+        for (PostEntry p : posts) {
+            String lastmod = StringUtils.hasText(p.lastmod()) ? p.lastmod() : globalLastMod;
+            items.add(new SitemapItem("/article/" + p.id(), lastmod, "monthly", "0.8"));
         }
 
-        return new SitemapSnapshot(newRevision, System.currentTimeMillis(), globalLastMod, items);
+        return new SitemapSnapshot(newRevision, System.currentTimeMillis(), globalLastMod, List.copyOf(items));
+    }
+
+    private CachedPayload toPayload(byte[] xml) {
+        byte[] gzip = xml.length >= minGzipBytes ? ContentEncodingUtils.gzip(xml) : null;
+        if (gzip != null && gzip.length >= xml.length) {
+            gzip = null;
+        }
+        return new CachedPayload(xml, gzip, computeEtag(xml));
     }
 
     private byte[] buildUrlsetXml(SitemapSnapshot snapshot, String baseUrl, int chunkSize, int pageCount, int page) {
@@ -461,10 +567,23 @@ public class SitemapService {
     private record SitemapItem(String path, String lastmod, String changefreq, String priority) {
     }
 
-    private record CachedPayload(byte[] body, String etag) {
+    private record PostEntry(Long id, LocalDateTime publishedAt, String lastmod) {
     }
 
-    public record SitemapResult(byte[] body, String etag, long lastModifiedMs) {
+    private record GameEntry(Long id, String lastmod) {
+    }
+
+    private record CachedPayload(byte[] body, byte[] gzip, String etag) {
+
+        int weight() {
+            return 128 + body.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    /**
+     * gzip 为预压缩字节；内容过小或压缩无收益时为 null，调用方回退到原文。
+     */
+    public record SitemapResult(byte[] body, byte[] gzip, String etag, long lastModifiedMs) {
     }
 
     public record RobotsResult(byte[] body, String etag) {
@@ -0,0 +1,141 @@
+package com.sangui.sanguiblog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 按键分组的 SSE 连接登记表，供通知推送与实时访问推送共用：
+ * - 每个键（用户 id、固定频道名等）可挂多个连接，超过单键上限时淘汰最早的连接，超过总上限时拒绝新连接；
+ * - 登记与清理都在 ConcurrentHashMap.compute/computeIfPresent 内完成，清理不会误删刚被并发登记的连接；
+ * - 发送失败、完成、超时、出错的连接统一移除；键下最后一个连接移除时回调 onKeyEmpty（同样在 compute 内执行）；
+ * - 心跳由持有方的定时任务调用 {@link #heartbeat()}。
+ */
+public final class SseEmitterRegistry<K> {
+
+    private static final Logger log = LoggerFactory.getLogger(SseEmitterRegistry.class);
+
+    private final String label;
+    private final Consumer<K> onKeyEmpty;
+    private final Map<K, List<SseEmitter>> emittersByKey = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    public SseEmitterRegistry(String label) {
+        this(label, key -> {
+        });
+    }
+
+    public SseEmitterRegistry(String label, Consumer<K> onKeyEmpty) {
+        this.label = label;
+        this.onKeyEmpty = onKeyEmpty;
+    }
+
+    /**
+     * 登记新连接；总连接数已达 maxTotal 或 timeoutMs 不为正时返回 null。
+     * onRegistered 在登记的同一个 compute 内执行，用于初始化与该键绑定的状态（如未读数）。
+     */
+    public SseEmitter register(K key, long timeoutMs, int maxTotal, int maxPerKey, Runnable onRegistered) {
+        if (key == null || timeoutMs <= 0 || connectionCount.get() >= Math.max(1, maxTotal)) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        List<SseEmitter> evicted = new ArrayList<>();
+        emittersByKey.compute(key, (k, emitters) -> {
+            List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            while (list.size() >= Math.max(1, maxPerKey)) {
+                // 同一键连接过多时淘汰最早的连接（通常是已关闭但尚未感知的标签页）
+                evicted.add(list.remove(0));
+                connectionCount.decrementAndGet();
+            }
+            list.add(emitter);
+            connectionCount.incrementAndGet();
+            if (onRegistered != null) {
+                onRegistered.run();
+            }
+            return list;
+        });
+        evicted.forEach(SseEmitter::complete);
+        Runnable cleanup = () -> remove(key, emitter);
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(e -> cleanup.run());
+        return emitter;
+    }
+
+    public boolean hasConnections(K key) {
+        List<SseEmitter> emitters = emittersByKey.get(key);
+        return emitters != null && !emitters.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return connectionCount.get() == 0;
+    }
+
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    public void send(K key, SseEmitter emitter, String event, Object payload) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(payload));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("{}推送连接已断开: key={} - {}", label, key, e.getMessage());
+            remove(key, emitter);
+        }
+    }
+
+    public void broadcast(K key, String event, Object payload) {
+        List<SseEmitter> emitters = emittersByKey.get(key);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(key, emitter, event, payload);
+        }
+    }
+
+    public void broadcastAll(String event, Object payload) {
+        emittersByKey.forEach((key, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                send(key, emitter, event, payload);
+            }
+        });
+    }
+
+    /**
+     * 发送注释行心跳，保持代理连接不被回收，同时及时清理已断开的连接。
+     */
+    public void heartbeat() {
+        emittersByKey.forEach((key, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(key, emitter);
+                }
+            }
+        });
+    }
+
+    private void remove(K key, SseEmitter emitter) {
+        emittersByKey.computeIfPresent(key, (k, emitters) -> {
+            if (emitters.remove(emitter)) {
+                connectionCount.decrementAndGet();
+            }
+            if (emitters.isEmpty()) {
+                onKeyEmpty.accept(k);
+                return null;
+            }
+            return emitters;
+        });
+    }
+}
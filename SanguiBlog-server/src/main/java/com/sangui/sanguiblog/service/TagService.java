@@ -26,11 +26,11 @@ import java.util.UUID;
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final ContentRevisionService contentRevisionService;
+    private final TaxonomySnapshotService taxonomySnapshotService;
 
     public List<TagDto> list() {
-        return tagRepository.findAll().stream()
-                .map(this::toDto)
-                .toList();
+        return taxonomySnapshotService.tags();
     }
 
     public PageResponse<TagDto> search(String keyword, int page, int size) {
@@ -68,7 +68,9 @@ public class TagService {
         Instant now = Instant.now();
         tag.setCreatedAt(now);
         tag.setUpdatedAt(now);
-        return toDto(tagRepository.save(tag));
+        Tag saved = tagRepository.save(tag);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.TAXONOMY);
+        return toDto(saved);
     }
 
     @Transactional
@@ -90,13 +92,16 @@ public class TagService {
         tag.setSlug(slug);
         tag.setDescription(StringUtils.hasText(request.getDescription()) ? request.getDescription().trim() : null);
         tag.setUpdatedAt(Instant.now());
-        return toDto(tagRepository.save(tag));
+        Tag saved = tagRepository.save(tag);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.TAXONOMY);
+        return toDto(saved);
     }
 
     @Transactional
     public void delete(Long id) {
         Tag tag = tagRepository.findById(id).orElseThrow(() -> new NotFoundException("标签不存在"));
         tagRepository.delete(tag);
+        contentRevisionService.bumpAfterCommit(ContentRevisionService.Scope.TAXONOMY);
     }
 
     private TagDto toDto(Tag tag) {
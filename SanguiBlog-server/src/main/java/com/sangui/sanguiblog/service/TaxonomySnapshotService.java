@@ -0,0 +1,208 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.CategoryTreeDto;
+import com.sangui.sanguiblog.model.dto.TagDto;
+import com.sangui.sanguiblog.model.entity.Category;
+import com.sangui.sanguiblog.model.entity.Tag;
+import com.sangui.sanguiblog.model.repository.CategoryRepository;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import com.sangui.sanguiblog.model.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分类树 + 标签 + 已发布文章计数的只读快照。
+ *
+ * 说明：
+ * - 快照由“分类全表 + 标签全表 + 一条 UNION 聚合计数”构建，构建后不可变，读端直接返回，无需访问数据库；
+ * - 失效依据 {@link ContentRevisionService.Scope#TAXONOMY} 修订号：分类/标签/文章写操作在提交后 bump，
+ *   快照发现修订号变化时重建，与接口 ETag 使用同一来源，不会出现“新 ETag + 旧快照”；
+ * - 构建期间若修订号再次变化，下次读取会再重建一次，保证最终一致；
+ * - CategoryTreeDto/TagDto 是可变的 @Data 对象，快照内部那份从不外泄，读取时逐个复制返回，调用方改动不会污染缓存。
+ */
+@Service
+@RequiredArgsConstructor
+public class TaxonomySnapshotService {
+
+    private static final String PUBLISHED = "PUBLISHED";
+    private static final Comparator<Category> CATEGORY_ORDER = Comparator
+            .comparing(Category::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Category::getId);
+
+    private final CategoryRepository categoryRepository;
+    private final TagRepository tagRepository;
+    private final PostRepository postRepository;
+    private final ContentRevisionService contentRevisionService;
+
+    private final AtomicReference<TaxonomySnapshot> snapshotRef = new AtomicReference<>();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public record TaxonomySnapshot(
+            long revision,
+            List<CategoryTreeDto> categoryTree,
+            List<TagDto> tags,
+            Map<Long, Long> categoryPostCounts,
+            Map<Long, Long> tagPostCounts,
+            long categoryCount,
+            long usedTagCount) {
+
+        /**
+         * 分类树的深拷贝（每次调用都是新对象）。
+         */
+        @Override
+        public List<CategoryTreeDto> categoryTree() {
+            return copyTree(categoryTree);
+        }
+
+        /**
+         * 标签列表的拷贝（每次调用都是新对象）。
+         */
+        @Override
+        public List<TagDto> tags() {
+            List<TagDto> copies = new ArrayList<>(tags.size());
+            for (TagDto tag : tags) {
+                copies.add(TagDto.builder()
+                        .id(tag.getId())
+                        .name(tag.getName())
+                        .slug(tag.getSlug())
+                        .description(tag.getDescription())
+                        .createdAt(tag.getCreatedAt())
+                        .updatedAt(tag.getUpdatedAt())
+                        .postCount(tag.getPostCount())
+                        .build());
+            }
+            return copies;
+        }
+
+        private static List<CategoryTreeDto> copyTree(List<CategoryTreeDto> nodes) {
+            if (nodes == null) {
+                return null;
+            }
+            List<CategoryTreeDto> copies = new ArrayList<>(nodes.size());
+            for (CategoryTreeDto node : nodes) {
+                copies.add(CategoryTreeDto.builder()
+                        .id(node.getId())
+                        .label(node.getLabel())
+                        .parentId(node.getParentId())
+                        .children(copyTree(node.getChildren()))
+                        .postCount(node.getPostCount())
+                        .build());
+            }
+            return copies;
+        }
+    }
+
+    public TaxonomySnapshot current() {
+        long revision = contentRevisionService.revision(ContentRevisionService.Scope.TAXONOMY);
+        TaxonomySnapshot snapshot = snapshotRef.get();
+        if (snapshot != null && snapshot.revision() == revision) {
+            return snapshot;
+        }
+        rebuildLock.lock();
+        try {
+            long latest = contentRevisionService.revision(ContentRevisionService.Scope.TAXONOMY);
+            TaxonomySnapshot again = snapshotRef.get();
+            if (again != null && again.revision() == latest) {
+                return again;
+            }
+            TaxonomySnapshot rebuilt = build(latest);
+            snapshotRef.set(rebuilt);
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public List<CategoryTreeDto> categoryTree() {
+        return current().categoryTree();
+    }
+
+    public List<TagDto> tags() {
+        return current().tags();
+    }
+
+    TaxonomySnapshot build(long revision) {
+        List<Category> categories = categoryRepository.findAll();
+        List<Tag> tags = tagRepository.findAll();
+
+        Map<Long, Long> directCategoryCounts = new HashMap<>();
+        Map<Long, Long> tagCounts = new HashMap<>();
+        for (PostRepository.TaxonomyCountRow row : postRepository.countByTaxonomyAndStatus(PUBLISHED)) {
+            if (row == null || row.getRefId() == null) {
+                continue;
+            }
+            long count = row.getPostCount() != null ? row.getPostCount() : 0L;
+            if ("T".equals(row.getKind())) {
+                tagCounts.put(row.getRefId(), count);
+            } else {
+                directCategoryCounts.put(row.getRefId(), count);
+            }
+        }
+
+        Map<Long, List<Category>> childrenByParent = new HashMap<>();
+        List<Category> roots = new ArrayList<>();
+        for (Category category : categories) {
+            Long parentId = category.getParent() != null ? category.getParent().getId() : null;
+            if (parentId == null) {
+                roots.add(category);
+            } else {
+                childrenByParent.computeIfAbsent(parentId, k -> new ArrayList<>()).add(category);
+            }
+        }
+        roots.sort(CATEGORY_ORDER);
+        childrenByParent.values().forEach(list -> list.sort(CATEGORY_ORDER));
+
+        // 文章列表按分类筛选时会包含子分类，因此父分类计数 = 自身 + 子分类
+        Map<Long, Long> categoryCounts = new LinkedHashMap<>();
+        List<CategoryTreeDto> tree = roots.stream()
+                .map(root -> toTreeDto(root, childrenByParent, directCategoryCounts, categoryCounts))
+                .toList();
+
+        List<TagDto> tagDtos = tags.stream()
+                .sorted(Comparator.comparing(Tag::getId))
+                .map(tag -> TagDto.builder()
+                        .id(tag.getId())
+                        .name(tag.getName())
+                        .slug(tag.getSlug())
+                        .description(tag.getDescription())
+                        .createdAt(tag.getCreatedAt())
+                        .updatedAt(tag.getUpdatedAt())
+                        .postCount(tagCounts.getOrDefault(tag.getId(), 0L))
+                        .build())
+                .toList();
+        long usedTagCount = tagCounts.values().stream().filter(c -> c > 0).count();
+
+        return new TaxonomySnapshot(revision, tree, tagDtos,
+                Collections.unmodifiableMap(categoryCounts), Map.copyOf(tagCounts),
+                categories.size(), usedTagCount);
+    }
+
+    private CategoryTreeDto toTreeDto(Category category, Map<Long, List<Category>> childrenByParent,
+            Map<Long, Long> directCounts, Map<Long, Long> totals) {
+        List<CategoryTreeDto> children = childrenByParent.getOrDefault(category.getId(), List.of()).stream()
+                .map(child -> toTreeDto(child, childrenByParent, directCounts, totals))
+                .toList();
+        long total = directCounts.getOrDefault(category.getId(), 0L);
+        for (CategoryTreeDto child : children) {
+            total += child.getPostCount() != null ? child.getPostCount() : 0L;
+        }
+        totals.put(category.getId(), total);
+        return CategoryTreeDto.builder()
+                .id(category.getId())
+                .label(category.getName())
+                .parentId(category.getParent() != null ? category.getParent().getId() : null)
+                .children(children)
+                .postCount(total)
+                .build();
+    }
+}
@@ -23,7 +23,6 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.HexFormat;
-import java.util.Locale;
 import java.util.Map;
 
 @Service
@@ -251,7 +250,7 @@ public class AiGuestAccessService {
     private boolean isGuardVerified(HttpServletRequest request, String ip) {
         String token = readCookie(request.getCookies(), botGuardProperties.getGuardCookieName());
         String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
-        return botGuardCaptchaService.isVerified(token, userAgent, toCSegment(ip));
+        return botGuardCaptchaService.isVerified(token, userAgent, IpUtils.segment(ip));
     }
 
     private String resolveVisitorId(HttpServletRequest request, HttpServletResponse response) {
@@ -290,26 +289,6 @@ public class AiGuestAccessService {
         return null;
     }
 
-    private String toCSegment(String ip) {
-        if (!StringUtils.hasText(ip)) {
-            return "0.0.0";
-        }
-        String normalized = IpUtils.normalizeIp(ip);
-        if (normalized.contains(".")) {
-            String[] parts = normalized.split("\\.");
-            if (parts.length >= 3) {
-                return parts[0] + "." + parts[1] + "." + parts[2];
-            }
-            return normalized;
-        }
-        String lower = normalized.toLowerCase(Locale.ROOT);
-        String[] parts = lower.split(":");
-        if (parts.length >= 4) {
-            return parts[0] + ":" + parts[1] + ":" + parts[2] + ":" + parts[3];
-        }
-        return lower;
-    }
-
     public record AccessContext(Long userId, boolean guest, String ip, String visitorId, boolean guardVerified) {
         public static AccessContext authenticated(Long userId, String ip) {
             return new AccessContext(userId, false, ip, null, false);
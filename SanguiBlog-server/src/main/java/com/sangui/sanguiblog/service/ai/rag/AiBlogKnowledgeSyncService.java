@@ -69,48 +69,61 @@ public class AiBlogKnowledgeSyncService {
         log.info("博客 RAG 启动同步完成，已扫描 {} 篇已发布文章", publishedPosts.size());
     }
 
+    /**
+     * 同步单篇文章的知识向量。返回 false 表示向量库操作失败：FAILED 状态随本事务正常提交，
+     * 由调用方（发件箱处理器）转成异常进入退避重试；未启用 RAG 或无需变更时返回 true。
+     */
     @Transactional
-    public void syncPostKnowledge(Long postId) {
+    public boolean syncPostKnowledge(Long postId) {
         if (!isOperational() || postId == null) {
-            return;
+            return true;
         }
 
         Optional<Post> post = postRepository.findKnowledgeSourceById(postId);
         if (post.isEmpty() || !isPublished(post.get())) {
-            removePostKnowledge(postId);
-            return;
+            return removePostKnowledge(postId);
         }
 
-        syncPublishedPost(post.get());
-        syncOverviewDocument(postRepository.findAllPublishedForKnowledge());
+        boolean synced = syncPublishedPost(post.get());
+        boolean overviewSynced = syncOverviewDocument(postRepository.findAllPublishedForKnowledge());
+        return synced && overviewSynced;
     }
 
+    /**
+     * 删除单篇文章的知识向量，返回值含义同 {@link #syncPostKnowledge(Long)}。
+     */
     @Transactional
-    public void removePostKnowledge(Long postId) {
+    public boolean removePostKnowledge(Long postId) {
         if (!isOperational() || postId == null) {
-            return;
+            return true;
         }
 
-        removeTrackedPostKnowledge(postId);
-        syncOverviewDocument(postRepository.findAllPublishedForKnowledge());
+        boolean removed = removeTrackedPostKnowledge(postId);
+        boolean overviewSynced = syncOverviewDocument(postRepository.findAllPublishedForKnowledge());
+        return removed && overviewSynced;
     }
 
-    private void removeTrackedPostKnowledge(Long postId) {
-        knowledgeDocumentRepository.findByPostId(postId).ifPresent(document -> {
-            try {
-                deleteVectorDocuments(document.getId());
-                knowledgeChunkRepository.deleteByDocumentId(document.getId());
-                knowledgeChunkRepository.flush();
-                knowledgeDocumentRepository.delete(document);
-                knowledgeDocumentRepository.flush();
-            } catch (Exception ex) {
-                markFailed(document, ex);
-                log.error("删除博客知识向量失败，postId={}", postId, ex);
-            }
-        });
+    private boolean removeTrackedPostKnowledge(Long postId) {
+        Optional<AiBlogKnowledgeDocument> tracked = knowledgeDocumentRepository.findByPostId(postId);
+        if (tracked.isEmpty()) {
+            return true;
+        }
+        AiBlogKnowledgeDocument document = tracked.get();
+        try {
+            deleteVectorDocuments(document.getId());
+            knowledgeChunkRepository.deleteByDocumentId(document.getId());
+            knowledgeChunkRepository.flush();
+            knowledgeDocumentRepository.delete(document);
+            knowledgeDocumentRepository.flush();
+            return true;
+        } catch (Exception ex) {
+            markFailed(document, ex);
+            log.error("删除博客知识向量失败，postId={}", postId, ex);
+            return false;
+        }
     }
 
-    private void syncPublishedPost(Post post) {
+    private boolean syncPublishedPost(Post post) {
         Instant now = Instant.now();
         String contentHash = AiBlogKnowledgeSupport.buildContentHash(post);
         AiBlogKnowledgeDocument document = knowledgeDocumentRepository.findByPostId(post.getId())
@@ -122,7 +135,7 @@ public class AiBlogKnowledgeSyncService {
                 });
 
         if (contentHash.equals(document.getContentHash()) && STATUS_READY.equals(document.getSyncStatus())) {
-            return;
+            return true;
         }
 
         document.setTitle(post.getTitle());
@@ -150,9 +163,11 @@ public class AiBlogKnowledgeSyncService {
             document.setLastSyncedAt(now);
             document.setUpdatedAt(now);
             knowledgeDocumentRepository.save(document);
+            return true;
         } catch (Exception ex) {
             markFailed(document, ex);
             log.error("同步博客知识向量失败，postId={}, title={}", post.getId(), post.getTitle(), ex);
+            return false;
         }
     }
 
@@ -198,21 +213,23 @@ public class AiBlogKnowledgeSyncService {
         }
     }
 
-    private void syncOverviewDocument(List<Post> posts) {
+    private boolean syncOverviewDocument(List<Post> posts) {
         try {
             deleteOverviewDocuments();
             if (posts == null || posts.isEmpty()) {
-                return;
+                return true;
             }
 
             List<Document> overviewDocuments = AiBlogKnowledgeSupport.buildOverviewDocuments(posts, tokenTextSplitter);
             if (overviewDocuments.isEmpty()) {
-                return;
+                return true;
             }
 
             vectorStore().add(overviewDocuments);
+            return true;
         } catch (Exception ex) {
             log.error("同步博客知识总览文档失败", ex);
+            return false;
         }
     }
 
@@ -0,0 +1,26 @@
+package com.sangui.sanguiblog.service.outbox;
+
+import com.sangui.sanguiblog.model.entity.OutboxEvent;
+import com.sangui.sanguiblog.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 新评论提交后生成站内通知（含 SSE 推送），不再占用评论请求的事务。
+ */
+@Component
+@RequiredArgsConstructor
+public class CommentNotificationOutboxHandler implements OutboxHandler {
+
+    private final NotificationService notificationService;
+
+    @Override
+    public String eventType() {
+        return OutboxService.COMMENT_NOTIFICATION;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        notificationService.createForCommentId(Long.valueOf(event.getPayload()));
+    }
+}
@@ -0,0 +1,213 @@
+package com.sangui.sanguiblog.service.outbox;
+
+import com.sangui.sanguiblog.model.dto.OutboxStatsDto;
+import com.sangui.sanguiblog.model.entity.OutboxEvent;
+import com.sangui.sanguiblog.model.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 发件箱投递：按 id 顺序批量取出到期事件，同一合并键只处理批内最新一条，其余直接删除；
+ * 处理成功删除整组，失败按指数退避重试，超过最大次数后留在表中（死信）供排查。
+ *
+ * 说明：
+ * - 由提交后唤醒 + 定时轮询兜底（覆盖重启、退避到期）两种方式触发，均在专用单线程上执行；
+ * - 只删除本批读到的行：批处理期间新提交的同键事件会在下一批再处理一次，不会被误合并掉；
+ * - 同键更早的事件若不在本批（仍在退避或已成死信），同样被本批最新事件取代并删除，
+ *   避免旧的 SYNC 在新的 REMOVE 之后才到期执行。
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Executor dispatchExecutor;
+    private final Map<String, OutboxHandler> handlers = new HashMap<>();
+
+    @Value("${site.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${site.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun = 20;
+
+    @Value("${site.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${site.outbox.base-backoff-ms:5000}")
+    private long baseBackoffMs = 5000L;
+
+    @Value("${site.outbox.max-backoff-ms:600000}")
+    private long maxBackoffMs = 600_000L;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicReference<Instant> lastDispatchAt = new AtomicReference<>();
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+            @Qualifier("outboxDispatchExecutor") Executor dispatchExecutor,
+            List<OutboxHandler> handlers) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.dispatchExecutor = dispatchExecutor;
+        for (OutboxHandler handler : handlers) {
+            OutboxHandler previous = this.handlers.put(handler.eventType(), handler);
+            if (previous != null) {
+                throw new IllegalStateException("发件箱事件类型重复注册: " + handler.eventType());
+            }
+        }
+    }
+
+    /**
+     * 事务提交后调用：把一次投递循环交给专用线程；线程忙时丢弃（正在运行的循环会继续取到新事件）。
+     */
+    public void wakeUp() {
+        try {
+            dispatchExecutor.execute(this::drain);
+        } catch (RuntimeException ex) {
+            log.debug("发件箱唤醒被拒绝，等待定时轮询: {}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${site.outbox.poll-delay-ms:10000}",
+            initialDelayString = "${site.outbox.initial-delay-ms:15000}")
+    public void scheduledDrain() {
+        wakeUp();
+    }
+
+    /**
+     * 连续处理若干批，直到没有到期事件或达到单次上限；同一时刻只有一个循环在跑。
+     */
+    public void drain() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < Math.max(1, maxBatchesPerRun); i++) {
+                if (dispatchBatch() < Math.max(1, batchSize)) {
+                    break;
+                }
+            }
+        } catch (Exception ex) {
+            log.warn("发件箱投递循环异常（已忽略，下次重试）", ex);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 处理一批到期事件，返回本批读取的行数。
+     */
+    int dispatchBatch() {
+        List<OutboxEvent> due = outboxEventRepository.findDue(LocalDateTime.now(), maxAttempts,
+                PageRequest.of(0, Math.max(1, batchSize)));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        batches.incrementAndGet();
+        Map<String, List<OutboxEvent>> byKey = new LinkedHashMap<>();
+        for (OutboxEvent event : due) {
+            byKey.computeIfAbsent(event.getAggregateKey(), k -> new ArrayList<>()).add(event);
+        }
+        coalesced.addAndGet(due.size() - byKey.size());
+
+        List<Long> done = new ArrayList<>(due.size());
+        for (List<OutboxEvent> group : byKey.values()) {
+            // findDue 按 id 升序，组内最后一条即最新事件
+            OutboxEvent latest = group.get(group.size() - 1);
+            long superseded = outboxEventRepository.deleteSupersededBefore(latest.getAggregateKey(),
+                    group.get(0).getId());
+            if (superseded > 0) {
+                coalesced.addAndGet(superseded);
+            }
+            try {
+                OutboxHandler handler = handlers.get(latest.getEventType());
+                if (handler == null) {
+                    throw new IllegalStateException("未注册的发件箱事件类型: " + latest.getEventType());
+                }
+                handler.handle(latest);
+                group.forEach(event -> done.add(event.getId()));
+                dispatched.incrementAndGet();
+            } catch (Exception ex) {
+                for (int i = 0; i < group.size() - 1; i++) {
+                    done.add(group.get(i).getId());
+                }
+                fail(latest, ex);
+            }
+        }
+        if (!done.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(done);
+        }
+        lastDispatchAt.set(Instant.now());
+        return due.size();
+    }
+
+    private void fail(OutboxEvent event, Exception ex) {
+        failedAttempts.incrementAndGet();
+        int attempts = (event.getAttempts() != null ? event.getAttempts() : 0) + 1;
+        String error = ex.getClass().getSimpleName() + ": " + (ex.getMessage() != null ? ex.getMessage() : "");
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        lastError.set(error);
+        LocalDateTime next = LocalDateTime.now().plusNanos(backoffMs(attempts) * 1_000_000L);
+        outboxEventRepository.markFailed(event.getId(), next, error);
+        if (attempts >= maxAttempts) {
+            log.error("发件箱事件处理失败次数已达上限，转为死信: id={}, type={}, key={}, error={}",
+                    event.getId(), event.getEventType(), event.getAggregateKey(), error);
+        } else {
+            log.warn("发件箱事件处理失败，将在退避后重试: id={}, type={}, key={}, attempts={}, error={}",
+                    event.getId(), event.getEventType(), event.getAggregateKey(), attempts, error);
+        }
+    }
+
+    long backoffMs(int attempts) {
+        long base = Math.max(1L, baseBackoffMs);
+        int shift = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(base << shift, Math.max(base, maxBackoffMs));
+    }
+
+    void recordEnqueued() {
+        enqueued.incrementAndGet();
+    }
+
+    public OutboxStatsDto stats() {
+        Instant last = lastDispatchAt.get();
+        return OutboxStatsDto.builder()
+                .pending(outboxEventRepository.countByAttemptsLessThan(maxAttempts))
+                .deadLettered(outboxEventRepository.countByAttemptsGreaterThanEqual(maxAttempts))
+                .enqueued(enqueued.get())
+                .dispatched(dispatched.get())
+                .coalesced(coalesced.get())
+                .failedAttempts(failedAttempts.get())
+                .batches(batches.get())
+                .lastDispatchAt(last != null ? TIME_FMT.format(last.atZone(ZoneId.systemDefault())) : null)
+                .lastError(lastError.get())
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.sangui.sanguiblog.service.outbox;
+
+import com.sangui.sanguiblog.model.entity.OutboxEvent;
+
+/**
+ * 发件箱事件处理器：按 {@link #eventType()} 注册到 {@link OutboxDispatcher}。
+ * 实现需幂等——同一事件可能因重试被处理多次，同一合并键的多条事件只会处理最新一条。
+ * 抛出异常即视为失败，按退避策略重试。
+ */
+public interface OutboxHandler {
+
+    String eventType();
+
+    void handle(OutboxEvent event);
+}
@@ -0,0 +1,79 @@
+package com.sangui.sanguiblog.service.outbox;
+
+import com.sangui.sanguiblog.model.entity.OutboxEvent;
+import com.sangui.sanguiblog.model.repository.OutboxEventRepository;
+import com.sangui.sanguiblog.util.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 事务性发件箱写入端：提交后的副作用（站点地图失效、RAG 同步、评论通知等）在业务事务内写一行 outbox_events，
+ * 与业务数据同生共死；请求线程只多付出一次 insert，真正的处理由 {@link OutboxDispatcher} 在提交后异步完成，
+ * 进程崩溃或处理失败时事件仍留在表中，重启/退避后继续投递。
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    public static final String SITEMAP_DIRTY = "SITEMAP_DIRTY";
+    public static final String POST_KNOWLEDGE = "POST_KNOWLEDGE";
+    public static final String COMMENT_NOTIFICATION = "COMMENT_NOTIFICATION";
+
+    public static final String PAYLOAD_SYNC = "SYNC";
+    public static final String PAYLOAD_REMOVE = "REMOVE";
+    public static final String SITEMAP_POST_PREFIX = "POST:";
+    public static final String SITEMAP_GAMES = "GAMES";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDispatcher outboxDispatcher;
+
+    /**
+     * 站点地图按文章增量更新：同一篇文章的多次变更合并为一次按 id 重查。
+     */
+    public void enqueueSitemapPostChanged(Long postId) {
+        if (postId != null) {
+            enqueue(SITEMAP_DIRTY, "sitemap:post:" + postId, SITEMAP_POST_PREFIX + postId);
+        }
+    }
+
+    public void enqueueSitemapGamesChanged() {
+        enqueue(SITEMAP_DIRTY, "sitemap:games", SITEMAP_GAMES);
+    }
+
+    public void enqueuePostKnowledgeSync(Long postId) {
+        if (postId != null) {
+            enqueue(POST_KNOWLEDGE, "post:" + postId, PAYLOAD_SYNC);
+        }
+    }
+
+    public void enqueuePostKnowledgeRemove(Long postId) {
+        if (postId != null) {
+            enqueue(POST_KNOWLEDGE, "post:" + postId, PAYLOAD_REMOVE);
+        }
+    }
+
+    public void enqueueCommentNotification(Long commentId) {
+        if (commentId != null) {
+            enqueue(COMMENT_NOTIFICATION, "comment:" + commentId, String.valueOf(commentId));
+        }
+    }
+
+    /**
+     * save 加入调用方事务（没有事务时独立提交）；提交后唤醒投递线程，不必等下一轮轮询。
+     */
+    public void enqueue(String eventType, String aggregateKey, String payload) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateKey(aggregateKey);
+        event.setPayload(payload);
+        event.setAttempts(0);
+        event.setNextAttemptAt(now);
+        event.setCreatedAt(now);
+        outboxEventRepository.save(event);
+        outboxDispatcher.recordEnqueued();
+        AfterCommit.run(outboxDispatcher::wakeUp);
+    }
+}
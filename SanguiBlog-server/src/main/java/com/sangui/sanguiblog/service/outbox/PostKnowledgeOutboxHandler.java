@@ -0,0 +1,44 @@
+package com.sangui.sanguiblog.service.outbox;
+
+import com.sangui.sanguiblog.model.entity.OutboxEvent;
+import com.sangui.sanguiblog.service.RelatedPostIndexService;
+import com.sangui.sanguiblog.service.ai.rag.AiBlogKnowledgeSyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文章保存/删除后的派生数据同步：标记相关文章索引待刷新，并同步 RAG 知识库。
+ * 同一篇文章的多次变更按 "post:{id}" 合并，只执行最新的一次同步或删除；向量库失败时抛出，交给发件箱重试。
+ */
+@Component
+@RequiredArgsConstructor
+public class PostKnowledgeOutboxHandler implements OutboxHandler {
+
+    private static final String KEY_PREFIX = "post:";
+
+    private final RelatedPostIndexService relatedPostIndexService;
+    private final AiBlogKnowledgeSyncService aiBlogKnowledgeSyncService;
+
+    @Override
+    public String eventType() {
+        return OutboxService.POST_KNOWLEDGE;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        String key = event.getAggregateKey();
+        if (key == null || !key.startsWith(KEY_PREFIX)) {
+            throw new IllegalArgumentException("无效的文章事件键: " + key);
+        }
+        Long postId = Long.valueOf(key.substring(KEY_PREFIX.length()));
+        relatedPostIndexService.markDirty(postId);
+        boolean remove = OutboxService.PAYLOAD_REMOVE.equals(event.getPayload());
+        boolean succeeded = remove
+                ? aiBlogKnowledgeSyncService.removePostKnowledge(postId)
+                : aiBlogKnowledgeSyncService.syncPostKnowledge(postId);
+        if (!succeeded) {
+            // 同步服务已记录 FAILED 状态并提交，这里抛出让发件箱按退避重试，超过上限转为死信
+            throw new IllegalStateException("RAG 知识库" + (remove ? "删除" : "同步") + "失败: " + key);
+        }
+    }
+}
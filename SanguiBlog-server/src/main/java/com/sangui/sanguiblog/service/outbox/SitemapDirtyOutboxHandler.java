@@ -0,0 +1,33 @@
+package com.sangui.sanguiblog.service.outbox;
+
+import com.sangui.sanguiblog.model.entity.OutboxEvent;
+import com.sangui.sanguiblog.service.SitemapService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文章/游戏页变更后标记站点地图待增量更新：文章按 id 重查，游戏页整体重载；无法识别的载荷退化为全量重建。
+ */
+@Component
+@RequiredArgsConstructor
+public class SitemapDirtyOutboxHandler implements OutboxHandler {
+
+    private final SitemapService sitemapService;
+
+    @Override
+    public String eventType() {
+        return OutboxService.SITEMAP_DIRTY;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        String payload = event.getPayload();
+        if (payload != null && payload.startsWith(OutboxService.SITEMAP_POST_PREFIX)) {
+            sitemapService.markPostDirty(Long.valueOf(payload.substring(OutboxService.SITEMAP_POST_PREFIX.length())));
+        } else if (OutboxService.SITEMAP_GAMES.equals(payload)) {
+            sitemapService.markGamesDirty();
+        } else {
+            sitemapService.markDirty();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.sangui.sanguiblog.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务提交后回调的统一入口，替代各处手写的 {@link TransactionSynchronization} 注册。
+ *
+ * 说明：
+ * - {@link #run(Runnable)}：处于事务中时延迟到提交后执行（回滚则不执行），否则立即执行；
+ *   用于修订号 bump、推送、唤醒等“只应在数据可见后发生”的动作；
+ * - {@link #runNowAndAfterCommit(Runnable)}：立即执行一次、提交后再执行一次；
+ *   用于缓存失效，覆盖“提交前并发读把旧数据重新放回缓存”的窗口。
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            register(action);
+            return;
+        }
+        action.run();
+    }
+
+    public static void runNowAndAfterCommit(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            register(action);
+        }
+    }
+
+    private static void register(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package com.sangui.sanguiblog.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 预编译的 CIDR 集合：构建时把每条网段展开为 128 位的网络值与掩码（IPv4 视为低 32 位），
+ * 判断时只做按位与比较，不分配对象。适用于受信代理、私有/保护网段这类条目很少的常量集合；
+ * 大量规则的最长前缀匹配另见 IP 封禁前缀树。
+ */
+public final class CidrSet {
+
+    public static final CidrSet EMPTY = new CidrSet(List.of());
+
+    private final IpCidr[] entries;
+    private final boolean[] ipv4;
+    private final long[] networkHigh;
+    private final long[] networkLow;
+    private final long[] maskHigh;
+    private final long[] maskLow;
+
+    private CidrSet(List<IpCidr> cidrs) {
+        int n = cidrs.size();
+        this.entries = cidrs.toArray(new IpCidr[0]);
+        this.ipv4 = new boolean[n];
+        this.networkHigh = new long[n];
+        this.networkLow = new long[n];
+        this.maskHigh = new long[n];
+        this.maskLow = new long[n];
+        for (int i = 0; i < n; i++) {
+            IpCidr cidr = entries[i];
+            int bits = cidr.isIpv4() ? cidr.prefix() + 96 : cidr.prefix();
+            ipv4[i] = cidr.isIpv4();
+            networkHigh[i] = cidr.network().high();
+            networkLow[i] = cidr.network().low();
+            maskHigh[i] = IpAddress.maskHigh(bits);
+            maskLow[i] = IpAddress.maskLow(bits);
+        }
+    }
+
+    /**
+     * 由常量写法构建；任一条目非法时抛出 {@link IllegalArgumentException}。
+     */
+    public static CidrSet of(String... specs) {
+        List<IpCidr> cidrs = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            IpCidr cidr = IpCidr.parse(spec);
+            if (cidr == null) {
+                throw new IllegalArgumentException("非法的 IP/CIDR：" + spec);
+            }
+            cidrs.add(cidr);
+        }
+        return new CidrSet(cidrs);
+    }
+
+    public static CidrSet of(Collection<IpCidr> cidrs) {
+        return cidrs == null || cidrs.isEmpty() ? EMPTY : new CidrSet(List.copyOf(cidrs));
+    }
+
+    public boolean contains(IpAddress address) {
+        if (address == null) {
+            return false;
+        }
+        boolean v4 = address.isIpv4();
+        long high = address.high();
+        long low = address.low();
+        for (int i = 0; i < ipv4.length; i++) {
+            if (ipv4[i] == v4 && (high & maskHigh[i]) == networkHigh[i] && (low & maskLow[i]) == networkLow[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(String ip) {
+        return contains(IpAddress.parse(ip));
+    }
+
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public List<IpCidr> entries() {
+        return List.of(entries);
+    }
+}
@@ -0,0 +1,114 @@
+package com.sangui.sanguiblog.util;
+
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预压缩响应体相关的小工具：
+ * - 解析 Accept-Encoding，判断客户端是否接受某种编码（遵循 q=0 表示拒绝）；
+ * - 以最高压缩级别一次性生成 gzip 字节，供缓存后反复直出；
+ * - 为小游戏页面与预渲染快照写出同名 .gz 旁路文件，供 Spring EncodedResourceResolver / Nginx gzip_static 直接发送。
+ */
+public final class ContentEncodingUtils {
+
+    public static final String GZIP = "gzip";
+
+    private ContentEncodingUtils() {
+    }
+
+    /**
+     * 判断 Accept-Encoding 是否接受指定编码；显式列出的编码优先于通配符 {@code *}。
+     */
+    public static boolean accepts(String acceptEncoding, String encoding) {
+        if (!StringUtils.hasText(acceptEncoding) || !StringUtils.hasText(encoding)) {
+            return false;
+        }
+        String target = encoding.toLowerCase(Locale.ROOT);
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean allowed = parseQuality(tokens) > 0;
+            if (coding.equals(target) || (GZIP.equals(target) && "x-gzip".equals(coding))) {
+                return allowed;
+            }
+            if ("*".equals(coding)) {
+                wildcard = allowed;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /**
+     * 同一资源不同编码的字节不同，必须使用不同的强校验器（RFC 9110 8.8.3）：
+     * 在 ETag 引号内追加编码后缀，例如 {@code "pc1-abc"} -> {@code "pc1-abc-gz"}；identity 原样返回。
+     */
+    public static String etagFor(String etag, String encoding) {
+        if (etag == null || !StringUtils.hasText(encoding) || !etag.endsWith("\"")) {
+            return etag;
+        }
+        String suffix = GZIP.equals(encoding) ? "gz" : encoding.toLowerCase(Locale.ROOT);
+        return etag.substring(0, etag.length() - 1) + "-" + suffix + "\"";
+    }
+
+    public static byte[] gzip(byte[] raw) {
+        if (raw == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException("gzip 压缩失败", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 为文本资源生成同目录下的 {@code <文件名>.gz}；压缩后不再变小时删除旧的旁路文件并返回 false。
+     */
+    public static boolean writeGzipSibling(Path file) throws IOException {
+        Path sibling = gzipSibling(file);
+        byte[] raw = Files.readAllBytes(file);
+        byte[] compressed = gzip(raw);
+        if (compressed.length >= raw.length) {
+            Files.deleteIfExists(sibling);
+            return false;
+        }
+        Path tmp = sibling.resolveSibling(sibling.getFileName() + ".tmp");
+        Files.write(tmp, compressed);
+        Files.move(tmp, sibling, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    public static Path gzipSibling(Path file) {
+        return file.resolveSibling(file.getFileName() + ".gz");
+    }
+
+    private static double parseQuality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.length() > 2 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q') && param.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,384 @@
+package com.sangui.sanguiblog.util;
+
+/**
+ * 不可变的 IP 地址值类型：IPv4 存于 {@code low} 的低 32 位，IPv6 以两个 long（高/低 64 位）保存。
+ *
+ * 说明：
+ * - {@link #parse(CharSequence)} 只接受字面量，逐字符解析，不做 DNS 解析、不创建中间数组或字符串；
+ * - IPv4 不接受前导零（避免 010 之类的八进制歧义），IPv6 不接受 zone id；
+ * - IPv4-mapped IPv6（::ffff:a.b.c.d）按 IPv4 处理，与 {@link IpUtils#normalizeIp(String)} 保持一致；
+ * - 前缀匹配与逐位读取只做位运算，配合 {@link CidrSet} / {@link IpCidr} 在请求路径上使用。
+ */
+public final class IpAddress {
+
+    private final long high;
+    private final long low;
+    private final boolean ipv4;
+
+    private IpAddress(long high, long low, boolean ipv4) {
+        this.high = high;
+        this.low = low;
+        this.ipv4 = ipv4;
+    }
+
+    public static IpAddress ofIpv4(int bits) {
+        return new IpAddress(0L, bits & 0xFFFFFFFFL, true);
+    }
+
+    public static IpAddress ofIpv6(long high, long low) {
+        if (high == 0L && (low >>> 32) == 0xFFFFL) {
+            return ofIpv4((int) low);
+        }
+        return new IpAddress(high, low, false);
+    }
+
+    /**
+     * 严格解析 IPv4/IPv6 字面量（允许首尾空白）；不是合法字面量时返回 null。
+     */
+    public static IpAddress parse(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        int from = 0;
+        int to = text.length();
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (from == to || to - from > 45) {
+            return null;
+        }
+        if (indexOf(text, ':', from, to) < 0) {
+            long v4 = parseIpv4(text, from, to);
+            return v4 < 0 ? null : ofIpv4((int) v4);
+        }
+        return parseIpv6(text, from, to);
+    }
+
+    public static IpAddress fromBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length == 4) {
+            return ofIpv4((int) readLong(bytes, 0, 4));
+        }
+        if (bytes.length == 16) {
+            return ofIpv6(readLong(bytes, 0, 8), readLong(bytes, 8, 16));
+        }
+        return null;
+    }
+
+    public boolean isIpv4() {
+        return ipv4;
+    }
+
+    public int bitLength() {
+        return ipv4 ? 32 : 128;
+    }
+
+    /**
+     * IPv6 高 64 位；IPv4 恒为 0。
+     */
+    public long high() {
+        return high;
+    }
+
+    /**
+     * IPv6 低 64 位；IPv4 为地址本身（无符号，位于低 32 位）。
+     */
+    public long low() {
+        return low;
+    }
+
+    /**
+     * 从最高位起第 index 位（0 或 1）。
+     */
+    public int bit(int index) {
+        if (ipv4) {
+            return (int) (low >>> (31 - index)) & 1;
+        }
+        return index < 64 ? (int) (high >>> (63 - index)) & 1 : (int) (low >>> (127 - index)) & 1;
+    }
+
+    /**
+     * 是否落在 network/prefix 内（地址族不同视为不匹配）。
+     */
+    public boolean matches(IpAddress network, int prefix) {
+        if (network == null || network.ipv4 != ipv4) {
+            return false;
+        }
+        int bits = ipv4 ? prefix + 96 : prefix;
+        return (high & maskHigh(bits)) == network.high && (low & maskLow(bits)) == network.low;
+    }
+
+    /**
+     * 按前缀清零主机位后的网络地址。
+     */
+    public IpAddress network(int prefix) {
+        int bits = ipv4 ? prefix + 96 : prefix;
+        return new IpAddress(high & maskHigh(bits), low & maskLow(bits), ipv4);
+    }
+
+    /**
+     * 按前缀把主机位全部置 1 后的地址（网段内最后一个地址）。
+     */
+    public IpAddress lastInPrefix(int prefix) {
+        int bits = ipv4 ? prefix + 96 : prefix;
+        long lastLow = low | ~maskLow(bits);
+        return new IpAddress(high | ~maskHigh(bits), ipv4 ? lastLow & 0xFFFFFFFFL : lastLow, ipv4);
+    }
+
+    public byte[] toBytes() {
+        if (ipv4) {
+            byte[] out = new byte[4];
+            writeLong(low, out, 0, 4);
+            return out;
+        }
+        byte[] out = new byte[16];
+        writeLong(high, out, 0, 8);
+        writeLong(low, out, 8, 16);
+        return out;
+    }
+
+    /**
+     * BotGuard 使用的“C 段”：IPv4 取前三段，IPv6 取前四组（/64）。
+     */
+    public String segment() {
+        if (ipv4) {
+            return (low >>> 24) + "." + ((low >>> 16) & 0xFF) + "." + ((low >>> 8) & 0xFF);
+        }
+        return Long.toHexString(high >>> 48) + ":" + Long.toHexString((high >>> 32) & 0xFFFF)
+                + ":" + Long.toHexString((high >>> 16) & 0xFFFF) + ":" + Long.toHexString(high & 0xFFFF);
+    }
+
+    /**
+     * 规范文本：IPv4 点分十进制；IPv6 小写十六进制，最长的连续零组（≥2 组）压缩为 ::。
+     */
+    @Override
+    public String toString() {
+        if (ipv4) {
+            return (low >>> 24) + "." + ((low >>> 16) & 0xFF) + "." + ((low >>> 8) & 0xFF) + "." + (low & 0xFF);
+        }
+        int bestStart = -1;
+        int bestLen = 0;
+        for (int i = 0; i < 8; ) {
+            int j = i;
+            while (j < 8 && group(j) == 0) {
+                j++;
+            }
+            if (j - i > bestLen && j - i >= 2) {
+                bestStart = i;
+                bestLen = j - i;
+            }
+            i = j == i ? i + 1 : j;
+        }
+        StringBuilder sb = new StringBuilder(39);
+        for (int i = 0; i < 8; i++) {
+            if (i == bestStart) {
+                sb.append("::");
+                i += bestLen - 1;
+                continue;
+            }
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+                sb.append(':');
+            }
+            sb.append(Integer.toHexString(group(i)));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IpAddress other && other.ipv4 == ipv4 && other.high == high && other.low == low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high * 31 + low) ^ (ipv4 ? 1 : 0);
+    }
+
+    private int group(int index) {
+        long word = index < 4 ? high : low;
+        return (int) (word >>> (48 - 16 * (index & 3))) & 0xFFFF;
+    }
+
+    /**
+     * 128 位掩码的高 64 位（前 bits 位为 1）。
+     */
+    static long maskHigh(int bits) {
+        if (bits <= 0) {
+            return 0L;
+        }
+        return bits >= 64 ? -1L : -1L << (64 - bits);
+    }
+
+    /**
+     * 128 位掩码的低 64 位（前 bits 位为 1）。
+     */
+    static long maskLow(int bits) {
+        if (bits <= 64) {
+            return 0L;
+        }
+        return bits >= 128 ? -1L : -1L << (128 - bits);
+    }
+
+    /**
+     * 解析 [from, to) 范围内的点分十进制 IPv4，返回无符号值；非法返回 -1。
+     */
+    private static long parseIpv4(CharSequence s, int from, int to) {
+        long result = 0;
+        int parts = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? s.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                if (digits > 0 && value == 0) {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || parts > 3) {
+                    return -1;
+                }
+                result = (result << 8) | value;
+                parts++;
+                value = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+        return parts == 4 ? result : -1;
+    }
+
+    /**
+     * 冒号分隔的 16 位组依次移入 128 位累加器；“::” 之前与之后分开累加，最后按缺省组数拼接。
+     * 最后一组可以是内嵌 IPv4（计两组）。
+     */
+    private static IpAddress parseIpv6(CharSequence s, int from, int to) {
+        long headHigh = 0;
+        long headLow = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean gap = false;
+        int i = from;
+        if (s.charAt(i) == ':') {
+            if (i + 1 >= to || s.charAt(i + 1) != ':') {
+                return null;
+            }
+            gap = true;
+            i += 2;
+        }
+        while (i < to) {
+            int end = indexOf(s, ':', i, to);
+            if (end < 0) {
+                end = to;
+            }
+            int groups = headGroups + tailGroups;
+            int value;
+            int width;
+            if (end == to && indexOf(s, '.', i, to) >= 0) {
+                long v4 = parseIpv4(s, i, to);
+                if (v4 < 0 || groups > 6) {
+                    return null;
+                }
+                value = (int) v4;
+                width = 2;
+            } else {
+                if (end == i || end - i > 4 || groups >= 8) {
+                    return null;
+                }
+                value = 0;
+                for (int k = i; k < end; k++) {
+                    int digit = Character.digit(s.charAt(k), 16);
+                    if (digit < 0) {
+                        return null;
+                    }
+                    value = (value << 4) | digit;
+                }
+                width = 1;
+            }
+            int shift = 16 * width;
+            long pushed = width == 2 ? value & 0xFFFFFFFFL : value;
+            if (gap) {
+                tailHigh = (tailHigh << shift) | (tailLow >>> (64 - shift));
+                tailLow = (tailLow << shift) | pushed;
+                tailGroups += width;
+            } else {
+                headHigh = (headHigh << shift) | (headLow >>> (64 - shift));
+                headLow = (headLow << shift) | pushed;
+                headGroups += width;
+            }
+            if (end == to) {
+                break;
+            }
+            if (width == 2) {
+                return null;
+            }
+            if (end + 1 < to && s.charAt(end + 1) == ':') {
+                if (gap) {
+                    return null;
+                }
+                gap = true;
+                i = end + 2;
+            } else {
+                i = end + 1;
+                if (i == to) {
+                    return null;
+                }
+            }
+        }
+        if (!gap) {
+            return headGroups == 8 ? ofIpv6(headHigh, headLow) : null;
+        }
+        if (headGroups + tailGroups > 7) {
+            return null;
+        }
+        int shift = 16 * (8 - headGroups);
+        long high;
+        long low;
+        if (shift >= 128) {
+            high = 0;
+            low = 0;
+        } else if (shift >= 64) {
+            high = headLow << (shift - 64);
+            low = 0;
+        } else {
+            high = (headHigh << shift) | (headLow >>> (64 - shift));
+            low = headLow << shift;
+        }
+        return ofIpv6(high | tailHigh, low | tailLow);
+    }
+
+    private static int indexOf(CharSequence s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long readLong(byte[] bytes, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void writeLong(long value, byte[] out, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            out[i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.sangui.sanguiblog.util;
+
+/**
+ * 单个地址或 CIDR 网段：网络地址（已按前缀清零主机位）与前缀长度。
+ */
+public record IpCidr(IpAddress network, int prefix) {
+
+    /**
+     * 解析 "ip" 或 "ip/prefix"；主机位会被清零。格式非法时返回 null。
+     */
+    public static IpCidr parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.trim();
+        int slash = trimmed.indexOf('/');
+        IpAddress address = IpAddress.parse(slash >= 0 ? trimmed.substring(0, slash) : trimmed);
+        if (address == null) {
+            return null;
+        }
+        int bits = address.bitLength();
+        int prefix = bits;
+        if (slash >= 0) {
+            String prefixText = trimmed.substring(slash + 1);
+            if (prefixText.isEmpty() || prefixText.length() > 3 || !prefixText.chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            prefix = Integer.parseInt(prefixText);
+            // IPv4-mapped 写法的前缀按 IPv6 计，换算到 IPv4
+            if (address.isIpv4() && trimmed.indexOf(':') >= 0 && trimmed.indexOf(':') < slash) {
+                prefix -= 96;
+            }
+            if (prefix < 0 || prefix > bits) {
+                return null;
+            }
+        }
+        return new IpCidr(address.network(prefix), prefix);
+    }
+
+    public boolean isIpv4() {
+        return network.isIpv4();
+    }
+
+    public boolean isSingleAddress() {
+        return prefix == network.bitLength();
+    }
+
+    public boolean contains(IpAddress address) {
+        return address != null && address.matches(network, prefix);
+    }
+
+    /**
+     * 网段内最后一个地址（主机位全 1）。
+     */
+    public IpAddress lastAddress() {
+        return network.lastInPrefix(prefix);
+    }
+
+    /**
+     * 规范写法：单个地址不带前缀，网段为 network/prefix。
+     */
+    public String canonical() {
+        return isSingleAddress() ? network.toString() : network + "/" + prefix;
+    }
+}
@@ -3,8 +3,6 @@ package com.sangui.sanguiblog.util;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.util.StringUtils;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
@@ -23,6 +21,23 @@ public final class IpUtils {
             "Forwarded"
     );
 
+    /**
+     * 回环与未指定地址（0.0.0.0、127/8、::、::1）。
+     */
+    public static final CidrSet LOOPBACK_OR_UNSPECIFIED = CidrSet.of(
+            "0.0.0.0/32", "127.0.0.0/8", "::/128", "::1/128");
+
+    /**
+     * 内网地址：RFC 1918 私有网段、链路本地、IPv6 ULA（fc00::/7）与已废弃的 site-local（fec0::/10）。
+     */
+    public static final CidrSet PRIVATE_NETWORKS = CidrSet.of(
+            "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "169.254.0.0/16",
+            "fe80::/10", "fec0::/10", "fc00::/7");
+
+    private static final IpAddress IPV6_LOOPBACK = IpAddress.ofIpv6(0L, 1L);
+
+    private static final CidrSet MULTICAST = CidrSet.of("224.0.0.0/4", "ff00::/8");
+
     private IpUtils() {
     }
 
@@ -114,6 +129,13 @@ public final class IpUtils {
         if ("localhost".equalsIgnoreCase(trimmed)) {
             return "127.0.0.1";
         }
+        // IPv6 统一为规范写法，避免同一地址因大小写/零压缩不同而在统计与封禁匹配中被当成不同 IP
+        if (trimmed.indexOf(':') >= 0) {
+            IpAddress address = IpAddress.parse(trimmed);
+            if (address != null) {
+                return IPV6_LOOPBACK.equals(address) ? "127.0.0.1" : address.toString();
+            }
+        }
         return trimmed.length() > 45 ? trimmed.substring(0, 45) : trimmed;
     }
 
@@ -137,27 +159,14 @@ public final class IpUtils {
         if (isLoopback(normalized)) {
             return true;
         }
-        if ("0.0.0.0".equals(normalized) || "::".equals(normalized)) {
-            return true;
-        }
-        InetAddress addr = parseInetAddress(normalized);
-        if (addr == null) {
+        IpAddress address = IpAddress.parse(normalized);
+        if (address == null) {
             // 无法解析的地址视为不安全，拒绝封禁
             return true;
         }
-        if (addr.isSiteLocalAddress()
-                || addr.isLinkLocalAddress()
-                || addr.isAnyLocalAddress()
-                || addr.isLoopbackAddress()
-                || addr.isMulticastAddress()) {
-            return true;
-        }
-        // Java InetAddress 不把 IPv6 ULA fc00::/7 视为 site-local，按 PRD 显式拒绝。
-        byte[] bytes = addr.getAddress();
-        if (bytes.length == 16 && (bytes[0] & 0xFE) == 0xFC) {
-            return true;
-        }
-        return false;
+        return LOOPBACK_OR_UNSPECIFIED.contains(address)
+                || PRIVATE_NETWORKS.contains(address)
+                || MULTICAST.contains(address);
     }
 
     /**
@@ -174,7 +183,7 @@ public final class IpUtils {
         if ("localhost".equalsIgnoreCase(trimmed)) {
             return false;
         }
-        return parseInetAddress(normalizeIp(trimmed)) != null;
+        return IpAddress.parse(normalizeIp(trimmed)) != null;
     }
 
     /**
@@ -199,11 +208,15 @@ public final class IpUtils {
         return parseForwardedHeader(forwarded);
     }
 
-    private static InetAddress parseInetAddress(String ip) {
-        try {
-            return InetAddress.getByName(ip);
-        } catch (UnknownHostException | RuntimeException ex) {
-            return null;
+    /**
+     * BotGuard 使用的“C 段”：IPv4 取前三段，IPv6 取前四组；无法解析时原样返回归一化后的文本。
+     */
+    public static String segment(String ip) {
+        if (!StringUtils.hasText(ip)) {
+            return "0.0.0";
         }
+        String normalized = normalizeIp(ip);
+        IpAddress address = IpAddress.parse(normalized);
+        return address != null ? address.segment() : normalized.toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,71 @@
+package com.sangui.sanguiblog.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 带版本号的只读快照持有者，替代各处手写的 “volatile 字段 + 版本号 + 双检锁” 组合。
+ *
+ * 说明：
+ * - {@link #get()}：有快照时无锁返回；首次读取或 {@link #invalidate()} 之后在加载锁内加载，并发读者等待同一次加载；
+ * - {@link #invalidate()}：丢弃当前快照并递增版本号，下一次读取重新加载；
+ * - {@link #refresh()}：先构建新快照再整体替换，构建期间读者继续拿到旧快照，不会阻塞；
+ * - 加载期间版本号发生变化（并发失效）时，结果只返回给本次调用，不写回，避免旧数据覆盖失效；
+ * - 是否延迟到事务提交后执行由调用方配合 {@link AfterCommit} 决定。
+ */
+public final class VersionedSnapshot<T> {
+
+    private final Supplier<T> loader;
+    private final AtomicLong version = new AtomicLong();
+    private final Object loadLock = new Object();
+    private final Object stateLock = new Object();
+    private volatile T value;
+
+    public VersionedSnapshot(Supplier<T> loader) {
+        this.loader = loader;
+    }
+
+    public T get() {
+        T current = value;
+        if (current != null) {
+            return current;
+        }
+        synchronized (loadLock) {
+            current = value;
+            if (current != null) {
+                return current;
+            }
+            return loadAndSwap(version.get());
+        }
+    }
+
+    public void invalidate() {
+        synchronized (stateLock) {
+            version.incrementAndGet();
+            value = null;
+        }
+    }
+
+    /**
+     * 重新构建并替换快照，返回新构建的结果。
+     */
+    public T refresh() {
+        synchronized (loadLock) {
+            return loadAndSwap(version.incrementAndGet());
+        }
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    private T loadAndSwap(long expectedVersion) {
+        T loaded = loader.get();
+        synchronized (stateLock) {
+            if (version.get() == expectedVersion) {
+                value = loaded;
+            }
+        }
+        return loaded;
+    }
+}
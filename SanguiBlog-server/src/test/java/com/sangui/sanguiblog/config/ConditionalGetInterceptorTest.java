@@ -0,0 +1,122 @@
+package com.sangui.sanguiblog.config;
+
+import com.sangui.sanguiblog.service.ContentRevisionService;
+import com.sangui.sanguiblog.util.ContentEncodingUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionalGetInterceptorTest {
+
+    private ContentRevisionService contentRevisionService;
+    private ConditionalGetInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        contentRevisionService = new ContentRevisionService();
+        interceptor = new ConditionalGetInterceptor(contentRevisionService);
+    }
+
+    @Test
+    void shouldIssueEtagAndNoCacheOnFirstRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tags");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(request, response, handler("taxonomy"));
+
+        assertTrue(proceed);
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getHeader("ETag"));
+        assertEquals("no-cache", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void shouldShortCircuitWith304WhenEtagMatches() throws Exception {
+        String etag = contentRevisionService.etag(ContentRevisionService.Scope.TAXONOMY);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tags");
+        request.addHeader("If-None-Match", "W/" + etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(request, response, handler("taxonomy"));
+
+        assertFalse(proceed);
+        assertEquals(304, response.getStatus());
+        assertEquals(etag, response.getHeader("ETag"));
+    }
+
+    @Test
+    void shouldProceedAfterScopeRevisionBumped() throws Exception {
+        String stale = contentRevisionService.etag(ContentRevisionService.Scope.TAXONOMY);
+        contentRevisionService.bump(ContentRevisionService.Scope.TAXONOMY);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tags");
+        request.addHeader("If-None-Match", stale);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean proceed = interceptor.preHandle(request, response, handler("taxonomy"));
+
+        assertTrue(proceed);
+        assertNotEquals(stale, response.getHeader("ETag"));
+    }
+
+    @Test
+    void shouldIgnoreUnrelatedScopeBumps() {
+        String before = contentRevisionService.etag(ContentRevisionService.Scope.TAXONOMY);
+        contentRevisionService.bump(ContentRevisionService.Scope.GAMES, ContentRevisionService.Scope.ABOUT);
+
+        assertEquals(before, contentRevisionService.etag(ContentRevisionService.Scope.TAXONOMY));
+    }
+
+    @Test
+    void shouldSkipUnannotatedHandlersAndNonGetMethods() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/x"), response, handler("plain")));
+        assertNull(response.getHeader("ETag"));
+
+        MockHttpServletResponse postResponse = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/tags"), postResponse, handler("taxonomy")));
+        assertNull(postResponse.getHeader("ETag"));
+    }
+
+    private static HandlerMethod handler(String methodName) throws NoSuchMethodException {
+        return new HandlerMethod(new SampleController(), SampleController.class.getMethod(methodName));
+    }
+
+    static class SampleController {
+
+        @ConditionalGet(ContentRevisionService.Scope.TAXONOMY)
+        public String taxonomy() {
+            return "ok";
+        }
+
+        public String plain() {
+            return "ok";
+        }
+    }
+
+    @Test
+    void shouldKeepDistinctValidatorsPerContentEncoding() {
+        String identity = "\"pc1-abc\"";
+        String gzip = ContentEncodingUtils.etagFor(identity, ContentEncodingUtils.GZIP);
+        assertEquals("\"pc1-abc-gz\"", gzip);
+        assertEquals(identity, ContentEncodingUtils.etagFor(identity, null));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts/1/content");
+        request.addHeader("If-None-Match", gzip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        // 客户端缓存的是 gzip 表示，这次按 identity 响应时不能判定为 304
+        assertFalse(ConditionalGetInterceptor.notModified(request, response, identity));
+
+        MockHttpServletResponse gzipResponse = new MockHttpServletResponse();
+        assertTrue(ConditionalGetInterceptor.notModified(request, gzipResponse, gzip));
+        assertEquals(304, gzipResponse.getStatus());
+    }
+}
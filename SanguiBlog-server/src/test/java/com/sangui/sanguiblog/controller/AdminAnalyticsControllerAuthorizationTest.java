@@ -11,7 +11,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 class AdminAnalyticsControllerAuthorizationTest {
 
     private static final String SUPER_ADMIN_ANALYTICS_VIEW =
-            "hasAuthority('PERM_ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')";
+            "@perm.has(authentication, 'ANALYTICS_VIEW') and hasRole('SUPER_ADMIN')";
 
     @Test
     void shouldRequireSuperAdminForPageViewDetailLikeDelete() throws NoSuchMethodException {
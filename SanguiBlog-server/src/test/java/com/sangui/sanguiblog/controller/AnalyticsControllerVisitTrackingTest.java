@@ -8,11 +8,14 @@ import com.sangui.sanguiblog.model.dto.ArticleVisitHeartbeatRequest;
 import com.sangui.sanguiblog.model.dto.ArticleVisitStartRequest;
 import com.sangui.sanguiblog.model.dto.PageViewRequest;
 import com.sangui.sanguiblog.service.AnalyticsService;
+import com.sangui.sanguiblog.service.PresenceTracker;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.mock.web.MockHttpServletRequest;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,7 +34,7 @@ class AnalyticsControllerVisitTrackingTest {
     @BeforeEach
     void setUp() {
         analyticsService = mock(AnalyticsService.class);
-        controller = new AnalyticsController(analyticsService, new ObjectMapper());
+        controller = new AnalyticsController(analyticsService, new ObjectMapper(), new PresenceTracker());
     }
 
     @Test
@@ -114,4 +117,42 @@ class AnalyticsControllerVisitTrackingTest {
         assertTrue(response.isSuccess());
         verify(analyticsService, never()).recordArticleVisitHeartbeat(any());
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void batchParsesTypedEventsInOrderAndSkipsUnknownOnes() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("1.2.3.4");
+        request.addHeader("User-Agent", "JUnit UA");
+
+        ApiResponse<Void> response = controller.batch("""
+                {"events":[
+                  {"type":"visit-end","data":{"visitId":"v0","totalDurationSeconds":40,"activeDurationSeconds":30}},
+                  {"type":"page-view","visitId":"v1","data":{"pageTitle":"Home"}},
+                  {"type":"visit-start","data":{"visitId":"v1","articleId":7}},
+                  {"type":"unknown","data":{}},
+                  {"type":"visit-heartbeat","data":{"visitId":"v1","activeDurationSeconds":15}}
+                ]}
+                """, request, null);
+
+        assertTrue(response.isSuccess());
+        ArgumentCaptor<List<AnalyticsService.BatchEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(analyticsService).recordBatch(captor.capture(), eq("1.2.3.4"), eq("JUnit UA"), eq(null),
+                any(AnalyticsRequestDetailContext.class));
+        List<AnalyticsService.BatchEvent> events = captor.getValue();
+        assertEquals(4, events.size());
+        assertTrue(events.get(0).request() instanceof ArticleVisitEndRequest);
+        assertEquals("v1", events.get(1).visitId());
+        assertEquals("1.2.3.4", events.get(1).ip());
+        assertEquals(7L, ((ArticleVisitStartRequest) events.get(2).request()).getArticleId());
+        assertTrue(events.get(3).request() instanceof ArticleVisitHeartbeatRequest);
+    }
+
+    @Test
+    void malformedBatchBodyIsNoOpOk() {
+        ApiResponse<Void> response = controller.batch("[{oops", new MockHttpServletRequest(), null);
+
+        assertTrue(response.isSuccess());
+        verifyNoInteractions(analyticsService);
+    }
 }
@@ -13,9 +13,9 @@ class UploadControllerAuthorizationTest {
 
     @Test
     void shouldRequirePostCreateOrEditPermissionForArticleUploads() throws NoSuchMethodException {
-        assertPreAuthorize("uploadPostCover", "hasRole('SUPER_ADMIN') or hasAnyAuthority('PERM_POST_CREATE','PERM_POST_EDIT')");
-        assertPreAuthorize("reservePostAssetsFolder", "hasRole('SUPER_ADMIN') or hasAnyAuthority('PERM_POST_CREATE','PERM_POST_EDIT')");
-        assertPreAuthorize("uploadPostAssets", "hasRole('SUPER_ADMIN') or hasAnyAuthority('PERM_POST_CREATE','PERM_POST_EDIT')");
+        assertPreAuthorize("uploadPostCover", "hasRole('SUPER_ADMIN') or @perm.hasAny(authentication, 'POST_CREATE', 'POST_EDIT')");
+        assertPreAuthorize("reservePostAssetsFolder", "hasRole('SUPER_ADMIN') or @perm.hasAny(authentication, 'POST_CREATE', 'POST_EDIT')");
+        assertPreAuthorize("uploadPostAssets", "hasRole('SUPER_ADMIN') or @perm.hasAny(authentication, 'POST_CREATE', 'POST_EDIT')");
     }
 
     @Test
@@ -0,0 +1,67 @@
+package com.sangui.sanguiblog.model.repository;
+
+import com.sangui.sanguiblog.model.entity.BannedIp;
+import com.sangui.sanguiblog.model.repository.BannedIpHitRepository.HitDelta;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class BannedIpRepositoryHitsJpaTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private BannedIpRepository bannedIpRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldApplyAllDeltasInOneBatchAndSkipDisabledBans() {
+        LocalDateTime earlier = CREATED_AT.plusHours(1);
+        LocalDateTime later = CREATED_AT.plusHours(2);
+        BannedIp fresh = persist("203.0.113.1", true, 0L, null);
+        BannedIp recent = persist("203.0.113.2", true, 5L, later);
+        BannedIp unbanned = persist("203.0.113.3", false, 1L, null);
+
+        bannedIpRepository.addHitsInBatch(List.of(
+                new HitDelta(fresh.getId(), 3, earlier),
+                new HitDelta(recent.getId(), 2, earlier),
+                new HitDelta(unbanned.getId(), 4, earlier)));
+        entityManager.clear();
+
+        BannedIp freshAfter = bannedIpRepository.findById(fresh.getId()).orElseThrow();
+        assertEquals(3L, freshAfter.getHitCount());
+        assertEquals(earlier, freshAfter.getLastHitTime());
+
+        // 最后命中时间只向后推进
+        BannedIp recentAfter = bannedIpRepository.findById(recent.getId()).orElseThrow();
+        assertEquals(7L, recentAfter.getHitCount());
+        assertEquals(later, recentAfter.getLastHitTime());
+
+        BannedIp unbannedAfter = bannedIpRepository.findById(unbanned.getId()).orElseThrow();
+        assertEquals(1L, unbannedAfter.getHitCount());
+        assertNull(unbannedAfter.getLastHitTime());
+    }
+
+    private BannedIp persist(String ip, boolean enabled, long hits, LocalDateTime lastHit) {
+        BannedIp ban = new BannedIp();
+        ban.setIp(ip);
+        ban.setEnabled(enabled);
+        ban.setHitCount(hits);
+        ban.setLastHitTime(lastHit);
+        ban.setCreatedAt(CREATED_AT);
+        ban.setUpdatedAt(CREATED_AT);
+        return entityManager.persistAndFlush(ban);
+    }
+}
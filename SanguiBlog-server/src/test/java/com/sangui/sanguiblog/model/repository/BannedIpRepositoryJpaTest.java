@@ -0,0 +1,53 @@
+package com.sangui.sanguiblog.model.repository;
+
+import com.sangui.sanguiblog.model.entity.BannedIp;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class BannedIpRepositoryJpaTest {
+
+    @Autowired
+    private BannedIpRepository bannedIpRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void addHitsShouldOnlyCountEnabledBans() {
+        BannedIp enabled = persistBan("203.0.113.10", true);
+        BannedIp unbanned = persistBan("203.0.113.11", false);
+        LocalDateTime lastHit = LocalDateTime.now().withNano(0);
+
+        assertEquals(1, bannedIpRepository.addHits(enabled.getId(), 3L, lastHit));
+        assertEquals(0, bannedIpRepository.addHits(unbanned.getId(), 3L, lastHit));
+        entityManager.clear();
+
+        BannedIp reloadedEnabled = entityManager.find(BannedIp.class, enabled.getId());
+        BannedIp reloadedUnbanned = entityManager.find(BannedIp.class, unbanned.getId());
+        assertEquals(3L, reloadedEnabled.getHitCount());
+        assertEquals(lastHit, reloadedEnabled.getLastHitTime());
+        assertEquals(0L, reloadedUnbanned.getHitCount());
+        assertNull(reloadedUnbanned.getLastHitTime());
+    }
+
+    private BannedIp persistBan(String ip, boolean enabled) {
+        LocalDateTime now = LocalDateTime.now();
+        BannedIp ban = new BannedIp();
+        ban.setIp(ip);
+        ban.setEnabled(enabled);
+        ban.setHitCount(0L);
+        ban.setCreatedAt(now);
+        ban.setUpdatedAt(now);
+        return entityManager.persistAndFlush(ban);
+    }
+}
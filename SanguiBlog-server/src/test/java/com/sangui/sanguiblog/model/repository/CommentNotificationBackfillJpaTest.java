@@ -0,0 +1,134 @@
+package com.sangui.sanguiblog.model.repository;
+
+import com.sangui.sanguiblog.model.entity.Comment;
+import com.sangui.sanguiblog.model.entity.CommentMention;
+import com.sangui.sanguiblog.model.entity.CommentNotification;
+import com.sangui.sanguiblog.model.entity.Post;
+import com.sangui.sanguiblog.model.entity.Role;
+import com.sangui.sanguiblog.model.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class CommentNotificationBackfillJpaTest {
+
+    @Autowired
+    private CommentNotificationRepository notificationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User author;
+    private User reader;
+    private Comment onPost;
+    private Comment reply;
+    private Comment mention;
+    private Comment multibyte;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setCode("USER");
+        role.setName("用户");
+        entityManager.persist(role);
+        author = persistUser(role, "author");
+        reader = persistUser(role, "reader");
+        User other = persistUser(role, "other");
+
+        Post mine = persistPost(author, "mine");
+        Post theirs = persistPost(other, "theirs");
+
+        onPost = persistComment(mine, reader, null, "  第一条\n评论  ");
+        persistComment(mine, author, null, "作者自己的评论");
+        Comment parent = persistComment(theirs, author, null, "作者在别处的评论");
+        reply = persistComment(theirs, null, parent, "x".repeat(200));
+        multibyte = persistComment(theirs, null, parent, " 多字节\r\n\t 评论 " + "中文字".repeat(60));
+        mention = persistComment(theirs, reader, null, "@author 看这里");
+        persistComment(theirs, reader, null, "无关评论");
+        entityManager.persist(new CommentMention(mention.getId(), author.getId()));
+
+        CommentNotification existing = new CommentNotification();
+        existing.setRecipient(author);
+        existing.setComment(onPost);
+        existing.setPost(mine);
+        existing.setCommentAuthorName("reader");
+        existing.setCommentExcerpt("已有通知");
+        existing.setIsRead(false);
+        existing.setCreatedAt(Instant.now());
+        entityManager.persist(existing);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldInsertMissingNotificationsForPostRepliesAndMentionsOnce() {
+        int inserted = notificationRepository.insertMissingForRecipient(author.getId(), Instant.now());
+        assertEquals(3, inserted);
+        assertEquals(0, notificationRepository.insertMissingForRecipient(author.getId(), Instant.now()));
+        entityManager.clear();
+
+        List<CommentNotification> rows = notificationRepository.findByRecipientIdOrderByCreatedAtDesc(author.getId());
+        Map<Long, CommentNotification> byComment = rows.stream()
+                .collect(Collectors.toMap(n -> n.getComment().getId(), n -> n));
+        assertEquals(4, byComment.size());
+        assertEquals("已有通知", byComment.get(onPost.getId()).getCommentExcerpt());
+
+        CommentNotification replyRow = byComment.get(reply.getId());
+        assertEquals("访客", replyRow.getCommentAuthorName());
+        assertEquals("x".repeat(150) + "...", replyRow.getCommentExcerpt());
+        assertTrue(replyRow.getIsRead());
+        assertEquals("@author 看这里", byComment.get(mention.getId()).getCommentExcerpt());
+        // 连续空白合并为一个空格，按字符（不是字节）截断到 150 个
+        String condensed = "多字节 评论 " + "中文字".repeat(60);
+        String expected = condensed.substring(0, condensed.offsetByCodePoints(0, 150)) + "...";
+        assertEquals(expected, byComment.get(multibyte.getId()).getCommentExcerpt());
+
+        assertEquals(0, notificationRepository.deleteDuplicatesForRecipient(author.getId()));
+    }
+
+    private User persistUser(Role role, String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setDisplayName(username);
+        user.setRole(role);
+        user.setStatus("ACTIVE");
+        return entityManager.persist(user);
+    }
+
+    private Post persistPost(User owner, String slug) {
+        Post post = new Post();
+        post.setAuthor(owner);
+        post.setTitle(slug);
+        post.setSlug(slug);
+        post.setStatus("PUBLISHED");
+        post.setCommentsCount(0);
+        post.setCreatedAt(Instant.now());
+        post.setUpdatedAt(Instant.now());
+        return entityManager.persist(post);
+    }
+
+    private Comment persistComment(Post post, User user, Comment parent, String content) {
+        Comment comment = new Comment();
+        comment.setPost(post);
+        comment.setUser(user);
+        comment.setParent(parent);
+        comment.setAuthorName(user != null ? user.getUsername() : " ");
+        comment.setContent(content);
+        comment.setStatus("APPROVED");
+        comment.setCreatedAt(Instant.now());
+        return entityManager.persist(comment);
+    }
+}
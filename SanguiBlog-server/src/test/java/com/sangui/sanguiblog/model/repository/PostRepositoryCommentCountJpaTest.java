@@ -0,0 +1,96 @@
+package com.sangui.sanguiblog.model.repository;
+
+import com.sangui.sanguiblog.model.entity.Post;
+import com.sangui.sanguiblog.model.entity.Role;
+import com.sangui.sanguiblog.model.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.context.transaction.BeforeTransaction;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class PostRepositoryCommentCountJpaTest {
+
+    private static final Instant EDITED_AT = Instant.parse("2026-01-02T03:04:05Z");
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * 与 sanguiblog_db.sql 一致：posts.updated_at 带 ON UPDATE CURRENT_TIMESTAMP。
+     * DDL 会隐式提交，因此放在测试事务之外执行。
+     */
+    @BeforeTransaction
+    void enableOnUpdateTimestamp() {
+        new JdbcTemplate(dataSource).execute(
+                "ALTER TABLE posts ALTER COLUMN updated_at SET ON UPDATE CURRENT_TIMESTAMP");
+    }
+
+    @AfterTransaction
+    void dropOnUpdateTimestamp() {
+        new JdbcTemplate(dataSource).execute("ALTER TABLE posts ALTER COLUMN updated_at DROP ON UPDATE");
+    }
+
+    @Test
+    void adjustCommentsCountShouldKeepUpdatedAt() {
+        Post commented = persistPost("commented");
+        Post touched = persistPost("touched");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, postRepository.adjustCommentsCount(commented.getId(), 1));
+        // 对照：未固定 updated_at 的原生更新会被 ON UPDATE 改写
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE posts SET comments_count = 1 WHERE id = :id")
+                .setParameter("id", touched.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        Post reloaded = entityManager.find(Post.class, commented.getId());
+        assertEquals(1, reloaded.getCommentsCount());
+        assertEquals(EDITED_AT, reloaded.getUpdatedAt().truncatedTo(ChronoUnit.SECONDS));
+        assertNotEquals(EDITED_AT, entityManager.find(Post.class, touched.getId()).getUpdatedAt()
+                .truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    private Post persistPost(String slug) {
+        Role role = new Role();
+        role.setCode("ROLE_" + slug.toUpperCase());
+        role.setName(slug);
+        entityManager.persist(role);
+        User author = new User();
+        author.setUsername(slug);
+        author.setDisplayName(slug);
+        author.setRole(role);
+        author.setStatus("ACTIVE");
+        entityManager.persist(author);
+
+        Post post = new Post();
+        post.setAuthor(author);
+        post.setTitle(slug);
+        post.setSlug(slug);
+        post.setStatus("PUBLISHED");
+        post.setCommentsCount(0);
+        post.setCreatedAt(EDITED_AT);
+        post.setUpdatedAt(EDITED_AT);
+        return entityManager.persist(post);
+    }
+}
@@ -0,0 +1,134 @@
+package com.sangui.sanguiblog.model.repository;
+
+import com.sangui.sanguiblog.model.entity.Category;
+import com.sangui.sanguiblog.model.entity.Post;
+import com.sangui.sanguiblog.model.entity.Role;
+import com.sangui.sanguiblog.model.entity.Tag;
+import com.sangui.sanguiblog.model.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class PostRepositoryListRowsJpaTest {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Category parent;
+    private Tag spring;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setCode("ADMIN");
+        role.setName("管理员");
+        entityManager.persist(role);
+        User author = new User();
+        author.setUsername("author");
+        author.setDisplayName("三桂");
+        author.setAvatarUrl("/avatar/a.png");
+        author.setRole(role);
+        author.setStatus("ACTIVE");
+        entityManager.persist(author);
+
+        parent = persistCategory("技术", "tech", null);
+        Category child = persistCategory("Java", "java", parent);
+        spring = persistTag("Spring", "spring");
+        Tag jpa = persistTag("JPA", "jpa");
+
+        persistPost(author, child, "spring-jpa", "PUBLISHED", LocalDateTime.of(2026, 3, 31, 23, 0), Set.of(spring, jpa));
+        persistPost(author, parent, "tech-note", "PUBLISHED", LocalDateTime.of(2026, 4, 1, 0, 0), Set.of());
+        persistPost(author, null, "draft", "DRAFT", null, Set.of(spring));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldProjectPublishedRowsWithCategoryAndTagFilters() {
+        Page<PostRepository.PostListRow> all = postRepository.findPublishedListRows(null, null, null, PageRequest.of(0, 10));
+        assertEquals(List.of("tech-note", "spring-jpa"), slugs(all));
+        assertEquals(2L, all.getTotalElements());
+
+        PostRepository.PostListRow row = all.getContent().get(1);
+        assertEquals("Java", row.getCategoryName());
+        assertEquals("技术", row.getParentCategoryName());
+        assertEquals("三桂", row.getAuthorName());
+        assertEquals("/avatar/a.png", row.getAuthorAvatar());
+
+        assertEquals(List.of("tech-note", "spring-jpa"),
+                slugs(postRepository.findPublishedListRows(parent.getId(), null, null, PageRequest.of(0, 10))));
+        Page<PostRepository.PostListRow> tagged = postRepository.findPublishedListRows(null, spring.getId(), "%spring%",
+                PageRequest.of(0, 10));
+        assertEquals(List.of("spring-jpa"), slugs(tagged));
+        assertEquals(1L, tagged.getTotalElements());
+
+        List<PostRepository.PostTagRow> tags = postRepository.findTagsByPostIds(List.of(row.getId()));
+        assertEquals(2, tags.size());
+    }
+
+    @Test
+    void shouldFilterArchiveMonthByRangeAndListDraftsForAdmin() {
+        LocalDateTime march = LocalDateTime.of(2026, 3, 1, 0, 0);
+        assertEquals(List.of("spring-jpa"),
+                slugs(postRepository.findPublishedListRowsBetween(march, march.plusMonths(1), PageRequest.of(0, 10))));
+
+        Page<PostRepository.PostListRow> admin = postRepository.findAdminListRows(null, "%dra%", PageRequest.of(0, 10));
+        assertEquals(List.of("draft"), slugs(admin));
+        assertNull(admin.getContent().get(0).getCategoryName());
+        assertEquals(3L, postRepository.findAdminListRows(null, null, PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    private Category persistCategory(String name, String slug, Category parent) {
+        Category category = new Category();
+        category.setName(name);
+        category.setSlug(slug);
+        category.setParent(parent);
+        return entityManager.persist(category);
+    }
+
+    private Tag persistTag(String name, String slug) {
+        Tag tag = new Tag();
+        tag.setName(name);
+        tag.setSlug(slug);
+        return entityManager.persist(tag);
+    }
+
+    private void persistPost(User author, Category category, String slug, String status, LocalDateTime publishedAt,
+            Set<Tag> tags) {
+        Post post = new Post();
+        post.setAuthor(author);
+        post.setCategory(category);
+        post.setTitle(slug);
+        post.setSlug(slug);
+        post.setExcerpt(slug + " excerpt");
+        post.setStatus(status);
+        post.setCommentsCount(0);
+        post.setPublishedAt(publishedAt);
+        post.setCreatedAt(Instant.now());
+        post.setUpdatedAt(Instant.now());
+        post.getTags().addAll(tags);
+        entityManager.persist(post);
+    }
+
+    private List<String> slugs(Page<PostRepository.PostListRow> page) {
+        return page.getContent().stream().map(PostRepository.PostListRow::getSlug).toList();
+    }
+}
@@ -4,6 +4,7 @@ import com.sangui.sanguiblog.model.entity.Role;
 import com.sangui.sanguiblog.model.entity.User;
 import com.sangui.sanguiblog.model.repository.UserRepository;
 import com.sangui.sanguiblog.service.PermissionService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +13,7 @@ import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
@@ -22,8 +24,12 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class JwtAuthenticationFilterTest {
@@ -41,12 +47,13 @@ class JwtAuthenticationFilterTest {
         PermissionService permissionService = mock(PermissionService.class);
         JwtUtil jwtUtil = new JwtUtil(JWT_SECRET, 180, "sangui-blog");
         CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userRepository, permissionService);
-        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, new PrincipalCache());
 
         User renamedUser = user(7L, "new-name");
         when(userRepository.findByUsername("old-name")).thenReturn(Optional.empty());
         when(userRepository.findById(7L)).thenReturn(Optional.of(renamedUser));
-        when(permissionService.permissionsForRole("USER")).thenReturn(List.of("PERM_PROFILE_UPDATE"));
+        when(permissionService.authoritiesForRole("USER")).thenReturn(List.of(
+                new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("PERM_PROFILE_UPDATE")));
         String token = jwtUtil.generateToken("old-name", Map.of("uid", 7L, "role", "USER"));
 
         MockHttpServletRequest request = new MockHttpServletRequest();
@@ -64,6 +71,70 @@ class JwtAuthenticationFilterTest {
         assertEquals("new-name", principal.getUsername());
     }
 
+    @Test
+    void shouldReuseCachedPrincipalUntilUserIsEvicted() throws ServletException, IOException {
+        UserRepository userRepository = mock(UserRepository.class);
+        PermissionService permissionService = mock(PermissionService.class);
+        JwtUtil jwtUtil = new JwtUtil(JWT_SECRET, 180, "sangui-blog");
+        PrincipalCache principalCache = new PrincipalCache();
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil,
+                new CustomUserDetailsService(userRepository, permissionService), principalCache);
+
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user(7L, "tester")));
+        when(permissionService.authoritiesForRole("USER")).thenReturn(List.of(
+                new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("PERM_PROFILE_UPDATE")));
+        String token = jwtUtil.generateToken("tester", Map.of("uid", 7L, "role", "USER"));
+
+        authenticate(filter, token);
+        UserPrincipal first = authenticate(filter, token);
+        verify(userRepository, times(1)).findById(7L);
+
+        // 后台改名/改角色/改密码后失效，下一次请求重新加载
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user(7L, "renamed")));
+        principalCache.evictUser(7L);
+        UserPrincipal reloaded = authenticate(filter, token);
+
+        verify(userRepository, times(2)).findById(7L);
+        assertEquals("tester", first.getUsername());
+        assertEquals("renamed", reloaded.getUsername());
+    }
+
+    @Test
+    void shouldVerifyTokenOncePerRequestAndReuseClaimsUntilExpiry() {
+        JwtUtil jwtUtil = new JwtUtil(JWT_SECRET, 180, "sangui-blog");
+        String token = jwtUtil.generateToken("tester", Map.of("uid", 7L, "role", "USER"));
+
+        MockHttpServletRequest first = bearer(token);
+        Claims claims = jwtUtil.verifiedClaims(first);
+        assertNotNull(claims);
+        assertSame(claims, first.getAttribute(JwtUtil.VERIFIED_CLAIMS_ATTRIBUTE));
+        assertSame(claims, jwtUtil.verifiedClaims(first));
+        // 新请求携带同一 token：命中摘要缓存，不再重新校验
+        assertSame(claims, jwtUtil.verifiedClaims(bearer(token)));
+
+        MockHttpServletRequest tampered = bearer(token + "x");
+        assertNull(jwtUtil.verifiedClaims(tampered));
+        assertNotNull(tampered.getAttribute(JwtUtil.VERIFIED_CLAIMS_ATTRIBUTE));
+
+        JwtUtil shortLived = new JwtUtil(JWT_SECRET, -1, "sangui-blog");
+        assertNull(shortLived.verifiedClaims(bearer(shortLived.generateToken("tester", Map.of("uid", 7L)))));
+    }
+
+    private MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        return request;
+    }
+
+    private UserPrincipal authenticate(JwtAuthenticationFilter filter, String token)
+            throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+
     private User user(Long id, String username) {
         Role role = new Role();
         role.setId(3L);
@@ -0,0 +1,63 @@
+package com.sangui.sanguiblog.security;
+
+import com.sangui.sanguiblog.model.entity.Role;
+import com.sangui.sanguiblog.model.entity.User;
+import com.sangui.sanguiblog.service.PermissionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PermissionChecksTest {
+
+    private PermissionService permissionService;
+    private PermissionChecks checks;
+
+    @BeforeEach
+    void setUp() {
+        permissionService = mock(PermissionService.class);
+        checks = new PermissionChecks(permissionService);
+    }
+
+    @Test
+    void shouldAskCurrentMatrixInsteadOfCachedAuthorities() {
+        // 身份里缓存的是 PERM_POST_EDIT，但矩阵已撤销该权限：以矩阵为准
+        Authentication authentication = authentication("EDITOR", "PERM_POST_EDIT");
+        when(permissionService.hasPermission("EDITOR", "POST_EDIT")).thenReturn(false);
+        when(permissionService.hasPermission("EDITOR", "POST_CREATE")).thenReturn(true);
+
+        assertFalse(checks.has(authentication, "POST_EDIT"));
+        assertTrue(checks.has(authentication, "POST_CREATE"));
+        assertTrue(checks.hasAny(authentication, "POST_EDIT", "POST_CREATE"));
+    }
+
+    @Test
+    void shouldDenyWithoutUserPrincipal() {
+        Authentication anonymous = new UsernamePasswordAuthenticationToken("anonymousUser", null, List.of());
+
+        assertFalse(checks.has(anonymous, "POST_VIEW"));
+        assertFalse(checks.hasAny(null, "POST_VIEW"));
+        verify(permissionService, never()).hasPermission(anyString(), anyString());
+    }
+
+    private static Authentication authentication(String roleCode, String authority) {
+        Role role = new Role();
+        role.setCode(roleCode);
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("editor");
+        user.setRole(role);
+        UserPrincipal principal = new UserPrincipal(user, List.of(authority.substring("PERM_".length())));
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
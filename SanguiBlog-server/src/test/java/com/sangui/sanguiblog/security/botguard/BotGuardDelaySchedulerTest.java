@@ -0,0 +1,58 @@
+package com.sangui.sanguiblog.security.botguard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BotGuardDelaySchedulerTest {
+
+    private final BotGuardProperties props = new BotGuardProperties();
+    private final BotGuardDelayScheduler scheduler = new BotGuardDelayScheduler(props);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.destroy();
+    }
+
+    @Test
+    void shouldReleaseThreadAndDispatchAfterDelay() throws InterruptedException {
+        MockHttpServletRequest request = asyncRequest();
+
+        assertEquals(BotGuardDelayScheduler.Outcome.SCHEDULED, scheduler.delay(request, 30));
+        assertTrue(request.isAsyncStarted());
+        assertEquals(1, scheduler.inFlight());
+
+        MockAsyncContext context = (MockAsyncContext) request.getAsyncContext();
+        long deadline = System.currentTimeMillis() + 2_000L;
+        while (context.getDispatchedPath() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("/api/posts", context.getDispatchedPath());
+        assertEquals(0, scheduler.inFlight());
+        assertEquals(1, scheduler.peakInFlight());
+        assertEquals(1, scheduler.delayedTotal());
+    }
+
+    @Test
+    void shouldRefuseWhenSaturatedAndFallBackWithoutAsyncSupport() {
+        props.setMaxDelayedInFlight(1);
+
+        assertEquals(BotGuardDelayScheduler.Outcome.SCHEDULED, scheduler.delay(asyncRequest(), 60_000));
+        assertEquals(BotGuardDelayScheduler.Outcome.SATURATED, scheduler.delay(asyncRequest(), 60_000));
+        assertEquals(1, scheduler.saturatedTotal());
+        assertEquals(1, scheduler.inFlight());
+
+        assertEquals(BotGuardDelayScheduler.Outcome.UNSUPPORTED,
+                scheduler.delay(new MockHttpServletRequest("GET", "/api/posts"), 10));
+    }
+
+    private static MockHttpServletRequest asyncRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts");
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
@@ -0,0 +1,37 @@
+package com.sangui.sanguiblog.security.botguard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CSegmentStateTest {
+
+    @Test
+    void shouldCountDistinctIpv4HostsSeenInLastSixtySeconds() {
+        CSegmentState state = new CSegmentState();
+        long now = 1_700_000_000L;
+
+        assertEquals(1, state.touchAndCount("203.0.113.1", now));
+        assertEquals(1, state.touchAndCount("203.0.113.1", now + 1));
+        assertEquals(2, state.touchAndCount("203.0.113.2", now + 10));
+        assertEquals(3, state.touchAndCount("203.0.113.3", now + 59));
+        // .1 最后出现在 now+1，到 now+61 滑出窗口；.2 到 now+70 滑出
+        assertEquals(3, state.touchAndCount("203.0.113.3", now + 60));
+        assertEquals(2, state.touchAndCount("203.0.113.3", now + 61));
+        assertEquals(1, state.touchAndCount("203.0.113.3", now + 70));
+        assertEquals(1, state.touchAndCount("203.0.113.4", now + 500));
+        assertEquals(0, state.touchAndCount(" ", now + 500));
+    }
+
+    @Test
+    void shouldEstimateDistinctIpv6HostsWithinFewPercent() {
+        CSegmentState state = new CSegmentState();
+        long now = 1_700_000_000L;
+        int count = 0;
+        for (int i = 0; i < 80; i++) {
+            count = state.touchAndCount("2001:db8:1:2::" + Integer.toHexString(i + 1), now + i / 4);
+        }
+        assertTrue(count >= 70 && count <= 90, "estimate=" + count);
+    }
+}
@@ -0,0 +1,44 @@
+package com.sangui.sanguiblog.security.botguard;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IpRiskStateTest {
+
+    @Test
+    void shouldCountEachDimensionWithinSlidingSixtySecondWindow() {
+        IpRiskState state = new IpRiskState();
+        long start = 1_700_000_000L;
+
+        state.record(start, true, false, false);
+        state.record(start, false, true, true);
+        state.record(start + 30, true, true, false);
+
+        assertEquals(new IpRiskState.WindowCounts(3, 2, 2, 2, 1), state.counts(start + 30));
+        // 第一秒的槽位在 60 秒后滑出窗口
+        assertEquals(new IpRiskState.WindowCounts(3, 2, 2, 2, 1), state.counts(start + 59));
+        assertEquals(new IpRiskState.WindowCounts(1, 1, 1, 1, 0), state.counts(start + 60));
+        assertEquals(new IpRiskState.WindowCounts(0, 0, 0, 0, 0), state.counts(start + 90));
+
+        // 同一槽位在 16 分钟后复用，旧计数不会因分钟代号循环而复活
+        state.record(start + 16 * 60, false, false, false);
+        assertEquals(new IpRiskState.WindowCounts(1, 0, 0, 1, 0), state.counts(start + 16 * 60));
+    }
+
+    @Test
+    void shouldSaturatePerSecondCountersInsteadOfOverflowing() {
+        IpRiskState state = new IpRiskState();
+        long now = 1_700_000_123L;
+        for (int i = 0; i < 5000; i++) {
+            state.record(now, true, false, false);
+        }
+
+        IpRiskState.WindowCounts counts = state.counts(now);
+        assertEquals(4095, counts.total());
+        assertEquals(4095, counts.noCookie());
+        assertEquals(0, counts.emptyReferer());
+        assertEquals(4095, counts.content());
+        assertEquals(0, counts.asset());
+    }
+}
@@ -0,0 +1,100 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.ArticleVisitHeartbeatRequest;
+import com.sangui.sanguiblog.model.entity.AnalyticsPageView;
+import com.sangui.sanguiblog.model.repository.AnalyticsPageViewRepository;
+import com.sangui.sanguiblog.model.repository.AnalyticsTrafficSourceRepository;
+import com.sangui.sanguiblog.model.repository.CommentRepository;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import com.sangui.sanguiblog.model.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AnalyticsServiceBatchTest {
+
+    private AnalyticsService analyticsService;
+    private AnalyticsPageViewRepository pageViewRepo;
+    private PlatformTransactionManager transactionManager;
+    private final List<TransactionStatus> statuses = new ArrayList<>();
+    private final List<Integer> propagations = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        pageViewRepo = mock(AnalyticsPageViewRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            TransactionDefinition definition = invocation.getArgument(0);
+            propagations.add(definition.getPropagationBehavior());
+            TransactionStatus status = new SimpleTransactionStatus();
+            statuses.add(status);
+            return status;
+        });
+        analyticsService = new AnalyticsService(pageViewRepo, mock(PostRepository.class), mock(UserRepository.class),
+                mock(CommentRepository.class), mock(AnalyticsTrafficSourceRepository.class), mock(GeoIpService.class),
+                mock(IpBanService.class), new RecentVisitFeed(), new PresenceTracker(), transactionManager);
+    }
+
+    @Test
+    void failedEventRollsBackAloneAndGoodEventsCommit() {
+        AnalyticsPageView first = row("v1");
+        AnalyticsPageView broken = row("v2");
+        AnalyticsPageView last = row("v3");
+        when(pageViewRepo.findByVisitId("v1")).thenReturn(Optional.of(first));
+        when(pageViewRepo.findByVisitId("v2")).thenReturn(Optional.of(broken));
+        when(pageViewRepo.findByVisitId("v3")).thenReturn(Optional.of(last));
+        when(pageViewRepo.save(broken)).thenThrow(new IllegalStateException("boom"));
+
+        int accepted = analyticsService.recordBatch(List.of(
+                heartbeat("v1", 30), heartbeat("v2", 30), heartbeat("v3", 45)), "1.2.3.4", "UA", null, null);
+
+        assertEquals(2, accepted);
+        assertEquals(30, first.getActiveDurationSeconds());
+        assertEquals(45, last.getActiveDurationSeconds());
+        verify(pageViewRepo).save(first);
+        verify(pageViewRepo).save(last);
+
+        // 每条事件各自开启 REQUIRES_NEW 事务：失败的那条回滚，其余两条分别提交
+        assertEquals(3, statuses.size());
+        assertTrue(propagations.stream().allMatch(p -> p == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager).commit(statuses.get(0));
+        verify(transactionManager).rollback(statuses.get(1));
+        verify(transactionManager, never()).commit(statuses.get(1));
+        verify(transactionManager).commit(statuses.get(2));
+    }
+
+    @Test
+    void unknownEventTypesAreSkippedWithoutCounting() {
+        int accepted = analyticsService.recordBatch(List.of(
+                new AnalyticsService.BatchEvent("not-an-event", null, null)), "1.2.3.4", "UA", null, null);
+
+        assertEquals(0, accepted);
+        verify(pageViewRepo, never()).save(any());
+    }
+
+    private static AnalyticsPageView row(String visitId) {
+        AnalyticsPageView row = new AnalyticsPageView();
+        row.setVisitId(visitId);
+        row.setActiveDurationSeconds(0);
+        row.setHeartbeatCount(0);
+        return row;
+    }
+
+    private static AnalyticsService.BatchEvent heartbeat(String visitId, int seconds) {
+        ArticleVisitHeartbeatRequest request = new ArticleVisitHeartbeatRequest();
+        request.setVisitId(visitId);
+        request.setActiveDurationSeconds(seconds);
+        return new AnalyticsService.BatchEvent(request, null, null);
+    }
+}
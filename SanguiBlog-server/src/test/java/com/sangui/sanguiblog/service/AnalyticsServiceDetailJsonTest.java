@@ -13,6 +13,7 @@ import com.sangui.sanguiblog.util.IpUtils;
 import jakarta.persistence.Column;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Map;
 import java.util.Set;
@@ -37,7 +38,8 @@ class AnalyticsServiceDetailJsonTest {
         var trafficRepo = mock(AnalyticsTrafficSourceRepository.class);
         geoIpService = mock(GeoIpService.class);
         var ipBanService = mock(IpBanService.class);
-        analyticsService = new AnalyticsService(pageViewRepo, postRepo, userRepo, commentRepo, trafficRepo, geoIpService, ipBanService);
+        analyticsService = new AnalyticsService(pageViewRepo, postRepo, userRepo, commentRepo, trafficRepo, geoIpService, ipBanService,
+                new RecentVisitFeed(), new PresenceTracker(), mock(PlatformTransactionManager.class));
     }
 
     @Test
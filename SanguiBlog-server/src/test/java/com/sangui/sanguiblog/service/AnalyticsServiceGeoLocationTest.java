@@ -7,6 +7,7 @@ import com.sangui.sanguiblog.model.repository.PostRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -30,7 +31,8 @@ class AnalyticsServiceGeoLocationTest {
         geoIpService = mock(GeoIpService.class);
         IpBanService ipBanService = mock(IpBanService.class);
 
-        analyticsService = new AnalyticsService(pageViewRepo, postRepo, userRepo, commentRepo, trafficRepo, geoIpService, ipBanService);
+        analyticsService = new AnalyticsService(pageViewRepo, postRepo, userRepo, commentRepo, trafficRepo, geoIpService, ipBanService,
+                new RecentVisitFeed(), new PresenceTracker(), mock(PlatformTransactionManager.class));
 
         resolveGeoLocationMethod = AnalyticsService.class.getDeclaredMethod("resolveGeoLocation", String.class, String.class);
         resolveGeoLocationMethod.setAccessible(true);
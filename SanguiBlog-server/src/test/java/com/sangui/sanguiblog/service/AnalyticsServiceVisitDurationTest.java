@@ -13,6 +13,7 @@ import com.sangui.sanguiblog.model.repository.UserRepository;
 import jakarta.persistence.Column;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -39,7 +40,8 @@ class AnalyticsServiceVisitDurationTest {
         geoIpService = mock(GeoIpService.class);
         IpBanService ipBanService = mock(IpBanService.class);
 
-        analyticsService = new AnalyticsService(pageViewRepo, postRepo, userRepo, commentRepo, trafficRepo, geoIpService, ipBanService);
+        analyticsService = new AnalyticsService(pageViewRepo, postRepo, userRepo, commentRepo, trafficRepo, geoIpService, ipBanService,
+                new RecentVisitFeed(), new PresenceTracker(), mock(PlatformTransactionManager.class));
     }
 
     // ===== sanitizeDurationSeconds =====
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -36,7 +37,8 @@ class AnalyticsServiceVisitorSourceInsightsTest {
         UserRepository userRepo = mock(UserRepository.class);
         GeoIpService geoIpService = mock(GeoIpService.class);
         IpBanService ipBanService = mock(IpBanService.class);
-        analyticsService = new AnalyticsService(pageViewRepo, postRepo, userRepo, commentRepo, trafficRepo, geoIpService, ipBanService);
+        analyticsService = new AnalyticsService(pageViewRepo, postRepo, userRepo, commentRepo, trafficRepo, geoIpService, ipBanService,
+                new RecentVisitFeed(), new PresenceTracker(), mock(PlatformTransactionManager.class));
 
         when(postRepo.sumViewsByStatus(anyString())).thenReturn(0L);
         when(postRepo.sumCommentsByStatus(anyString())).thenReturn(0L);
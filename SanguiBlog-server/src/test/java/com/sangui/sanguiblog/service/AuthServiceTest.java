@@ -6,6 +6,7 @@ import com.sangui.sanguiblog.model.entity.Role;
 import com.sangui.sanguiblog.model.entity.User;
 import com.sangui.sanguiblog.model.repository.UserRepository;
 import com.sangui.sanguiblog.security.JwtUtil;
+import com.sangui.sanguiblog.security.PrincipalCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -41,7 +42,8 @@ class AuthServiceTest {
                 passwordEncoder,
                 jwtUtil,
                 storagePathResolver,
-                loginAttemptService
+                loginAttemptService,
+                new PrincipalCache()
         );
 
         User user = new User();
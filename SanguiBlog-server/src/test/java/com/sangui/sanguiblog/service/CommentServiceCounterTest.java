@@ -0,0 +1,82 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.entity.Comment;
+import com.sangui.sanguiblog.model.entity.Post;
+import com.sangui.sanguiblog.model.repository.CommentMentionRepository;
+import com.sangui.sanguiblog.model.repository.CommentRepository;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import com.sangui.sanguiblog.model.repository.UserRepository;
+import com.sangui.sanguiblog.service.outbox.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentServiceCounterTest {
+
+    private CommentRepository commentRepository;
+    private PostRepository postRepository;
+    private CommentService service;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        postRepository = mock(PostRepository.class);
+        service = new CommentService(commentRepository, postRepository, mock(UserRepository.class),
+                mock(CommentMentionRepository.class), mock(OutboxService.class), new ContentRevisionService());
+        post = new Post();
+        post.setId(7L);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void shouldAdjustCounterOnlyWhenApprovalFlips() {
+        comment(1L, "APPROVED");
+
+        service.updateCommentAsAdmin(1L, null, "spam", 1L);
+        verify(postRepository).adjustCommentsCount(7L, -1);
+
+        service.updateCommentAsAdmin(1L, null, "REJECTED", 1L);
+        verify(postRepository, never()).adjustCommentsCount(7L, 1);
+
+        service.updateCommentAsAdmin(1L, null, "APPROVED", 1L);
+        verify(postRepository).adjustCommentsCount(7L, 1);
+    }
+
+    @Test
+    void shouldNotDecrementWhenDeletingUnapprovedComment() {
+        comment(2L, "PENDING");
+
+        service.deleteComment(7L, 2L, 1L, true);
+
+        verify(postRepository, never()).adjustCommentsCount(anyLong(), anyInt());
+        verify(postRepository, never()).save(any(Post.class));
+    }
+
+    @Test
+    void shouldDecrementWhenDeletingApprovedComment() {
+        comment(3L, "APPROVED");
+
+        service.deleteComment(7L, 3L, 1L, true);
+
+        verify(postRepository).adjustCommentsCount(7L, -1);
+    }
+
+    private Comment comment(Long id, String status) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setPost(post);
+        comment.setStatus(status);
+        when(commentRepository.findById(id)).thenReturn(Optional.of(comment));
+        return comment;
+    }
+}
@@ -0,0 +1,88 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.CreateCommentRequest;
+import com.sangui.sanguiblog.model.entity.Comment;
+import com.sangui.sanguiblog.model.entity.CommentMention;
+import com.sangui.sanguiblog.model.entity.Post;
+import com.sangui.sanguiblog.model.entity.User;
+import com.sangui.sanguiblog.model.repository.CommentMentionRepository;
+import com.sangui.sanguiblog.model.repository.CommentRepository;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import com.sangui.sanguiblog.model.repository.UserRepository;
+import com.sangui.sanguiblog.service.outbox.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentServiceMentionTest {
+
+    private CommentRepository commentRepository;
+    private UserRepository userRepository;
+    private CommentMentionRepository commentMentionRepository;
+    private OutboxService outboxService;
+    private CommentService service;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        PostRepository postRepository = mock(PostRepository.class);
+        userRepository = mock(UserRepository.class);
+        commentMentionRepository = mock(CommentMentionRepository.class);
+        outboxService = mock(OutboxService.class);
+        service = new CommentService(commentRepository, postRepository, userRepository,
+                commentMentionRepository, outboxService, new ContentRevisionService());
+
+        Post post = new Post();
+        post.setId(7L);
+        when(postRepository.findById(7L)).thenReturn(Optional.of(post));
+        when(commentRepository.save(any(Comment.class))).thenAnswer(inv -> {
+            Comment comment = inv.getArgument(0);
+            comment.setId(100L);
+            return comment;
+        });
+    }
+
+    @Test
+    void shouldPersistMentionInsideCreateBeforeNotificationIsQueued() {
+        User mentioned = new User();
+        mentioned.setId(5L);
+        when(userRepository.findByUsernameIgnoreCase("alice")).thenReturn(Optional.of(mentioned));
+
+        service.create(7L, request("@alice：同意"), "1.2.3.4", null);
+
+        ArgumentCaptor<CommentMention> captor = ArgumentCaptor.forClass(CommentMention.class);
+        InOrder order = inOrder(commentMentionRepository, outboxService);
+        order.verify(commentMentionRepository).save(captor.capture());
+        order.verify(outboxService).enqueueCommentNotification(100L);
+        assertEquals(100L, captor.getValue().getId().getCommentId());
+        assertEquals(5L, captor.getValue().getId().getMentionedUserId());
+    }
+
+    @Test
+    void shouldSkipMentionWhenNameDoesNotResolve() {
+        when(userRepository.findByUsernameIgnoreCase("nobody")).thenReturn(Optional.empty());
+
+        service.create(7L, request("@nobody 你好"), "1.2.3.4", null);
+
+        verify(commentMentionRepository, never()).save(any());
+        verify(outboxService).enqueueCommentNotification(100L);
+    }
+
+    private static CreateCommentRequest request(String content) {
+        CreateCommentRequest request = new CreateCommentRequest();
+        request.setAuthorName("访客");
+        request.setContent(content);
+        return request;
+    }
+}
@@ -0,0 +1,121 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.CommentDto;
+import com.sangui.sanguiblog.model.dto.CursorPageResponse;
+import com.sangui.sanguiblog.model.entity.Comment;
+import com.sangui.sanguiblog.model.entity.Post;
+import com.sangui.sanguiblog.model.repository.CommentMentionRepository;
+import com.sangui.sanguiblog.model.repository.CommentRepository;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import com.sangui.sanguiblog.model.repository.UserRepository;
+import com.sangui.sanguiblog.service.outbox.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentServiceThreadTest {
+
+    private CommentRepository commentRepository;
+    private CommentService service;
+    private Post post;
+    private final List<Comment> comments = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        service = new CommentService(commentRepository, mock(PostRepository.class), mock(UserRepository.class),
+                mock(CommentMentionRepository.class), mock(OutboxService.class), new ContentRevisionService());
+        post = new Post();
+        post.setId(9L);
+        // 按 createdAt 倒序返回，与仓库查询一致
+        Comment root1 = comment(1L, null, 100);
+        Comment root2 = comment(2L, null, 200);
+        Comment root3 = comment(3L, null, 300);
+        Comment reply11 = comment(11L, root1, 110);
+        Comment reply12 = comment(12L, reply11, 120);
+        Comment reply13 = comment(13L, root1, 130);
+        Comment orphan = comment(99L, comment(98L, null, 50), 400);
+        comments.addAll(List.of(orphan, root3, root2, reply13, reply12, reply11, root1));
+        when(commentRepository.findTreeSourceByPostId(9L, "APPROVED")).thenAnswer(inv -> List.copyOf(comments));
+        when(commentRepository.save(any(Comment.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void shouldPageRootThreadsWithBoundedReplyPreview() {
+        CursorPageResponse<CommentDto> first = service.listThreads(9L, null, 2, 1);
+
+        assertEquals(List.of(3L, 2L), ids(first.getRecords()));
+        assertTrue(first.isHasMore());
+        assertEquals(3L, first.getTotal());
+
+        CursorPageResponse<CommentDto> second = service.listThreads(9L, first.getNextCursor(), 2, 1);
+        assertEquals(List.of(1L), ids(second.getRecords()));
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+        CommentDto root1 = second.getRecords().get(0);
+        assertEquals(3, root1.getReplyCount());
+        assertEquals(List.of(11L), ids(root1.getReplies()));
+
+        CursorPageResponse<CommentDto> replies = service.listReplies(9L, 1L, "110_11", 10);
+        assertEquals(List.of(12L, 13L), ids(replies.getRecords()));
+        assertEquals(11L, replies.getRecords().get(0).getParentId());
+        verify(commentRepository, times(1)).findTreeSourceByPostId(9L, "APPROVED");
+    }
+
+    @Test
+    void shouldKeepLegacyNestedTreeAndInvalidateOnWrite() {
+        List<CommentDto> tree = service.listByPost(9L);
+        assertEquals(List.of(3L, 2L, 1L), ids(tree));
+        assertEquals(List.of(11L, 13L), ids(tree.get(2).getReplies()));
+        assertEquals(List.of(12L), ids(tree.get(2).getReplies().get(0).getReplies()));
+
+        // 返回的是副本，修改不会污染缓存
+        tree.get(0).setContent("changed");
+        assertEquals("comment-3", service.listByPost(9L).get(0).getContent());
+        verify(commentRepository, times(1)).findTreeSourceByPostId(9L, "APPROVED");
+
+        Comment root2 = comments.get(2);
+        when(commentRepository.findById(2L)).thenReturn(Optional.of(root2));
+        service.updateCommentAsAdmin(2L, null, "SPAM", 1L);
+        comments.remove(root2);
+
+        assertEquals(List.of(3L, 1L), ids(service.listByPost(9L)));
+        verify(commentRepository, times(2)).findTreeSourceByPostId(9L, "APPROVED");
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> service.listThreads(9L, "oops", 10, 3));
+    }
+
+    private Comment comment(Long id, Comment parent, long createdAtMs) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setPost(post);
+        comment.setParent(parent);
+        comment.setStatus("APPROVED");
+        comment.setContent("comment-" + id);
+        comment.setAuthorName("user" + id);
+        comment.setCreatedAt(Instant.ofEpochMilli(createdAtMs));
+        return comment;
+    }
+
+    private static List<Long> ids(List<CommentDto> dtos) {
+        return dtos.stream().map(CommentDto::getId).toList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.sangui.sanguiblog.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ContentRevisionServiceTest {
+
+    @Test
+    void shouldRollVolatileScopesWithTimeWindow() {
+        ContentRevisionService service = new ContentRevisionService();
+        service.setVolatileWindowSeconds(60);
+
+        String first = service.etag(0L, ContentRevisionService.Scope.POSTS);
+
+        assertEquals(first, service.etag(59_000L, ContentRevisionService.Scope.POSTS));
+        assertNotEquals(first, service.etag(60_000L, ContentRevisionService.Scope.POSTS));
+        assertEquals(service.etag(0L, ContentRevisionService.Scope.GAMES),
+                service.etag(60_000L, ContentRevisionService.Scope.GAMES));
+    }
+
+    @Test
+    void shouldDeferBumpUntilTransactionCommits() {
+        ContentRevisionService service = new ContentRevisionService();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.bumpAfterCommit(ContentRevisionService.Scope.ABOUT);
+            assertEquals(0L, service.revision(ContentRevisionService.Scope.ABOUT));
+
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCommit();
+            }
+            assertEquals(1L, service.revision(ContentRevisionService.Scope.ABOUT));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldBumpImmediatelyOutsideTransaction() {
+        ContentRevisionService service = new ContentRevisionService();
+
+        service.bumpAfterCommit(ContentRevisionService.Scope.POSTS, ContentRevisionService.Scope.TAXONOMY);
+
+        assertEquals(1L, service.revision(ContentRevisionService.Scope.POSTS));
+        assertEquals(1L, service.revision(ContentRevisionService.Scope.TAXONOMY));
+        assertEquals(0L, service.revision(ContentRevisionService.Scope.GAMES));
+    }
+}
@@ -6,12 +6,14 @@ import com.sangui.sanguiblog.model.dto.AdminUnbanIpRequest;
 import com.sangui.sanguiblog.model.entity.BannedIp;
 import com.sangui.sanguiblog.model.entity.IpBanAuditLog;
 import com.sangui.sanguiblog.model.entity.User;
+import com.sangui.sanguiblog.model.repository.BannedIpHitRepository.HitDelta;
 import com.sangui.sanguiblog.model.repository.BannedIpRepository;
 import com.sangui.sanguiblog.model.repository.IpBanAuditLogRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.lang.reflect.Method;
@@ -26,10 +28,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,6 +42,7 @@ class IpBanServiceTest {
     private BannedIpRepository bannedIpRepository;
     private IpBanAuditLogRepository auditRepository;
     private UserRepository userRepository;
+    private IpBanHitBuffer hitBuffer;
     private IpBanService service;
 
     @BeforeEach
@@ -45,7 +50,8 @@ class IpBanServiceTest {
         bannedIpRepository = mock(BannedIpRepository.class);
         auditRepository = mock(IpBanAuditLogRepository.class);
         userRepository = mock(UserRepository.class);
-        service = new IpBanService(bannedIpRepository, auditRepository, userRepository);
+        hitBuffer = new IpBanHitBuffer(bannedIpRepository);
+        service = new IpBanService(bannedIpRepository, auditRepository, userRepository, hitBuffer);
         User admin = new User();
         admin.setId(1L);
         admin.setUsername("admin");
@@ -121,10 +127,43 @@ class IpBanServiceTest {
     }
 
     @Test
-    void shouldRejectCidr() {
-        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
-                () -> service.createBan(new AdminCreateIpBanRequest("203.0.113.0/24", null, null), 1L, "8.8.8.8"));
-        assertTrue(ex.getMessage().contains("CIDR") || ex.getMessage().contains("非法"));
+    void shouldCreateCanonicalCidrBanAndRejectUnsafeRanges() {
+        when(bannedIpRepository.findByIp("203.0.113.0/24")).thenReturn(Optional.empty());
+        when(bannedIpRepository.save(any(BannedIp.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        AdminBannedIpDto dto = service.createBan(new AdminCreateIpBanRequest("203.0.113.77/24", null, null), 1L, "8.8.8.8");
+        assertEquals("203.0.113.0/24", dto.getIp());
+
+        IllegalArgumentException tooBroad = assertThrows(IllegalArgumentException.class,
+                () -> service.createBan(new AdminCreateIpBanRequest("203.0.0.0/8", null, null), 1L, "8.8.8.8"));
+        assertTrue(tooBroad.getMessage().contains("/16"));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.createBan(new AdminCreateIpBanRequest("192.168.0.0/16", null, null), 1L, "8.8.8.8"));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.createBan(new AdminCreateIpBanRequest("203.0.113.0/33", null, null), 1L, "8.8.8.8"));
+        IllegalArgumentException self = assertThrows(IllegalArgumentException.class,
+                () -> service.createBan(new AdminCreateIpBanRequest("203.0.113.0/24", null, null), 1L, "203.0.113.9"));
+        assertTrue(self.getMessage().contains("自身"));
+    }
+
+    @Test
+    void shouldMatchCidrBansFromMemoryWithoutPerIpQueries() {
+        when(bannedIpRepository.findByEnabledTrue()).thenReturn(List.of(
+                ban(7L, "203.0.113.0/24", true),
+                ban(8L, "203.0.113.10", true),
+                ban(9L, "2001:db8:abcd::/48", true)));
+
+        assertFalse(service.isAccessAllowed("203.0.113.200"));
+        assertFalse(service.isAccessAllowed("::ffff:203.0.113.201"));
+        assertFalse(service.isAccessAllowed("2001:DB8:ABCD:12::1"));
+        assertTrue(service.isAccessAllowed("203.0.114.1"));
+        assertTrue(service.isAccessAllowed("2001:db8:abce::1"));
+
+        assertEquals(2L, hitBuffer.pending(7L).hits());
+        verify(bannedIpRepository, times(1)).findByEnabledTrue();
+        // 最长前缀匹配：单 IP 封禁比所在网段更具体
+        assertEquals(Map.of("203.0.113.10", 8L, "203.0.113.11", 7L),
+                service.resolveEnabledBanIds(List.of("203.0.113.10", "203.0.113.11", "198.51.100.1")));
     }
 
     @Test
@@ -163,39 +202,70 @@ class IpBanServiceTest {
     @Test
     void shouldRecordHitAndReturnForbiddenForBannedIp() {
         BannedIp ban = ban(7L, "203.0.113.10", true);
-        when(bannedIpRepository.findByIpAndEnabledTrue("203.0.113.10")).thenReturn(Optional.of(ban));
-        when(bannedIpRepository.incrementHit(eq("203.0.113.10"), any())).thenReturn(1);
+        when(bannedIpRepository.findByEnabledTrue()).thenReturn(List.of(ban));
 
         assertFalse(service.isAccessAllowed("203.0.113.10"));
-        verify(bannedIpRepository).incrementHit(eq("203.0.113.10"), any());
+        assertFalse(service.isAccessAllowed("203.0.113.10"));
+        verify(bannedIpRepository, never()).addHits(any(), anyLong(), any());
+
+        // 后台列表合并尚未写回的命中
+        when(bannedIpRepository.search(any(), eq(false), any())).thenReturn(new PageImpl<>(List.of(ban)));
+        assertEquals(2L, service.list(1, 20, null, false).getRecords().get(0).getHitCount());
+
+        hitBuffer.flush();
+        ArgumentCaptor<List<HitDelta>> batch = ArgumentCaptor.forClass(List.class);
+        verify(bannedIpRepository).addHitsInBatch(batch.capture());
+        assertEquals(1, batch.getValue().size());
+        assertEquals(7L, batch.getValue().get(0).banId());
+        assertEquals(2L, batch.getValue().get(0).hits());
+        verify(bannedIpRepository, never()).addHits(any(), anyLong(), any());
+        assertEquals(0, hitBuffer.pendingBans());
+    }
+
+    @Test
+    void shouldFallBackToPerRowWritesWhenBatchFlushFails() {
+        LocalDateTime now = LocalDateTime.now();
+        hitBuffer.record(7L, now);
+        hitBuffer.record(7L, now);
+        hitBuffer.record(8L, now);
+        doThrow(new RuntimeException("batch failed")).when(bannedIpRepository).addHitsInBatch(any());
+        doThrow(new RuntimeException("row failed")).when(bannedIpRepository).addHits(eq(8L), anyLong(), any());
+
+        hitBuffer.flush();
+
+        verify(bannedIpRepository).addHits(7L, 2L, now);
+        verify(bannedIpRepository).addHits(8L, 1L, now);
+        // 只有逐条重试仍失败的计数回到缓冲
+        assertEquals(1, hitBuffer.pendingBans());
+        assertEquals(1L, hitBuffer.pending(8L).hits());
     }
 
     @Test
-    void incrementHitRepositoryMethodShouldRunInTransaction() throws Exception {
-        Method method = BannedIpRepository.class.getMethod("incrementHit", String.class, LocalDateTime.class);
+    void addHitsRepositoryMethodShouldRunInTransaction() throws Exception {
+        Method method = BannedIpRepository.class.getMethod("addHits", Long.class, long.class, LocalDateTime.class);
 
         assertNotNull(method.getAnnotation(Transactional.class));
     }
 
     @Test
     void shouldReturnAllowedForUnbannedIp() {
-        when(bannedIpRepository.findByIpAndEnabledTrue("203.0.113.10")).thenReturn(Optional.empty());
+        when(bannedIpRepository.findByEnabledTrue()).thenReturn(List.of());
 
         assertTrue(service.isAccessAllowed("203.0.113.10"));
-        verify(bannedIpRepository, never()).incrementHit(anyString(), any());
+        assertEquals(0, hitBuffer.pendingBans());
     }
 
     @Test
     void shouldFailOpenOnDbLookupError() {
-        when(bannedIpRepository.findByIpAndEnabledTrue("203.0.113.10")).thenThrow(new RuntimeException("db down"));
+        when(bannedIpRepository.findByEnabledTrue()).thenThrow(new RuntimeException("db down"));
 
         assertTrue(service.isAccessAllowed("203.0.113.10"));
     }
 
     @Test
-    void shouldInvalidateCacheAfterBan() {
-        when(bannedIpRepository.findByIpAndEnabledTrue("203.0.113.10")).thenReturn(Optional.empty());
-        assertTrue(service.isAccessAllowed("203.0.113.10")); // caches allowed
+    void shouldRebuildSnapshotAfterBan() {
+        when(bannedIpRepository.findByEnabledTrue()).thenReturn(List.of());
+        assertTrue(service.isAccessAllowed("203.0.113.10")); // loads rule snapshot
 
         when(bannedIpRepository.findByIp("203.0.113.10")).thenReturn(Optional.empty());
         when(bannedIpRepository.save(any(BannedIp.class))).thenAnswer(inv -> {
@@ -203,18 +273,30 @@ class IpBanServiceTest {
             b.setId(7L);
             return b;
         });
-        service.createBan(new AdminCreateIpBanRequest("203.0.113.10", "x", null), 1L, "8.8.8.8"); // invalidates
+        when(bannedIpRepository.findByEnabledTrue()).thenReturn(List.of(ban(7L, "203.0.113.10", true)));
+        // 无事务时立即重建（事务中则在提交后重建），新树构建完成后整体替换
+        service.createBan(new AdminCreateIpBanRequest("203.0.113.10", "x", null), 1L, "8.8.8.8");
 
-        BannedIp ban = ban(7L, "203.0.113.10", true);
-        when(bannedIpRepository.findByIpAndEnabledTrue("203.0.113.10")).thenReturn(Optional.of(ban));
-        when(bannedIpRepository.incrementHit(eq("203.0.113.10"), any())).thenReturn(1);
-        assertFalse(service.isAccessAllowed("203.0.113.10")); // re-queried DB due to invalidation
+        assertFalse(service.isAccessAllowed("203.0.113.10"));
+        verify(bannedIpRepository, times(2)).findByEnabledTrue();
+    }
+
+    @Test
+    void shouldKeepServingPreviousSnapshotWhenRefreshFails() {
+        when(bannedIpRepository.findByEnabledTrue()).thenReturn(List.of(ban(7L, "203.0.113.10", true)));
+        assertFalse(service.isAccessAllowed("203.0.113.10"));
+
+        when(bannedIpRepository.findByEnabledTrue()).thenThrow(new RuntimeException("db down"));
+        service.refreshBanTrie();
+
+        assertFalse(service.isAccessAllowed("203.0.113.10"));
+        assertEquals(1, service.banRuleCount());
     }
 
     @Test
     void shouldResolveEnabledBanIdsFromEntities() {
         BannedIp ban = ban(7L, "203.0.113.10", true);
-        when(bannedIpRepository.findByEnabledTrueAndIpIn(any())).thenReturn(List.of(ban));
+        when(bannedIpRepository.findByEnabledTrue()).thenReturn(List.of(ban));
 
         Map<String, Long> result = service.resolveEnabledBanIds(List.of("203.0.113.10", "203.0.113.20"));
 
@@ -0,0 +1,67 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.NotificationDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationPushHubTest {
+
+    @Test
+    void shouldSeedUnreadOnConnectAndTrackInMemory() {
+        NotificationPushHub hub = new NotificationPushHub();
+        AtomicInteger catchUps = new AtomicInteger();
+
+        SseEmitter emitter = hub.subscribe(1L, () -> {
+            catchUps.incrementAndGet();
+            return 4L;
+        });
+
+        assertNotNull(emitter);
+        assertEquals(4L, hub.cachedUnread(1L));
+
+        hub.publish(1L, NotificationDto.builder().id(10L).build());
+        hub.publish(1L, NotificationDto.builder().id(11L).build());
+        assertEquals(6L, hub.cachedUnread(1L));
+
+        hub.decrementUnread(1L, 1);
+        assertEquals(5L, hub.cachedUnread(1L));
+        hub.resetUnread(1L);
+        assertEquals(0L, hub.cachedUnread(1L));
+        assertEquals(1, catchUps.get());
+    }
+
+    @Test
+    void shouldIgnoreOfflineUsersAndCapConnectionsPerUser() {
+        NotificationPushHub hub = new NotificationPushHub();
+
+        hub.publish(2L, NotificationDto.builder().id(1L).build());
+        hub.decrementUnread(2L, 1);
+        assertNull(hub.cachedUnread(2L));
+
+        for (int i = 0; i < 7; i++) {
+            hub.subscribe(3L, () -> 0L);
+        }
+        assertEquals(5, hub.connectionCount());
+    }
+
+    @Test
+    void shouldBoundStreamLifetimeByTokenExpiry() {
+        NotificationPushHub hub = new NotificationPushHub();
+
+        assertNull(hub.subscribe(4L, Instant.now().minusSeconds(1), () -> 0L));
+        assertEquals(0, hub.connectionCount());
+
+        SseEmitter emitter = hub.subscribe(4L, Instant.now().plusSeconds(60), () -> 2L);
+        assertNotNull(emitter);
+        assertTrue(emitter.getTimeout() <= 60_000L);
+        assertEquals(2L, hub.cachedUnread(4L));
+    }
+}
@@ -2,21 +2,29 @@ package com.sangui.sanguiblog.service;
 
 import com.sangui.sanguiblog.model.dto.NotificationListDto;
 import com.sangui.sanguiblog.model.entity.Comment;
+import com.sangui.sanguiblog.model.entity.CommentMention;
 import com.sangui.sanguiblog.model.entity.CommentNotification;
+import com.sangui.sanguiblog.model.entity.Post;
 import com.sangui.sanguiblog.model.entity.User;
 import com.sangui.sanguiblog.model.repository.CommentNotificationRepository;
+import com.sangui.sanguiblog.model.repository.CommentMentionRepository;
 import com.sangui.sanguiblog.model.repository.CommentRepository;
 import com.sangui.sanguiblog.model.repository.UserRepository;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class NotificationServiceTest {
@@ -25,8 +33,10 @@ class NotificationServiceTest {
     void shouldPreferLatestUserAvatarOverHistoricalNotificationAvatar() {
         CommentNotificationRepository notificationRepository = mock(CommentNotificationRepository.class);
         UserRepository userRepository = mock(UserRepository.class);
-        CommentRepository commentRepository = mock(CommentRepository.class);
-        NotificationService service = new NotificationService(notificationRepository, userRepository, commentRepository);
+        CommentMentionRepository commentMentionRepository = mock(CommentMentionRepository.class);
+        NotificationService service = new NotificationService(notificationRepository, userRepository,
+                mock(CommentRepository.class), commentMentionRepository,
+                new NotificationPushHub());
 
         User author = new User();
         author.setId(9L);
@@ -53,4 +63,39 @@ class NotificationServiceTest {
         assertEquals(1, result.getItems().size());
         assertEquals("/uploads/avatar/latest-avatar.png", result.getItems().get(0).getAvatar());
     }
+
+    @Test
+    void shouldNotifyMentionedUserFromPersistedMentionWithoutWritingIt() {
+        CommentNotificationRepository notificationRepository = mock(CommentNotificationRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        CommentMentionRepository commentMentionRepository = mock(CommentMentionRepository.class);
+        NotificationService service = new NotificationService(notificationRepository, userRepository,
+                mock(CommentRepository.class), commentMentionRepository,
+                new NotificationPushHub());
+
+        User actor = new User();
+        actor.setId(1L);
+        User mentioned = new User();
+        mentioned.setId(5L);
+        Post post = new Post();
+        post.setId(7L);
+        Comment comment = new Comment();
+        comment.setId(100L);
+        comment.setPost(post);
+        comment.setUser(actor);
+        comment.setContent("@alice：同意");
+
+        when(commentMentionRepository.findByIdCommentId(100L)).thenReturn(List.of(new CommentMention(100L, 5L)));
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(mentioned));
+        when(notificationRepository.save(any(CommentNotification.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.createForComment(comment);
+
+        ArgumentCaptor<Iterable<Long>> targets = ArgumentCaptor.forClass(Iterable.class);
+        verify(userRepository).findAllById(targets.capture());
+        assertEquals(Set.of(5L), targets.getValue());
+        verify(notificationRepository).save(any(CommentNotification.class));
+        verify(commentMentionRepository, never()).save(any());
+        verify(userRepository, never()).findByUsernameIgnoreCase(any());
+    }
 }
@@ -0,0 +1,52 @@
+package com.sangui.sanguiblog.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermissionMatrixSnapshotTest {
+
+    @Test
+    void shouldAnswerGrantsAndReusePrebuiltAuthorities() {
+        PermissionMatrixSnapshot matrix = PermissionMatrixSnapshot.of(
+                List.of("POST_VIEW", "POST_EDIT", "USER_MANAGE"),
+                Map.of("ADMIN", List.of("POST_VIEW", "POST_EDIT", "UNKNOWN"),
+                        "user", List.of("POST_VIEW")));
+
+        assertTrue(matrix.hasPermission("ADMIN", "POST_EDIT"));
+        assertTrue(matrix.hasPermission("USER", "POST_VIEW"));
+        assertFalse(matrix.hasPermission("USER", "POST_EDIT"));
+        assertFalse(matrix.hasPermission("ADMIN", "UNKNOWN"));
+        assertFalse(matrix.hasPermission("GUEST", "POST_VIEW"));
+        assertEquals(List.of("POST_VIEW", "POST_EDIT"), matrix.codes("admin"));
+
+        List<GrantedAuthority> authorities = matrix.authorities("ADMIN");
+        assertEquals(List.of("ROLE_ADMIN", "PERM_POST_VIEW", "PERM_POST_EDIT"),
+                authorities.stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(authorities, matrix.authorities("ADMIN"));
+        assertEquals(List.of("ROLE_GUEST"),
+                matrix.authorities("GUEST").stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void shouldBuildUnlistedRolesFromFallback() {
+        PermissionMatrixSnapshot matrix = PermissionMatrixSnapshot.of(
+                List.of("POST_VIEW", "POST_EDIT"),
+                Map.of("ADMIN", List.of("POST_VIEW", "POST_EDIT")),
+                role -> "EDITOR".equals(role) ? List.of("POST_EDIT") : List.of());
+
+        assertTrue(matrix.hasPermission("editor", "POST_EDIT"));
+        assertFalse(matrix.hasPermission("EDITOR", "POST_VIEW"));
+        assertEquals(List.of("ROLE_EDITOR", "PERM_POST_EDIT"),
+                matrix.authorities("Editor").stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(matrix.authorities("EDITOR"), matrix.authorities("editor"));
+        assertEquals(List.of(), matrix.codes("GUEST"));
+    }
+}
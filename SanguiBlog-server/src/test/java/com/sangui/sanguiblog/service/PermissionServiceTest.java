@@ -0,0 +1,78 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.entity.Permission;
+import com.sangui.sanguiblog.model.entity.Role;
+import com.sangui.sanguiblog.model.permission.PermissionDefinition;
+import com.sangui.sanguiblog.model.repository.PermissionRepository;
+import com.sangui.sanguiblog.model.repository.RolePermissionRepository;
+import com.sangui.sanguiblog.model.repository.RoleRepository;
+import com.sangui.sanguiblog.security.PrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PermissionServiceTest {
+
+    private PermissionRepository permissionRepository;
+    private RoleRepository roleRepository;
+    private RolePermissionRepository rolePermissionRepository;
+    private PrincipalCache principalCache;
+    private PermissionService permissionService;
+
+    @BeforeEach
+    void setUp() {
+        permissionRepository = mock(PermissionRepository.class);
+        roleRepository = mock(RoleRepository.class);
+        rolePermissionRepository = mock(RolePermissionRepository.class);
+        principalCache = mock(PrincipalCache.class);
+        permissionService = new PermissionService(permissionRepository, roleRepository, rolePermissionRepository,
+                principalCache);
+
+        AtomicLong ids = new AtomicLong();
+        List<Permission> permissions = Arrays.stream(PermissionDefinition.values())
+                .map(definition -> {
+                    Permission permission = new Permission();
+                    permission.setId(ids.incrementAndGet());
+                    permission.setCode(definition.getCode());
+                    return permission;
+                })
+                .toList();
+        when(permissionRepository.findAll()).thenReturn(permissions);
+        when(rolePermissionRepository.findAllWithRoleAndPermission()).thenReturn(List.of());
+        when(roleRepository.findAll()).thenReturn(List.of());
+    }
+
+    @Test
+    void ensureDefaultPermissionsShouldEvictCachedPrincipals() {
+        when(roleRepository.findByCode(anyString())).thenAnswer(invocation -> {
+            Role role = new Role();
+            role.setId(1L);
+            role.setCode(invocation.getArgument(0));
+            return Optional.of(role);
+        });
+        when(permissionRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        permissionService.ensureDefaultPermissions();
+
+        verify(principalCache).evictAll();
+    }
+
+    @Test
+    void rolesWithoutStoredGrantsShouldFallBackToDefaultPermissions() {
+        assertTrue(permissionService.hasPermission("ADMIN", "POST_EDIT"));
+        assertTrue(permissionService.hasPermission("user", "POST_VIEW"));
+        assertFalse(permissionService.hasPermission("USER", "POST_EDIT"));
+        assertTrue(permissionService.authoritiesForRole("admin").stream()
+                .anyMatch(authority -> "PERM_POST_EDIT".equals(authority.getAuthority())));
+    }
+}
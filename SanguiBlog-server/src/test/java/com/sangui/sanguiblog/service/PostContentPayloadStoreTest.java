@@ -0,0 +1,93 @@
+package com.sangui.sanguiblog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sangui.sanguiblog.model.dto.PostContentDto;
+import com.sangui.sanguiblog.util.ContentEncodingUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostContentPayloadStoreTest {
+
+    private PostContentPayloadStore store;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        store = new PostContentPayloadStore(new ObjectMapper(), 8L << 20, 256);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void shouldBuildOncePerVersionAndServeGzipVariant() throws Exception {
+        PostContentPayloadStore.Payload first = store.getOrBuild(1L, "v1", () -> content(1L, "v1"));
+        PostContentPayloadStore.Payload second = store.getOrBuild(1L, "v1", () -> content(1L, "v1"));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertNotNull(first.body(ContentEncodingUtils.GZIP));
+        assertTrue(first.body(ContentEncodingUtils.GZIP).length < first.identity().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first.body(ContentEncodingUtils.GZIP)))) {
+            assertArrayEquals(first.identity(), in.readAllBytes());
+        }
+        String json = new String(first.identity(), StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("{\"success\":true"));
+        assertNull(first.body("br"));
+    }
+
+    @Test
+    void shouldRebuildWhenVersionChangesAndPeekOnlyMatchingVersion() {
+        PostContentPayloadStore.Payload v1 = store.getOrBuild(2L, "v1", () -> content(2L, "v1"));
+        assertSame(v1, store.peek(2L, "v1"));
+        assertNull(store.peek(2L, "v2"));
+
+        PostContentPayloadStore.Payload v2 = store.getOrBuild(2L, "v2", () -> content(2L, "v2"));
+
+        assertEquals(2, loads.get());
+        assertNotEquals(v1.etag(), v2.etag());
+        assertNull(store.peek(2L, "v1"));
+    }
+
+    @Test
+    void shouldEvictAndSkipGzipForSmallBodies() {
+        PostContentPayloadStore.Payload payload = store.getOrBuild(3L, "v1", () -> PostContentDto.builder()
+                .id(3L).version("v1").contentHtml("<p>hi</p>").build());
+        assertNull(payload.body(ContentEncodingUtils.GZIP));
+
+        store.evictAfterCommit(3L);
+
+        assertNull(store.peek(3L, "v1"));
+    }
+
+    @Test
+    void shouldHonourAcceptEncodingQuality() {
+        assertTrue(ContentEncodingUtils.accepts("gzip, deflate, br", "gzip"));
+        assertTrue(ContentEncodingUtils.accepts("br;q=1.0, *;q=0.5", "gzip"));
+        assertFalse(ContentEncodingUtils.accepts("gzip;q=0, *", "gzip"));
+        assertFalse(ContentEncodingUtils.accepts("identity", "gzip"));
+        assertFalse(ContentEncodingUtils.accepts(null, "gzip"));
+    }
+
+    private PostContentDto content(Long id, String version) {
+        loads.incrementAndGet();
+        return PostContentDto.builder()
+                .id(id)
+                .version(version)
+                .contentMd("# 标题\n\n" + "正文段落，用于验证预压缩。".repeat(200))
+                .contentHtml("<h1>标题</h1>" + "<p>正文段落，用于验证预压缩。</p>".repeat(200))
+                .build();
+    }
+}
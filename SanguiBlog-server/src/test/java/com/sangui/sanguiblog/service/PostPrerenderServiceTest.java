@@ -0,0 +1,104 @@
+package com.sangui.sanguiblog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sangui.sanguiblog.config.StoragePathResolver;
+import com.sangui.sanguiblog.model.dto.PostDetailDto;
+import com.sangui.sanguiblog.model.dto.PostSummaryDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostPrerenderServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PostPrerenderService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PostPrerenderService(new StoragePathResolver(tempDir.resolve("uploads").toString()), new ObjectMapper(),
+                tempDir.resolve("prerender").toString());
+    }
+
+    @Test
+    void shouldDefaultSnapshotRootToStorageSiblingOutsideUploads() {
+        PostPrerenderService defaults = new PostPrerenderService(
+                new StoragePathResolver(tempDir.resolve("data/uploads").toString()), new ObjectMapper(), " ");
+
+        assertEquals(tempDir.resolve("data/prerender").toAbsolutePath().normalize(), defaults.snapshotRoot());
+    }
+
+    @Test
+    void shouldRenderMetaCanonicalAndEscapedFields() {
+        String html = service.render(detail(7L, "A <b>title</b>", "<p>正文</p>"));
+
+        assertTrue(html.contains("<title>A &lt;b&gt;title&lt;/b&gt;｜随笔｜三桂博客</title>"));
+        assertTrue(html.contains("<meta name=\"description\" content=\"摘要 &quot;quoted&quot;\">"));
+        assertTrue(html.contains("<link rel=\"canonical\" href=\"https://www.sangui.top/article/7\">"));
+        assertTrue(html.contains("<meta property=\"og:image\" content=\"https://www.sangui.top/uploads/covers/c.png\">"));
+        assertTrue(html.contains("<div class=\"content\">\n<p>正文</p>"));
+        assertFalse(html.contains("</script><script>"));
+    }
+
+    @Test
+    void shouldWriteGzipSiblingAndRemoveSnapshot() throws Exception {
+        service.publishAfterCommit(detail(8L, "Post", "<p>" + "内容".repeat(500) + "</p>"));
+
+        Path snapshot = tempDir.resolve("prerender/article/8.html");
+        assertTrue(Files.exists(snapshot));
+        assertTrue(Files.exists(tempDir.resolve("prerender/article/8.html.gz")));
+        assertTrue(Files.readString(snapshot, StandardCharsets.UTF_8).contains("内容内容"));
+        assertEquals(Set.of(8L), service.listSnapshotIds());
+        assertNotNull(service.lastModified(8L));
+
+        service.removeAfterCommit(8L);
+
+        assertFalse(Files.exists(snapshot));
+        assertFalse(Files.exists(tempDir.resolve("prerender/article/8.html.gz")));
+        assertNull(service.lastModified(8L));
+    }
+
+    @Test
+    void shouldKeepSnapshotsOutOfPublicUploadsAndPurgeLegacyCopies() throws Exception {
+        Path legacy = tempDir.resolve("uploads/prerender/article/3.html");
+        Files.createDirectories(legacy.getParent());
+        Files.writeString(legacy, "<html></html>");
+
+        service.purgeLegacyPublicSnapshots();
+        service.publishAfterCommit(detail(9L, "Post", "<p>body</p>"));
+
+        assertFalse(Files.exists(tempDir.resolve("uploads/prerender")));
+        assertTrue(Files.exists(tempDir.resolve("prerender/article/9.html")));
+    }
+
+    private PostDetailDto detail(Long id, String title, String html) {
+        return PostDetailDto.builder()
+                .summary(PostSummaryDto.builder()
+                        .id(id)
+                        .title(title)
+                        .category("随笔")
+                        .tags(List.of("Java", "</script><script>"))
+                        .coverImage("/uploads/covers/c.png")
+                        .authorName("三桂")
+                        .date("2025-01-01")
+                        .build())
+                .contentHtml(html)
+                .metaTitle(title + "｜随笔｜三桂博客")
+                .metaDescription("摘要 \"quoted\"")
+                .readingTime("1 分钟")
+                .build();
+    }
+}
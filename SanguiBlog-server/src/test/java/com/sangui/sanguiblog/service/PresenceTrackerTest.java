@@ -0,0 +1,80 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.PresenceDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PresenceTrackerTest {
+
+    @Test
+    void shouldCountReadersPerPostAndMoveOnNavigation() {
+        AtomicLong now = new AtomicLong(1_000L);
+        PresenceTracker tracker = new PresenceTracker(now::get);
+
+        tracker.touch("203.0.113.1", "v1", 10L, "文章十");
+        tracker.touch("203.0.113.1", "v2", 10L, "文章十");
+        tracker.touch("203.0.113.1", "v3", null, null);
+        assertEquals(3, tracker.online());
+        assertEquals(2, tracker.reading());
+        assertEquals(2, tracker.readers(10L));
+
+        // 心跳不带文章时沿用原文章；同一 visit 换文章时计数迁移
+        tracker.touch("203.0.113.1", "v1", null, null);
+        assertEquals(2, tracker.readers(10L));
+        tracker.touch("203.0.113.1", "v2", 11L, "文章十一");
+        assertEquals(1, tracker.readers(10L));
+        assertEquals(1, tracker.readers(11L));
+
+        tracker.end("203.0.113.1", "v1");
+        tracker.end("203.0.113.1", "v1");
+        assertEquals(2, tracker.online());
+        assertEquals(0, tracker.readers(10L));
+    }
+
+    @Test
+    void shouldExpireSessionsWithoutHeartbeatAndRankTopPosts() {
+        AtomicLong now = new AtomicLong(1_000L);
+        PresenceTracker tracker = new PresenceTracker(now::get);
+        tracker.touch("203.0.113.1", "v1", 10L, "文章十");
+        tracker.touch("203.0.113.1", "v2", 11L, "文章十一");
+        tracker.touch("203.0.113.1", "v3", 11L, "文章十一");
+
+        tracker.sweep();
+        PresenceDto snapshot = tracker.snapshot(11L);
+        assertEquals(2, snapshot.getPostReaders());
+        assertEquals(11L, snapshot.getTopPosts().get(0).getPostId());
+        assertEquals("文章十一", snapshot.getTopPosts().get(0).getTitle());
+
+        now.addAndGet(30_000L);
+        tracker.touch("203.0.113.1", "v3", null, null);
+        now.addAndGet(30_000L);
+        tracker.sweep();
+
+        assertEquals(1, tracker.online());
+        assertEquals(1, tracker.reading());
+        assertEquals(0, tracker.readers(10L));
+        assertEquals(1, tracker.snapshot(null).getTopPosts().size());
+    }
+
+    @Test
+    void shouldCapSessionsPerIpAndScopeVisitIdsToTheirIp() {
+        AtomicLong now = new AtomicLong(1_000L);
+        PresenceTracker tracker = new PresenceTracker(now::get);
+        for (int i = 0; i < 50; i++) {
+            tracker.touch("198.51.100.7", "forged-" + i, null, null);
+        }
+        tracker.touch("203.0.113.9", "v1", 10L, "文章十");
+        assertEquals(21, tracker.online());
+
+        // 其他 IP 拿同一个 visitId 既不能续期也不能结束别人的会话
+        tracker.end("198.51.100.7", "v1");
+        assertEquals(1, tracker.readers(10L));
+
+        tracker.end("198.51.100.7", "forged-0");
+        tracker.touch("198.51.100.7", "forged-99", null, null);
+        assertEquals(21, tracker.online());
+    }
+}
@@ -0,0 +1,96 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.AdminAnalyticsSummaryDto;
+import com.sangui.sanguiblog.model.dto.SiteMetaDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentVisitFeedTest {
+
+    @Test
+    void shouldKeepLatestStatePerVisitAndOrderByViewedAt() {
+        RecentVisitFeed feed = new RecentVisitFeed(16);
+        assertTrue(feed.prime(List.of(entry(1L, 1_000L, "OPEN"), entry(2L, 2_000L, "OPEN"))));
+        assertFalse(feed.prime(List.of(entry(9L, 9_000L, "OPEN"))));
+
+        publish(feed, 3L, 3_000L, "OPEN");
+        publish(feed, 1L, 1_000L, "CLOSED");
+
+        List<AdminAnalyticsSummaryDto.RecentVisit> visits = feed.recentVisits(10);
+        assertEquals(List.of(3L, 2L, 1L), visits.stream().map(AdminAnalyticsSummaryDto.RecentVisit::getId).toList());
+        assertEquals("CLOSED", visits.get(2).getVisitStatus());
+
+        // 快照是副本，调用方补充封禁状态不会污染缓冲
+        visits.get(0).setIpBanned(true);
+        assertFalse(feed.recentVisits(1).get(0).isIpBanned());
+        assertEquals("page-3", feed.recentActivity(1).get(0).getTitle());
+    }
+
+    @Test
+    void shouldOnlyRetainLatestCapacityEntriesAfterWrapAround() {
+        RecentVisitFeed feed = new RecentVisitFeed(16);
+        for (long id = 1; id <= 40; id++) {
+            publish(feed, id, id * 1_000L, "OPEN");
+        }
+
+        List<AdminAnalyticsSummaryDto.RecentVisit> visits = feed.recentVisits(100);
+
+        assertEquals(16, visits.size());
+        assertEquals(40L, visits.get(0).getId());
+        assertEquals(25L, visits.get(15).getId());
+    }
+
+    @Test
+    void shouldFanOutOnExecutorWithDecoratedCopiesOnlyWhenSubscribed() {
+        List<Runnable> tasks = new ArrayList<>();
+        RecentVisitFeed feed = new RecentVisitFeed(16, tasks::add);
+        List<AdminAnalyticsSummaryDto.RecentVisit> streamed = new ArrayList<>();
+        UnaryOperator<AdminAnalyticsSummaryDto.RecentVisit> banState = visit -> {
+            visit.setIpBanned(true);
+            streamed.add(visit);
+            return visit;
+        };
+
+        RecentVisitFeed.Entry first = entry(1L, 1_000L, "OPEN");
+        feed.publish(first.pageViewId(), first.viewedAtMs(), first.visit(), first.activity(), banState);
+        assertTrue(tasks.isEmpty());
+
+        assertNotNull(feed.subscribe(List.of()));
+        RecentVisitFeed.Entry second = entry(2L, 2_000L, "OPEN");
+        feed.publish(second.pageViewId(), second.viewedAtMs(), second.visit(), second.activity(), banState);
+        assertEquals(1, tasks.size());
+        assertTrue(streamed.isEmpty());
+
+        tasks.get(0).run();
+        assertEquals(1, streamed.size());
+        assertEquals(2L, streamed.get(0).getId());
+        assertFalse(feed.recentVisits(1).get(0).isIpBanned());
+    }
+
+    private static void publish(RecentVisitFeed feed, Long id, long viewedAtMs, String status) {
+        RecentVisitFeed.Entry entry = entry(id, viewedAtMs, status);
+        feed.publish(entry.pageViewId(), entry.viewedAtMs(), entry.visit(), entry.activity());
+    }
+
+    private static RecentVisitFeed.Entry entry(Long id, long viewedAtMs, String status) {
+        AdminAnalyticsSummaryDto.RecentVisit visit = AdminAnalyticsSummaryDto.RecentVisit.builder()
+                .id(id)
+                .title("page-" + id)
+                .ip("203.0.113." + id)
+                .visitStatus(status)
+                .build();
+        SiteMetaDto.RecentActivityDto activity = SiteMetaDto.RecentActivityDto.builder()
+                .title("page-" + id)
+                .ip("203.0.113." + id)
+                .build();
+        return new RecentVisitFeed.Entry(-1L, id, viewedAtMs, visit, activity);
+    }
+}
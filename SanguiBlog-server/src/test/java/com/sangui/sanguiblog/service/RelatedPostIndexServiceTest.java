@@ -0,0 +1,97 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.entity.Post;
+import com.sangui.sanguiblog.model.entity.Tag;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RelatedPostIndexServiceTest {
+
+    private PostRepository postRepository;
+    private RelatedPostIndexService service;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        service = new RelatedPostIndexService(postRepository);
+        when(postRepository.findAllPublishedForKnowledge()).thenReturn(List.of(
+                post(1L, "Spring Boot 缓存实践", "spring", "使用 Caffeine 为 Spring Boot 接口做本地缓存，缓存失效与预热。"),
+                post(2L, "Spring Boot 缓存失效策略", "spring", "Caffeine 缓存的过期、刷新与失效，以及 Spring 事件驱动的缓存清理。"),
+                post(3L, "周末徒步记录", "life", "今天去山里徒步，天气晴朗，风景很好。"),
+                post(4L, "山间徒步装备清单", "life", "徒步需要准备登山鞋、雨衣和足够的水。")));
+    }
+
+    @Test
+    void shouldRankPostsBySimilarityAfterInitialBuild() {
+        assertFalse(service.isReady());
+        assertEquals(List.of(), service.related(1L, 3));
+
+        service.refresh();
+
+        assertTrue(service.isReady());
+        assertEquals(2L, service.related(1L, 3).get(0));
+        assertEquals(4L, service.related(3L, 3).get(0));
+        assertEquals(1, service.related(1L, 1).size());
+    }
+
+    @Test
+    void shouldOnlyReloadDirtyPostsAndDropUnpublished() {
+        service.refresh();
+        service.refresh();
+        verify(postRepository, times(1)).findAllPublishedForKnowledge();
+        verify(postRepository, never()).findKnowledgeSourceById(2L);
+
+        Post unpublished = post(2L, "Spring Boot 缓存失效策略", "spring", "草稿");
+        unpublished.setStatus("DRAFT");
+        when(postRepository.findKnowledgeSourceById(2L)).thenReturn(Optional.of(unpublished));
+        service.markDirty(2L);
+        service.refresh();
+
+        assertFalse(service.related(1L, 3).contains(2L));
+        assertEquals(List.of(), service.related(2L, 3));
+    }
+
+    @Test
+    void shouldTokenizeLatinWordsAndChineseBigrams() {
+        Map<String, Integer> tf = new HashMap<>();
+        RelatedPostIndexService.tokenize("Spring缓存 a JPA-查询", tf);
+
+        assertEquals(1, tf.get("spring"));
+        assertEquals(1, tf.get("缓存"));
+        assertEquals(1, tf.get("jpa"));
+        assertEquals(1, tf.get("查询"));
+        assertFalse(tf.containsKey("a"));
+    }
+
+    private static Post post(Long id, String title, String tagName, String content) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle(title);
+        post.setContentMd(content);
+        post.setStatus("PUBLISHED");
+        post.setPublishedAt(LocalDateTime.of(2026, 1, id.intValue(), 8, 0));
+        post.setUpdatedAt(Instant.ofEpochMilli(id));
+        Tag tag = new Tag();
+        tag.setId(100L + tagName.length());
+        tag.setName(tagName);
+        post.getTags().add(tag);
+        return post;
+    }
+}
@@ -0,0 +1,101 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.SiteMetaDto;
+import com.sangui.sanguiblog.model.entity.AnalyticsTrafficSource;
+import com.sangui.sanguiblog.model.repository.AnalyticsPageViewRepository;
+import com.sangui.sanguiblog.model.repository.AnalyticsTrafficSourceRepository;
+import com.sangui.sanguiblog.model.repository.HomeBackgroundImageRepository;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import com.sangui.sanguiblog.model.repository.SystemBroadcastRepository;
+import com.sangui.sanguiblog.model.repository.UserRepository;
+import com.sangui.sanguiblog.service.ai.AiAssistantSettingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SiteServiceMetaSnapshotTest {
+
+    private PostRepository postRepository;
+    private AnalyticsTrafficSourceRepository trafficSourceRepository;
+    private ContentRevisionService contentRevisionService;
+    private SiteService service;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        trafficSourceRepository = mock(AnalyticsTrafficSourceRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        TaxonomySnapshotService taxonomySnapshotService = mock(TaxonomySnapshotService.class);
+        contentRevisionService = new ContentRevisionService();
+        service = new SiteService(
+                postRepository,
+                mock(HomeBackgroundImageRepository.class),
+                mock(AnalyticsPageViewRepository.class),
+                trafficSourceRepository,
+                mock(SystemBroadcastRepository.class),
+                userRepository,
+                mock(AuthService.class),
+                mock(AiAssistantSettingService.class),
+                contentRevisionService,
+                taxonomySnapshotService,
+                new RecentVisitFeed());
+
+        when(postRepository.countByStatus("PUBLISHED")).thenReturn(3L);
+        when(taxonomySnapshotService.current()).thenReturn(new TaxonomySnapshotService.TaxonomySnapshot(
+                0L, List.of(), List.of(), Map.of(), Map.of(), 2L, 5L));
+        when(userRepository.findFirstByRole_CodeOrderByIdAsc("SUPER_ADMIN")).thenReturn(Optional.empty());
+        when(userRepository.findByUsername("sangui")).thenReturn(Optional.empty());
+        when(userRepository.findFirstByOrderByIdAsc()).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void shouldServeSnapshotUntilSiteRevisionChanges() {
+        SiteMetaDto first = service.meta();
+        first.getStats().setPosts(99L);
+        service.currentStats().setTags(99L);
+        SiteMetaDto second = service.meta();
+
+        assertNotSame(first, second);
+        assertEquals(3L, second.getStats().getPosts());
+        assertEquals(5L, second.getStats().getTags());
+        assertEquals(3L, service.currentStats().getPosts());
+        verify(postRepository, times(1)).countByStatus("PUBLISHED");
+
+        contentRevisionService.bump(ContentRevisionService.Scope.SITE);
+
+        assertNotSame(first, service.meta());
+        verify(postRepository, times(2)).countByStatus("PUBLISHED");
+    }
+
+    @Test
+    void shouldFallBackToLatestStatDateWithoutLoadingWholeTable() {
+        LocalDate latest = LocalDate.of(2025, 11, 21);
+        AnalyticsTrafficSource source = new AnalyticsTrafficSource();
+        source.setStatDate(latest);
+        source.setSourceLabel("Direct");
+        source.setVisits(12);
+        when(trafficSourceRepository.findByStatDateOrderByVisitsDesc(LocalDate.now())).thenReturn(List.of());
+        when(trafficSourceRepository.findLatestStatDate()).thenReturn(Optional.of(latest));
+        when(trafficSourceRepository.findByStatDateOrderByVisitsDesc(latest)).thenReturn(List.of(source));
+
+        SiteMetaDto meta = service.meta();
+
+        assertEquals(1, meta.getTrafficSources().size());
+        assertEquals("Direct", meta.getTrafficSources().get(0).getLabel());
+        verify(trafficSourceRepository, never()).findAll();
+        verify(trafficSourceRepository, never()).findAll(any(org.springframework.data.domain.Sort.class));
+    }
+}
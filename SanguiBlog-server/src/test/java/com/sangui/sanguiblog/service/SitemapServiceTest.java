@@ -0,0 +1,99 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.repository.GamePageRepository;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SitemapServiceTest {
+
+    private PostRepository postRepository;
+    private GamePageRepository gamePageRepository;
+    private SitemapService service;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        gamePageRepository = mock(GamePageRepository.class);
+        service = new SitemapService(postRepository, gamePageRepository, mock(AnalyticsService.class), 600_000L, 1L << 20);
+        List<PostRepository.SitemapPostRow> rows = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            rows.add(row(id, LocalDateTime.of(2026, 1, 1, 0, 0).plusDays(id)));
+        }
+        when(postRepository.findPublishedForSitemap()).thenReturn(rows);
+        when(gamePageRepository.findActiveForSitemap()).thenReturn(List.of());
+    }
+
+    @Test
+    void shouldApplySinglePostChangeWithoutFullReload() {
+        SitemapService.SitemapResult first = service.getSitemapXml(null, null);
+        assertTrue(xml(first).contains("/article/40</loc>"));
+        assertSame(first.body(), service.getSitemapXml(null, null).body());
+
+        when(postRepository.findPublishedForSitemapByIds(anyList()))
+                .thenReturn(List.of(row(41L, LocalDateTime.of(2026, 9, 1, 0, 0))));
+        service.markPostDirty(40L);
+        service.markPostDirty(41L);
+
+        String updated = xml(service.getSitemapXml(null, null));
+        assertFalse(updated.contains("/article/40</loc>"));
+        assertTrue(updated.indexOf("/article/41</loc>") < updated.indexOf("/article/39</loc>"));
+        assertTrue(updated.contains("<lastmod>2026-09-01</lastmod>"));
+        verify(postRepository, times(1)).findPublishedForSitemap();
+        verify(postRepository, times(1)).findPublishedForSitemapByIds(anyList());
+    }
+
+    @Test
+    void shouldKeepPrecompressedBodyAlongsideRawXml() throws IOException {
+        SitemapService.SitemapResult result = service.getSitemapXml(null, null);
+
+        assertNotNull(result.gzip());
+        assertTrue(result.gzip().length < result.body().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.gzip()))) {
+            assertArrayEquals(result.body(), in.readAllBytes());
+        }
+    }
+
+    private static String xml(SitemapService.SitemapResult result) {
+        return new String(result.body(), StandardCharsets.UTF_8);
+    }
+
+    private static PostRepository.SitemapPostRow row(Long id, LocalDateTime publishedAt) {
+        return new PostRepository.SitemapPostRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getPublishedAt() {
+                return publishedAt;
+            }
+
+            @Override
+            public Instant getUpdatedAt() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package com.sangui.sanguiblog.service;
+
+import com.sangui.sanguiblog.model.dto.CategoryTreeDto;
+import com.sangui.sanguiblog.model.entity.Category;
+import com.sangui.sanguiblog.model.entity.Tag;
+import com.sangui.sanguiblog.model.repository.CategoryRepository;
+import com.sangui.sanguiblog.model.repository.PostRepository;
+import com.sangui.sanguiblog.model.repository.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaxonomySnapshotServiceTest {
+
+    private CategoryRepository categoryRepository;
+    private TagRepository tagRepository;
+    private PostRepository postRepository;
+    private ContentRevisionService contentRevisionService;
+    private TaxonomySnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        categoryRepository = mock(CategoryRepository.class);
+        tagRepository = mock(TagRepository.class);
+        postRepository = mock(PostRepository.class);
+        contentRevisionService = new ContentRevisionService();
+        service = new TaxonomySnapshotService(categoryRepository, tagRepository, postRepository, contentRevisionService);
+
+        Category tech = category(1L, "技术", null, 2);
+        Category life = category(2L, "生活", null, 1);
+        Category java = category(3L, "Java", tech, 1);
+        when(categoryRepository.findAll()).thenReturn(List.of(java, tech, life));
+        when(tagRepository.findAll()).thenReturn(List.of(tag(10L, "spring"), tag(11L, "unused")));
+        when(postRepository.countByTaxonomyAndStatus("PUBLISHED")).thenReturn(List.of(
+                row("C", 1L, 2L),
+                row("C", 3L, 5L),
+                row("T", 10L, 4L)));
+    }
+
+    @Test
+    void shouldBuildOrderedTreeWithRolledUpCounts() {
+        TaxonomySnapshotService.TaxonomySnapshot snapshot = service.current();
+
+        List<CategoryTreeDto> tree = snapshot.categoryTree();
+        assertEquals(List.of(2L, 1L), tree.stream().map(CategoryTreeDto::getId).toList());
+        assertEquals(0L, tree.get(0).getPostCount());
+        assertEquals(7L, tree.get(1).getPostCount());
+        assertEquals(5L, tree.get(1).getChildren().get(0).getPostCount());
+        assertEquals(1L, tree.get(1).getChildren().get(0).getParentId());
+
+        assertEquals(4L, snapshot.tags().get(0).getPostCount());
+        assertEquals(0L, snapshot.tags().get(1).getPostCount());
+        assertEquals(3L, snapshot.categoryCount());
+        assertEquals(1L, snapshot.usedTagCount());
+    }
+
+    @Test
+    void shouldReuseSnapshotUntilTaxonomyRevisionChanges() {
+        TaxonomySnapshotService.TaxonomySnapshot first = service.current();
+        assertSame(first, service.current());
+        contentRevisionService.bump(ContentRevisionService.Scope.POSTS);
+        assertSame(first, service.current());
+
+        contentRevisionService.bump(ContentRevisionService.Scope.TAXONOMY);
+        TaxonomySnapshotService.TaxonomySnapshot second = service.current();
+
+        assertNotSame(first, second);
+        verify(postRepository, times(2)).countByTaxonomyAndStatus("PUBLISHED");
+    }
+
+    @Test
+    void shouldNotLeakCachedDtosToCallers() {
+        List<CategoryTreeDto> tree = service.categoryTree();
+        tree.get(1).setLabel("hacked");
+        tree.get(1).getChildren().get(0).setPostCount(99L);
+        service.tags().get(0).setName("hacked");
+
+        List<CategoryTreeDto> again = service.categoryTree();
+        assertEquals("技术", again.get(1).getLabel());
+        assertEquals(5L, again.get(1).getChildren().get(0).getPostCount());
+        assertEquals("spring", service.tags().get(0).getName());
+    }
+
+    private static Category category(Long id, String name, Category parent, Integer sortOrder) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        category.setParent(parent);
+        category.setSortOrder(sortOrder);
+        return category;
+    }
+
+    private static Tag tag(Long id, String name) {
+        Tag tag = new Tag();
+        tag.setId(id);
+        tag.setName(name);
+        tag.setSlug(name);
+        return tag;
+    }
+
+    private static PostRepository.TaxonomyCountRow row(String kind, Long refId, Long count) {
+        return new PostRepository.TaxonomyCountRow() {
+            @Override
+            public String getKind() {
+                return kind;
+            }
+
+            @Override
+            public Long getRefId() {
+                return refId;
+            }
+
+            @Override
+            public Long getPostCount() {
+                return count;
+            }
+        };
+    }
+}
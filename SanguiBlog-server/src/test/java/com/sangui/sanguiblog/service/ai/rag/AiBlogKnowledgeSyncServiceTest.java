@@ -9,6 +9,7 @@ import com.sangui.sanguiblog.model.repository.AiBlogKnowledgeDocumentRepository;
 import com.sangui.sanguiblog.model.repository.PostRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,10 +22,15 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
@@ -122,6 +128,42 @@ class AiBlogKnowledgeSyncServiceTest {
         inOrder.verify(knowledgeChunkRepository).save(any(AiBlogKnowledgeChunk.class));
     }
 
+    @Test
+    void shouldReportFailureWhenVectorStoreRejectsChunks() {
+        AiBlogKnowledgeSyncService service = new AiBlogKnowledgeSyncService(
+                postRepository,
+                knowledgeDocumentRepository,
+                knowledgeChunkRepository,
+                vectorStoreProvider,
+                configuredProperties(),
+                transactionManager
+        );
+
+        Post post = new Post();
+        post.setId(217L);
+        post.setTitle("向量库故障");
+        post.setSlug("vector-store-down");
+        post.setContentMd("这是一篇用于测试 RAG 同步失败的文章正文。");
+        post.setStatus("PUBLISHED");
+        post.setCreatedAt(Instant.parse("2026-03-18T07:00:00Z"));
+        post.setPublishedAt(LocalDateTime.parse("2026-03-18T15:10:00"));
+
+        when(vectorStoreProvider.getIfAvailable()).thenReturn(vectorStore);
+        when(postRepository.findKnowledgeSourceById(post.getId())).thenReturn(Optional.of(post));
+        when(postRepository.findAllPublishedForKnowledge()).thenReturn(List.of(post));
+        when(knowledgeDocumentRepository.findByPostId(post.getId())).thenReturn(Optional.empty());
+        when(knowledgeDocumentRepository.save(any(AiBlogKnowledgeDocument.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new IllegalStateException("pgvector unavailable")).when(vectorStore).add(anyList());
+
+        boolean synced = service.syncPostKnowledge(post.getId());
+
+        assertFalse(synced);
+        ArgumentCaptor<AiBlogKnowledgeDocument> saved = ArgumentCaptor.forClass(AiBlogKnowledgeDocument.class);
+        verify(knowledgeDocumentRepository, atLeastOnce()).save(saved.capture());
+        assertEquals("FAILED", saved.getValue().getSyncStatus());
+    }
+
     private AiBlogRagProperties configuredProperties() {
         AiBlogRagProperties properties = new AiBlogRagProperties();
         properties.setEnabled(true);
@@ -0,0 +1,152 @@
+package com.sangui.sanguiblog.service.outbox;
+
+import com.sangui.sanguiblog.model.dto.OutboxStatsDto;
+import com.sangui.sanguiblog.model.entity.OutboxEvent;
+import com.sangui.sanguiblog.model.repository.OutboxEventRepository;
+import com.sangui.sanguiblog.service.RelatedPostIndexService;
+import com.sangui.sanguiblog.service.ai.rag.AiBlogKnowledgeSyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTest {
+
+    private OutboxEventRepository repository;
+    private final List<String> handled = new ArrayList<>();
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        OutboxHandler post = handler(OutboxService.POST_KNOWLEDGE, event -> {
+            if ("post:3".equals(event.getAggregateKey())) {
+                throw new IllegalStateException("embedding provider down");
+            }
+            handled.add(event.getAggregateKey() + "=" + event.getPayload());
+        });
+        OutboxHandler sitemap = handler(OutboxService.SITEMAP_DIRTY, event -> handled.add("sitemap"));
+        dispatcher = new OutboxDispatcher(repository, Runnable::run, List.of(post, sitemap));
+    }
+
+    @Test
+    void shouldCoalescePerKeyAndDeleteHandledRows() {
+        when(repository.findDue(any(LocalDateTime.class), anyInt(), any())).thenReturn(List.of(
+                event(1L, OutboxService.SITEMAP_DIRTY, "sitemap", null),
+                event(2L, OutboxService.POST_KNOWLEDGE, "post:1", OutboxService.PAYLOAD_SYNC),
+                event(3L, OutboxService.SITEMAP_DIRTY, "sitemap", null),
+                event(4L, OutboxService.POST_KNOWLEDGE, "post:1", OutboxService.PAYLOAD_REMOVE)));
+
+        assertEquals(4, dispatcher.dispatchBatch());
+
+        assertEquals(List.of("sitemap", "post:1=REMOVE"), handled);
+        verify(repository).deleteAllByIdInBatch(List.of(1L, 3L, 2L, 4L));
+        verify(repository).deleteSupersededBefore("post:1", 2L);
+        OutboxStatsDto stats = dispatcher.stats();
+        assertEquals(2L, stats.getDispatched());
+        assertEquals(2L, stats.getCoalesced());
+    }
+
+    @Test
+    void shouldBackOffFailedEventAndKeepOnlyLatestRowOfItsKey() {
+        OutboxEvent retried = event(6L, OutboxService.POST_KNOWLEDGE, "post:3", OutboxService.PAYLOAD_SYNC);
+        retried.setAttempts(2);
+        when(repository.findDue(any(LocalDateTime.class), anyInt(), any())).thenReturn(List.of(
+                event(5L, OutboxService.POST_KNOWLEDGE, "post:3", OutboxService.PAYLOAD_SYNC),
+                retried,
+                event(7L, "UNKNOWN", "x", null)));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchBatch();
+
+        verify(repository).deleteAllByIdInBatch(List.of(5L));
+        ArgumentCaptor<LocalDateTime> next = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).markFailed(eq(6L), next.capture(), anyString());
+        // 第 3 次失败：5s * 2^2 = 20s 后重试
+        assertTrue(!next.getValue().isBefore(before.plusSeconds(20)));
+        verify(repository).markFailed(eq(7L), any(LocalDateTime.class), anyString());
+        assertEquals(2L, dispatcher.stats().getFailedAttempts());
+        assertEquals(600_000L, dispatcher.backoffMs(30));
+    }
+
+    @Test
+    void shouldDropOlderRowsOfTheSameKeyThatAreStillBackingOff() {
+        // id=2 的旧 SYNC 失败后仍在退避，不在本批；新的 REMOVE 处理完后它不能再被执行
+        when(repository.findDue(any(LocalDateTime.class), anyInt(), any())).thenReturn(List.of(
+                event(9L, OutboxService.POST_KNOWLEDGE, "post:1", OutboxService.PAYLOAD_REMOVE)));
+        when(repository.deleteSupersededBefore("post:1", 9L)).thenReturn(1);
+
+        dispatcher.dispatchBatch();
+
+        assertEquals(List.of("post:1=REMOVE"), handled);
+        verify(repository).deleteSupersededBefore("post:1", 9L);
+        verify(repository).deleteAllByIdInBatch(List.of(9L));
+        assertEquals(1L, dispatcher.stats().getCoalesced());
+    }
+
+    @Test
+    void shouldRetryPostKnowledgeEventWhenRagSyncFails() {
+        AiBlogKnowledgeSyncService syncService = mock(AiBlogKnowledgeSyncService.class);
+        OutboxDispatcher ragDispatcher = new OutboxDispatcher(repository, Runnable::run,
+                List.of(new PostKnowledgeOutboxHandler(mock(RelatedPostIndexService.class), syncService)));
+        OutboxEvent event = event(11L, OutboxService.POST_KNOWLEDGE, "post:4", OutboxService.PAYLOAD_SYNC);
+        when(repository.findDue(any(LocalDateTime.class), anyInt(), any())).thenReturn(List.of(event));
+        when(syncService.syncPostKnowledge(4L)).thenReturn(false);
+
+        ragDispatcher.dispatchBatch();
+
+        // 同步失败：事件留在表中按退避重试，而不是被当作已处理删除
+        ArgumentCaptor<String> error = ArgumentCaptor.forClass(String.class);
+        verify(repository).markFailed(eq(11L), any(LocalDateTime.class), error.capture());
+        verify(repository, never()).deleteAllByIdInBatch(any());
+        assertTrue(error.getValue().contains("post:4"));
+        assertEquals(0L, ragDispatcher.stats().getDispatched());
+
+        event.setAttempts(1);
+        when(syncService.syncPostKnowledge(4L)).thenReturn(true);
+
+        ragDispatcher.dispatchBatch();
+
+        verify(repository).deleteAllByIdInBatch(List.of(11L));
+        assertEquals(1L, ragDispatcher.stats().getDispatched());
+    }
+
+    private static OutboxHandler handler(String type, Consumer<OutboxEvent> action) {
+        return new OutboxHandler() {
+            @Override
+            public String eventType() {
+                return type;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                action.accept(event);
+            }
+        };
+    }
+
+    private static OutboxEvent event(Long id, String type, String key, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType(type);
+        event.setAggregateKey(key);
+        event.setPayload(payload);
+        event.setAttempts(0);
+        return event;
+    }
+}
@@ -0,0 +1,66 @@
+package com.sangui.sanguiblog.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IpAddressTest {
+
+    @Test
+    void shouldParseLiteralsStrictlyAndFormatCanonically() {
+        assertEquals("203.0.113.10", IpAddress.parse(" 203.0.113.10 ").toString());
+        assertEquals("2001:db8::1", IpAddress.parse("2001:0DB8:0:0:0:0:0:1").toString());
+        assertEquals("::", IpAddress.parse("::").toString());
+        assertEquals("1::", IpAddress.parse("1::").toString());
+        assertEquals("::1", IpAddress.parse("0:0:0:0:0:0:0:1").toString());
+        assertEquals("2001:db8:0:1:1:1:1:1", IpAddress.parse("2001:db8::1:1:1:1:1").toString());
+        assertEquals("64:ff9b::c000:221", IpAddress.parse("64:ff9b::192.0.2.33").toString());
+
+        IpAddress mapped = IpAddress.parse("::FFFF:192.168.0.1");
+        assertTrue(mapped.isIpv4());
+        assertEquals(IpAddress.parse("192.168.0.1"), mapped);
+        assertArrayEquals(new byte[]{(byte) 192, (byte) 168, 0, 1}, mapped.toBytes());
+        assertEquals(IpAddress.parse("2001:db8::1"), IpAddress.fromBytes(IpAddress.parse("2001:db8::1").toBytes()));
+
+        for (String invalid : new String[]{"", "localhost", "example.com", "010.0.0.1", "1.2.3", "1.2.3.4.5",
+                "256.1.1.1", "1.2.3.4:80", "1:2:3:4:5:6:7", "1:2:3:4:5:6:7:8:9", "1::2::3", ":1::", "1:::2",
+                "1::2:", "fe80::1%eth0", "12345::1", "::1.2.3.4:5", "2001:db8::/32"}) {
+            assertNull(IpAddress.parse(invalid), invalid);
+        }
+    }
+
+    @Test
+    void shouldMatchPrecompiledCidrSetsWithoutResolvingHostnames() {
+        CidrSet proxies = CidrSet.of("172.18.0.0/16", "10.0.0.1", "2001:db8:1::/48");
+        assertTrue(proxies.contains("172.18.255.254"));
+        assertTrue(proxies.contains("::ffff:10.0.0.1"));
+        assertTrue(proxies.contains("2001:db8:1:ffff::1"));
+        assertFalse(proxies.contains("10.0.0.2"));
+        assertFalse(proxies.contains("2001:db8:2::1"));
+        assertFalse(proxies.contains("localhost"));
+        assertFalse(proxies.contains((String) null));
+        assertThrows(IllegalArgumentException.class, () -> CidrSet.of("172.18.0.0/33"));
+
+        IpCidr cidr = IpCidr.parse("203.0.113.77/24");
+        assertEquals("203.0.113.0/24", cidr.canonical());
+        assertEquals("203.0.113.255", cidr.lastAddress().toString());
+        assertEquals("2001:db8::/32", IpCidr.parse("2001:db8:ffff::/32").canonical());
+        assertEquals("198.51.100.0/24", IpCidr.parse("::ffff:198.51.100.9/120").canonical());
+    }
+
+    @Test
+    void shouldClassifyAndNormalizeThroughIpUtils() {
+        assertEquals("2001:db8::1", IpUtils.normalizeIp("2001:DB8:0::1"));
+        assertEquals("127.0.0.1", IpUtils.normalizeIp("0::1"));
+        assertTrue(IpUtils.isPrivateOrProtected("fec0::1"));
+        assertTrue(IpUtils.isPrivateOrProtected("224.0.0.251"));
+        assertTrue(IpUtils.isPrivateOrProtected("example.com"));
+        assertEquals("203.0.113", IpUtils.segment("203.0.113.10"));
+        assertEquals("2001:db8:0:1", IpUtils.segment("2001:0db8::1:0:0:0:5"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.sangui.sanguiblog.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionedSnapshotTest {
+
+    @Test
+    void shouldLoadOnceAndReloadAfterInvalidate() {
+        AtomicInteger loads = new AtomicInteger();
+        VersionedSnapshot<Integer> snapshot = new VersionedSnapshot<>(loads::incrementAndGet);
+
+        assertEquals(1, snapshot.get());
+        assertEquals(1, snapshot.get());
+
+        snapshot.invalidate();
+
+        assertEquals(2, snapshot.get());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldServePreviousValueWhileRefreshing() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        VersionedSnapshot<Integer> snapshot = new VersionedSnapshot<>(() -> {
+            int value = loads.incrementAndGet();
+            if (value == 2) {
+                refreshStarted.countDown();
+                await(releaseRefresh);
+            }
+            return value;
+        });
+        assertEquals(1, snapshot.get());
+
+        CompletableFuture<Integer> refresh = CompletableFuture.supplyAsync(snapshot::refresh);
+        assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+
+        // 新快照构建期间读者不阻塞，继续拿到旧快照
+        assertEquals(1, snapshot.get());
+
+        releaseRefresh.countDown();
+        assertEquals(2, refresh.get(5, TimeUnit.SECONDS));
+        assertEquals(2, snapshot.get());
+    }
+
+    @Test
+    void shouldNotStoreLoadOverlappingInvalidate() {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicReference<VersionedSnapshot<Integer>> holder = new AtomicReference<>();
+        holder.set(new VersionedSnapshot<>(() -> {
+            int value = loads.incrementAndGet();
+            if (value == 1) {
+                // 模拟加载期间发生的并发失效：本次结果只返回给调用方，不写回
+                holder.get().invalidate();
+            }
+            return value;
+        }));
+
+        assertEquals(1, holder.get().get());
+        assertEquals(2, holder.get().get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
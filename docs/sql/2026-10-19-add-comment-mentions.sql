@@ -0,0 +1,33 @@
+-- 评论 @ 提及索引表
+-- 新增 comment_mentions 表，评论创建时写入被 @ 的用户，通知补全（/api/notifications/backfill）按用户走索引查找，
+-- 不再把评论全表读入内存逐条解析。
+--
+-- 说明：
+-- - 本仓库没有自动 migration runner，生产/已有 Docker 数据卷需要手动执行本文件。
+-- - 使用 CREATE TABLE IF NOT EXISTS / INSERT IGNORE，可安全重复执行。
+
+CREATE TABLE IF NOT EXISTS comment_mentions (
+    comment_id        BIGINT UNSIGNED NOT NULL COMMENT '包含提及的评论',
+    mentioned_user_id BIGINT UNSIGNED NOT NULL COMMENT '被 @ 的用户',
+    PRIMARY KEY (comment_id, mentioned_user_id),
+    KEY idx_cm_mentioned_user (mentioned_user_id, comment_id),
+    CONSTRAINT fk_cm_comment FOREIGN KEY (comment_id) REFERENCES comments(id) ON DELETE CASCADE,
+    CONSTRAINT fk_cm_user FOREIGN KEY (mentioned_user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- 一次性回填历史评论：与后端解析规则一致，只识别评论开头的 "@名字"（到空格/冒号/中文冒号为止），
+-- 先按用户名匹配，用户名未命中时再按展示昵称匹配。
+INSERT IGNORE INTO comment_mentions (comment_id, mentioned_user_id)
+SELECT m.comment_id, COALESCE(
+           (SELECT u.id FROM users u WHERE LOWER(u.username) = LOWER(m.name) LIMIT 1),
+           (SELECT u.id FROM users u WHERE LOWER(u.display_name) = LOWER(m.name) ORDER BY u.id LIMIT 1))
+FROM (
+    SELECT c.id AS comment_id,
+           TRIM(SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING(TRIM(c.content), 2), ' ', 1), ':', 1), '：', 1)) AS name
+    FROM comments c
+    WHERE TRIM(c.content) LIKE '@%'
+) m
+WHERE m.name <> ''
+  AND COALESCE(
+          (SELECT u.id FROM users u WHERE LOWER(u.username) = LOWER(m.name) LIMIT 1),
+          (SELECT u.id FROM users u WHERE LOWER(u.display_name) = LOWER(m.name) ORDER BY u.id LIMIT 1)) IS NOT NULL;
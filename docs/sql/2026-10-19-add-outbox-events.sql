@@ -0,0 +1,21 @@
+-- 事务性发件箱表
+-- 新增 outbox_events：站点地图失效、RAG 知识库同步、评论通知等提交后副作用在业务事务内写入一行，
+-- 由后端投递线程批量处理（同键合并、失败退避重试），处理成功即删除；超过最大重试次数的行保留作死信。
+--
+-- 说明：
+-- - 本仓库没有自动 migration runner，生产/已有 Docker 数据卷需要手动执行本文件。
+-- - 使用 CREATE TABLE IF NOT EXISTS，可安全重复执行。
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id              BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+    event_type      VARCHAR(64) NOT NULL COMMENT '事件类型：SITEMAP_DIRTY / POST_KNOWLEDGE / COMMENT_NOTIFICATION',
+    aggregate_key   VARCHAR(128) NOT NULL COMMENT '合并键，同键待处理事件只处理最新一条',
+    payload         VARCHAR(1024) NULL,
+    attempts        INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error      VARCHAR(512) NULL,
+    created_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_outbox_due (next_attempt_at, id),
+    KEY idx_outbox_aggregate (aggregate_key, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -230,6 +230,19 @@ CREATE TABLE IF NOT EXISTS comment_notifications (
     CONSTRAINT fk_cn_post FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
+-- =============================
+-- 4.2 评论 @ 提及（评论创建时写入，通知补全按用户走索引）
+-- =============================
+
+CREATE TABLE IF NOT EXISTS comment_mentions (
+    comment_id        BIGINT UNSIGNED NOT NULL COMMENT '包含提及的评论',
+    mentioned_user_id BIGINT UNSIGNED NOT NULL COMMENT '被 @ 的用户',
+    PRIMARY KEY (comment_id, mentioned_user_id),
+    KEY idx_cm_mentioned_user (mentioned_user_id, comment_id),
+    CONSTRAINT fk_cm_comment FOREIGN KEY (comment_id) REFERENCES comments(id) ON DELETE CASCADE,
+    CONSTRAINT fk_cm_user FOREIGN KEY (mentioned_user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
 -- =============================
 -- 5. 统计分析
 -- =============================
@@ -790,4 +803,20 @@ CREATE TABLE IF NOT EXISTS registration_invites (
     CONSTRAINT fk_registration_invites_consumed_by FOREIGN KEY (consumed_by) REFERENCES users(id) ON DELETE SET NULL
 );
 
+
+-- 事务性发件箱（提交后副作用：站点地图失效 / RAG 同步 / 评论通知；处理成功即删除，超过重试上限保留作死信）
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id              BIGINT UNSIGNED NOT NULL AUTO_INCREMENT,
+    event_type      VARCHAR(64) NOT NULL,
+    aggregate_key   VARCHAR(128) NOT NULL,
+    payload         VARCHAR(1024) NULL,
+    attempts        INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error      VARCHAR(512) NULL,
+    created_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_outbox_due (next_attempt_at, id),
+    KEY idx_outbox_aggregate (aggregate_key, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
 SET FOREIGN_KEY_CHECKS = 1;